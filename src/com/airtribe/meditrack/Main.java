@@ -5,58 +5,259 @@ import com.airtribe.meditrack.entity.*;
 import com.airtribe.meditrack.exception.AppointmentNotFoundException;
 import com.airtribe.meditrack.exception.InvalidDataException;
 import com.airtribe.meditrack.service.*;
+import com.airtribe.meditrack.util.AppointmentArchive;
+import com.airtribe.meditrack.util.AutoSaver;
 import com.airtribe.meditrack.util.CSVUtil;
+import com.airtribe.meditrack.util.ChangeFeed;
+import com.airtribe.meditrack.util.ChangeJournal;
+import com.airtribe.meditrack.util.DoctorLoadIndex;
 import com.airtribe.meditrack.util.IdGenerator;
+import com.airtribe.meditrack.util.IntIntHashMap;
+import com.airtribe.meditrack.util.RepositoryFactory;
+import com.airtribe.meditrack.util.RevenueLedger;
+import com.airtribe.meditrack.util.ValidationReport;
+import com.airtribe.meditrack.util.Validator;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 import java.util.Scanner;
+import java.util.function.UnaryOperator;
 
 public class Main {
 
+    private static final String READ_ONLY_MESSAGE = "This instance is a read-only follower; "
+            + "make changes on the primary.";
+
     public static void main(String[] args) {
 
-        DoctorService doctorService = new DoctorService();
-        PatientService patientService = new PatientService();
-        AppointmentService appointmentService = new AppointmentService();
+        RepositoryFactory storage = RepositoryFactory.fromSystemProperties();
+        DoctorService doctorService = new DoctorService(storage.doctors());
+        PatientService patientService = new PatientService(storage.patients());
+        AppointmentService appointmentService = new AppointmentService(storage.appointments());
 
         Scanner sc = new Scanner(System.in);
         IdGenerator idGenerator = IdGenerator.getInstance();
 
-        
-        int maxExistingId = 0;
-        try {
-            var loadedDoctors = CSVUtil.loadDoctorsFromCSV(Constants.DOCTOR_FILE);
-            for (Doctor d : loadedDoctors) {
+        // A follower gets all of its data from the primary and never writes files of its own.
+        String primaryAddress = System.getProperty(Constants.REPLICATION_PRIMARY_PROPERTY);
+        boolean follower = primaryAddress != null;
+
+        // Detection keeps an entry per patient in memory, so it is left off where patients stay out of the heap.
+        boolean detectDuplicates = !storage.isPersistent() && !storage.isLazy() && !follower
+                && Boolean.parseBoolean(System.getProperty(Constants.DEDUPLICATE_PATIENTS_PROPERTY, "false"));
+        // Merging the file's own duplicates moves appointments and rewrites both files, so it takes a second flag.
+        boolean mergeLoadedDuplicates = detectDuplicates
+                && Boolean.parseBoolean(System.getProperty(Constants.MERGE_DUPLICATE_PATIENTS_PROPERTY, "false"));
+        if (mergeLoadedDuplicates) {
+            patientService.setDuplicateDetection(true);
+        }
+        // Patient ids merged into another patient while loading, mapped to the id that was kept.
+        IntIntHashMap mergedPatientIds = new IntIntHashMap(0, 0);
+
+        // A database backend persists by itself; the CSV files are only used by the in-memory backend.
+        if (!storage.isPersistent() && !follower) {
+            // In lazy mode patients and doctors stay in their files and are read when looked up.
+            if (!storage.isLazy()) {
+                try {
+                    var loadedDoctors = CSVUtil.loadDoctorsFromCSV(Constants.DOCTOR_FILE);
+                    ValidationReport report = doctorService.addDoctors(loadedDoctors);
+                    if (report.hasViolations()) {
+                        System.out.println("Doctors from CSV: " + report.format(Constants.REPORT_VIOLATION_LIMIT));
+                    }
+                } catch (IOException e) {
+                    System.out.println("Failed to load doctors: " + e.getMessage());
+                }
+
                 try {
-                    doctorService.addDoctor(d);
-                    if (d.getId() > maxExistingId) maxExistingId = d.getId();
-                } catch (InvalidDataException e) {
-                    System.out.println("Skipped invalid doctor from CSV: " + e.getMessage());
+                    var loadedPatients = CSVUtil.loadPatientsFromCSV(Constants.PATIENT_FILE);
+                    ValidationReport report = patientService.addPatients(loadedPatients);
+                    for (ValidationReport.Merge merge : report.getMerges()) {
+                        mergedPatientIds.put(merge.getId(), merge.getExistingId());
+                    }
+                    if (report.hasFindings()) {
+                        System.out.println("Patients from CSV: " + report.format(Constants.REPORT_VIOLATION_LIMIT));
+                    }
+                } catch (IOException e) {
+                    System.out.println("Failed to load patients: " + e.getMessage());
+                }
+                if (detectDuplicates && !mergeLoadedDuplicates) {
+                    reportDuplicates(patientService.setDuplicateDetection(true));
+                }
+            }
+
+            try {
+                // Appointments of a merged duplicate move to the patient it was merged into.
+                var loaded = storage.isLazy() || mergedPatientIds.size() > 0
+                        ? CSVUtil.loadAppointmentsFromCSV(Constants.APPOINTMENT_FILE,
+                                id -> patientService.findPatientById(
+                                        mergedPatientIds.containsKey(id) ? mergedPatientIds.get(id) : id),
+                                doctorService::findDoctorById)
+                        : CSVUtil.loadAppointmentsFromCSV(Constants.APPOINTMENT_FILE,
+                                patientService.getAllPatients(), doctorService.getAllDoctors());
+                appointmentService.addAppointments(loaded.getAppointments());
+                if (loaded.getSkippedRows() > 0) {
+                    System.out.println("Appointments from CSV: " + loaded.format(Constants.REPORT_VIOLATION_LIMIT));
+                }
+            } catch (IOException e) {
+                System.out.println("Failed to load appointments: " + e.getMessage());
+            }
+
+            // Write the merge back at once, so a later save of only one file cannot leave
+            // appointments pointing at a patient that is no longer in patients.csv.
+            if (mergedPatientIds.size() > 0) {
+                try {
+                    savePatients(patientService);
+                    saveAppointments(appointmentService);
+                } catch (IOException e) {
+                    // savePatients or saveAppointments has reported it; the files keep the unmerged rows
                 }
             }
-        } catch (IOException e) {
-            System.out.println("Failed to load doctors: " + e.getMessage());
         }
 
-        try {
-            var loadedPatients = CSVUtil.loadPatientsFromCSV(Constants.PATIENT_FILE);
-            for (Patient p : loadedPatients) {
+        int maxDoctorId = doctorService.getMaxDoctorId();
+        int maxPatientId = patientService.getMaxPatientId();
+        // Past appointments live in the archive when one is configured; their ids stay taken.
+        AppointmentArchive archive = null;
+        String archiveDirectory = System.getProperty(Constants.ARCHIVE_DIRECTORY_PROPERTY);
+        if (archiveDirectory != null && !follower) {
+            try {
+                archive = new AppointmentArchive(Paths.get(archiveDirectory),
+                        patientService::findPatientById, doctorService::findDoctorById);
+                appointmentService.setArchive(archive);
+            } catch (RuntimeException e) {
+                System.out.println("Failed to open appointment archive: " + e.getMessage());
+            }
+        }
+
+        int maxAppointmentId = archive == null ? 0 : archive.maxAppointmentId();
+        for (Appointment a : appointmentService.getAllAppointments()) {
+            if (a.getAppointmentId() > maxAppointmentId) maxAppointmentId = a.getAppointmentId();
+        }
+        idGenerator.ensureAtLeast(EntityType.DOCTOR, maxDoctorId);
+        idGenerator.ensureAtLeast(EntityType.PATIENT, maxPatientId);
+        idGenerator.ensureAtLeast(EntityType.APPOINTMENT, maxAppointmentId);
+
+        int dailyLimit = Integer.getInteger(Constants.DAILY_APPOINTMENT_LIMIT_PROPERTY,
+                Constants.DEFAULT_DAILY_APPOINTMENT_LIMIT);
+        DoctorLoadIndex doctorLoad = new DoctorLoadIndex(dailyLimit);
+        doctorService.setDoctorLoadIndex(doctorLoad);
+        appointmentService.setDoctorLoadIndex(doctorLoad);
+        RevenueLedger revenueLedger = new RevenueLedger(dailyLimit);
+        appointmentService.setRevenueLedger(revenueLedger);
+        if (archive != null) {
+            try {
+                archive.forEachSegment(revenueLedger::addAll); // one segment at a time, not the whole archive
+                LocalDate cutoff = LocalDate.now().minusDays(Integer.getInteger(
+                        Constants.ARCHIVE_AFTER_DAYS_PROPERTY, Constants.DEFAULT_ARCHIVE_AFTER_DAYS));
+                int archived = appointmentService.archiveAppointmentsBefore(cutoff);
+                if (archived > 0) {
+                    System.out.println("Archived " + archived + " appointments before " + cutoff);
+                    if (!storage.isPersistent()) {
+                        saveAppointments(appointmentService); // or the next start would archive them again
+                    }
+                }
+            } catch (IOException e) {
+                // saveAppointments has reported it
+            } catch (RuntimeException e) {
+                System.out.println("Failed to archive appointments: " + e.getMessage());
+            }
+        }
+
+        // Changes made from here on feed the journal and autosave; the initial CSV load is not a change.
+        String journalFile = follower ? null : System.getProperty(Constants.CHANGE_JOURNAL_PROPERTY);
+        Path journalPath = null;
+        long lastSequence = 0;
+        if (journalFile != null) {
+            try {
+                journalPath = Paths.get(journalFile);
+                lastSequence = ChangeJournal.lastSequence(journalPath);
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Failed to open change journal: " + e.getMessage());
+                journalPath = null;
+            }
+        }
+        long autosaveInterval = Long.getLong(Constants.AUTOSAVE_INTERVAL_PROPERTY,
+                Constants.DEFAULT_AUTOSAVE_INTERVAL_MILLIS);
+        boolean autosave = !storage.isPersistent() && !follower && autosaveInterval > 0;
+        Integer replicationPort = follower ? null : Integer.getInteger(Constants.REPLICATION_PORT_PROPERTY);
+
+        ChangeJournal journal = null;
+        AutoSaver autoSaver = null;
+        ReplicationPrimary replicationPrimary = null;
+        if (journalPath != null || autosave || replicationPort != null) {
+            ChangeFeed changeFeed = new ChangeFeed(Constants.CHANGE_FEED_CAPACITY, lastSequence);
+            if (journalPath != null) {
+                journal = new ChangeJournal(changeFeed, journalPath);
+            }
+            if (autosave) {
+                autoSaver = new AutoSaver(changeFeed, autosaveInterval,
+                        Integer.getInteger(Constants.AUTOSAVE_THRESHOLD_PROPERTY, Constants.DEFAULT_AUTOSAVE_THRESHOLD))
+                        .register(EntityType.DOCTOR, dirtyIds -> saveDoctors(doctorService))
+                        .register(EntityType.PATIENT, dirtyIds -> savePatients(patientService))
+                        .register(EntityType.APPOINTMENT, dirtyIds -> saveAppointments(appointmentService))
+                        .start()
+                        .installShutdownHook();
+            }
+            if (replicationPort != null) {
                 try {
-                    patientService.addPatient(p);
-                    if (p.getId() > maxExistingId) maxExistingId = p.getId();
-                } catch (InvalidDataException e) {
-                    System.out.println("Skipped invalid patient from CSV: " + e.getMessage());
+                    replicationPrimary = new ReplicationPrimary(changeFeed, replicationPort,
+                            doctorService, patientService, appointmentService);
+                    System.out.println("Shipping changes to followers on port " + replicationPrimary.getPort());
+                } catch (RuntimeException e) {
+                    System.out.println("Failed to start replication: " + e.getMessage());
                 }
             }
-        } catch (IOException e) {
-            System.out.println("Failed to load patients: " + e.getMessage());
+            doctorService.setChangeFeed(changeFeed);
+            patientService.setChangeFeed(changeFeed);
+            appointmentService.setChangeFeed(changeFeed);
+        }
+
+        ReplicationFollower replicationFollower = null;
+        if (follower) {
+            try {
+                int colon = primaryAddress.lastIndexOf(':');
+                replicationFollower = new ReplicationFollower(primaryAddress.substring(0, colon),
+                        Integer.parseInt(primaryAddress.substring(colon + 1)),
+                        doctorService, patientService, appointmentService);
+                if (replicationFollower.awaitReady(Constants.REPLICATION_SNAPSHOT_TIMEOUT_MILLIS)) {
+                    System.out.println("Following " + primaryAddress + " (read-only)");
+                } else {
+                    System.out.println("No snapshot from " + primaryAddress
+                            + " yet; data will appear once it arrives");
+                }
+            } catch (RuntimeException e) {
+                System.out.println("Invalid primary address " + primaryAddress + ": " + e.getMessage());
+                replicationFollower = null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
 
-        if (maxExistingId > 0) {
-            idGenerator.ensureAtLeast(maxExistingId);
+        // A script given on the command line runs instead of the menu.
+        String batchInput = System.getProperty(Constants.BATCH_INPUT_PROPERTY);
+        if (batchInput != null) {
+            if (follower) {
+                System.out.println(READ_ONLY_MESSAGE);
+            } else {
+                runBatch(batchInput, doctorService, patientService, appointmentService, idGenerator);
+            }
         }
 
-        while (true) {
+        menu:
+        while (batchInput == null) {
 
             System.out.println("\n===== MEDI TRACK MENU =====");
             System.out.println("1. Add Doctor");
@@ -67,6 +268,9 @@ public class Main {
             System.out.println("6. View Appointments");
             System.out.println("7. Exit");
             System.out.println("8. Generate Bill");
+            System.out.println("9. Export Listing to File");
+            System.out.println("10. Revenue Report");
+            System.out.println("11. Patient Appointment History");
             System.out.print("Enter your choice: ");
 
             String choiceLine = sc.nextLine().trim();
@@ -74,7 +278,7 @@ public class Main {
             try {
                 choice = Integer.parseInt(choiceLine);
             } catch (NumberFormatException nfe) {
-                System.out.println("Invalid input. Please enter a number between 1 and 8.");
+                System.out.println("Invalid input. Please enter a number between 1 and 11.");
                 continue;
             }
 
@@ -82,9 +286,10 @@ public class Main {
 
                 case 1:
                     {
-                        int dId = idGenerator.generateId();
-                        System.out.println("Assigned Doctor ID: " + dId);
-
+                        if (follower) {
+                            System.out.println(READ_ONLY_MESSAGE);
+                            break;
+                        }
                         System.out.print("Enter Name: ");
                         String dName = sc.nextLine().trim();
 
@@ -108,15 +313,20 @@ public class Main {
                             break;
                         }
 
-                        Doctor doctor = new Doctor(
-                            dId, dName, dAge,
-                            Specialization.CARDIOLOGY,
-                            fee
-                        );
-
                         try {
+                            // Validate before allocating so rejected input does not consume an id.
+                            Validator.validateName(dName);
+                            Validator.validateAge(dAge);
+                            Validator.validateConsultationFee(fee);
+
+                            int dId = idGenerator.nextId(EntityType.DOCTOR);
+                            Doctor doctor = new Doctor(
+                                dId, dName, dAge,
+                                Specialization.CARDIOLOGY,
+                                fee
+                            );
                             doctorService.addDoctor(doctor);
-                            System.out.println("Doctor added successfully.");
+                            System.out.println("Doctor added successfully with ID: " + dId);
                         } catch (InvalidDataException e) {
                             System.out.println("Error adding doctor: " + e.getMessage());
                         }
@@ -125,9 +335,10 @@ public class Main {
 
                 case 2:
                     {
-                        int pId = idGenerator.generateId();
-                        System.out.println("Assigned Patient ID: " + pId);
-
+                        if (follower) {
+                            System.out.println(READ_ONLY_MESSAGE);
+                            break;
+                        }
                         System.out.print("Enter Name: ");
                         String pName = sc.nextLine().trim();
 
@@ -144,10 +355,15 @@ public class Main {
                         System.out.print("Enter Disease: ");
                         String disease = sc.nextLine().trim();
 
-                        Patient patient = new Patient(pId, pName, pAge, disease);
                         try {
+                            Validator.validateName(pName);
+                            Validator.validateAge(pAge);
+                            Validator.validateDisease(disease);
+
+                            int pId = idGenerator.nextId(EntityType.PATIENT);
+                            Patient patient = new Patient(pId, pName, pAge, disease);
                             patientService.addPatient(patient);
-                            System.out.println("Patient added successfully.");
+                            System.out.println("Patient added successfully with ID: " + pId);
                         } catch (InvalidDataException e) {
                             System.out.println("Error adding patient: " + e.getMessage());
                         }
@@ -156,9 +372,10 @@ public class Main {
 
                 case 3:
                     {
-                        int aId = idGenerator.generateId();
-                        System.out.println("Assigned Appointment ID: " + aId);
-
+                        if (follower) {
+                            System.out.println(READ_ONLY_MESSAGE);
+                            break;
+                        }
                         System.out.print("Enter Patient ID: ");
                         String patientIdLine = sc.nextLine().trim();
                         int patientId;
@@ -169,8 +386,12 @@ public class Main {
                             break;
                         }
 
-                        System.out.print("Enter Doctor ID: ");
+                        System.out.print("Enter Doctor ID (blank for any available doctor): ");
                         String doctorIdLine = sc.nextLine().trim();
+                        if (doctorIdLine.isEmpty()) {
+                            bookWithAvailableDoctor(sc, patientService, appointmentService, idGenerator, patientId);
+                            break;
+                        }
                         int doctorId;
                         try {
                             doctorId = Integer.parseInt(doctorIdLine);
@@ -191,6 +412,7 @@ public class Main {
                             break;
                         }
 
+                        int aId = idGenerator.nextId(EntityType.APPOINTMENT);
                         try {
                             appointmentService.bookAppointment(aId, foundPatient, foundDoctor, LocalDate.now());
                             System.out.println("Appointment booked with ID: " + aId);
@@ -203,15 +425,16 @@ public class Main {
                     break;
 
                 case 4:
-                    doctorService.displayAllDoctors();
+                    showPaged(sc, cursor -> doctorService.displayDoctorsPage(cursor, Constants.LISTING_PAGE_SIZE));
                     break;
 
                 case 5:
-                    patientService.displayAllPatients();
+                    showPaged(sc, cursor -> patientService.displayPatientsPage(cursor, Constants.LISTING_PAGE_SIZE));
                     break;
 
                 case 6:
-                    appointmentService.displayAppointments();
+                    showPaged(sc, cursor -> appointmentService.displayAppointmentsPage(cursor,
+                            Constants.LISTING_PAGE_SIZE));
                     break;
 
                 case 8:
@@ -226,34 +449,225 @@ public class Main {
                             break;
                         }
 
-                        try {
-                            com.airtribe.meditrack.entity.BillSummary summary = appointmentService.generateBill(billAppointmentId);
-                            System.out.println(summary.toString());
-                        } catch (AppointmentNotFoundException e) {
-                            System.out.println("Could not generate bill: " + e.getMessage());
-                        }
+                        appointmentService.tryGenerateBill(billAppointmentId).ifPresentOrElse(
+                                summary -> System.out.println(summary.toString()),
+                                () -> System.out.println("Could not generate bill: Appointment with id "
+                                        + billAppointmentId + " not found"));
                     }
                     break;
 
                 case 7:
-                    System.out.println("Saving data and exiting...");
-                    try {
-                        CSVUtil.saveDoctorsToCSV(doctorService.getAllDoctors(), Constants.DOCTOR_FILE);
-                    } catch (IOException e) {
-                        System.out.println("Failed to save doctors: " + e.getMessage());
+                    break menu;
+
+                case 9:
+                    {
+                        System.out.print("Export (1) Doctors, (2) Patients or (3) Appointments: ");
+                        String listingLine = sc.nextLine().trim();
+                        if (!listingLine.equals("1") && !listingLine.equals("2") && !listingLine.equals("3")) {
+                            System.out.println("Invalid listing choice.");
+                            break;
+                        }
+                        System.out.print("Enter File Path: ");
+                        String exportFile = sc.nextLine().trim();
+                        if (exportFile.isEmpty()) {
+                            System.out.println("File path must not be empty.");
+                            break;
+                        }
+                        try (BufferedWriter out = Files.newBufferedWriter(Paths.get(exportFile), StandardCharsets.UTF_8)) {
+                            switch (listingLine) {
+                                case "1":
+                                    doctorService.exportDoctors(out);
+                                    break;
+                                case "2":
+                                    patientService.exportPatients(out);
+                                    break;
+                                default:
+                                    appointmentService.exportAppointments(out);
+                                    break;
+                            }
+                            System.out.println("Listing exported to " + exportFile);
+                        } catch (IOException | RuntimeException e) {
+                            System.out.println("Failed to export listing: " + e.getMessage());
+                        }
+                    }
+                    break;
+
+                case 10:
+                    {
+                        System.out.print("Enter Month (YYYY-MM, blank for this month): ");
+                        String monthLine = sc.nextLine().trim();
+                        YearMonth month;
+                        try {
+                            month = monthLine.isEmpty() ? YearMonth.now() : YearMonth.parse(monthLine);
+                        } catch (DateTimeParseException e) {
+                            System.out.println("Invalid month.");
+                            break;
+                        }
+                        System.out.println("--- By specialization ---");
+                        revenueLedger.monthly(month, month, RevenueLedger.Grouping.SPECIALIZATION)
+                                .forEach(System.out::println);
+                        System.out.println("--- By doctor ---");
+                        revenueLedger.monthly(month, month, RevenueLedger.Grouping.DOCTOR)
+                                .forEach(System.out::println);
                     }
-                    try {
-                        CSVUtil.savePatientsToCSV(patientService.getAllPatients(), Constants.PATIENT_FILE);
-                    } catch (IOException e) {
-                        System.out.println("Failed to save patients: " + e.getMessage());
+                    break;
+
+                case 11:
+                    {
+                        System.out.print("Enter Patient ID: ");
+                        int historyPatientId;
+                        try {
+                            historyPatientId = Integer.parseInt(sc.nextLine().trim());
+                        } catch (NumberFormatException e) {
+                            System.out.println("Invalid patient ID.");
+                            break;
+                        }
+                        var history = appointmentService.getAppointmentHistoryForPatient(historyPatientId);
+                        if (history.isEmpty()) {
+                            System.out.println("No appointments found for patient " + historyPatientId);
+                        }
+                        for (Appointment a : history) {
+                            System.out.println(a.getAppointmentDate() + " | Appointment ID: " + a.getAppointmentId()
+                                    + " | Doctor: " + (a.getDoctor() == null ? "-" : a.getDoctor().getName())
+                                    + " | Status: " + a.getStatus());
+                        }
                     }
-                    System.out.println("Exiting...");
-                    sc.close();
-                    return;
+                    break;
 
                 default:
                     System.out.println("Invalid choice!");
             }
         }
+
+        System.out.println("Saving data and exiting...");
+        if (replicationFollower != null) {
+            replicationFollower.close();
+        }
+        if (autoSaver != null) {
+            autoSaver.close(); // final flush of whatever is still dirty
+        } else if (!storage.isPersistent() && !follower) {
+            try {
+                CSVUtil.saveToCSV(doctorService::writeCsv, Constants.DOCTOR_FILE);
+            } catch (IOException e) {
+                System.out.println("Failed to save doctors: " + e.getMessage());
+            }
+            try {
+                CSVUtil.saveToCSV(patientService::writeCsv, Constants.PATIENT_FILE);
+            } catch (IOException e) {
+                System.out.println("Failed to save patients: " + e.getMessage());
+            }
+            try {
+                CSVUtil.saveAppointmentsToCSV(appointmentService.getAllAppointments(), Constants.APPOINTMENT_FILE);
+            } catch (IOException e) {
+                System.out.println("Failed to save appointments: " + e.getMessage());
+            }
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        if (replicationPrimary != null) {
+            replicationPrimary.close();
+        }
+        storage.close();
+        System.out.println("Exiting...");
+        sc.close();
+    }
+
+    private static void runBatch(String input, DoctorService doctorService, PatientService patientService,
+                                 AppointmentService appointmentService, IdGenerator idGenerator) {
+        BatchCommandRunner runner = new BatchCommandRunner(doctorService, patientService, appointmentService,
+                idGenerator::nextId);
+        // Results go straight to the standard output descriptor through one large buffer; it is not closed.
+        Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out),
+                StandardCharsets.UTF_8), 1 << 16);
+        try (BufferedReader in = input.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16)
+                : Files.newBufferedReader(Paths.get(input), StandardCharsets.UTF_8)) {
+            System.out.flush();
+            System.out.println(runner.run(in, out));
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Batch stopped: " + e.getMessage());
+        }
+    }
+
+    // Stored patients that look like an earlier one are only listed; they and their appointments stay as they are.
+    private static void reportDuplicates(List<ValidationReport.Merge> duplicates) {
+        if (duplicates.isEmpty()) {
+            return;
+        }
+        System.out.println("Patients from CSV: " + duplicates.size() + " possible duplicates kept; start with -D"
+                + Constants.MERGE_DUPLICATE_PATIENTS_PROPERTY + "=true to merge them");
+        int shown = Math.min(Constants.REPORT_VIOLATION_LIMIT, duplicates.size());
+        for (int i = 0; i < shown; i++) {
+            ValidationReport.Merge duplicate = duplicates.get(i);
+            System.out.println("  id " + duplicate.getId() + ": same as " + duplicate.getExistingId());
+        }
+        if (duplicates.size() > shown) {
+            System.out.println("  ... " + (duplicates.size() - shown) + " more");
+        }
+    }
+
+    // Autosave flushers: report a failure and rethrow so the records stay dirty and are retried.
+    private static void saveDoctors(DoctorService doctorService) throws IOException {
+        try {
+            CSVUtil.saveToCSV(doctorService::writeCsv, Constants.DOCTOR_FILE);
+        } catch (IOException e) {
+            System.out.println("Failed to save doctors: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    private static void savePatients(PatientService patientService) throws IOException {
+        try {
+            // In lazy mode this copies the file's unchanged rows without parsing them.
+            CSVUtil.saveToCSV(patientService::writeCsv, Constants.PATIENT_FILE);
+        } catch (IOException e) {
+            System.out.println("Failed to save patients: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    private static void bookWithAvailableDoctor(Scanner sc, PatientService patientService,
+                                                AppointmentService appointmentService, IdGenerator idGenerator,
+                                                int patientId) {
+        Patient patient = patientService.findPatientById(patientId);
+        if (patient == null) {
+            System.out.println("Patient not found with ID: " + patientId);
+            return;
+        }
+        System.out.print("Enter Specialization (CARDIOLOGY, DERMATOLOGY, ORTHOPEDIC, NEUROLOGY): ");
+        Specialization specialization;
+        try {
+            specialization = Specialization.valueOf(sc.nextLine().trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid specialization.");
+            return;
+        }
+        int aId = idGenerator.nextId(EntityType.APPOINTMENT);
+        appointmentService.bookWithAvailableDoctor(aId, patient, specialization, LocalDate.now()).ifPresentOrElse(
+                a -> System.out.println("Appointment booked with ID: " + aId
+                        + " (Doctor ID: " + a.getDoctor().getId() + ")"),
+                () -> System.out.println("No " + specialization + " doctor is available today."));
+    }
+
+    private static void saveAppointments(AppointmentService appointmentService) throws IOException {
+        try {
+            CSVUtil.saveAppointmentsToCSV(appointmentService.getAllAppointments(), Constants.APPOINTMENT_FILE);
+        } catch (IOException e) {
+            System.out.println("Failed to save appointments: " + e.getMessage());
+            throw e;
+        }
+    }
+
+    // Shows a listing one page at a time until it ends or the user returns to the menu.
+    private static void showPaged(Scanner sc, UnaryOperator<String> showPage) {
+        String cursor = showPage.apply(null);
+        while (cursor != null) {
+            System.out.print("-- Enter for more, q to return to the menu -- ");
+            if (sc.nextLine().trim().equalsIgnoreCase("q")) {
+                return;
+            }
+            cursor = showPage.apply(cursor);
+        }
     }
 }
@@ -0,0 +1,95 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.service.DoctorService;
+import com.airtribe.meditrack.service.PatientService;
+import com.airtribe.meditrack.util.AppointmentCsvLoader;
+import com.airtribe.meditrack.util.CSVUtil;
+import com.airtribe.meditrack.util.DataGenerator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loading an appointments file with {@link CSVUtil#loadAppointmentsFromCSV}
+ * compared with a straightforward loader: {@code readLine}, {@code split},
+ * {@code LocalDate.parse} and a service {@code findById} call per reference.
+ * The file is written by the shared {@link DataGenerator} fixture.
+ * <p>
+ * The default of 10M appointments needs about 2 GB of heap.
+ * <p>
+ * Usage: {@code java -Xmx3g -cp out com.airtribe.meditrack.benchmark.AppointmentLoadBenchmark [appointments] [rounds]}
+ */
+public class AppointmentLoadBenchmark {
+
+    private static final int PATIENTS = 100_000;
+    private static final int DOCTORS = 1_000;
+
+    public static void main(String[] args) throws IOException {
+        int appointments = BenchmarkSupport.intArg(args, 0, 10_000_000);
+        int rounds = BenchmarkSupport.intArg(args, 1, 3);
+
+        DataGenerator generator = BenchmarkSupport.fixture(DOCTORS, PATIENTS, appointments);
+        PatientService patientService = new PatientService();
+        patientService.addPatients(generator.patients());
+        DoctorService doctorService = new DoctorService();
+        doctorService.addDoctors(generator.doctors());
+
+        Path file = Files.createTempFile("appointments", ".csv");
+        generator.writeAppointments(file);
+        System.out.printf("%d appointments, %d MB file%n", appointments, Files.size(file) >> 20);
+
+        try {
+            for (int r = 0; r <= rounds; r++) {
+                long t0 = System.nanoTime();
+                AppointmentCsvLoader.Result result = CSVUtil.loadAppointmentsFromCSV(file.toString(),
+                        patientService.getAllPatients(), doctorService.getAllDoctors());
+                long t1 = System.nanoTime();
+                int loaded = result.getAppointments().size();
+                result = null;
+                long t2 = System.nanoTime();
+                int naive = naiveLoad(file, patientService, doctorService).size();
+                long t3 = System.nanoTime();
+                System.out.printf("%s: byte parser %s (%d loaded), readLine/split/findById %s (%d loaded)%n",
+                        r == 0 ? "warm-up" : "round " + r, BenchmarkSupport.formatNanos(t1 - t0), loaded,
+                        BenchmarkSupport.formatNanos(t3 - t2), naive);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<Appointment> naiveLoad(Path file, PatientService patients, DoctorService doctors)
+            throws IOException {
+        List<Appointment> result = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.trim().split(",");
+                Patient patient = patients.findPatientById(Integer.parseInt(parts[1]));
+                Doctor doctor = doctors.findDoctorById(Integer.parseInt(parts[2]));
+                if (patient == null || doctor == null) {
+                    continue;
+                }
+                Appointment appointment = new Appointment(Integer.parseInt(parts[0]), patient, doctor,
+                        LocalDate.parse(parts[3]));
+                AppointmentStatus status = AppointmentStatus.valueOf(parts[4]);
+                if (status == AppointmentStatus.CONFIRMED) {
+                    appointment.confirm();
+                } else if (status == AppointmentStatus.CANCELLED) {
+                    appointment.cancel();
+                }
+                result.add(appointment);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,114 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.util.AppointmentDateIndex;
+import com.airtribe.meditrack.util.DataGenerator;
+import com.airtribe.meditrack.util.Page;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Latency of time-windowed appointment queries on {@link AppointmentDateIndex}
+ * compared with the previous approach of filtering a full copy of the store.
+ * <p>
+ * Appointments come from the shared {@link DataGenerator} fixture: two
+ * years, 100,000 patients and 1,000 doctors of skewed popularity. Reports p50 and
+ * p99 per query type. The default of 10M appointments needs about 3 GB of
+ * heap ({@code -Xmx3g}).
+ * <p>
+ * Usage: {@code java -Xmx3g -cp out com.airtribe.meditrack.benchmark.AppointmentRangeQueryBenchmark [appointments] [queries]}
+ */
+public class AppointmentRangeQueryBenchmark {
+
+    private static final int DAYS = DataGenerator.DATE_SPAN_DAYS;
+    private static final int DOCTORS = 1_000;
+    private static final int PATIENTS = 100_000;
+    private static final LocalDate START = DataGenerator.FIRST_DATE;
+
+    public static void main(String[] args) {
+        int appointments = BenchmarkSupport.intArg(args, 0, 10_000_000);
+        int queries = BenchmarkSupport.intArg(args, 1, 2_000);
+
+        DataGenerator generator = BenchmarkSupport.fixture(DOCTORS, PATIENTS, appointments);
+        List<Doctor> doctors = generator.doctors();
+        List<Patient> patients = generator.patients();
+
+        long heapBefore = BenchmarkSupport.settledHeapUsed();
+        Random random = new Random(42);
+        AppointmentDateIndex index = new AppointmentDateIndex();
+        List<Appointment> store = new ArrayList<>(appointments);
+        long t0 = System.nanoTime();
+        for (int id = 1; id <= appointments; id++) {
+            Appointment appointment = generator.appointment(id, patients, doctors);
+            store.add(appointment);
+            index.add(appointment);
+        }
+        long buildNanos = System.nanoTime() - t0;
+        long heapAfter = BenchmarkSupport.settledHeapUsed();
+        System.out.printf("Indexed %d appointments in %s, heap %d MB (store + index)%n", appointments,
+                BenchmarkSupport.formatNanos(buildNanos), (heapAfter - heapBefore) >> 20);
+
+        for (int round = 0; round < 2; round++) {
+            String label = round == 0 ? "warm-up" : "measured";
+            System.out.println("-- " + label);
+            report("one-day range", measure(queries, random, r -> {
+                LocalDate day = START.plusDays(r.nextInt(DAYS));
+                return index.between(day, day).size();
+            }));
+            report("doctor's day", measure(queries, random, r ->
+                    index.forDoctorOn(1 + r.nextInt(DOCTORS), START.plusDays(r.nextInt(DAYS))).size()));
+            report("next 10", measure(queries, random, r ->
+                    index.next(START.plusDays(r.nextInt(DAYS)), 10).size()));
+            report("doctor's next 10", measure(queries, random, r ->
+                    index.nextForDoctor(1 + r.nextInt(DOCTORS), START.plusDays(r.nextInt(DAYS)), 10).size()));
+            report("page of 100 (3rd page)", measure(queries, random, r -> {
+                LocalDate from = START.plusDays(r.nextInt(DAYS - 7));
+                Page<Appointment> page = index.page(from, from.plusDays(7), null, 100);
+                page = index.page(from, from.plusDays(7), page.getNextCursor(), 100);
+                return index.page(from, from.plusDays(7), page.getNextCursor(), 100).getItems().size();
+            }));
+            // The scan is far slower; a few queries are enough to see it.
+            report("full scan doctor's day", measure(Math.max(1, queries / 200), random, r -> {
+                int doctorId = 1 + r.nextInt(DOCTORS);
+                LocalDate day = START.plusDays(r.nextInt(DAYS));
+                int matches = 0;
+                for (Appointment a : new ArrayList<>(store)) {
+                    if (a.getDoctor().getId() == doctorId && a.getAppointmentDate().equals(day)) {
+                        matches++;
+                    }
+                }
+                return matches;
+            }));
+        }
+    }
+
+    private interface Query {
+        int run(Random random);
+    }
+
+    private static long[] measure(int queries, Random random, Query query) {
+        long[] latencies = new long[queries];
+        long sink = 0;
+        for (int i = 0; i < queries; i++) {
+            long start = System.nanoTime();
+            sink += query.run(random);
+            latencies[i] = System.nanoTime() - start;
+        }
+        if (sink < 0) {
+            System.out.println(sink);
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static void report(String name, long[] sorted) {
+        System.out.printf("%-24s p50 %9.1f us   p99 %9.1f us   (%d queries)%n", name,
+                sorted[sorted.length / 2] / 1_000.0,
+                sorted[Math.min(sorted.length - 1, (int) (sorted.length * 0.99))] / 1_000.0, sorted.length);
+    }
+}
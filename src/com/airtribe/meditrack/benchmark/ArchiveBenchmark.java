@@ -0,0 +1,95 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.util.AppointmentArchive;
+import com.airtribe.meditrack.util.DataGenerator;
+import com.airtribe.meditrack.util.IntHashMap;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Moves all but the last weeks of a large appointment history into an
+ * {@link AppointmentArchive} and reports heap, disk size and the latency of
+ * history queries that now span the archive.
+ * <p>
+ * Usage: {@code java -Xmx3g -cp out com.airtribe.meditrack.benchmark.ArchiveBenchmark [appointments] [queries]}
+ */
+public class ArchiveBenchmark {
+
+    private static final int DOCTORS = 1_000;
+    private static final int PATIENTS = 100_000;
+    private static final int KEEP_DAYS = 60;
+
+    public static void main(String[] args) throws IOException {
+        int appointmentCount = BenchmarkSupport.intArg(args, 0, 5_000_000);
+        int queries = BenchmarkSupport.intArg(args, 1, 200);
+
+        DataGenerator generator = BenchmarkSupport.fixture(DOCTORS, PATIENTS, appointmentCount);
+        List<Doctor> doctors = generator.doctors();
+        List<Patient> patients = generator.patients();
+        IntHashMap<Doctor> doctorsById = new IntHashMap<>(doctors.size());
+        doctors.forEach(d -> doctorsById.put(d.getId(), d));
+        IntHashMap<Patient> patientsById = new IntHashMap<>(patients.size());
+        patients.forEach(p -> patientsById.put(p.getId(), p));
+
+        AppointmentService service = new AppointmentService();
+        service.addAppointments(generator.appointments(patients, doctors));
+        long hotHeap = BenchmarkSupport.settledHeapUsed();
+
+        Path directory = Files.createTempDirectory("meditrack-archive");
+        try {
+            AppointmentArchive archive = new AppointmentArchive(directory, patientsById::get, doctorsById::get);
+            service.setArchive(archive);
+            LocalDate cutoff = DataGenerator.FIRST_DATE.plusDays(DataGenerator.DATE_SPAN_DAYS - KEEP_DAYS);
+            long gcBefore = BenchmarkSupport.gcCount();
+            long t0 = System.nanoTime();
+            int archived = service.archiveAppointmentsBefore(cutoff);
+            long archiveNanos = System.nanoTime() - t0;
+            long gcs = BenchmarkSupport.gcCount() - gcBefore;
+            long coldHeap = BenchmarkSupport.settledHeapUsed();
+
+            System.out.printf("%d appointments, %d archived before %s in %s (%d GCs), %d segments%n",
+                    appointmentCount, archived, cutoff, BenchmarkSupport.formatNanos(archiveNanos), gcs,
+                    archive.segmentCount());
+            System.out.printf("heap: %d MB with all appointments live, %d MB after archiving%n",
+                    hotHeap >> 20, coldHeap >> 20);
+            System.out.printf("archive: %d MB on disk, %.1f bytes per appointment%n",
+                    archive.sizeOnDisk() >> 20, (double) archive.sizeOnDisk() / Math.max(1, archived));
+
+            for (int round = 0; round <= 2; round++) {
+                String label = round == 0 ? "warm-up" : "round " + round;
+                Random random = new Random(round);
+                long rows = 0;
+                t0 = System.nanoTime();
+                for (int q = 0; q < queries; q++) {
+                    LocalDate from = DataGenerator.FIRST_DATE.plusDays(random.nextInt(DataGenerator.DATE_SPAN_DAYS));
+                    rows += service.getAppointmentHistoryBetween(from, from.plusDays(6)).size();
+                }
+                long weekNanos = (System.nanoTime() - t0) / queries;
+                t0 = System.nanoTime();
+                for (int q = 0; q < queries; q++) {
+                    rows += service.getAppointmentHistoryForPatient(1 + random.nextInt(PATIENTS)).size();
+                }
+                long patientNanos = (System.nanoTime() - t0) / queries;
+                System.out.printf("%s: one week %s per query, patient history %s per query (%d rows)%n",
+                        label, BenchmarkSupport.formatNanos(weekNanos), BenchmarkSupport.formatNanos(patientNanos),
+                        rows);
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(directory);
+        }
+    }
+}
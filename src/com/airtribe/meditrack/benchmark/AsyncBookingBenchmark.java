@@ -0,0 +1,205 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.AsyncMediTrack;
+import com.airtribe.meditrack.service.DoctorService;
+import com.airtribe.meditrack.service.PatientService;
+import com.airtribe.meditrack.util.DataGenerator;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.Repository;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load test of booking throughput and latency with many overlapping
+ * requests, comparing blocking callers (lookup patient, lookup doctor, book,
+ * as in the console) with the {@link AsyncMediTrack} facade.
+ * <p>
+ * Stores simulate a database: every read waits {@code readMicros}, and
+ * writes go over a single connection, one round trip of {@code writeMicros}
+ * per {@code add} or {@code addAll} call. Both modes keep the same number of
+ * requests in flight: one thread per request for the blocking callers, a
+ * semaphore for the async facade.
+ * <p>
+ * Usage: {@code java -cp out com.airtribe.meditrack.benchmark.AsyncBookingBenchmark [bookings] [inFlight] [readMicros] [writeMicros]}
+ */
+public class AsyncBookingBenchmark {
+
+    private static final int DOCTORS = 1_000;
+    private static final int PATIENTS = 100_000;
+
+    public static void main(String[] args) throws Exception {
+        int bookings = BenchmarkSupport.intArg(args, 0, 20_000);
+        int inFlight = BenchmarkSupport.intArg(args, 1, 64);
+        int readMicros = BenchmarkSupport.intArg(args, 2, 50);
+        int writeMicros = BenchmarkSupport.intArg(args, 3, 200);
+
+        DataGenerator generator = BenchmarkSupport.fixture(DOCTORS, PATIENTS, bookings);
+        List<Doctor> doctors = generator.doctors();
+        List<Patient> patients = generator.patients();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // bookAppointment prints per booking
+        out.printf("%d bookings, %d in flight, reads %d us, writes %d us per round trip, processors %d%n",
+                bookings, inFlight, readMicros, writeMicros, Runtime.getRuntime().availableProcessors());
+        try {
+            for (int round = 0; round <= 2; round++) {
+                String label = round == 0 ? "warm-up" : "round " + round;
+                long[] latencies = new long[bookings];
+                Services services = new Services(doctors, patients, readMicros, writeMicros);
+                long elapsed = blocking(services, generator, inFlight, latencies);
+                out.println(label + ": " + summary("blocking", bookings, elapsed, latencies)
+                        + String.format(", %d store writes", services.appointmentStore.roundTrips.get()));
+
+                services = new Services(doctors, patients, readMicros, writeMicros);
+                ExecutorService executor = AsyncMediTrack.newExecutor("platform");
+                try (AsyncMediTrack async = new AsyncMediTrack(services.doctors, services.patients,
+                        services.appointments, executor)) {
+                    elapsed = pipelined(async, generator, inFlight, latencies);
+                    out.println(label + ": " + summary("async", bookings, elapsed, latencies)
+                            + String.format(", %d store writes, %.1f bookings per write",
+                            services.appointmentStore.roundTrips.get(), async.getAverageBookingBatchSize()));
+                } finally {
+                    executor.shutdown();
+                }
+            }
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    private static long blocking(Services services, DataGenerator generator, int threads, long[] latencies)
+            throws InterruptedException {
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(threads);
+        long t0 = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < latencies.length) {
+                    int id = i + 1;
+                    long start = System.nanoTime();
+                    Patient patient = services.patients.findPatientById(generator.appointmentPatientId(id));
+                    Doctor doctor = services.doctors.findDoctorById(generator.appointmentDoctorId(id));
+                    services.appointments.bookAppointment(id, patient, doctor, generator.appointmentDate(id));
+                    latencies[i] = System.nanoTime() - start;
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        return System.nanoTime() - t0;
+    }
+
+    private static long pipelined(AsyncMediTrack async, DataGenerator generator, int inFlight, long[] latencies)
+            throws InterruptedException {
+        Semaphore permits = new Semaphore(inFlight);
+        CountDownLatch done = new CountDownLatch(latencies.length);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < latencies.length; i++) {
+            permits.acquire();
+            int index = i;
+            int id = i + 1;
+            long start = System.nanoTime();
+            async.bookAppointment(id, generator.appointmentPatientId(id), generator.appointmentDoctorId(id),
+                    generator.appointmentDate(id)).whenComplete((appointment, failure) -> {
+                        latencies[index] = failure == null ? System.nanoTime() - start : Long.MAX_VALUE;
+                        permits.release();
+                        done.countDown();
+                    });
+        }
+        done.await();
+        return System.nanoTime() - t0;
+    }
+
+    private static String summary(String mode, int bookings, long elapsedNanos, long[] latencies) {
+        Arrays.sort(latencies);
+        return String.format("%-8s %8.0f bookings/s, p50 %7.2f ms, p99 %7.2f ms", mode,
+                bookings / (elapsedNanos / 1e9),
+                latencies[latencies.length / 2] / 1e6,
+                latencies[Math.min(latencies.length - 1, (int) (latencies.length * 0.99))] / 1e6);
+    }
+
+    private static final class Services {
+        final LatencyStore<Appointment> appointmentStore;
+        final DoctorService doctors;
+        final PatientService patients;
+        final AppointmentService appointments;
+
+        Services(List<Doctor> doctorList, List<Patient> patientList, int readMicros, int writeMicros) {
+            LatencyStore<Doctor> doctorStore = new LatencyStore<>(new DataStore<>(Doctor::getId), readMicros, writeMicros);
+            LatencyStore<Patient> patientStore = new LatencyStore<>(new DataStore<>(Patient::getId), readMicros, writeMicros);
+            doctorStore.store.addAll(doctorList);
+            patientStore.store.addAll(patientList);
+            this.appointmentStore = new LatencyStore<>(new DataStore<>(Appointment::getAppointmentId),
+                    readMicros, writeMicros);
+            this.doctors = new DoctorService(doctorStore);
+            this.patients = new PatientService(patientStore);
+            this.appointments = new AppointmentService(appointmentStore);
+        }
+    }
+
+    /**
+     * Repository with database-like latency: concurrent reads, and writes
+     * serialized over one connection at one round trip per call.
+     */
+    private static final class LatencyStore<T> implements Repository<T> {
+
+        final DataStore<T> store;
+        final AtomicInteger roundTrips = new AtomicInteger();
+        private final long readNanos;
+        private final long writeNanos;
+
+        LatencyStore(DataStore<T> store, int readMicros, int writeMicros) {
+            this.store = store;
+            this.readNanos = readMicros * 1_000L;
+            this.writeNanos = writeMicros * 1_000L;
+        }
+
+        @Override
+        public Optional<T> findById(int id) {
+            LockSupport.parkNanos(readNanos);
+            return store.findById(id);
+        }
+
+        @Override
+        public synchronized void add(T item) {
+            roundTrips.incrementAndGet();
+            LockSupport.parkNanos(writeNanos);
+            store.add(item);
+        }
+
+        @Override
+        public synchronized void addAll(Collection<? extends T> batch) {
+            roundTrips.incrementAndGet();
+            LockSupport.parkNanos(writeNanos);
+            store.addAll(batch);
+        }
+
+        @Override
+        public boolean remove(T item) {
+            return store.remove(item);
+        }
+
+        @Override
+        public List<T> getAll() {
+            return store.getAll();
+        }
+
+        @Override
+        public int size() {
+            return store.size();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.EntityType;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.BatchCommandRunner;
+import com.airtribe.meditrack.service.DoctorService;
+import com.airtribe.meditrack.service.PatientService;
+import com.airtribe.meditrack.util.DataGenerator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.ToIntFunction;
+
+/**
+ * Runs a generated command script through {@link BatchCommandRunner} and,
+ * for comparison, one command at a time through the single-item service
+ * calls the interactive menu uses, with their console output discarded.
+ * <p>
+ * The script starts with 200 doctors and then alternates short runs of
+ * patient adds, bookings, bills and cancels, in proportions of about 4:4:1:1.
+ * <p>
+ * Usage: {@code java -cp out com.airtribe.meditrack.benchmark.BatchCommandBenchmark [commands] [rounds]}
+ */
+public class BatchCommandBenchmark {
+
+    private static final int DOCTORS = 200;
+
+    public static void main(String[] args) throws IOException {
+        int commands = BenchmarkSupport.intArg(args, 0, 1_000_000);
+        int rounds = BenchmarkSupport.intArg(args, 1, 3);
+
+        String script = script(commands);
+        System.out.printf("%,d commands, %.1f MB script%n", commands, script.length() / 1048576.0);
+
+        for (int r = 0; r <= rounds; r++) {
+            BenchmarkSupport.settledHeapUsed();
+            long start = System.nanoTime();
+            BatchCommandRunner.Summary summary = newRunner().run(
+                    new BufferedReader(new StringReader(script), 1 << 16), Writer.nullWriter());
+            long batchNanos = System.nanoTime() - start;
+
+            BenchmarkSupport.settledHeapUsed();
+            start = System.nanoTime();
+            int single = runOneByOne(script);
+            long singleNanos = System.nanoTime() - start;
+            if (r == 0) {
+                continue; // warm-up
+            }
+            System.out.printf("round %d: batch %s (%,.0f commands/s), one by one %s (%,.0f commands/s), %.1fx%n",
+                    r, BenchmarkSupport.formatNanos(batchNanos), commands * 1e9 / batchNanos,
+                    BenchmarkSupport.formatNanos(singleNanos), commands * 1e9 / singleNanos,
+                    singleNanos / (double) batchNanos);
+            System.out.printf("  batch: %s; one by one: %,d ok%n", summary, single);
+        }
+    }
+
+    private static String script(int commands) {
+        DataGenerator generator = BenchmarkSupport.fixture(DOCTORS, commands, 0);
+        SplittableRandom random = new SplittableRandom(11);
+        StringBuilder script = new StringBuilder(commands * 32);
+        Specialization[] specializations = Specialization.values();
+        for (int d = 1; d <= DOCTORS; d++) {
+            script.append("add-doctor Doctor ").append(d).append(',').append(30 + d % 30).append(',')
+                    .append(specializations[d % specializations.length]).append(',').append(300 + d).append('\n');
+        }
+        int patients = 0;
+        int appointments = 0;
+        int written = DOCTORS;
+        while (written < commands) {
+            int kind = random.nextInt(10);
+            int run = Math.min(commands - written, 1 + random.nextInt(64));
+            for (int i = 0; i < run; i++) {
+                if (kind < 4 || patients == 0) {
+                    Patient patient = generator.patient(++patients);
+                    script.append("add-patient ").append(patient.getName()).append(' ').append(patients)
+                            .append(',').append(patient.getAge()).append(',').append(patient.getDisease());
+                } else if (kind < 8 || appointments == 0) {
+                    script.append("book ").append(1 + random.nextInt(patients)).append(',')
+                            .append(1 + random.nextInt(DOCTORS)).append(",2026-11-").append(10 + random.nextInt(20));
+                    appointments++;
+                } else if (kind == 8) {
+                    script.append("bill ").append(1 + random.nextInt(appointments));
+                } else {
+                    script.append("cancel ").append(1 + random.nextInt(appointments));
+                }
+                script.append('\n');
+            }
+            written += run;
+        }
+        return script.toString();
+    }
+
+    private static BatchCommandRunner newRunner() {
+        Services services = new Services();
+        return new BatchCommandRunner(services.doctors, services.patients, services.appointments, services.nextId);
+    }
+
+    // The menu's path: split each line, one service call per command, console output per command.
+    private static int runOneByOne(String script) throws IOException {
+        Services services = new Services();
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream(), true));
+        int ok = 0;
+        try (BufferedReader in = new BufferedReader(new StringReader(script), 1 << 16)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                int space = line.indexOf(' ');
+                String[] fields = line.substring(space + 1).split(",");
+                switch (line.substring(0, space)) {
+                    case "add-doctor":
+                        services.doctors.addDoctor(new Doctor(services.nextId.applyAsInt(EntityType.DOCTOR),
+                                fields[0].trim(), Integer.parseInt(fields[1].trim()),
+                                Specialization.valueOf(fields[2].trim()), Double.parseDouble(fields[3].trim())));
+                        ok++;
+                        break;
+                    case "add-patient":
+                        try {
+                            services.patients.addPatient(new Patient(services.nextId.applyAsInt(EntityType.PATIENT),
+                                    fields[0].trim(), Integer.parseInt(fields[1].trim()), fields[2].trim()));
+                            ok++;
+                        } catch (RuntimeException e) {
+                            System.out.println("Error adding patient: " + e.getMessage());
+                        }
+                        break;
+                    case "book":
+                        Patient patient = services.patients.findPatientById(Integer.parseInt(fields[0].trim()));
+                        Doctor doctor = services.doctors.findDoctorById(Integer.parseInt(fields[1].trim()));
+                        if (patient != null && doctor != null) {
+                            int id = services.nextId.applyAsInt(EntityType.APPOINTMENT);
+                            services.appointments.bookAppointment(id, patient, doctor,
+                                    LocalDate.parse(fields[2].trim()));
+                            System.out.println("Appointment booked with ID: " + id);
+                            ok++;
+                        }
+                        break;
+                    case "bill":
+                        ok += services.appointments.tryGenerateBill(Integer.parseInt(fields[0].trim()))
+                                .map(summary -> {
+                                    System.out.println(summary);
+                                    return 1;
+                                }).orElse(0);
+                        break;
+                    default:
+                        if (services.appointments.tryCancelAppointment(Integer.parseInt(fields[0].trim()))) {
+                            System.out.println("Appointment cancelled!");
+                            ok++;
+                        }
+                        break;
+                }
+            }
+        } finally {
+            System.setOut(console);
+        }
+        return ok;
+    }
+
+    private static final class Services {
+
+        final DoctorService doctors = new DoctorService();
+        final PatientService patients = new PatientService();
+        final AppointmentService appointments = new AppointmentService();
+        final ToIntFunction<EntityType> nextId;
+
+        Services() {
+            Map<EntityType, Integer> lastIds = new EnumMap<>(EntityType.class);
+            nextId = type -> lastIds.merge(type, 1, Integer::sum);
+            patients.setDuplicateDetection(true); // as Main sets it up with -Dmeditrack.dedup=true
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.util.DataGenerator;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Small helpers shared by the benchmark mains.
+ * <p>
+ * The project has no build tool, so benchmarks are plain {@code main}
+ * programs run with {@code java -cp out}. Each one performs warm-up rounds
+ * before measuring and reports wall time, heap and GC activity.
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+        throw new AssertionError("BenchmarkSupport is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Returns the heap in use after requesting a few full collections.
+     */
+    static long settledHeapUsed() {
+        Runtime rt = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            used = Math.min(used, rt.totalMemory() - rt.freeMemory());
+        }
+        return used;
+    }
+
+    /**
+     * Returns the total number of collections across all collectors.
+     */
+    static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    /**
+     * Returns the accumulated collection time in milliseconds across all collectors.
+     */
+    static long gcTimeMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+
+    /**
+     * Returns the shared data set: every benchmark draws its doctors,
+     * patients and appointments from a {@link DataGenerator} with the
+     * default seed, so runs are repeatable and comparable.
+     */
+    static DataGenerator fixture(int doctors, int patients, int appointments) {
+        return new DataGenerator(DataGenerator.DEFAULT_SEED, doctors, patients, appointments);
+    }
+
+    static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+
+    static String formatNanos(long nanos) {
+        return String.format("%.2f ms", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,76 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.exception.InvalidDataException;
+import com.airtribe.meditrack.util.BulkValidator;
+import com.airtribe.meditrack.util.DataGenerator;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.ValidationReport;
+import com.airtribe.meditrack.util.Validator;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Imports a patient batch in which every tenth row is invalid, comparing the
+ * former row-at-a-time path (validate, throw, catch, build a message) with
+ * {@link BulkValidator} followed by a single bulk insert.
+ * <p>
+ * Usage: {@code java -cp out com.airtribe.meditrack.benchmark.BulkValidationBenchmark [rows] [rounds]}
+ */
+public class BulkValidationBenchmark {
+
+    // Keeps the rendered error messages observable so they are not optimized away.
+    static long messageChars;
+
+    public static void main(String[] args) {
+        int rows = BenchmarkSupport.intArg(args, 0, 5_000_000);
+        int rounds = BenchmarkSupport.intArg(args, 1, 3);
+
+        DataGenerator generator = BenchmarkSupport.fixture(0, rows, 0);
+        List<Patient> batch = new ArrayList<>(rows);
+        for (int i = 1; i <= rows; i++) {
+            Patient patient = generator.patient(i);
+            if (i % 20 == 0) {
+                patient = new Patient(i, " ", patient.getAge(), patient.getDisease());
+            } else if (i % 10 == 0) {
+                patient = new Patient(i, patient.getName(), 0, patient.getDisease());
+            }
+            batch.add(patient);
+        }
+        System.out.println("Rows: " + rows + " (10% invalid), processors: " + Runtime.getRuntime().availableProcessors());
+
+        for (int r = 0; r <= rounds; r++) {
+            long t0 = System.nanoTime();
+            int legacyRejected = rowAtATime(batch);
+            long t1 = System.nanoTime();
+            DataStore<Patient> store = new DataStore<>(Patient::getId);
+            BulkValidator.Result<Patient> result = BulkValidator.validatePatients(batch);
+            store.addAll(result.getAccepted());
+            ValidationReport report = result.getReport();
+            long t2 = System.nanoTime();
+            if (r == 0) {
+                continue; // warm-up
+            }
+            System.out.printf("round %d: row-at-a-time %s (%d rejected), bulk %s (%d rejected)%n",
+                    r, BenchmarkSupport.formatNanos(t1 - t0), legacyRejected,
+                    BenchmarkSupport.formatNanos(t2 - t1), report.getRejectedRows());
+        }
+    }
+
+    private static int rowAtATime(List<Patient> batch) {
+        DataStore<Patient> store = new DataStore<>(Patient::getId);
+        int rejected = 0;
+        for (Patient p : batch) {
+            try {
+                Validator.validateName(p.getName());
+                Validator.validateAge(p.getAge());
+                Validator.validateDisease(p.getDisease());
+                store.add(p);
+            } catch (InvalidDataException e) {
+                rejected++;
+                messageChars += ("Skipped invalid patient from CSV: " + e.getMessage()).length();
+            }
+        }
+        return rejected;
+    }
+}
@@ -0,0 +1,198 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.util.CachingRepository;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.Repository;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * Hit rate and lookup latency of {@link CachingRepository} compared with a
+ * plain LRU read-through cache ({@code LinkedHashMap} in access order) under
+ * a Zipfian access pattern (s = 0.99) over scrambled patient ids. Every
+ * lookup that reaches the backing store spins for a fixed time to simulate
+ * a file or database read.
+ * <p>
+ * Usage: {@code java -cp out com.airtribe.meditrack.benchmark.CacheZipfBenchmark [patients] [lookups] [storeMicros]}
+ */
+public class CacheZipfBenchmark {
+
+    private static final double SKEW = 0.99;
+    private static final int[] CACHE_PERCENTS = {1, 5, 10};
+
+    public static void main(String[] args) {
+        int patients = BenchmarkSupport.intArg(args, 0, 100_000);
+        int lookups = BenchmarkSupport.intArg(args, 1, 500_000);
+        int storeMicros = BenchmarkSupport.intArg(args, 2, 10);
+
+        SlowStore store = new SlowStore(storeMicros * 1_000L);
+        store.addAll(BenchmarkSupport.fixture(0, patients, 0).patients());
+        int[] trace = zipfTrace(patients, lookups, new Random(11));
+        System.out.printf("%d patients, %d Zipfian lookups, %d us per store read%n", patients, lookups, storeMicros);
+
+        for (int round = 0; round <= 1; round++) {
+            for (int percent : CACHE_PERCENTS) {
+                int size = Math.max(1, patients * percent / 100);
+                CachingRepository<Patient> tinyLfu = new CachingRepository<>(store, Patient::getId, size);
+                LruRepository lru = new LruRepository(store, size);
+                long tinyLfuNanos = replay(tinyLfu, trace);
+                long lruNanos = replay(lru, trace);
+                if (round == 0) {
+                    continue; // warm-up
+                }
+                System.out.printf("cache %2d%% (%6d): W-TinyLFU hit rate %.1f%%, %.2f us/lookup | "
+                                + "LRU hit rate %.1f%%, %.2f us/lookup%n",
+                        percent, size, tinyLfu.getStats().getHitRate() * 100, tinyLfuNanos / 1000.0 / lookups,
+                        (double) lru.hits / lookups * 100, lruNanos / 1000.0 / lookups);
+            }
+        }
+    }
+
+    private static long replay(Repository<Patient> repository, int[] trace) {
+        long t0 = System.nanoTime();
+        long checksum = 0;
+        for (int id : trace) {
+            checksum += repository.findById(id).get().getAge();
+        }
+        long elapsed = System.nanoTime() - t0;
+        if (checksum == 42) {
+            System.out.println();
+        }
+        return elapsed;
+    }
+
+    /**
+     * Draws ids with probability proportional to 1 / rank^s; ranks are
+     * mapped to ids through a random permutation so that hot ids are spread
+     * over the id space.
+     */
+    private static int[] zipfTrace(int items, int length, Random random) {
+        double[] cumulative = new double[items];
+        double sum = 0;
+        for (int rank = 0; rank < items; rank++) {
+            sum += 1 / Math.pow(rank + 1, SKEW);
+            cumulative[rank] = sum;
+        }
+        int[] idOfRank = new int[items];
+        for (int i = 0; i < items; i++) {
+            idOfRank[i] = i + 1;
+        }
+        for (int i = items - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = idOfRank[i];
+            idOfRank[i] = idOfRank[j];
+            idOfRank[j] = tmp;
+        }
+        int[] trace = new int[length];
+        for (int i = 0; i < length; i++) {
+            double target = random.nextDouble() * sum;
+            int lo = 0;
+            int hi = items - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cumulative[mid] < target) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            trace[i] = idOfRank[lo];
+        }
+        return trace;
+    }
+
+    private static final class SlowStore implements Repository<Patient> {
+
+        private final DataStore<Patient> store = new DataStore<>(Patient::getId);
+        private final long delayNanos;
+
+        SlowStore(long delayNanos) {
+            this.delayNanos = delayNanos;
+        }
+
+        @Override
+        public void add(Patient item) {
+            store.add(item);
+        }
+
+        @Override
+        public boolean remove(Patient item) {
+            return store.remove(item);
+        }
+
+        @Override
+        public List<Patient> getAll() {
+            return store.getAll();
+        }
+
+        @Override
+        public Optional<Patient> findById(int id) {
+            long until = System.nanoTime() + delayNanos;
+            while (System.nanoTime() < until) {
+                Thread.onSpinWait();
+            }
+            return store.findById(id);
+        }
+
+        @Override
+        public int size() {
+            return store.size();
+        }
+    }
+
+    /**
+     * Baseline: read-through LRU cache on an access-ordered {@code LinkedHashMap}.
+     */
+    private static final class LruRepository implements Repository<Patient> {
+
+        private final Repository<Patient> delegate;
+        private final Map<Integer, Patient> cache;
+        private long hits;
+
+        LruRepository(Repository<Patient> delegate, int maximumSize) {
+            this.delegate = delegate;
+            this.cache = new LinkedHashMap<Integer, Patient>(maximumSize * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Patient> eldest) {
+                    return size() > maximumSize;
+                }
+            };
+        }
+
+        @Override
+        public synchronized Optional<Patient> findById(int id) {
+            Patient patient = cache.get(id);
+            if (patient != null) {
+                hits++;
+                return Optional.of(patient);
+            }
+            Optional<Patient> loaded = delegate.findById(id);
+            loaded.ifPresent(p -> cache.put(id, p));
+            return loaded;
+        }
+
+        @Override
+        public void add(Patient item) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean remove(Patient item) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Patient> getAll() {
+            return delegate.getAll();
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.util.DoctorLoadIndex;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Throughput of "book with any available doctor of a specialization" with
+ * {@link DoctorLoadIndex} compared with a scan of the specialization's
+ * doctors for the lowest count (what {@code findDoctorsBySpecialization}
+ * plus a per-doctor counter would do).
+ * <p>
+ * Every thread assigns doctors for random specializations over a month of
+ * days and cancels one in five of its assignments again. Both variants keep
+ * their counts in the same shape, one lock per (specialization, day).
+ * <p>
+ * Usage: {@code java -cp out com.airtribe.meditrack.benchmark.DoctorAssignmentBenchmark [operations] [threads]}
+ */
+public class DoctorAssignmentBenchmark {
+
+    private static final int[] DOCTOR_COUNTS = {1_000, 5_000, 20_000};
+    private static final int DAYS = 30;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    private static final Specialization[] SPECIALIZATIONS = Specialization.values();
+
+    public static void main(String[] args) throws InterruptedException {
+        int operations = BenchmarkSupport.intArg(args, 0, 2_000_000);
+        int threads = BenchmarkSupport.intArg(args, 1, 4);
+        System.out.printf("%d operations (1 in 5 a cancellation), %d threads, %d days, processors %d%n",
+                operations, threads, DAYS, Runtime.getRuntime().availableProcessors());
+
+        for (int doctorCount : DOCTOR_COUNTS) {
+            List<Doctor> doctors = BenchmarkSupport.fixture(doctorCount, 0, 0).doctors();
+            for (int round = 0; round <= 1; round++) {
+                DoctorLoadIndex index = new DoctorLoadIndex(Integer.MAX_VALUE);
+                doctors.forEach(index::addDoctor);
+                long heapNanos = run(new HeapAssigner(index), operations, threads);
+
+                // The scan is O(doctors) per assignment; give it fewer operations and scale.
+                int scanOperations = Math.max(threads, operations / (doctorCount / 250));
+                long scanNanos = run(new ScanAssigner(doctors), scanOperations, threads);
+                if (round == 0) {
+                    continue; // warm-up
+                }
+                System.out.printf("%6d doctors: heap %10.0f ops/s, load spread %d | scan %10.0f ops/s%n",
+                        doctorCount, operations / (heapNanos / 1e9), spread(index, doctors),
+                        scanOperations / (scanNanos / 1e9));
+            }
+        }
+    }
+
+    private static long run(Assigner assigner, int operations, int threads) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(threads);
+        long t0 = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            int share = operations / threads;
+            new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                Doctor[] recent = new Doctor[5];
+                int[] recentDay = new int[5];
+                for (int i = 0; i < share; i++) {
+                    int slot = i % 5;
+                    if (slot == 4 && recent[0] != null) {
+                        assigner.release(recent[0], recentDay[0]);
+                        continue;
+                    }
+                    int day = random.nextInt(DAYS);
+                    recent[slot] = assigner.assign(SPECIALIZATIONS[random.nextInt(SPECIALIZATIONS.length)], day);
+                    recentDay[slot] = day;
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        return System.nanoTime() - t0;
+    }
+
+    // Largest difference between two doctors of the same specialization on the same day.
+    private static int spread(DoctorLoadIndex index, List<Doctor> doctors) {
+        int worst = 0;
+        for (int day = 0; day < DAYS; day++) {
+            Map<Specialization, int[]> minMax = new EnumMap<>(Specialization.class);
+            for (Doctor doctor : doctors) {
+                int load = index.loadOf(doctor, FIRST_DAY.plusDays(day));
+                int[] range = minMax.computeIfAbsent(doctor.getSpecialization(),
+                        s -> new int[] {Integer.MAX_VALUE, Integer.MIN_VALUE});
+                range[0] = Math.min(range[0], load);
+                range[1] = Math.max(range[1], load);
+            }
+            for (int[] range : minMax.values()) {
+                worst = Math.max(worst, range[1] - range[0]);
+            }
+        }
+        return worst;
+    }
+
+    private interface Assigner {
+        Doctor assign(Specialization specialization, int day);
+
+        void release(Doctor doctor, int day);
+    }
+
+    private static final class HeapAssigner implements Assigner {
+
+        private final DoctorLoadIndex index;
+
+        HeapAssigner(DoctorLoadIndex index) {
+            this.index = index;
+        }
+
+        @Override
+        public Doctor assign(Specialization specialization, int day) {
+            return index.assign(specialization, FIRST_DAY.plusDays(day)).orElse(null);
+        }
+
+        @Override
+        public void release(Doctor doctor, int day) {
+            index.released(doctor, FIRST_DAY.plusDays(day));
+        }
+    }
+
+    /**
+     * Baseline: per (specialization, day) an array of counts parallel to the
+     * specialization's doctor list, scanned for the minimum.
+     */
+    private static final class ScanAssigner implements Assigner {
+
+        private final Map<Specialization, Doctor[]> doctors = new EnumMap<>(Specialization.class);
+        private final Map<Specialization, int[][]> loads = new EnumMap<>(Specialization.class);
+        private final Map<Specialization, int[]> positions = new EnumMap<>(Specialization.class);
+
+        ScanAssigner(List<Doctor> all) {
+            for (Specialization specialization : SPECIALIZATIONS) {
+                List<Doctor> matching = new ArrayList<>();
+                for (Doctor doctor : all) {
+                    if (doctor.getSpecialization() == specialization) {
+                        matching.add(doctor);
+                    }
+                }
+                doctors.put(specialization, matching.toArray(new Doctor[0]));
+                loads.put(specialization, new int[DAYS][matching.size()]);
+                int[] position = new int[all.size() + 1];
+                for (int i = 0; i < matching.size(); i++) {
+                    position[matching.get(i).getId()] = i;
+                }
+                positions.put(specialization, position);
+            }
+        }
+
+        @Override
+        public Doctor assign(Specialization specialization, int day) {
+            int[] counts = loads.get(specialization)[day];
+            synchronized (counts) {
+                int best = -1;
+                for (int i = 0; i < counts.length; i++) {
+                    if (best < 0 || counts[i] < counts[best]) {
+                        best = i;
+                    }
+                }
+                if (best < 0) {
+                    return null;
+                }
+                counts[best]++;
+                return doctors.get(specialization)[best];
+            }
+        }
+
+        @Override
+        public void release(Doctor doctor, int day) {
+            int[] counts = loads.get(doctor.getSpecialization())[day];
+            synchronized (counts) {
+                counts[positions.get(doctor.getSpecialization())[doctor.getId()]]--;
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.util.IdSequence;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * Contention benchmark for id allocation at 1 to 64 threads: the former
+ * single global {@link AtomicInteger} versus {@link IdSequence} block leasing,
+ * with and without a persisted high-water mark.
+ * <p>
+ * Usage: {@code java -cp out com.airtribe.meditrack.benchmark.IdAllocationBenchmark [idsPerThread] [blockSize]}
+ */
+public class IdAllocationBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int idsPerThread = BenchmarkSupport.intArg(args, 0, 2_000_000);
+        int blockSize = BenchmarkSupport.intArg(args, 1, 64);
+        Path dir = Files.createTempDirectory("meditrack-ids");
+
+        System.out.println("ids/thread: " + idsPerThread + ", block size: " + blockSize);
+        System.out.printf("%8s %18s %18s %18s%n", "threads", "AtomicInteger", "IdSequence", "IdSequence+file");
+        for (int threads = 1; threads <= 64; threads *= 2) {
+            AtomicInteger global = new AtomicInteger();
+            IdSequence inMemory = new IdSequence("bench", blockSize);
+            IdSequence persisted = new IdSequence("bench", blockSize, dir.resolve("bench-" + threads + ".seq"));
+
+            // The first pass of each configuration is a warm-up.
+            run(threads, idsPerThread / 4, global::incrementAndGet);
+            run(threads, idsPerThread / 4, inMemory::nextId);
+            run(threads, idsPerThread / 4, persisted::nextId);
+
+            double a = run(threads, idsPerThread, global::incrementAndGet);
+            double b = run(threads, idsPerThread, inMemory::nextId);
+            double c = run(threads, idsPerThread, persisted::nextId);
+            System.out.printf("%8d %13.1f M/s %13.1f M/s %13.1f M/s%n", threads, a, b, c);
+        }
+        deleteRecursively(dir);
+    }
+
+    // Returns millions of ids allocated per second across all threads.
+    private static double run(int threads, int idsPerThread, IntSupplier allocator) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long[] sinks = new long[threads];
+        for (int t = 0; t < threads; t++) {
+            final int index = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    long sink = 0;
+                    for (int i = 0; i < idsPerThread; i++) {
+                        sink += allocator.getAsInt();
+                    }
+                    sinks[index] = sink;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+        return (double) threads * idsPerThread / elapsed * 1000.0;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (var paths = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) paths::iterator) {
+                Files.deleteIfExists(p);
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+}
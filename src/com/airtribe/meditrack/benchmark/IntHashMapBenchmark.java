@@ -0,0 +1,99 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.util.IntHashMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares {@link IntHashMap} with {@code HashMap<Integer, T>} for the dense,
+ * increasing id pattern produced by {@code IdGenerator}.
+ * <p>
+ * Usage: {@code java -cp out com.airtribe.meditrack.benchmark.IntHashMapBenchmark [entries] [rounds]}
+ */
+public class IntHashMapBenchmark {
+
+    private static final Object VALUE = new Object();
+
+    public static void main(String[] args) {
+        int entries = BenchmarkSupport.intArg(args, 0, 2_000_000);
+        int rounds = BenchmarkSupport.intArg(args, 1, 5);
+
+        System.out.println("Entries: " + entries + ", rounds: " + rounds);
+        footprint(entries);
+
+        // Warm-up
+        for (int i = 0; i < 3; i++) {
+            runHashMap(entries / 4);
+            runIntHashMap(entries / 4);
+        }
+
+        for (int r = 1; r <= rounds; r++) {
+            long gcBefore = BenchmarkSupport.gcCount();
+            long t0 = System.nanoTime();
+            long sink = runHashMap(entries);
+            long t1 = System.nanoTime();
+            long gcMid = BenchmarkSupport.gcCount();
+            sink += runIntHashMap(entries);
+            long t2 = System.nanoTime();
+            long gcAfter = BenchmarkSupport.gcCount();
+            System.out.printf("round %d: HashMap<Integer,T> %s (%d GCs), IntHashMap %s (%d GCs) [%d]%n",
+                    r, BenchmarkSupport.formatNanos(t1 - t0), gcMid - gcBefore,
+                    BenchmarkSupport.formatNanos(t2 - t1), gcAfter - gcMid, sink);
+        }
+    }
+
+    private static void footprint(int entries) {
+        long base = BenchmarkSupport.settledHeapUsed();
+        Map<Integer, Object> boxed = new HashMap<>();
+        for (int id = 1; id <= entries; id++) {
+            boxed.put(id, VALUE);
+        }
+        long boxedBytes = BenchmarkSupport.settledHeapUsed() - base;
+        System.out.printf("HashMap<Integer,T>: %.1f bytes/entry%n", boxedBytes / (double) entries);
+        boxed = null;
+
+        base = BenchmarkSupport.settledHeapUsed();
+        IntHashMap<Object> primitive = new IntHashMap<>();
+        for (int id = 1; id <= entries; id++) {
+            primitive.put(id, VALUE);
+        }
+        long primitiveBytes = BenchmarkSupport.settledHeapUsed() - base;
+        System.out.printf("IntHashMap<T>:      %.1f bytes/entry (size %d)%n",
+                primitiveBytes / (double) entries, primitive.size());
+    }
+
+    // put all ids, look each one up twice, then remove every other id
+    private static long runHashMap(int entries) {
+        Map<Integer, Object> map = new HashMap<>();
+        for (int id = 1; id <= entries; id++) {
+            map.put(id, VALUE);
+        }
+        long hits = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int id = 1; id <= entries; id++) {
+                if (map.get(id) != null) hits++;
+            }
+        }
+        for (int id = 1; id <= entries; id += 2) {
+            map.remove(id);
+        }
+        return hits + map.size();
+    }
+
+    private static long runIntHashMap(int entries) {
+        IntHashMap<Object> map = new IntHashMap<>();
+        for (int id = 1; id <= entries; id++) {
+            map.put(id, VALUE);
+        }
+        long hits = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int id = 1; id <= entries; id++) {
+                if (map.get(id) != null) hits++;
+            }
+        }
+        for (int id = 1; id <= entries; id += 2) {
+            map.remove(id);
+        }
+        return hits + map.size();
+    }
+}
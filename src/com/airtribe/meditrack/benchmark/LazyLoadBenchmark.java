@@ -0,0 +1,153 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.util.CSVUtil;
+import com.airtribe.meditrack.util.CachingRepository;
+import com.airtribe.meditrack.util.DataGenerator;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.IntHashMap;
+import com.airtribe.meditrack.util.MappedCsvRepository;
+import com.airtribe.meditrack.util.Repository;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Startup time and retained heap of loading {@code patients.csv} eagerly
+ * into a {@link DataStore} versus opening it with a
+ * {@link MappedCsvRepository} behind a {@link CachingRepository}.
+ * <p>
+ * The lazy store is opened twice: the first open builds and writes the id
+ * index, the second maps the existing one. A session is then simulated with
+ * {@code lookups} reads, 90% of them on a working set of 5,000 patients.
+ * <p>
+ * Two costs the lazy store does not avoid are measured last: loading
+ * {@code appointments} appointments at startup, which resolves every
+ * referenced patient through the store and keeps those patients on the heap
+ * for as long as their appointments, and saving the patients file, once by
+ * formatting {@link Repository#getAll()} and once by copying rows with
+ * {@link Repository#writeRows}.
+ * <p>
+ * Usage: {@code java -cp out com.airtribe.meditrack.benchmark.LazyLoadBenchmark [patients] [lookups] [appointments]}
+ */
+public class LazyLoadBenchmark {
+
+    private static final int WORKING_SET = 5_000;
+    private static final int DOCTORS = 100;
+
+    public static void main(String[] args) throws IOException {
+        int patients = BenchmarkSupport.intArg(args, 0, 5_000_000);
+        int lookups = BenchmarkSupport.intArg(args, 1, 200_000);
+        int appointments = BenchmarkSupport.intArg(args, 2, 1_000_000);
+
+        Path directory = Files.createTempDirectory("lazy-benchmark");
+        Path file = directory.resolve("patients.csv");
+        Path appointmentFile = directory.resolve("appointments.csv");
+        Path saved = directory.resolve("saved.csv");
+        try {
+            DataGenerator generator = BenchmarkSupport.fixture(DOCTORS, patients, appointments);
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (int id = 1; id <= patients; id++) {
+                    writer.write(CSVUtil.toCsvLine(generator.patient(id)));
+                    writer.newLine();
+                }
+            }
+            System.out.printf("%,d patients, %.1f MB file, %,d lookups%n",
+                    patients, Files.size(file) / 1048576.0, lookups);
+
+            long baseHeap = BenchmarkSupport.settledHeapUsed();
+            long start = System.nanoTime();
+            DataStore<Patient> eager = new DataStore<>(Patient::getId);
+            eager.addAll(CSVUtil.loadPatientsFromCSV(file.toString()));
+            long eagerNanos = System.nanoTime() - start;
+            long eagerHeap = BenchmarkSupport.settledHeapUsed() - baseHeap;
+            long eagerLookupNanos = session(eager, patients, lookups);
+            report("eager load", eagerNanos, eagerHeap, eagerLookupNanos, lookups);
+            eager = null;
+
+            baseHeap = BenchmarkSupport.settledHeapUsed();
+            start = System.nanoTime();
+            MappedCsvRepository<Patient> indexing = new MappedCsvRepository<>(file, CSVUtil::parsePatient,
+                    Patient::getId);
+            report("lazy, index built", System.nanoTime() - start,
+                    BenchmarkSupport.settledHeapUsed() - baseHeap, 0, 0);
+            indexing = null;
+
+            baseHeap = BenchmarkSupport.settledHeapUsed();
+            start = System.nanoTime();
+            MappedCsvRepository<Patient> lazy = new MappedCsvRepository<>(file, CSVUtil::parsePatient,
+                    Patient::getId);
+            Repository<Patient> cached = new CachingRepository<>(lazy, Patient::getId,
+                    Constants.DEFAULT_LAZY_CACHE_SIZE);
+            long openNanos = System.nanoTime() - start;
+            long lazyLookupNanos = session(cached, patients, lookups);
+            report("lazy, index mapped", openNanos, BenchmarkSupport.settledHeapUsed() - baseHeap,
+                    lazyLookupNanos, lookups);
+            System.out.printf("  rows parsed: %,d of %,d lookups%n", lazy.getRowsParsed(), lookups);
+            lazy = null;
+            cached = null;
+
+            generator.writeAppointments(appointmentFile);
+            IntHashMap<Doctor> doctors = new IntHashMap<>();
+            generator.doctors().forEach(doctor -> doctors.put(doctor.getId(), doctor));
+            baseHeap = BenchmarkSupport.settledHeapUsed();
+            start = System.nanoTime();
+            lazy = new MappedCsvRepository<>(file, CSVUtil::parsePatient, Patient::getId);
+            cached = new CachingRepository<>(lazy, Patient::getId, Constants.DEFAULT_LAZY_CACHE_SIZE);
+            Repository<Patient> store = cached;
+            List<Appointment> loaded = CSVUtil.loadAppointmentsFromCSV(appointmentFile.toString(),
+                    id -> store.findById(id).orElse(null), doctors::get).getAppointments();
+            report(String.format("lazy + %,d appointments", loaded.size()), System.nanoTime() - start,
+                    BenchmarkSupport.settledHeapUsed() - baseHeap, 0, 0);
+            System.out.printf("  rows parsed: %,d%n", lazy.getRowsParsed());
+
+            start = System.nanoTime();
+            CSVUtil.savePatientsToCSV(store.getAll(), saved.toString());
+            long formatNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            CSVUtil.saveToCSV(out -> store.writeRows(CSVUtil::toCsvLine, out), saved.toString());
+            long copyNanos = System.nanoTime() - start;
+            System.out.printf("save patients: getAll %s, writeRows %s%n",
+                    BenchmarkSupport.formatNanos(formatNanos), BenchmarkSupport.formatNanos(copyNanos));
+        } finally {
+            Files.deleteIfExists(MappedCsvRepository.indexFileFor(file));
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(appointmentFile);
+            Files.deleteIfExists(saved);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static long session(Repository<Patient> store, int patients, int lookups) {
+        SplittableRandom random = new SplittableRandom(42);
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            int id = random.nextInt(10) < 9
+                    ? 1 + (int) ((random.nextInt(WORKING_SET) * 2654435761L) % patients)
+                    : 1 + random.nextInt(patients);
+            sink += store.findById(id).map(Patient::getAge).orElse(0);
+        }
+        long nanos = System.nanoTime() - start;
+        if (sink < 0) {
+            System.out.println(sink);
+        }
+        return nanos;
+    }
+
+    private static void report(String label, long startupNanos, long heapBytes, long lookupNanos, int lookups) {
+        System.out.printf("%-20s startup %12s, heap retained %8.1f MB", label,
+                BenchmarkSupport.formatNanos(startupNanos), heapBytes / 1048576.0);
+        if (lookups > 0) {
+            System.out.printf(", %.0f ns per lookup", lookupNanos / (double) lookups);
+        }
+        System.out.println();
+    }
+}
@@ -0,0 +1,62 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.service.PatientService;
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Listing every patient, comparing the previous implementation (copy the
+ * store, then one {@code println} with string concatenation per row) with
+ * the paged {@link PatientService#exportPatients} path. Output goes to a
+ * discarding stream so that only formatting and write overhead is measured.
+ * Reports wall time and bytes allocated by the listing thread.
+ * <p>
+ * Usage: {@code java -cp out com.airtribe.meditrack.benchmark.ListingBenchmark [patients] [rounds]}
+ */
+public class ListingBenchmark {
+
+    public static void main(String[] args) {
+        int patients = BenchmarkSupport.intArg(args, 0, 1_000_000);
+        int rounds = BenchmarkSupport.intArg(args, 1, 5);
+
+        PatientService service = new PatientService();
+        service.addPatients(BenchmarkSupport.fixture(0, patients, 0).patients());
+
+        System.out.println("Listing " + patients + " patients");
+        for (int r = 0; r <= rounds; r++) {
+            long a0 = allocatedBytes();
+            long t0 = System.nanoTime();
+            printlnPerRow(service);
+            long t1 = System.nanoTime();
+            long a1 = allocatedBytes();
+            service.exportPatients(new BufferedWriter(new OutputStreamWriter(OutputStream.nullOutputStream())));
+            long t2 = System.nanoTime();
+            long a2 = allocatedBytes();
+            if (r == 0) {
+                continue; // warm-up
+            }
+            System.out.printf("round %d: println per row %s (%d MB allocated), paged %s (%d MB allocated)%n", r,
+                    BenchmarkSupport.formatNanos(t1 - t0), (a1 - a0) >> 20,
+                    BenchmarkSupport.formatNanos(t2 - t1), (a2 - a1) >> 20);
+        }
+    }
+
+    // The listing as it was implemented before paging.
+    private static void printlnPerRow(PatientService service) {
+        PrintStream out = new PrintStream(OutputStream.nullOutputStream());
+        for (Patient patient : service.getAllPatients()) {
+            out.println("ID: " + patient.getId()
+                    + ", Name: " + patient.getName()
+                    + ", Age: " + patient.getAge()
+                    + ", Disease: " + patient.getDisease());
+        }
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,99 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.exception.AppointmentNotFoundException;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.util.DataGenerator;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Bill lookups where nine out of ten ids are unknown, comparing:
+ * <ul>
+ *   <li>before: a miss throws an exception that captures a full stack trace;</li>
+ *   <li>stackless: {@link AppointmentService#generateBill(int)} with the stackless exception;</li>
+ *   <li>optional: {@link AppointmentService#tryGenerateBill(int)}, which never throws.</li>
+ * </ul>
+ * Usage: {@code java -cp out com.airtribe.meditrack.benchmark.MissHeavyLookupBenchmark [lookups] [rounds]}
+ */
+public class MissHeavyLookupBenchmark {
+
+    private static final int APPOINTMENTS = 10_000;
+
+    public static void main(String[] args) {
+        int lookups = BenchmarkSupport.intArg(args, 0, 2_000_000);
+        int rounds = BenchmarkSupport.intArg(args, 1, 5);
+
+        AppointmentService service = new AppointmentService();
+        DataGenerator generator = BenchmarkSupport.fixture(1, APPOINTMENTS, 0);
+        Doctor doctor = generator.doctor(1);
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // silence per-booking messages
+        for (int id = 1; id <= APPOINTMENTS; id++) {
+            service.bookAppointment(id, generator.patient(id), doctor, LocalDate.now());
+        }
+        System.setOut(out);
+
+        System.out.println("Lookups: " + lookups + " (90% misses)");
+        for (int r = 0; r <= rounds; r++) {
+            long t0 = System.nanoTime();
+            long a = withStackTraces(service, lookups);
+            long t1 = System.nanoTime();
+            long b = stackless(service, lookups);
+            long t2 = System.nanoTime();
+            long c = optional(service, lookups);
+            long t3 = System.nanoTime();
+            if (r == 0) {
+                continue; // warm-up
+            }
+            System.out.printf("round %d: stack traces %s, stackless %s, optional %s [%d/%d/%d]%n", r,
+                    BenchmarkSupport.formatNanos(t1 - t0), BenchmarkSupport.formatNanos(t2 - t1),
+                    BenchmarkSupport.formatNanos(t3 - t2), a, b, c);
+        }
+    }
+
+    // Every tenth id exists; the rest fall past the booked range.
+    private static int idFor(int i) {
+        return i % 10 == 0 ? 1 + i % APPOINTMENTS : APPOINTMENTS + 1 + i;
+    }
+
+    private static long withStackTraces(AppointmentService service, int lookups) {
+        long hits = 0;
+        for (int i = 0; i < lookups; i++) {
+            int id = idFor(i);
+            try {
+                Optional<Appointment> found = service.findAppointment(id);
+                if (found.isEmpty()) {
+                    throw new AppointmentNotFoundException("Appointment with id " + id + " not found");
+                }
+                hits += (long) service.generateBill(id).getTotalAmount();
+            } catch (AppointmentNotFoundException e) {
+                hits--;
+            }
+        }
+        return hits;
+    }
+
+    private static long stackless(AppointmentService service, int lookups) {
+        long hits = 0;
+        for (int i = 0; i < lookups; i++) {
+            try {
+                hits += (long) service.generateBill(idFor(i)).getTotalAmount();
+            } catch (AppointmentNotFoundException e) {
+                hits--;
+            }
+        }
+        return hits;
+    }
+
+    private static long optional(AppointmentService service, int lookups) {
+        long hits = 0;
+        for (int i = 0; i < lookups; i++) {
+            hits += service.tryGenerateBill(idFor(i)).map(s -> (long) s.getTotalAmount()).orElse(-1L);
+        }
+        return hits;
+    }
+}
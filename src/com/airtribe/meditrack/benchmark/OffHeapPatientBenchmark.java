@@ -0,0 +1,66 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.util.DataGenerator;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.OffHeapPatientStore;
+import com.airtribe.meditrack.util.Repository;
+
+/**
+ * Measures heap usage and full-GC pause time with the patient population held
+ * in the default {@link DataStore} versus the {@link OffHeapPatientStore}.
+ * <p>
+ * Run each mode in its own JVM so the numbers do not interfere, e.g. for the
+ * 20M population:
+ * <pre>
+ * java -Xmx8g -cp out com.airtribe.meditrack.benchmark.OffHeapPatientBenchmark heap 20000000
+ * java -Xmx8g -XX:MaxDirectMemorySize=4g -cp out com.airtribe.meditrack.benchmark.OffHeapPatientBenchmark offheap 20000000
+ * </pre>
+ */
+public class OffHeapPatientBenchmark {
+
+    public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "offheap";
+        int patients = BenchmarkSupport.intArg(args, 1, 20_000_000);
+
+        long baseHeap = BenchmarkSupport.settledHeapUsed();
+        Repository<Patient> store = "heap".equals(mode)
+                ? new DataStore<>(Patient::getId)
+                : new OffHeapPatientStore(patients);
+
+        DataGenerator generator = BenchmarkSupport.fixture(0, patients, 0);
+        long gcTimeBefore = BenchmarkSupport.gcTimeMillis();
+        long start = System.nanoTime();
+        for (int id = 1; id <= patients; id++) {
+            store.add(generator.patient(id));
+        }
+        long loadNanos = System.nanoTime() - start;
+        long loadGcMillis = BenchmarkSupport.gcTimeMillis() - gcTimeBefore;
+        long heapBytes = BenchmarkSupport.settledHeapUsed() - baseHeap;
+
+        System.out.println("Mode: " + mode + ", patients: " + store.size());
+        System.out.println("Load time: " + BenchmarkSupport.formatNanos(loadNanos) + " (GC " + loadGcMillis + " ms)");
+        System.out.printf("Heap retained: %.1f MB (%.1f bytes/patient)%n",
+                heapBytes / 1048576.0, heapBytes / (double) patients);
+        if (store instanceof OffHeapPatientStore) {
+            System.out.printf("Off-heap reserved: %.1f MB%n", ((OffHeapPatientStore) store).offHeapBytes() / 1048576.0);
+        }
+
+        // An explicit full collection has to trace everything that is still reachable.
+        for (int i = 1; i <= 3; i++) {
+            long gcStart = System.nanoTime();
+            System.gc();
+            System.out.println("Full GC " + i + ": " + BenchmarkSupport.formatNanos(System.nanoTime() - gcStart));
+        }
+
+        long hits = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < 1_000_000; i++) {
+            int id = 1 + (int) ((i * 2654435761L) % patients);
+            if (store.findById(id).map(Patient::getDisease).isPresent()) {
+                hits++;
+            }
+        }
+        System.out.println("1M random lookups: " + BenchmarkSupport.formatNanos(System.nanoTime() - start) + " [" + hits + "]");
+    }
+}
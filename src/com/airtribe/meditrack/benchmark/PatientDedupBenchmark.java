@@ -0,0 +1,109 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.service.PatientService;
+import com.airtribe.meditrack.util.CSVUtil;
+import com.airtribe.meditrack.util.DataGenerator;
+import com.airtribe.meditrack.util.ValidationReport;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Reads a generated {@code patients.csv} once and imports the rows through
+ * {@link PatientService#addPatients} with duplicate detection off and on.
+ * The extra time is also shown relative to reading plus importing the file,
+ * which is what startup does.
+ * <p>
+ * Every generated name gets a unique suffix so that only the injected rows
+ * are duplicates: {@code duplicatePercent} of the rows repeat an earlier
+ * patient under a new id, with the name upper-cased and padded.
+ * <p>
+ * Usage: {@code java -Xmx4g -cp out com.airtribe.meditrack.benchmark.PatientDedupBenchmark [patients] [duplicatePercent] [rounds]}
+ */
+public class PatientDedupBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int patients = BenchmarkSupport.intArg(args, 0, 10_000_000);
+        int duplicatePercent = BenchmarkSupport.intArg(args, 1, 5);
+        int rounds = BenchmarkSupport.intArg(args, 2, 2);
+
+        Path file = Files.createTempFile("dedup-benchmark", ".csv");
+        try {
+            writeRows(file, patients, duplicatePercent);
+            System.out.printf("%,d patients, %d%% duplicates, %.1f MB file%n",
+                    patients, duplicatePercent, Files.size(file) / 1048576.0);
+
+            long start = System.nanoTime();
+            List<Patient> rows = CSVUtil.loadPatientsFromCSV(file.toString());
+            long readNanos = System.nanoTime() - start;
+            System.out.println("read " + BenchmarkSupport.formatNanos(readNanos));
+
+            for (int r = 0; r <= rounds; r++) {
+                long plainNanos = importRows(rows, false).nanos;
+                Run detected = importRows(rows, true);
+                if (r == 0) {
+                    continue; // warm-up
+                }
+                long extraNanos = detected.nanos - plainNanos;
+                System.out.printf("round %d: addPatients off %s, on %s; detection %.0f ns per row, "
+                                + "%+.1f%% of read plus import%n", r,
+                        BenchmarkSupport.formatNanos(plainNanos), BenchmarkSupport.formatNanos(detected.nanos),
+                        extraNanos / (double) patients, 100.0 * extraNanos / (readNanos + plainNanos));
+                System.out.printf("  %,d stored, %,d merged, %,d rejected%n", detected.report.getAcceptedRows(),
+                        detected.report.getMergedRows(), detected.report.getRejectedRows());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void writeRows(Path file, int patients, int duplicatePercent) throws IOException {
+        DataGenerator generator = BenchmarkSupport.fixture(0, patients, 0);
+        SplittableRandom random = new SplittableRandom(7);
+        List<Patient> written = new ArrayList<>(patients);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int id = 1; id <= patients; id++) {
+                Patient patient;
+                if (id > 1 && random.nextInt(100) < duplicatePercent) {
+                    Patient original = written.get(random.nextInt(written.size()));
+                    patient = new Patient(id, " " + original.getName().toUpperCase(Locale.ROOT) + " ",
+                            original.getAge(), original.getDisease());
+                } else {
+                    Patient generated = generator.patient(id);
+                    patient = new Patient(id, generated.getName() + " " + Integer.toString(id, 36),
+                            generated.getAge(), generated.getDisease());
+                }
+                written.add(patient);
+                writer.write(CSVUtil.toCsvLine(patient));
+                writer.newLine();
+            }
+        }
+    }
+
+    private static Run importRows(List<Patient> rows, boolean detect) {
+        BenchmarkSupport.settledHeapUsed();
+        PatientService service = new PatientService();
+        service.setDuplicateDetection(detect);
+        long start = System.nanoTime();
+        ValidationReport report = service.addPatients(rows);
+        return new Run(System.nanoTime() - start, report);
+    }
+
+    private static final class Run {
+
+        final long nanos;
+        final ValidationReport report;
+
+        Run(long nanos, ValidationReport report) {
+            this.nanos = nanos;
+            this.report = report;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.DoctorService;
+import com.airtribe.meditrack.service.PatientService;
+import com.airtribe.meditrack.service.ReplicationFollower;
+import com.airtribe.meditrack.service.ReplicationPrimary;
+import com.airtribe.meditrack.util.ChangeFeed;
+import com.airtribe.meditrack.util.DataGenerator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replication lag and aggregate read throughput with 1, 2 and 4 follower
+ * processes.
+ * <p>
+ * This process is the primary: it loads the fixture, ships it to follower
+ * JVMs started with the same class path, and then books and cancels
+ * appointments at a fixed rate for {@code seconds}. Each follower loads the
+ * snapshot, then runs two reader threads (appointment, patient and doctor
+ * lookups by id and a patient's appointments) for the same time. Lag is the
+ * time from publishing every {@value #SAMPLE_EVERY}th event on the primary to
+ * applying it on a follower; {@link System#nanoTime()} is comparable across
+ * processes on the same Linux host. All processes share the machine's cores,
+ * so aggregate reads only grow with followers while cores are idle.
+ * <p>
+ * Usage: {@code java -cp out com.airtribe.meditrack.benchmark.ReplicationBenchmark [appointments] [seconds] [writesPerSecond]}
+ */
+public class ReplicationBenchmark {
+
+    private static final int[] FOLLOWERS = {1, 2, 4};
+    private static final int SAMPLE_EVERY = 100;
+    private static final int READER_THREADS = 2;
+    private static final int DOCTORS = 1_000;
+    private static final String FOLLOWER_MODE = "follower";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && FOLLOWER_MODE.equals(args[0])) {
+            follower(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]),
+                    Integer.parseInt(args[4]));
+            return;
+        }
+        int appointments = BenchmarkSupport.intArg(args, 0, 500_000);
+        int seconds = BenchmarkSupport.intArg(args, 1, 5);
+        int writesPerSecond = BenchmarkSupport.intArg(args, 2, 10_000);
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // services print per change
+        DataGenerator generator = BenchmarkSupport.fixture(DOCTORS, appointments / 4, appointments);
+        DoctorService doctors = new DoctorService();
+        PatientService patients = new PatientService();
+        AppointmentService appointmentService = new AppointmentService();
+        doctors.addDoctors(generator.doctors());
+        patients.addPatients(generator.patients());
+        appointmentService.addAppointments(generator.appointments(generator.patients(), generator.doctors()));
+        ChangeFeed feed = new ChangeFeed(Constants.CHANGE_FEED_CAPACITY);
+        doctors.setChangeFeed(feed);
+        patients.setChangeFeed(feed);
+        appointmentService.setChangeFeed(feed);
+
+        out.printf("%,d doctors, %,d patients, %,d appointments; %,d writes/s for %d s; %d cores%n",
+                DOCTORS, appointments / 4, appointments, writesPerSecond, seconds,
+                Runtime.getRuntime().availableProcessors());
+        try (ReplicationPrimary primary = new ReplicationPrimary(feed, 0, doctors, patients, appointmentService)) {
+            Writer writer = new Writer(patients, doctors, appointmentService, appointments, feed);
+            for (int followers : FOLLOWERS) {
+                Round round = new Round(followers, primary.getPort(), appointments / 4, appointments, seconds);
+                long catchUpNanos = round.awaitReady();
+                long published = writer.run(seconds, writesPerSecond);
+                round.await();
+                long[] lags = round.lags(writer.publishedAt, feed.lastSequence());
+                out.printf("%d follower(s): snapshot %s, %,d writes, lag p50 %s p99 %s max %s | "
+                                + "%,.0f reads/s total, %,.0f per follower%n",
+                        followers, BenchmarkSupport.formatNanos(catchUpNanos), published,
+                        BenchmarkSupport.formatNanos(percentile(lags, 0.50)),
+                        BenchmarkSupport.formatNanos(percentile(lags, 0.99)),
+                        BenchmarkSupport.formatNanos(lags.length == 0 ? 0 : lags[lags.length - 1]),
+                        round.reads.get() / (double) seconds, round.reads.get() / (double) seconds / followers);
+            }
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted.length == 0 ? 0 : sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))];
+    }
+
+    /**
+     * Books new appointments and cancels recent ones at a fixed rate,
+     * remembering when every sampled sequence was published.
+     */
+    private static final class Writer {
+
+        final PatientService patients;
+        final DoctorService doctors;
+        final AppointmentService appointments;
+        final ChangeFeed feed;
+        final int patientCount;
+        final long[] publishedAt = new long[1 << 20];
+        final SplittableRandom random = new SplittableRandom(7);
+        int nextId;
+
+        Writer(PatientService patients, DoctorService doctors, AppointmentService appointments,
+               int appointmentCount, ChangeFeed feed) {
+            this.patients = patients;
+            this.doctors = doctors;
+            this.appointments = appointments;
+            this.feed = feed;
+            this.patientCount = appointmentCount / 4;
+            this.nextId = appointmentCount;
+        }
+
+        long run(int seconds, int writesPerSecond) {
+            long intervalNanos = 1_000_000_000L / writesPerSecond;
+            long start = System.nanoTime();
+            long end = start + seconds * 1_000_000_000L;
+            long writes = 0;
+            for (long due = start; due < end; due += intervalNanos) {
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (random.nextInt(5) == 0) {
+                    appointments.tryCancelAppointment(1 + random.nextInt(nextId));
+                } else {
+                    Patient patient = patients.findPatientById(1 + random.nextInt(patientCount));
+                    Doctor doctor = doctors.findDoctorById(1 + random.nextInt(DOCTORS));
+                    appointments.bookAppointment(++nextId, patient, doctor, LocalDate.now().plusDays(7));
+                }
+                long sequence = feed.lastSequence();
+                if (sequence % SAMPLE_EVERY == 0 && sequence / SAMPLE_EVERY < publishedAt.length) {
+                    publishedAt[(int) (sequence / SAMPLE_EVERY)] = System.nanoTime();
+                }
+                writes++;
+            }
+            return writes;
+        }
+    }
+
+    /**
+     * A set of follower processes started together.
+     */
+    private static final class Round {
+
+        final List<Process> processes = new ArrayList<>();
+        final List<Thread> readers = new ArrayList<>();
+        final CountDownLatch ready;
+        final AtomicLong readyAt = new AtomicLong();
+        final AtomicLong reads = new AtomicLong();
+        final List<long[]> applied = new ArrayList<>();
+        final long started = System.nanoTime();
+
+        Round(int followers, int port, int patients, int appointments, int seconds) throws IOException {
+            ready = new CountDownLatch(followers);
+            String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+            for (int i = 0; i < followers; i++) {
+                Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        ReplicationBenchmark.class.getName(), FOLLOWER_MODE, String.valueOf(port),
+                        String.valueOf(seconds), String.valueOf(patients), String.valueOf(appointments))
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+                processes.add(process);
+                Thread reader = new Thread(() -> collect(process));
+                reader.start();
+                readers.add(reader);
+            }
+        }
+
+        // Follower output: READY once, then APPLIED <sequence> <nanoTime> per sample, then READS <count>.
+        private void collect(Process process) {
+            try (BufferedReader in = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String[] parts = line.split(" ");
+                    if (parts[0].equals("READY")) {
+                        readyAt.accumulateAndGet(System.nanoTime(), Math::max);
+                        ready.countDown();
+                    } else if (parts[0].equals("APPLIED")) {
+                        synchronized (applied) {
+                            applied.add(new long[] {Long.parseLong(parts[1]), Long.parseLong(parts[2])});
+                        }
+                    } else if (parts[0].equals("READS")) {
+                        reads.addAndGet(Long.parseLong(parts[1]));
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Lost follower output", e);
+            }
+        }
+
+        long awaitReady() throws InterruptedException {
+            if (!ready.await(5, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("Followers did not load the snapshot in time");
+            }
+            return readyAt.get() - started;
+        }
+
+        void await() throws InterruptedException {
+            for (Process process : processes) {
+                process.waitFor();
+            }
+            for (Thread reader : readers) {
+                reader.join();
+            }
+        }
+
+        long[] lags(long[] publishedAt, long lastSequence) {
+            long[] lags = new long[applied.size()];
+            int n = 0;
+            for (long[] sample : applied) {
+                long sequence = sample[0];
+                if (sequence <= lastSequence && sequence / SAMPLE_EVERY < publishedAt.length
+                        && publishedAt[(int) (sequence / SAMPLE_EVERY)] != 0) {
+                    lags[n++] = Math.max(0, sample[1] - publishedAt[(int) (sequence / SAMPLE_EVERY)]);
+                }
+            }
+            lags = Arrays.copyOf(lags, n);
+            Arrays.sort(lags);
+            return lags;
+        }
+    }
+
+    private static void follower(int port, int seconds, int patients, int appointments) throws Exception {
+        PrintStream report = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        DoctorService doctors = new DoctorService();
+        PatientService patientService = new PatientService();
+        AppointmentService appointmentService = new AppointmentService();
+        try (ReplicationFollower follower = new ReplicationFollower("127.0.0.1", port, doctors, patientService,
+                appointmentService)) {
+            if (!follower.awaitReady(TimeUnit.MINUTES.toMillis(5))) {
+                throw new IllegalStateException("No snapshot from the primary");
+            }
+            report.println("READY");
+            report.flush();
+
+            long end = System.nanoTime() + seconds * 1_000_000_000L;
+            Thread sampler = new Thread(() -> {
+                long next = (follower.getAppliedSequence() / SAMPLE_EVERY + 1) * SAMPLE_EVERY;
+                try {
+                    while (System.nanoTime() < end + 1_000_000_000L) {
+                        if (follower.awaitSequence(next, 100)) {
+                            report.println("APPLIED " + next + " " + System.nanoTime());
+                            next += SAMPLE_EVERY;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            sampler.start();
+
+            AtomicLong reads = new AtomicLong();
+            List<Thread> readers = new ArrayList<>();
+            for (int t = 0; t < READER_THREADS; t++) {
+                SplittableRandom random = new SplittableRandom(t);
+                Thread reader = new Thread(() -> {
+                    long count = 0;
+                    long sink = 0;
+                    while ((count & 1023) != 0 || System.nanoTime() < end) {
+                        int roll = random.nextInt(4);
+                        if (roll == 0) {
+                            sink += appointmentService.findAppointment(1 + random.nextInt(appointments))
+                                    .map(Appointment::getAppointmentId).orElse(0);
+                        } else if (roll == 1) {
+                            sink += appointmentService.getAppointmentsForPatient(1 + random.nextInt(patients))
+                                    .size();
+                        } else if (roll == 2) {
+                            Patient patient = patientService.findPatientById(1 + random.nextInt(patients));
+                            sink += patient == null ? 0 : patient.getAge();
+                        } else {
+                            Doctor doctor = doctors.findDoctorById(1 + random.nextInt(DOCTORS));
+                            sink += doctor == null ? 0 : doctor.getAge();
+                        }
+                        count++;
+                    }
+                    reads.addAndGet(count);
+                    if (sink < 0) {
+                        System.err.println(sink);
+                    }
+                });
+                readers.add(reader);
+                reader.start();
+            }
+            for (Thread reader : readers) {
+                reader.join();
+            }
+            sampler.join();
+            report.println("READS " + reads.get());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.RevenueSummary;
+import com.airtribe.meditrack.util.DataGenerator;
+import com.airtribe.meditrack.util.RevenueLedger;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Month-end revenue reporting over a large appointment history.
+ * <p>
+ * Compares billing every appointment one by one (a {@link Bill} each,
+ * grouped in a hash map by doctor and month, as a report built on
+ * {@code generateBill} would) with loading the history into a
+ * {@link RevenueLedger} by fork-join reduction and reading the month from
+ * it, and measures incremental updates of a loaded ledger.
+ * <p>
+ * Usage: {@code java -Xmx4g -cp out com.airtribe.meditrack.benchmark.RevenueReportBenchmark [appointments] [doctors] [threads]}
+ */
+public class RevenueReportBenchmark {
+
+    private static final int PATIENTS = 100_000;
+
+    public static void main(String[] args) {
+        int appointmentCount = BenchmarkSupport.intArg(args, 0, 10_000_000);
+        int doctorCount = BenchmarkSupport.intArg(args, 1, 1_000);
+        int threads = BenchmarkSupport.intArg(args, 2, Runtime.getRuntime().availableProcessors());
+
+        DataGenerator generator = BenchmarkSupport.fixture(doctorCount, PATIENTS, appointmentCount);
+        List<Appointment> appointments = generator.appointments(generator.patients(), generator.doctors());
+        YearMonth month = YearMonth.from(DataGenerator.FIRST_DATE.plusDays(DataGenerator.DATE_SPAN_DAYS - 1));
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        System.out.printf("%d appointments, %d doctors, %d fork-join threads, report for %s%n",
+                appointmentCount, doctorCount, threads, month);
+
+        for (int round = 0; round <= 2; round++) {
+            String label = round == 0 ? "warm-up" : "round " + round;
+
+            long t0 = System.nanoTime();
+            long billed = billEach(appointments, month);
+            long billNanos = System.nanoTime() - t0;
+
+            t0 = System.nanoTime();
+            RevenueLedger ledger = new RevenueLedger(20, pool);
+            ledger.addAll(appointments);
+            long loadNanos = System.nanoTime() - t0;
+            t0 = System.nanoTime();
+            List<RevenueSummary> byDoctor = ledger.monthly(month, month, RevenueLedger.Grouping.DOCTOR);
+            List<RevenueSummary> bySpecialization = ledger.monthly(month, month,
+                    RevenueLedger.Grouping.SPECIALIZATION);
+            List<RevenueSummary> daily = ledger.daily(month.atDay(1), month.atEndOfMonth(),
+                    RevenueLedger.Grouping.SPECIALIZATION);
+            long reportNanos = System.nanoTime() - t0;
+            long ledgerRevenue = 0;
+            for (RevenueSummary row : bySpecialization) {
+                ledgerRevenue += row.getRevenueCents();
+            }
+
+            System.out.printf("%s: bill each %s | ledger load %s (%.1f M appointments/s), month report %s "
+                            + "(%d doctor rows, %d daily rows) | revenue %s%n",
+                    label, BenchmarkSupport.formatNanos(billNanos), BenchmarkSupport.formatNanos(loadNanos),
+                    appointmentCount / (loadNanos / 1e3), BenchmarkSupport.formatNanos(reportNanos),
+                    byDoctor.size(), daily.size(), billed == ledgerRevenue ? "matches" : "DIFFERS");
+
+            if (round == 2) {
+                incremental(ledger, appointments);
+            }
+        }
+        pool.shutdown();
+    }
+
+    private static long billEach(List<Appointment> appointments, YearMonth month) {
+        Map<Integer, long[]> byDoctor = new HashMap<>();
+        for (Appointment appointment : appointments) {
+            if (!YearMonth.from(appointment.getAppointmentDate()).equals(month)
+                    || appointment.getStatus() == AppointmentStatus.CANCELLED) {
+                continue;
+            }
+            long cents = Math.round(new Bill(appointment).generateBillSummary().getTotalAmount() * 100);
+            byDoctor.computeIfAbsent(appointment.getDoctor().getId(), id -> new long[1])[0] += cents;
+        }
+        long total = 0;
+        for (long[] cents : byDoctor.values()) {
+            total += cents[0];
+        }
+        return total;
+    }
+
+    private static void incremental(RevenueLedger ledger, List<Appointment> appointments) {
+        int updates = Math.min(appointments.size(), 2_000_000);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < updates; i++) {
+            Appointment appointment = appointments.get(i);
+            ledger.booked(appointment);
+            if (appointment.getStatus() != AppointmentStatus.CANCELLED) {
+                ledger.cancelled(appointment);
+            }
+        }
+        long elapsed = System.nanoTime() - t0;
+        System.out.printf("incremental: %.1f M updates/s%n", updates * 2 / (elapsed / 1e3));
+    }
+}
@@ -0,0 +1,98 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.service.ShardRouter;
+import com.airtribe.meditrack.service.ShardedMediTrack;
+import com.airtribe.meditrack.util.DataGenerator;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures throughput of a mixed write/read workload and the latency of a
+ * fanned-out query as the shard count grows. Scaling is bounded by the
+ * number of cores, so run it on a multi-core machine.
+ * <p>
+ * Usage: {@code java -cp out com.airtribe.meditrack.benchmark.ShardScalingBenchmark [threads] [opsPerThread] [doctors]}
+ */
+public class ShardScalingBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = BenchmarkSupport.intArg(args, 0, Math.max(8, Runtime.getRuntime().availableProcessors()));
+        int opsPerThread = BenchmarkSupport.intArg(args, 1, 200_000);
+        int doctorCount = BenchmarkSupport.intArg(args, 2, 200_000);
+        Path dir = Files.createTempDirectory("meditrack-shards");
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // services print per insert
+        out.printf("threads %d, ops/thread %d (20%% writes), processors %d%n",
+                threads, opsPerThread, Runtime.getRuntime().availableProcessors());
+        out.printf("%7s %14s %22s%n", "shards", "ops/s", "specialization query");
+        // Writes add at most one new patient per operation.
+        DataGenerator generator = BenchmarkSupport.fixture(doctorCount, threads * opsPerThread, 0);
+        for (int shardCount = 1; shardCount <= 16; shardCount *= 2) {
+            try (ShardedMediTrack sharded = new ShardedMediTrack(shardCount, ShardRouter.byHash(), dir)) {
+                List<Doctor> doctors = generator.doctors();
+                for (int shard = 0; shard < shardCount; shard++) {
+                    List<Doctor> part = new ArrayList<>();
+                    for (Doctor d : doctors) {
+                        if (sharded.shardOf(d.getId()) == shard) part.add(d);
+                    }
+                    sharded.doctors(shard).addDoctors(part);
+                }
+
+                double opsPerSecond = mixedWorkload(sharded, generator, threads, opsPerThread);
+
+                long best = Long.MAX_VALUE;
+                int matches = 0;
+                for (int i = 0; i < 10; i++) {
+                    long t0 = System.nanoTime();
+                    matches = sharded.findDoctorsBySpecialization(Specialization.NEUROLOGY).size();
+                    best = Math.min(best, System.nanoTime() - t0);
+                }
+                out.printf("%7d %14.0f %15s [%d]%n", shardCount, opsPerSecond, BenchmarkSupport.formatNanos(best), matches);
+            }
+        }
+        System.setOut(out);
+    }
+
+    private static double mixedWorkload(ShardedMediTrack sharded, DataGenerator generator, int threads, int opsPerThread)
+            throws InterruptedException {
+        AtomicInteger nextPatientId = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final long seed = t;
+            new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                try {
+                    start.await();
+                    for (int i = 0; i < opsPerThread; i++) {
+                        if (random.nextInt(5) == 0) {
+                            int id = nextPatientId.incrementAndGet();
+                            sharded.addPatient(id, generator.patient(id));
+                        } else {
+                            int id = 1 + random.nextInt(Math.max(1, nextPatientId.get()));
+                            sharded.findPatientById(id, id);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        long t0 = System.nanoTime();
+        start.countDown();
+        done.await();
+        return (double) threads * opsPerThread / ((System.nanoTime() - t0) / 1e9);
+    }
+}
@@ -0,0 +1,101 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.exception.PersistenceException;
+import com.airtribe.meditrack.util.CSVUtil;
+import com.airtribe.meditrack.util.DataGenerator;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.Repository;
+import com.airtribe.meditrack.util.RepositoryFactory;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the storage options for load, lookup and booking:
+ * <ul>
+ *   <li>in-memory: {@link DataStore} only;</li>
+ *   <li>CSV: save to and reload from CSV files into {@link DataStore}s;</li>
+ *   <li>embedded DB: the JDBC repositories, when a driver for
+ *       {@code -Dmeditrack.jdbc.url} is on the classpath.</li>
+ * </ul>
+ * Usage: {@code java -cp out:h2.jar -Dmeditrack.jdbc.url=jdbc:h2:/tmp/bench
+ * com.airtribe.meditrack.benchmark.StorageBackendBenchmark [doctors] [patients] [lookups] [bookings]}
+ */
+public class StorageBackendBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int doctorCount = BenchmarkSupport.intArg(args, 0, 10_000);
+        int patientCount = BenchmarkSupport.intArg(args, 1, 200_000);
+        int lookups = BenchmarkSupport.intArg(args, 2, 200_000);
+        int bookings = BenchmarkSupport.intArg(args, 3, 50_000);
+
+        DataGenerator generator = BenchmarkSupport.fixture(doctorCount, patientCount, 0);
+        List<Doctor> doctors = generator.doctors();
+        List<Patient> patients = generator.patients();
+        System.out.printf("doctors %d, patients %d, lookups %d, bookings %d%n", doctorCount, patientCount, lookups, bookings);
+        System.out.printf("%-12s %12s %12s %12s%n", "backend", "load", "lookup", "booking");
+
+        run("in-memory", new DataStore<>(Doctor::getId), new DataStore<>(Patient::getId),
+                new DataStore<>(Appointment::getAppointmentId), doctors, patients, lookups, bookings, null);
+
+        Path dir = Files.createTempDirectory("meditrack-csv");
+        run("csv", new DataStore<>(Doctor::getId), new DataStore<>(Patient::getId),
+                new DataStore<>(Appointment::getAppointmentId), doctors, patients, lookups, bookings, dir);
+
+        String url = System.getProperty(Constants.JDBC_URL_PROPERTY);
+        if (url == null) {
+            System.out.println("embedded DB: skipped, set -D" + Constants.JDBC_URL_PROPERTY + " and add a driver jar");
+            return;
+        }
+        try (RepositoryFactory factory = new RepositoryFactory(RepositoryFactory.Backend.JDBC, url, false)) {
+            run("embedded DB", factory.doctors(), factory.patients(), factory.appointments(),
+                    doctors, patients, lookups, bookings, null);
+        } catch (PersistenceException e) {
+            System.out.println("embedded DB: skipped, " + e.getMessage() + ": " + e.getCause());
+        }
+    }
+
+    private static void run(String name, Repository<Doctor> doctorStore, Repository<Patient> patientStore,
+                            Repository<Appointment> appointmentStore, List<Doctor> doctors, List<Patient> patients,
+                            int lookups, int bookings, Path csvDir) throws IOException {
+        long t0 = System.nanoTime();
+        if (csvDir != null) {
+            String doctorFile = csvDir.resolve("doctors.csv").toString();
+            String patientFile = csvDir.resolve("patients.csv").toString();
+            CSVUtil.saveDoctorsToCSV(doctors, doctorFile);
+            CSVUtil.savePatientsToCSV(patients, patientFile);
+            doctorStore.addAll(CSVUtil.loadDoctorsFromCSV(doctorFile));
+            patientStore.addAll(CSVUtil.loadPatientsFromCSV(patientFile));
+        } else {
+            doctorStore.addAll(doctors);
+            patientStore.addAll(patients);
+        }
+        long t1 = System.nanoTime();
+
+        Random random = new Random(1);
+        long found = 0;
+        for (int i = 0; i < lookups; i++) {
+            if (patientStore.findById(1 + random.nextInt(patients.size())).isPresent()) found++;
+            if (doctorStore.findById(1 + random.nextInt(doctors.size())).isPresent()) found++;
+        }
+        long t2 = System.nanoTime();
+
+        LocalDate today = LocalDate.now();
+        for (int id = 1; id <= bookings; id++) {
+            Patient patient = patientStore.findById(1 + random.nextInt(patients.size())).orElseThrow();
+            Doctor doctor = doctorStore.findById(1 + random.nextInt(doctors.size())).orElseThrow();
+            appointmentStore.add(new Appointment(id, patient, doctor, today.plusDays(id % 30)));
+        }
+        long t3 = System.nanoTime();
+
+        System.out.printf("%-12s %12s %12s %12s  [%d]%n", name, BenchmarkSupport.formatNanos(t1 - t0),
+                BenchmarkSupport.formatNanos(t2 - t1), BenchmarkSupport.formatNanos(t3 - t2), found);
+    }
+}
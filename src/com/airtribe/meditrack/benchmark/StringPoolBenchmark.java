@@ -0,0 +1,72 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.util.CSVUtil;
+import com.airtribe.meditrack.util.DataGenerator;
+import com.airtribe.meditrack.util.StringPool;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Heap retained by a patients file loaded with {@link CSVUtil#loadPatientsFromCSV},
+ * where diseases go through {@link StringPool#DISEASES}, compared with the
+ * previous layout of one disease string per patient. The unpooled layout is
+ * reproduced by keeping a private copy of every disease next to the loaded
+ * patients, which is what the loader used to retain.
+ * <p>
+ * The file is written by the shared {@link DataGenerator} fixture, whose
+ * diseases follow a skewed distribution over a few dozen common diagnoses.
+ * <p>
+ * Usage: {@code java -Xmx3g -cp out com.airtribe.meditrack.benchmark.StringPoolBenchmark [patients]}
+ */
+public class StringPoolBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int patients = BenchmarkSupport.intArg(args, 0, 5_000_000);
+
+        Path file = Files.createTempFile("patients", ".csv");
+        try {
+            BenchmarkSupport.fixture(0, patients, 0).writePatients(file);
+            System.out.printf("%d patients, %d MB file%n", patients, Files.size(file) >> 20);
+
+            long baseHeap = BenchmarkSupport.settledHeapUsed();
+            long start = System.nanoTime();
+            List<Patient> loaded = CSVUtil.loadPatientsFromCSV(file.toString());
+            long loadNanos = System.nanoTime() - start;
+            long pooledHeap = BenchmarkSupport.settledHeapUsed() - baseHeap;
+
+            Set<String> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Patient patient : loaded) {
+                instances.add(patient.getDisease());
+            }
+
+            // The old layout: the substring from split() gave every patient its own String and byte[].
+            String[] copies = new String[loaded.size()];
+            long arrayHeap = BenchmarkSupport.settledHeapUsed() - baseHeap - pooledHeap;
+            for (int i = 0; i < copies.length; i++) {
+                copies[i] = new String(loaded.get(i).getDisease().toCharArray());
+            }
+            long copiesHeap = BenchmarkSupport.settledHeapUsed() - baseHeap - pooledHeap - arrayHeap;
+
+            System.out.println("Load time: " + BenchmarkSupport.formatNanos(loadNanos));
+            System.out.printf("Distinct disease instances: %d (pool holds %d)%n",
+                    instances.size(), StringPool.DISEASES.size());
+            System.out.printf("Heap retained, pooled diseases:   %.1f MB (%.1f bytes/patient)%n",
+                    pooledHeap / 1048576.0, pooledHeap / (double) patients);
+            System.out.printf("Heap retained, one copy each:     %.1f MB (%.1f bytes/patient)%n",
+                    (pooledHeap + copiesHeap) / 1048576.0, (pooledHeap + copiesHeap) / (double) patients);
+            System.out.printf("Saved by pooling: %.1f MB (%.1f%%)%n", copiesHeap / 1048576.0,
+                    100.0 * copiesHeap / (pooledHeap + copiesHeap));
+            if (copies.length != loaded.size()) {
+                System.out.println();
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
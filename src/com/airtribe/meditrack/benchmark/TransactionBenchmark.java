@@ -0,0 +1,246 @@
+package com.airtribe.meditrack.benchmark;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.exception.InvalidDataException;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.DoctorService;
+import com.airtribe.meditrack.service.PatientService;
+import com.airtribe.meditrack.service.TransactionalMediTrack;
+import com.airtribe.meditrack.util.DataGenerator;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Book-and-bill, bill and cancel under contention: optimistic transactions
+ * through {@link TransactionalMediTrack} against the same operations run
+ * directly on the services under one global lock.
+ * <p>
+ * 60% of the operations book and bill a new appointment for a patient and
+ * doctor drawn from a hot set, 30% bill and 10% cancel one of the latest
+ * appointments, so a small hot set means many transactions touch the same
+ * entities. {@code readMicros} simulates the latency of a store read (a
+ * database round trip); the global lock holds every other thread back for
+ * it, the optimistic version does not.
+ * <p>
+ * Usage: {@code java -cp out com.airtribe.meditrack.benchmark.TransactionBenchmark [threads] [operations] [readMicros]}
+ */
+public class TransactionBenchmark {
+
+    private static final int[] HOT_SETS = {4, 1_000};
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = BenchmarkSupport.intArg(args, 0, 8);
+        int operations = BenchmarkSupport.intArg(args, 1, 200_000);
+        int readMicros = BenchmarkSupport.intArg(args, 2, 0);
+
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // services print per change
+        out.printf("%d threads, %d operations, %d us per store read%n", threads, operations, readMicros);
+        try {
+            for (int round = 0; round <= 2; round++) {
+                for (int hot : HOT_SETS) {
+                    int ops = readMicros > 0 ? Math.min(operations, 20_000) : operations;
+                    String label = (round == 0 ? "warm-up" : "round " + round) + String.format(", hot set %5d", hot);
+                    Result locked = run(new GlobalLock(hot, readMicros), threads, ops, hot);
+                    Optimistic optimistic = new Optimistic(hot, readMicros);
+                    Result occ = run(optimistic, threads, ops, hot);
+                    out.printf("%s: global lock %,10.0f ops/s | optimistic %,10.0f ops/s, %.1f%% of attempts retried%n",
+                            label, locked.opsPerSecond(), occ.opsPerSecond(),
+                            100.0 * optimistic.facade.getConflicts()
+                                    / Math.max(1, optimistic.facade.getConflicts() + optimistic.facade.getCommits()));
+                }
+            }
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    private static Result run(Workload workload, int threads, int operations, int hot)
+            throws InterruptedException {
+        AtomicInteger nextId = new AtomicInteger(hot); // hot appointments 1..hot exist up front
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            SplittableRandom random = new SplittableRandom(t);
+            int share = operations / threads;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < share; i++) {
+                    int roll = random.nextInt(10);
+                    int patientId = 1 + random.nextInt(hot);
+                    int doctorId = 1 + random.nextInt(hot);
+                    try {
+                        if (roll < 6) {
+                            workload.bookAndBill(nextId.incrementAndGet(), patientId, doctorId);
+                        } else {
+                            int recent = Math.max(1, nextId.get() - random.nextInt(hot));
+                            if (roll < 9) {
+                                workload.bill(recent);
+                            } else {
+                                workload.cancel(recent);
+                            }
+                        }
+                    } catch (InvalidDataException e) {
+                        // billed a cancelled appointment: an expected outcome
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return new Result(operations / threads * threads, System.nanoTime() - t0);
+    }
+
+    private static void storeRead(int readMicros) {
+        if (readMicros > 0) {
+            LockSupport.parkNanos(readMicros * 1_000L);
+        }
+    }
+
+    private static final class Result {
+
+        final long operations;
+        final long nanos;
+
+        Result(long operations, long nanos) {
+            this.operations = operations;
+            this.nanos = nanos;
+        }
+
+        double opsPerSecond() {
+            return operations / (nanos / 1e9);
+        }
+    }
+
+    private abstract static class Workload {
+
+        final DoctorService doctors = new DoctorService();
+        final PatientService patients = new PatientService();
+        final AppointmentService appointments = new AppointmentService();
+        final int readMicros;
+
+        Workload(int hot, int readMicros) {
+            this.readMicros = readMicros;
+            DataGenerator generator = BenchmarkSupport.fixture(hot, hot, hot);
+            doctors.addDoctors(generator.doctors());
+            patients.addPatients(generator.patients());
+            appointments.addAppointments(generator.appointments(generator.patients(), generator.doctors()));
+        }
+
+        abstract void bookAndBill(int appointmentId, int patientId, int doctorId);
+
+        abstract void bill(int appointmentId);
+
+        abstract void cancel(int appointmentId);
+    }
+
+    private static final class GlobalLock extends Workload {
+
+        private final Object lock = new Object();
+
+        GlobalLock(int hot, int readMicros) {
+            super(hot, readMicros);
+        }
+
+        @Override
+        void bookAndBill(int appointmentId, int patientId, int doctorId) {
+            synchronized (lock) {
+                Patient patient = patients.findPatientById(patientId);
+                storeRead(readMicros);
+                Doctor doctor = doctors.findDoctorById(doctorId);
+                storeRead(readMicros);
+                if (patient == null || doctor == null || appointments.findAppointment(appointmentId).isPresent()) {
+                    throw new InvalidDataException("Cannot book " + appointmentId, false);
+                }
+                storeRead(readMicros);
+                Appointment appointment = new Appointment(appointmentId, patient, doctor, LocalDate.now());
+                appointments.addAppointments(List.of(appointment));
+                new Bill(appointment).generateBillSummary();
+            }
+        }
+
+        @Override
+        void bill(int appointmentId) {
+            synchronized (lock) {
+                Optional<Appointment> appointment = appointments.findAppointment(appointmentId);
+                storeRead(readMicros);
+                if (appointment.isPresent() && appointment.get().getStatus() != AppointmentStatus.CANCELLED) {
+                    new Bill(appointment.get()).generateBillSummary();
+                }
+            }
+        }
+
+        @Override
+        void cancel(int appointmentId) {
+            synchronized (lock) {
+                storeRead(readMicros);
+                appointments.tryCancelAppointment(appointmentId);
+            }
+        }
+    }
+
+    private static final class Optimistic extends Workload {
+
+        final TransactionalMediTrack facade = new TransactionalMediTrack(doctors, patients, appointments);
+
+        Optimistic(int hot, int readMicros) {
+            super(hot, readMicros);
+        }
+
+        @Override
+        void bookAndBill(int appointmentId, int patientId, int doctorId) {
+            facade.execute(tx -> {
+                Patient patient = tx.patient(patientId);
+                storeRead(readMicros);
+                Doctor doctor = tx.doctor(doctorId);
+                storeRead(readMicros);
+                if (patient == null || doctor == null || tx.appointment(appointmentId).isPresent()) {
+                    throw new InvalidDataException("Cannot book " + appointmentId, false);
+                }
+                storeRead(readMicros);
+                return new Bill(tx.book(appointmentId, patient, doctor, LocalDate.now())).generateBillSummary();
+            });
+        }
+
+        @Override
+        void bill(int appointmentId) {
+            facade.execute(tx -> {
+                Optional<Appointment> appointment = tx.appointment(appointmentId);
+                storeRead(readMicros);
+                return appointment.filter(a -> a.getStatus() != AppointmentStatus.CANCELLED)
+                        .map(a -> new Bill(a).generateBillSummary());
+            });
+        }
+
+        @Override
+        void cancel(int appointmentId) {
+            facade.execute(tx -> {
+                Optional<Appointment> appointment = tx.appointment(appointmentId);
+                storeRead(readMicros);
+                appointment.ifPresent(tx::cancel);
+                return null;
+            });
+        }
+    }
+}
@@ -14,6 +14,120 @@ public final class Constants {
     /** Default CSV file name for patients. */
     public static final String PATIENT_FILE = "patients.csv";
 
+    /** Default CSV file name for appointments; patients and doctors are referenced by id. */
+    public static final String APPOINTMENT_FILE = "appointments.csv";
+
+    /** High-water mark file of the doctor id sequence. */
+    public static final String DOCTOR_SEQUENCE_FILE = "doctors.seq";
+
+    /** High-water mark file of the patient id sequence. */
+    public static final String PATIENT_SEQUENCE_FILE = "patients.seq";
+
+    /** High-water mark file of the appointment id sequence. */
+    public static final String APPOINTMENT_SEQUENCE_FILE = "appointments.seq";
+
+    /** Number of ids a thread leases from a sequence at a time. */
+    public static final int ID_BLOCK_SIZE = 64;
+
+    /** Maximum number of violations printed for a CSV import. */
+    public static final int REPORT_VIOLATION_LIMIT = 20;
+
+    /** System property that switches patient storage to the off-heap store when set to {@code true}. */
+    public static final String OFF_HEAP_PATIENTS_PROPERTY = "meditrack.patients.offheap";
+
+    /** System property that reads patients and doctors from their CSV files on demand when set to {@code true}. */
+    public static final String LAZY_LOAD_PROPERTY = "meditrack.lazy";
+
+    /** System property that turns on duplicate-patient detection when set to {@code true}. */
+    public static final String DEDUPLICATE_PATIENTS_PROPERTY = "meditrack.dedup";
+
+    /**
+     * System property that, together with {@link #DEDUPLICATE_PATIENTS_PROPERTY}, merges the duplicates already
+     * in the patients file at startup when set to {@code true}; otherwise they are only reported.
+     */
+    public static final String MERGE_DUPLICATE_PATIENTS_PROPERTY = "meditrack.dedup.merge";
+
+    /** System property selecting the storage backend: {@code memory} or {@code jdbc}. */
+    public static final String STORE_BACKEND_PROPERTY = "meditrack.store";
+
+    /** System property holding the JDBC url of the embedded database. */
+    public static final String JDBC_URL_PROPERTY = "meditrack.jdbc.url";
+
+    /** Embedded H2 database file used when no JDBC url is configured. */
+    public static final String DEFAULT_JDBC_URL = "jdbc:h2:./meditrack";
+
+    /** System property naming a file that every entity change is journaled to; unset disables the journal. */
+    public static final String CHANGE_JOURNAL_PROPERTY = "meditrack.changes.journal";
+
+    /** Number of events the change feed buffers before publishers wait for subscribers. */
+    public static final int CHANGE_FEED_CAPACITY = 8192;
+
+    /** Number of rows shown per page of a console listing. */
+    public static final int LISTING_PAGE_SIZE = 50;
+
+    /** Number of rows per write when exporting a listing to a file. */
+    public static final int EXPORT_PAGE_SIZE = 1000;
+
+    /** System property with the autosave interval in milliseconds; {@code 0} disables autosave. */
+    public static final String AUTOSAVE_INTERVAL_PROPERTY = "meditrack.autosave.interval";
+
+    /** System property with the number of changed records that triggers an early autosave. */
+    public static final String AUTOSAVE_THRESHOLD_PROPERTY = "meditrack.autosave.threshold";
+
+    /** Default maximum age of an unsaved change. */
+    public static final long DEFAULT_AUTOSAVE_INTERVAL_MILLIS = 5_000;
+
+    /** Default number of changed records that triggers an early autosave. */
+    public static final int DEFAULT_AUTOSAVE_THRESHOLD = 1_000;
+
+    /** System property with the number of records cached per entity type in front of the store; {@code 0} disables the cache. */
+    public static final String CACHE_SIZE_PROPERTY = "meditrack.cache.size";
+
+    /** Cache size used for the database backend when none is configured. */
+    public static final int DEFAULT_JDBC_CACHE_SIZE = 10_000;
+
+    /** Cache size used in front of CSV files read on demand when none is configured. */
+    public static final int DEFAULT_LAZY_CACHE_SIZE = 10_000;
+
+    /** System property selecting the executor of the async facade: {@code virtual} or {@code platform}. */
+    public static final String ASYNC_EXECUTOR_PROPERTY = "meditrack.async.executor";
+
+    /** Largest number of writes the async facade sends to a store in one batch. */
+    public static final int ASYNC_WRITE_BATCH = 256;
+
+    /** Attempts an optimistic transaction makes before giving up on conflicts. */
+    public static final int TRANSACTION_MAX_ATTEMPTS = 100;
+
+    /** System property overriding {@link #DEFAULT_DAILY_APPOINTMENT_LIMIT}. */
+    public static final String DAILY_APPOINTMENT_LIMIT_PROPERTY = "meditrack.doctor.daily.limit";
+
+    /** Most appointments a doctor is assigned per day when booking with any available doctor. */
+    public static final int DEFAULT_DAILY_APPOINTMENT_LIMIT = 20;
+
+    /** System property naming the directory of the appointment archive; no archive when unset. */
+    public static final String ARCHIVE_DIRECTORY_PROPERTY = "meditrack.archive.dir";
+
+    /** System property overriding {@link #DEFAULT_ARCHIVE_AFTER_DAYS}. */
+    public static final String ARCHIVE_AFTER_DAYS_PROPERTY = "meditrack.archive.after.days";
+
+    /** Age in days after which appointments are moved to the archive at startup. */
+    public static final int DEFAULT_ARCHIVE_AFTER_DAYS = 365;
+
+    /** System property with the local port this instance ships its changes to followers on; unset disables it. */
+    public static final String REPLICATION_PORT_PROPERTY = "meditrack.replication.port";
+
+    /** System property with the {@code host:port} of a primary; makes this instance a read-only follower. */
+    public static final String REPLICATION_PRIMARY_PROPERTY = "meditrack.replication.primary";
+
+    /** Milliseconds a follower waits at startup for the primary's snapshot. */
+    public static final long REPLICATION_SNAPSHOT_TIMEOUT_MILLIS = 60_000;
+
+    /** System property naming a command script to run instead of the menu; {@code -} reads standard input. */
+    public static final String BATCH_INPUT_PROPERTY = "meditrack.batch";
+
+    /** Number of script commands read and run together in batch mode. */
+    public static final int BATCH_CHUNK_SIZE = 4_096;
+
     private Constants() {
         throw new AssertionError("Constants class");
     }
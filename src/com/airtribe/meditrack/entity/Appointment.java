@@ -15,7 +15,7 @@ public class Appointment implements Cloneable {
     private Patient patient;
     private Doctor doctor;
     private LocalDate appointmentDate;
-    private AppointmentStatus status;
+    private volatile AppointmentStatus status;
 
     public Appointment(int appointmentId,
                        Patient patient,
@@ -23,7 +23,7 @@ public class Appointment implements Cloneable {
                        LocalDate appointmentDate) {
 
         this.appointmentId = appointmentId;
-        this.patient = patient;
+        this.patient = patient == null ? null : patient.detached(); // may be a view onto a store
         this.doctor = doctor;
         this.appointmentDate = appointmentDate;
         this.status = AppointmentStatus.PENDING; // default
@@ -49,14 +49,28 @@ public class Appointment implements Cloneable {
         return status;
     }
 
-    public void confirm() {
+    public synchronized void confirm() {
         this.status = AppointmentStatus.CONFIRMED;
     }
 
-    public void cancel() {
+    public synchronized void cancel() {
         this.status = AppointmentStatus.CANCELLED;
     }
 
+    /**
+     * Cancels the appointment unless it already is; of several concurrent
+     * callers exactly one sees {@code true}.
+     *
+     * @return {@code true} if this call cancelled the appointment
+     */
+    public synchronized boolean cancelIfActive() {
+        if (status == AppointmentStatus.CANCELLED) {
+            return false;
+        }
+        this.status = AppointmentStatus.CANCELLED;
+        return true;
+    }
+
     /**
      * Creates and returns a deep copy of this {@code Appointment}.
      * <p>
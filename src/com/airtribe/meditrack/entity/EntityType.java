@@ -0,0 +1,10 @@
+package com.airtribe.meditrack.entity;
+
+/**
+ * The kinds of entity that have their own identifier space.
+ */
+public enum EntityType {
+    DOCTOR,
+    PATIENT,
+    APPOINTMENT
+}
@@ -1,20 +1,25 @@
 package com.airtribe.meditrack.entity;
 
+import com.airtribe.meditrack.util.StringPool;
+
 /**
  * Represents a patient in the system.
  * <p>
  * This class implements {@link Cloneable} and provides a {@link #clone()} method
- * that returns a deep copy of the instance. Immutable fields from the
- * superclass are preserved and mutable or reference fields are defensively
- * copied to ensure callers receive an independent object.
+ * that returns an independent copy of the instance. All fields are immutable
+ * values, so the copy shares them.
+ * <p>
+ * The disease is canonicalized through {@link StringPool#DISEASES}, so every
+ * patient with the same diagnosis, whether it was loaded from CSV, read from
+ * the database or entered at the console, references one string instance.
  */
 public class Patient extends Person implements Cloneable {
 
-    private String disease;
+    private final String disease;
 
     public Patient(int id, String name, int age, String disease) {
         super(id, name, age);  // call parent constructor
-        this.disease = disease;
+        this.disease = StringPool.DISEASES.canonicalize(disease);
     }
 
     public String getDisease() {
@@ -22,24 +27,32 @@ public class Patient extends Person implements Cloneable {
     }
 
     /**
-     * Creates and returns a deep copy of this Patient.
+     * Returns a patient whose fields stay readable after any store holding
+     * it has removed it. An ordinary patient is already standalone and
+     * returns itself; a view onto a store's records returns a copy.
+     *
+     * @return this patient or a standalone copy of it
+     */
+    public Patient detached() {
+        return this;
+    }
+
+    /**
+     * Creates and returns a copy of this Patient.
      * <p>
      * The implementation attempts to use {@code super.clone()} for efficiency
      * and falls back to manual construction if cloning is not supported.
      *
-     * @return a deep copy of this {@code Patient}
+     * @return a copy of this {@code Patient}
      */
     @Override
     public Patient clone() {
         try {
-            Patient cloned = (Patient) super.clone();
-            // Strings are immutable, but create defensive copies if callers expect distinct instances
-            cloned.disease = this.disease == null ? null : new String(this.disease);
-            return cloned;
+            // Strings are immutable; sharing the pooled disease keeps clones as small as the original
+            return (Patient) super.clone();
         } catch (CloneNotSupportedException e) {
-            // Fallback: manual deep copy
-            return new Patient(this.getId(), this.getName(), this.getAge(),
-                    this.disease == null ? null : new String(this.disease));
+            // Fallback: manual copy
+            return new Patient(this.getId(), this.getName(), this.getAge(), this.disease);
         }
     }
 }
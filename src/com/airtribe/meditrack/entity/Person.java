@@ -1,6 +1,8 @@
 package com.airtribe.meditrack.entity;
 
-public abstract class Person {
+import com.airtribe.meditrack.interfaces.Searchable;
+
+public abstract class Person implements Searchable {
 
     private int id;
     private String name;
@@ -23,4 +25,16 @@ public abstract class Person {
     public int getAge() {
         return age;
     }
+
+    /**
+     * Matches when the trimmed keyword occurs in the name, ignoring case.
+     */
+    @Override
+    public boolean matches(String keyword) {
+        if (keyword == null || getName() == null) {
+            return false;
+        }
+        String trimmed = keyword.trim();
+        return !trimmed.isEmpty() && getName().toLowerCase().contains(trimmed.toLowerCase());
+    }
 }
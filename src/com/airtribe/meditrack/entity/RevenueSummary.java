@@ -0,0 +1,109 @@
+package com.airtribe.meditrack.entity;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Immutable revenue and utilization figures of one doctor or one
+ * specialization over one period (a day or a month).
+ * <p>
+ * Amounts are kept in cents so that sums are exact. Revenue counts every
+ * appointment that is not cancelled, taxed at
+ * {@link com.airtribe.meditrack.constants.Constants#TAX_RATE} per
+ * appointment as on the bill.
+ */
+public final class RevenueSummary {
+
+    private final String group;
+    private final LocalDate periodStart;
+    private final LocalDate periodEnd;
+    private final long appointments;
+    private final long cancelled;
+    private final long feeCents;
+    private final long taxCents;
+    private final long capacity;
+
+    /**
+     * @param group        doctor or specialization the figures belong to
+     * @param periodStart  first day of the period
+     * @param periodEnd    last day of the period
+     * @param appointments appointments that are not cancelled
+     * @param cancelled    cancelled appointments
+     * @param feeCents     consultation fees of the appointments, in cents
+     * @param taxCents     tax on those fees, in cents
+     * @param capacity     appointments the group could have taken in the period
+     */
+    public RevenueSummary(String group, LocalDate periodStart, LocalDate periodEnd, long appointments,
+                          long cancelled, long feeCents, long taxCents, long capacity) {
+        this.group = Objects.requireNonNull(group, "group must not be null");
+        this.periodStart = Objects.requireNonNull(periodStart, "periodStart must not be null");
+        this.periodEnd = Objects.requireNonNull(periodEnd, "periodEnd must not be null");
+        this.appointments = appointments;
+        this.cancelled = cancelled;
+        this.feeCents = feeCents;
+        this.taxCents = taxCents;
+        this.capacity = capacity;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public LocalDate getPeriodEnd() {
+        return periodEnd;
+    }
+
+    /**
+     * @return appointments in the period that are not cancelled
+     */
+    public long getAppointments() {
+        return appointments;
+    }
+
+    public long getCancelled() {
+        return cancelled;
+    }
+
+    public long getFeeCents() {
+        return feeCents;
+    }
+
+    public long getTaxCents() {
+        return taxCents;
+    }
+
+    /**
+     * @return fees plus tax, in cents
+     */
+    public long getRevenueCents() {
+        return feeCents + taxCents;
+    }
+
+    /**
+     * @return share of the capacity that was booked, 0 if there was none
+     */
+    public double getUtilization() {
+        return capacity == 0 ? 0 : (double) appointments / capacity;
+    }
+
+    /**
+     * @return share of all appointments that were cancelled
+     */
+    public double getCancellationRate() {
+        long total = appointments + cancelled;
+        return total == 0 ? 0 : (double) cancelled / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s..%s: %d appointments, revenue %d.%02d (tax %d.%02d), "
+                        + "utilization %.1f%%, cancellation rate %.1f%%",
+                group, periodStart, periodEnd, appointments,
+                getRevenueCents() / 100, getRevenueCents() % 100, taxCents / 100, taxCents % 100,
+                getUtilization() * 100, getCancellationRate() * 100);
+    }
+}
@@ -18,4 +18,26 @@ public class AppointmentNotFoundException extends RuntimeException {
     public AppointmentNotFoundException(String message) {
         super(message);
     }
+
+    /**
+     * Constructs a new {@code AppointmentNotFoundException} that optionally skips
+     * capturing a stack trace. Lookups of unknown ids are an expected outcome,
+     * so services create these without a stack trace to keep misses cheap.
+     *
+     * @param message            the detail message explaining why the appointment was not found
+     * @param writableStackTrace whether the stack trace should be captured
+     */
+    public AppointmentNotFoundException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
+
+    /**
+     * Creates a stackless exception for a missing appointment id.
+     *
+     * @param appointmentId the id that was not found
+     * @return a new exception without a stack trace
+     */
+    public static AppointmentNotFoundException forId(int appointmentId) {
+        return new AppointmentNotFoundException("Appointment with id " + appointmentId + " not found", false);
+    }
 }
@@ -0,0 +1,31 @@
+package com.airtribe.meditrack.exception;
+
+/**
+ * Exception thrown when a new patient has the same name, age and disease as
+ * a patient that is already stored.
+ * <p>
+ * A duplicate is an expected outcome of adding a patient, so the exception
+ * carries no stack trace.
+ */
+public class DuplicatePatientException extends InvalidDataException {
+
+    private final int existingId;
+
+    /**
+     * Constructs a new {@code DuplicatePatientException}.
+     *
+     * @param id         id of the rejected patient
+     * @param existingId id of the stored patient it duplicates
+     */
+    public DuplicatePatientException(int id, int existingId) {
+        super("Patient " + id + " duplicates existing patient " + existingId, false);
+        this.existingId = existingId;
+    }
+
+    /**
+     * @return id of the stored patient
+     */
+    public int getExistingId() {
+        return existingId;
+    }
+}
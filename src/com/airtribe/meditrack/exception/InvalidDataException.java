@@ -24,4 +24,16 @@ public class InvalidDataException extends RuntimeException {
     public InvalidDataException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    /**
+     * Constructs a new {@code InvalidDataException} that optionally skips capturing
+     * a stack trace. Rejected input is an expected outcome of validation, so the
+     * validator creates these without a stack trace.
+     *
+     * @param message            the detail message explaining the reason for the exception
+     * @param writableStackTrace whether the stack trace should be captured
+     */
+    public InvalidDataException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
@@ -0,0 +1,30 @@
+package com.airtribe.meditrack.exception;
+
+/**
+ * Exception thrown when a storage backend fails to read or write data.
+ * <p>
+ * Wraps checked driver exceptions (for example {@link java.sql.SQLException})
+ * so that repository methods keep the unchecked contract of the in-memory
+ * {@code DataStore}.
+ */
+public class PersistenceException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code PersistenceException} with the specified detail message.
+     *
+     * @param message the detail message describing the failed operation
+     */
+    public PersistenceException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new {@code PersistenceException} with the specified detail message and cause.
+     *
+     * @param message the detail message describing the failed operation
+     * @param cause   the underlying driver or I/O failure
+     */
+    public PersistenceException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
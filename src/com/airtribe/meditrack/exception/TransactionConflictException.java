@@ -0,0 +1,19 @@
+package com.airtribe.meditrack.exception;
+
+/**
+ * Exception thrown when an optimistic transaction keeps conflicting with
+ * concurrent commits and gives up after its last attempt.
+ * <p>
+ * Nothing of the transaction was applied; the caller may try again later.
+ */
+public class TransactionConflictException extends RuntimeException {
+
+    /**
+     * Constructs a new {@code TransactionConflictException} with the specified detail message.
+     *
+     * @param message the detail message naming the number of attempts made
+     */
+    public TransactionConflictException(String message) {
+        super(message);
+    }
+}
@@ -1,17 +1,158 @@
 package com.airtribe.meditrack.service;
 
+import com.airtribe.meditrack.constants.Constants;
 import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
 import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.BillSummary;
 import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.EntityType;
 import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
 import com.airtribe.meditrack.exception.AppointmentNotFoundException;
+import com.airtribe.meditrack.util.AppointmentArchive;
+import com.airtribe.meditrack.util.AppointmentDateIndex;
+import com.airtribe.meditrack.util.AppointmentWaitlist;
+import com.airtribe.meditrack.util.CSVUtil;
+import com.airtribe.meditrack.util.ChangeEvent;
+import com.airtribe.meditrack.util.ChangeFeed;
 import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.DoctorLoadIndex;
+import com.airtribe.meditrack.util.IntHashMap;
+import com.airtribe.meditrack.util.IntHashSet;
+import com.airtribe.meditrack.util.ListingWriter;
+import com.airtribe.meditrack.util.Page;
+import com.airtribe.meditrack.util.Repository;
+import com.airtribe.meditrack.util.RevenueLedger;
+import java.io.Writer;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.IntSupplier;
 
 public class AppointmentService {
 
-    private final DataStore<Appointment> appointmentStore = new DataStore<>();
+    // order of getAppointmentsBetween, for merging archived and live appointments
+    private static final Comparator<Appointment> HISTORY_ORDER = Comparator
+            .comparing(Appointment::getAppointmentDate)
+            .thenComparingInt(a -> a.getDoctor() == null ? 0 : a.getDoctor().getId())
+            .thenComparingInt(Appointment::getAppointmentId);
+
+    private final Repository<Appointment> appointmentStore;
+    private final ListingWriter console = ListingWriter.toConsole();
+    private volatile ChangeFeed changeFeed;
+    private volatile DoctorLoadIndex doctorLoad;
+    private volatile RevenueLedger revenueLedger;
+    // written before waitlist, so a reader that sees the waitlist also sees its id source
+    private volatile IntSupplier waitlistIds;
+    private volatile AppointmentWaitlist waitlist;
+    private volatile AppointmentArchive archive;
+    // Each store change and its publish run under writeLock, so feed sequence numbers follow the store's order.
+    private final Object writeLock = new Object();
+
+    // doctor id -> appointment ids and patient id -> appointment ids, guarded by relationLock
+    private final Object relationLock = new Object();
+    private final IntHashMap<IntHashSet> appointmentsByDoctor = new IntHashMap<>();
+    private final IntHashMap<IntHashSet> appointmentsByPatient = new IntHashMap<>();
+
+    // (date, doctor id, appointment id) -> appointment; concurrent, so it needs no lock
+    private final AppointmentDateIndex appointmentsByDate = new AppointmentDateIndex();
+
+    public AppointmentService() {
+        this(new DataStore<>(Appointment::getAppointmentId));
+    }
+
+    /**
+     * Creates a service backed by the given repository. Appointments already
+     * stored in it are indexed by doctor and patient.
+     *
+     * @param appointmentStore storage for appointments
+     */
+    public AppointmentService(Repository<Appointment> appointmentStore) {
+        this.appointmentStore = Objects.requireNonNull(appointmentStore, "appointmentStore must not be null");
+        for (Appointment appointment : appointmentStore.getAll()) {
+            index(appointment);
+        }
+    }
+
+    /**
+     * Publishes every subsequent appointment mutation to {@code changeFeed}.
+     *
+     * @param changeFeed feed to publish to, or {@code null} to stop publishing
+     */
+    public void setChangeFeed(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    /**
+     * Keeps {@code doctorLoad} up to date with every booking and cancellation
+     * from now on, and counts the active appointments already stored.
+     *
+     * @param doctorLoad per-day doctor workload, or {@code null} to stop tracking
+     */
+    public void setDoctorLoadIndex(DoctorLoadIndex doctorLoad) {
+        this.doctorLoad = doctorLoad;
+        if (doctorLoad != null) {
+            for (Appointment appointment : appointmentStore.getAll()) {
+                countBooking(appointment);
+            }
+        }
+    }
+
+    /**
+     * Keeps {@code revenueLedger} up to date with every booking and
+     * cancellation from now on, and counts the appointments already stored.
+     *
+     * @param revenueLedger revenue figures to maintain, or {@code null} to stop
+     */
+    public void setRevenueLedger(RevenueLedger revenueLedger) {
+        this.revenueLedger = revenueLedger;
+        if (revenueLedger != null) {
+            revenueLedger.addAll(appointmentStore.getAll());
+        }
+    }
+
+    /**
+     * Gives every slot freed by a cancellation to the next patient on
+     * {@code waitlist} for that doctor and day.
+     *
+     * @param waitlist       waitlist to backfill from, or {@code null} to stop backfilling
+     * @param appointmentIds source of ids for backfilled appointments
+     */
+    public void setWaitlist(AppointmentWaitlist waitlist, IntSupplier appointmentIds) {
+        if (waitlist != null) {
+            this.waitlistIds = Objects.requireNonNull(appointmentIds, "appointmentIds must not be null");
+        }
+        this.waitlist = waitlist;
+    }
+
+    /**
+     * Sets the archive that {@link #archiveAppointmentsBefore(LocalDate)}
+     * moves past appointments to and that the history queries read.
+     *
+     * @param archive archive of past appointments, or {@code null} for none
+     */
+    public void setArchive(AppointmentArchive archive) {
+        this.archive = archive;
+    }
+
+    /**
+     * Puts a patient on the waitlist for a doctor and day.
+     *
+     * @param priority higher values are served first, equal values in request order
+     * @return the entry, to take the patient off again with {@link AppointmentWaitlist#leave}
+     * @throws IllegalStateException if no waitlist is set
+     */
+    public AppointmentWaitlist.Entry joinWaitlist(Patient patient, Doctor doctor, LocalDate date, int priority) {
+        AppointmentWaitlist list = waitlist;
+        if (list == null) {
+            throw new IllegalStateException("No waitlist is configured");
+        }
+        return list.join(patient, doctor, date, priority);
+    }
 
     // Book Appointment
     public void bookAppointment(int appointmentId,
@@ -21,27 +162,444 @@ public class AppointmentService {
 
         Appointment appointment = new Appointment(appointmentId, patient, doctor, date);
 
-        appointmentStore.add(appointment);
+        synchronized (writeLock) {
+            appointmentStore.add(appointment);
+            index(appointment);
+            countBooking(appointment);
+            publish(ChangeEvent.Kind.ADDED, appointment);
+        }
         System.out.println("Appointment booked successfully!");
     }
 
-    // Cancel Appointment
-    public void cancelAppointment(int appointmentId) {
+    /**
+     * Books the appointment with the least-loaded doctor of a specialization
+     * who still has room that day.
+     *
+     * @param appointmentId  id of the new appointment
+     * @param patient        the patient
+     * @param specialization required specialization
+     * @param date           day of the appointment
+     * @return the booked appointment, or empty if no doctor is available
+     * @throws IllegalStateException if no {@link DoctorLoadIndex} is set
+     */
+    public Optional<Appointment> bookWithAvailableDoctor(int appointmentId,
+                                                         Patient patient,
+                                                         Specialization specialization,
+                                                         LocalDate date) {
+        DoctorLoadIndex load = doctorLoad;
+        if (load == null) {
+            throw new IllegalStateException("Doctor workload is not tracked");
+        }
+        Optional<Doctor> doctor = load.assign(specialization, date);
+        if (doctor.isEmpty()) {
+            return Optional.empty();
+        }
+        Appointment appointment = new Appointment(appointmentId, patient, doctor.get(), date);
+        synchronized (writeLock) {
+            try {
+                appointmentStore.add(appointment);
+            } catch (RuntimeException e) {
+                load.released(doctor.get(), date); // give the slot back
+                throw e;
+            }
+            index(appointment);
+            RevenueLedger ledger = revenueLedger; // the load index already counted the assignment
+            if (ledger != null) {
+                ledger.booked(appointment);
+            }
+            publish(ChangeEvent.Kind.ADDED, appointment);
+        }
+        System.out.println("Appointment booked successfully with Dr. " + doctor.get().getName() + "!");
+        return Optional.of(appointment);
+    }
+
+    /**
+     * Stores a batch of appointments, e.g. loaded from a file, in one bulk
+     * insert and indexes them.
+     *
+     * @param appointments appointments to add
+     */
+    public void addAppointments(List<Appointment> appointments) {
+        synchronized (writeLock) {
+            appointmentStore.addAll(appointments);
+            for (Appointment appointment : appointments) {
+                index(appointment);
+                countBooking(appointment);
+                publish(ChangeEvent.Kind.ADDED, appointment);
+            }
+        }
+    }
+
+    private void index(Appointment appointment) {
+        appointmentsByDate.add(appointment);
+        synchronized (relationLock) {
+            if (appointment.getDoctor() != null) {
+                appointmentsByDoctor.computeIfAbsent(appointment.getDoctor().getId(), k -> new IntHashSet())
+                        .add(appointment.getAppointmentId());
+            }
+            if (appointment.getPatient() != null) {
+                appointmentsByPatient.computeIfAbsent(appointment.getPatient().getId(), k -> new IntHashSet())
+                        .add(appointment.getAppointmentId());
+            }
+        }
+    }
+
+    private void countBooking(Appointment appointment) {
+        DoctorLoadIndex load = doctorLoad;
+        if (load != null && appointment.getDoctor() != null
+                && appointment.getStatus() != AppointmentStatus.CANCELLED) {
+            load.booked(appointment.getDoctor(), appointment.getAppointmentDate());
+        }
+        RevenueLedger ledger = revenueLedger;
+        if (ledger != null) {
+            ledger.booked(appointment);
+        }
+    }
+
+    // Only the caller that actually cancels the appointment releases, publishes and backfills its slot;
+    // cancelling an appointment that is already cancelled changes nothing.
+    private Optional<Appointment> cancel(Appointment appointment) {
+        synchronized (writeLock) {
+            if (!appointment.cancelIfActive()) {
+                return Optional.empty();
+            }
+            DoctorLoadIndex load = doctorLoad;
+            if (load != null && appointment.getDoctor() != null) {
+                load.released(appointment.getDoctor(), appointment.getAppointmentDate());
+            }
+            RevenueLedger ledger = revenueLedger;
+            if (ledger != null) {
+                ledger.cancelled(appointment);
+            }
+            appointmentStore.update(appointment);
+            publish(ChangeEvent.Kind.STATUS_CHANGED, appointment);
+        }
+        return backfill(appointment.getDoctor(), appointment.getAppointmentDate());
+    }
+
+    private Optional<Appointment> backfill(Doctor doctor, LocalDate date) {
+        AppointmentWaitlist list = waitlist;
+        if (list == null || doctor == null || date == null) {
+            return Optional.empty();
+        }
+        Optional<AppointmentWaitlist.Entry> next;
+        while ((next = list.poll(doctor.getId(), date)).isPresent()) {
+            Patient patient = next.get().getPatient();
+            if (hasActiveAppointment(patient.getId(), doctor.getId(), date)) {
+                continue; // booked meanwhile; the slot goes to the next patient
+            }
+            Appointment appointment = new Appointment(waitlistIds.getAsInt(), patient, doctor, date);
+            synchronized (writeLock) {
+                try {
+                    appointmentStore.add(appointment);
+                } catch (RuntimeException e) {
+                    list.requeue(next.get());
+                    throw e;
+                }
+                index(appointment);
+                countBooking(appointment);
+                publish(ChangeEvent.Kind.ADDED, appointment);
+            }
+            return Optional.of(appointment);
+        }
+        return Optional.empty();
+    }
+
+    private boolean hasActiveAppointment(int patientId, int doctorId, LocalDate date) {
+        for (Appointment appointment : appointmentsByDate.forDoctorOn(doctorId, date)) {
+            if (appointment.getPatient() != null && appointment.getPatient().getId() == patientId
+                    && appointment.getStatus() != AppointmentStatus.CANCELLED) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void publish(ChangeEvent.Kind kind, Appointment appointment) {
+        ChangeFeed feed = changeFeed;
+        if (feed != null) {
+            feed.publish(kind, EntityType.APPOINTMENT, appointment.getAppointmentId(), CSVUtil.toCsvLine(appointment));
+        }
+    }
+
+    private void unindex(Appointment appointment) {
+        synchronized (relationLock) {
+            if (appointment.getDoctor() != null) {
+                IntHashSet ids = appointmentsByDoctor.get(appointment.getDoctor().getId());
+                if (ids != null) {
+                    ids.remove(appointment.getAppointmentId());
+                }
+            }
+            if (appointment.getPatient() != null) {
+                IntHashSet ids = appointmentsByPatient.get(appointment.getPatient().getId());
+                if (ids != null) {
+                    ids.remove(appointment.getAppointmentId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Cancels an appointment. If a waitlist is set, the freed slot is booked
+     * for the next patient waiting for the same doctor and day.
+     *
+     * @param appointmentId id of the appointment to cancel
+     * @return the appointment that took over the slot, if any
+     * @throws AppointmentNotFoundException if no appointment exists with the given id
+     */
+    public Optional<Appointment> cancelAppointment(int appointmentId) {
         Appointment appointment = findAppointmentById(appointmentId);
-        appointment.cancel();
+        Optional<Appointment> backfilled = cancel(appointment);
         System.out.println("Appointment cancelled!");
+        backfilled.ifPresent(a -> System.out.println("Slot given to waitlisted patient " + a.getPatient().getName()
+                + " (Appointment ID: " + a.getAppointmentId() + ")"));
+        return backfilled;
+    }
+
+    /**
+     * Cancels the appointment with the given id without throwing on a miss.
+     *
+     * @param appointmentId id of the appointment to cancel
+     * @return {@code true} if the appointment exists and was cancelled
+     */
+    public boolean tryCancelAppointment(int appointmentId) {
+        Optional<Appointment> appointment = findAppointment(appointmentId);
+        appointment.ifPresent(this::cancel);
+        return appointment.isPresent();
     }
 
     /**
      * Finds an appointment by id or throws {@link AppointmentNotFoundException} when not present.
+     * The exception carries no stack trace; callers expecting misses should use
+     * {@link #findAppointment(int)} instead.
      *
      * @param appointmentId the id to search for
      * @return the found {@link Appointment}
      * @throws AppointmentNotFoundException if no appointment exists with the given id
      */
     public Appointment findAppointmentById(int appointmentId) {
-        return appointmentStore.findById(Appointment::getAppointmentId, appointmentId)
-                .orElseThrow(() -> new AppointmentNotFoundException("Appointment with id " + appointmentId + " not found"));
+        return findAppointment(appointmentId)
+                .orElseThrow(() -> AppointmentNotFoundException.forId(appointmentId));
+    }
+
+    /**
+     * Finds an appointment by id without throwing.
+     *
+     * @param appointmentId the id to search for
+     * @return the appointment, or empty if no appointment exists with the given id
+     */
+    public Optional<Appointment> findAppointment(int appointmentId) {
+        return appointmentStore.findById(appointmentId);
+    }
+
+    /**
+     * Returns all appointments booked with the given doctor.
+     *
+     * @param doctorId id of the doctor
+     * @return the doctor's appointments, empty if there are none
+     */
+    public List<Appointment> getAppointmentsForDoctor(int doctorId) {
+        return resolve(appointmentsByDoctor, doctorId);
+    }
+
+    /**
+     * Returns all appointments booked for the given patient.
+     *
+     * @param patientId id of the patient
+     * @return the patient's appointments, empty if there are none
+     */
+    public List<Appointment> getAppointmentsForPatient(int patientId) {
+        return resolve(appointmentsByPatient, patientId);
+    }
+
+    /**
+     * Returns all appointments between two dates.
+     *
+     * @param from first day, inclusive
+     * @param to   last day, inclusive
+     * @return appointments ordered by date, doctor and id
+     */
+    public List<Appointment> getAppointmentsBetween(LocalDate from, LocalDate to) {
+        return appointmentsByDate.between(from, to);
+    }
+
+    /**
+     * Returns a doctor's appointments on one day.
+     *
+     * @param doctorId id of the doctor
+     * @param day      the day
+     * @return the doctor's appointments that day, in id order
+     */
+    public List<Appointment> getScheduleForDoctor(int doctorId, LocalDate day) {
+        return appointmentsByDate.forDoctorOn(doctorId, day);
+    }
+
+    /**
+     * Returns one page of the appointments between two dates.
+     *
+     * @param from   first day, inclusive
+     * @param to     last day, inclusive
+     * @param cursor cursor returned with the previous page, or {@code null} for the first page
+     * @param limit  page size
+     * @return the page and the cursor of the next one
+     */
+    public Page<Appointment> getAppointmentsPage(LocalDate from, LocalDate to, String cursor, int limit) {
+        return appointmentsByDate.page(from, to, cursor, limit);
+    }
+
+    /**
+     * Returns the next appointments that are not cancelled.
+     *
+     * @param from  first day to consider
+     * @param count maximum number of appointments
+     * @return appointments in date order
+     */
+    public List<Appointment> getUpcomingAppointments(LocalDate from, int count) {
+        return appointmentsByDate.next(from, count);
+    }
+
+    /**
+     * Returns a doctor's next appointments that are not cancelled.
+     *
+     * @param doctorId id of the doctor
+     * @param from     first day to consider
+     * @param count    maximum number of appointments
+     * @return appointments in date order
+     */
+    public List<Appointment> getUpcomingAppointmentsForDoctor(int doctorId, LocalDate from, int count) {
+        return appointmentsByDate.nextForDoctor(doctorId, from, count);
+    }
+
+    /**
+     * Moves every appointment dated before {@code cutoff} out of this service
+     * into {@code coldStore}, keeping the hot store and its indexes small.
+     * Archived appointments are no longer returned by this service, and each
+     * is published to the change feed as removed.
+     *
+     * @param cutoff    first day to keep
+     * @param coldStore repository receiving the archived appointments
+     * @return number of appointments archived
+     */
+    public int archiveAppointmentsBefore(LocalDate cutoff, Repository<Appointment> coldStore) {
+        Objects.requireNonNull(coldStore, "coldStore must not be null");
+        List<Appointment> expired = new ArrayList<>();
+        synchronized (writeLock) {
+            appointmentsByDate.expireBefore(cutoff, expired::add);
+            DoctorLoadIndex load = doctorLoad;
+            if (load != null) {
+                load.expireBefore(cutoff);
+            }
+            AppointmentWaitlist list = waitlist;
+            if (list != null) {
+                list.expireBefore(cutoff);
+            }
+            coldStore.addAll(expired);
+            appointmentStore.removeAll(expired);
+            for (Appointment appointment : expired) {
+                unindex(appointment);
+                publish(ChangeEvent.Kind.REMOVED, appointment);
+            }
+        }
+        return expired.size();
+    }
+
+    /**
+     * Drops one appointment from this service without archiving it, e.g. on
+     * a replica whose primary has archived it. Revenue already counted for
+     * it is kept, as it is when archiving.
+     *
+     * @param appointmentId id of the appointment to drop
+     * @return {@code true} if the appointment was stored
+     */
+    public boolean removeAppointment(int appointmentId) {
+        synchronized (writeLock) {
+            Optional<Appointment> found = findAppointment(appointmentId);
+            if (found.isEmpty() || !appointmentStore.remove(found.get())) {
+                return false;
+            }
+            Appointment appointment = found.get();
+            appointmentsByDate.remove(appointment);
+            DoctorLoadIndex load = doctorLoad;
+            if (load != null && appointment.getDoctor() != null
+                    && appointment.getStatus() != AppointmentStatus.CANCELLED) {
+                load.released(appointment.getDoctor(), appointment.getAppointmentDate());
+            }
+            unindex(appointment);
+            publish(ChangeEvent.Kind.REMOVED, appointment);
+            return true;
+        }
+    }
+
+    /**
+     * Moves every appointment dated before {@code cutoff} into the archive
+     * set with {@link #setArchive}.
+     *
+     * @param cutoff first day to keep
+     * @return number of appointments archived
+     * @throws IllegalStateException if no archive is set
+     */
+    public int archiveAppointmentsBefore(LocalDate cutoff) {
+        AppointmentArchive target = archive;
+        if (target == null) {
+            throw new IllegalStateException("No appointment archive is configured");
+        }
+        return archiveAppointmentsBefore(cutoff, target);
+    }
+
+    /**
+     * Returns a patient's appointments, archived ones included.
+     *
+     * @param patientId id of the patient
+     * @return the patient's appointments ordered by date, doctor and id
+     */
+    public List<Appointment> getAppointmentHistoryForPatient(int patientId) {
+        AppointmentArchive cold = archive;
+        List<Appointment> history = cold == null ? new ArrayList<>() : cold.forPatient(patientId);
+        history.addAll(getAppointmentsForPatient(patientId));
+        history.sort(HISTORY_ORDER);
+        return history;
+    }
+
+    /**
+     * Returns the appointments between two dates, archived ones included.
+     *
+     * @param from first day, inclusive
+     * @param to   last day, inclusive
+     * @return appointments ordered by date, doctor and id
+     */
+    public List<Appointment> getAppointmentHistoryBetween(LocalDate from, LocalDate to) {
+        AppointmentArchive cold = archive;
+        List<Appointment> hot = getAppointmentsBetween(from, to);
+        if (cold == null) {
+            return hot;
+        }
+        List<Appointment> history = cold.between(from, to);
+        if (history.isEmpty()) {
+            return hot;
+        }
+        boolean ordered = hot.isEmpty()
+                || HISTORY_ORDER.compare(history.get(history.size() - 1), hot.get(0)) < 0;
+        history.addAll(hot);
+        if (!ordered) { // an appointment was booked into an already archived period
+            history.sort(HISTORY_ORDER);
+        }
+        return history;
+    }
+
+    private List<Appointment> resolve(IntHashMap<IntHashSet> relation, int ownerId) {
+        int[] ids;
+        synchronized (relationLock) {
+            IntHashSet set = relation.get(ownerId);
+            if (set == null) {
+                return List.of();
+            }
+            ids = set.toArray();
+        }
+        List<Appointment> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            appointmentStore.findById(id).ifPresent(result::add);
+        }
+        return result;
     }
 
     /**
@@ -57,20 +615,59 @@ public class AppointmentService {
         return bill.generateBillSummary();
     }
 
+    /**
+     * Generates a bill summary without throwing when the appointment is missing.
+     *
+     * @param appointmentId id of the appointment to bill
+     * @return the bill summary, or empty if the appointment cannot be found
+     */
+    public Optional<BillSummary> tryGenerateBill(int appointmentId) {
+        return findAppointment(appointmentId).map(appointment -> new Bill(appointment).generateBillSummary());
+    }
+
+    /**
+     * Returns all appointments currently stored.
+     *
+     * @return unmodifiable list of appointments
+     */
+    public List<Appointment> getAllAppointments() {
+        return appointmentStore.getAll();
+    }
+
     // Display All Appointments
     public void displayAppointments() {
-        List<Appointment> all = appointmentStore.getAll();
-        for (Appointment appointment : all) {
-            System.out.println("Appointment ID: "
-                    + appointment.getAppointmentId()
-                    + ", Patient: "
-                    + appointment.getPatient().getName()
-                    + ", Doctor: "
-                    + appointment.getDoctor().getName()
-                    + ", Date: "
-                    + appointment.getAppointmentDate()
-                    + ", Status: "
-                    + appointment.getStatus());
+        synchronized (console) {
+            console.writeAll(appointmentStore, Constants.LISTING_PAGE_SIZE, AppointmentService::formatRow);
+        }
+    }
+
+    /**
+     * Prints one page of appointments.
+     *
+     * @param cursor   cursor returned for the previous page, or {@code null} for the first page
+     * @param pageSize maximum number of appointments to print
+     * @return cursor of the next page, or {@code null} if this was the last page
+     */
+    public String displayAppointmentsPage(String cursor, int pageSize) {
+        synchronized (console) {
+            return console.writePage(appointmentStore, cursor, pageSize, AppointmentService::formatRow);
         }
     }
+
+    /**
+     * Streams every appointment to {@code out} one page at a time.
+     *
+     * @param out destination, flushed after every page but not closed
+     */
+    public void exportAppointments(Writer out) {
+        new ListingWriter(out).writeAll(appointmentStore, Constants.EXPORT_PAGE_SIZE, AppointmentService::formatRow);
+    }
+
+    private static void formatRow(Appointment appointment, StringBuilder row) {
+        row.append("Appointment ID: ").append(appointment.getAppointmentId())
+                .append(", Patient: ").append(appointment.getPatient().getName())
+                .append(", Doctor: ").append(appointment.getDoctor().getName())
+                .append(", Date: ").append(appointment.getAppointmentDate())
+                .append(", Status: ").append(appointment.getStatus());
+    }
 }
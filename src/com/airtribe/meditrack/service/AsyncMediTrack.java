@@ -0,0 +1,203 @@
+package com.airtribe.meditrack.service;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.exception.InvalidDataException;
+import com.airtribe.meditrack.util.ValidationReport;
+import com.airtribe.meditrack.util.WriteBatcher;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking facade over the doctor, patient and appointment services.
+ * <p>
+ * Every method returns a {@link CompletableFuture} and runs its store access
+ * on the facade's executor. A booking looks up the patient and the doctor
+ * concurrently and then queues the insert. Adds of each entity type go
+ * through a {@link WriteBatcher}, so writes issued while an earlier batch is
+ * in flight reach the store together in one bulk call. Callers with many
+ * overlapping requests therefore pay one store round trip per batch rather
+ * than per booking.
+ * <p>
+ * The executor is either supplied by the caller or created from
+ * {@code meditrack.async.executor}: {@code virtual} (the default) uses one
+ * virtual thread per task where the runtime supports it and otherwise falls
+ * back to {@code platform}, a fixed pool of daemon threads.
+ */
+public class AsyncMediTrack implements AutoCloseable {
+
+    private final DoctorService doctorService;
+    private final PatientService patientService;
+    private final AppointmentService appointmentService;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    private final WriteBatcher<Doctor> doctorWrites;
+    private final WriteBatcher<Patient> patientWrites;
+    private final WriteBatcher<Appointment> appointmentWrites;
+
+    /**
+     * Creates a facade with an executor chosen by {@code meditrack.async.executor}.
+     */
+    public AsyncMediTrack(DoctorService doctorService, PatientService patientService,
+                          AppointmentService appointmentService) {
+        this(doctorService, patientService, appointmentService,
+                newExecutor(System.getProperty(Constants.ASYNC_EXECUTOR_PROPERTY, "virtual")), true);
+    }
+
+    /**
+     * Creates a facade that runs on the given executor; closing the facade
+     * does not shut the executor down.
+     */
+    public AsyncMediTrack(DoctorService doctorService, PatientService patientService,
+                          AppointmentService appointmentService, ExecutorService executor) {
+        this(doctorService, patientService, appointmentService, executor, false);
+    }
+
+    private AsyncMediTrack(DoctorService doctorService, PatientService patientService,
+                           AppointmentService appointmentService, ExecutorService executor, boolean ownsExecutor) {
+        this.doctorService = Objects.requireNonNull(doctorService, "doctorService must not be null");
+        this.patientService = Objects.requireNonNull(patientService, "patientService must not be null");
+        this.appointmentService = Objects.requireNonNull(appointmentService, "appointmentService must not be null");
+        this.executor = Objects.requireNonNull(executor, "executor must not be null");
+        this.ownsExecutor = ownsExecutor;
+        this.doctorWrites = new WriteBatcher<>((batch, failures) ->
+                recordViolations(doctorService.addDoctors(batch), failures), executor, Constants.ASYNC_WRITE_BATCH);
+        this.patientWrites = new WriteBatcher<>((batch, failures) ->
+                recordViolations(patientService.addPatients(batch), failures), executor, Constants.ASYNC_WRITE_BATCH);
+        this.appointmentWrites = new WriteBatcher<>((batch, failures) ->
+                appointmentService.addAppointments(batch), executor, Constants.ASYNC_WRITE_BATCH);
+    }
+
+    /**
+     * Creates an executor for the facade.
+     *
+     * @param kind {@code virtual} for a virtual thread per task where
+     *             supported, anything else for a fixed platform pool
+     * @return a new executor
+     */
+    public static ExecutorService newExecutor(String kind) {
+        if ("virtual".equalsIgnoreCase(kind)) {
+            try {
+                // Looked up reflectively so the code still compiles and runs on releases without virtual threads.
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // fall through to a platform pool
+            }
+        }
+        int threads = Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "meditrack-async");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Lookups
+
+    public CompletableFuture<Doctor> findDoctorById(int id) {
+        return CompletableFuture.supplyAsync(() -> doctorService.findDoctorById(id), executor);
+    }
+
+    public CompletableFuture<Patient> findPatientById(int id) {
+        return CompletableFuture.supplyAsync(() -> patientService.findPatientById(id), executor);
+    }
+
+    public CompletableFuture<Optional<Appointment>> findAppointment(int appointmentId) {
+        return CompletableFuture.supplyAsync(() -> appointmentService.findAppointment(appointmentId), executor);
+    }
+
+    // Batched writes
+
+    /**
+     * Adds a doctor in the next write batch.
+     *
+     * @return completes once stored, or exceptionally with an
+     *         {@link InvalidDataException} if the doctor is invalid
+     */
+    public CompletableFuture<Void> addDoctor(Doctor doctor) {
+        return doctorWrites.submit(doctor);
+    }
+
+    /**
+     * Adds a patient in the next write batch.
+     *
+     * @return completes once stored, or exceptionally with an
+     *         {@link InvalidDataException} if the patient is invalid
+     */
+    public CompletableFuture<Void> addPatient(Patient patient) {
+        return patientWrites.submit(patient);
+    }
+
+    /**
+     * Looks up the patient and the doctor concurrently and books the
+     * appointment in the next write batch.
+     *
+     * @return the booked appointment, or a future failed with an
+     *         {@link InvalidDataException} if the patient or doctor does not exist
+     */
+    public CompletableFuture<Appointment> bookAppointment(int appointmentId, int patientId, int doctorId,
+                                                          LocalDate date) {
+        return findPatientById(patientId)
+                .thenCombine(findDoctorById(doctorId), (patient, doctor) -> {
+                    if (patient == null) {
+                        throw new InvalidDataException("Patient not found with ID: " + patientId, false);
+                    }
+                    if (doctor == null) {
+                        throw new InvalidDataException("Doctor not found with ID: " + doctorId, false);
+                    }
+                    return new Appointment(appointmentId, patient, doctor, date);
+                })
+                .thenCompose(appointment -> appointmentWrites.submit(appointment).thenApply(v -> appointment));
+    }
+
+    /**
+     * @return {@code true} if the appointment exists and was cancelled
+     */
+    public CompletableFuture<Boolean> cancelAppointment(int appointmentId) {
+        return CompletableFuture.supplyAsync(() -> appointmentService.tryCancelAppointment(appointmentId), executor);
+    }
+
+    /**
+     * @return average number of bookings per store write so far
+     */
+    public double getAverageBookingBatchSize() {
+        return appointmentWrites.getAverageBatchSize();
+    }
+
+    /**
+     * Writes everything still queued and, if the facade created its
+     * executor, shuts it down.
+     */
+    @Override
+    public void close() {
+        doctorWrites.close();
+        patientWrites.close();
+        appointmentWrites.close();
+        if (ownsExecutor) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Maps the report's 1-based row numbers back to the batch positions; the first violation of a row wins.
+    private static void recordViolations(ValidationReport report, Throwable[] failures) {
+        for (ValidationReport.Violation violation : report.getViolations()) {
+            int index = violation.getRow() - 1;
+            if (failures[index] == null) {
+                failures[index] = new InvalidDataException(violation.getReason(), false);
+            }
+        }
+    }
+}
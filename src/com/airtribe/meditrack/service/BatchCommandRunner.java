@@ -0,0 +1,514 @@
+package com.airtribe.meditrack.service;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.BillSummary;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.EntityType;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.util.ValidationReport;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.ToIntFunction;
+
+/**
+ * Runs a script of commands against the services without the interactive menu.
+ * <p>
+ * A script has one command per line; blank lines and lines starting with
+ * {@code #} are skipped:
+ * <pre>
+ * add-doctor  name,age,specialization,fee
+ * add-patient name,age,disease
+ * book        patientId,doctorId[,yyyy-mm-dd]
+ * cancel      appointmentId
+ * bill        appointmentId
+ * </pre>
+ * A booking without a date is for today. Lines are split in place on commas
+ * and numbers are parsed from the line without creating substrings.
+ * <p>
+ * Commands are read {@link Constants#BATCH_CHUNK_SIZE} at a time. Within a
+ * chunk, each run of consecutive adds or bookings goes to the services in
+ * one bulk call, so a script of many adds costs one store insert per run
+ * rather than per line; cancels and bills are applied one by one. Runs are
+ * applied in script order, so a booking always sees the patients and doctors
+ * added above it. New ids are allocated in script order, including for rows
+ * the services then reject.
+ * <p>
+ * Every command produces one result line, {@code <line> ok|merged|failed
+ * <command> ...}, and the output is flushed after each chunk. A runner is
+ * not thread-safe.
+ */
+public class BatchCommandRunner {
+
+    private enum Kind { ADD_DOCTOR, ADD_PATIENT, BOOK, CANCEL, BILL, INVALID }
+
+    private final DoctorService doctorService;
+    private final PatientService patientService;
+    private final AppointmentService appointmentService;
+    private final ToIntFunction<EntityType> nextId;
+
+    private final Fields fields = new Fields();
+    private final StringBuilder buffer = new StringBuilder(8192);
+    private LocalDate today;
+    private int succeeded;
+    private int merged;
+    private int failed;
+
+    /**
+     * @param nextId allocates a new id for an entity type, e.g. {@code IdGenerator.getInstance()::nextId}
+     */
+    public BatchCommandRunner(DoctorService doctorService, PatientService patientService,
+                              AppointmentService appointmentService, ToIntFunction<EntityType> nextId) {
+        this.doctorService = Objects.requireNonNull(doctorService, "doctorService must not be null");
+        this.patientService = Objects.requireNonNull(patientService, "patientService must not be null");
+        this.appointmentService = Objects.requireNonNull(appointmentService, "appointmentService must not be null");
+        this.nextId = Objects.requireNonNull(nextId, "nextId must not be null");
+    }
+
+    /**
+     * Runs every command of {@code in} and writes one result line per command
+     * to {@code out}.
+     *
+     * @param in  the script; read to the end but not closed
+     * @param out destination of the result lines; flushed after every chunk but not closed
+     * @return counts and timing of the run
+     * @throws IOException if reading the script or writing a result fails
+     */
+    public Summary run(BufferedReader in, Writer out) throws IOException {
+        long start = System.nanoTime();
+        today = LocalDate.now();
+        succeeded = 0;
+        merged = 0;
+        failed = 0;
+        List<Command> chunk = new ArrayList<>(Constants.BATCH_CHUNK_SIZE);
+        int lineNumber = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            Command command = parse(line, lineNumber);
+            if (command != null) {
+                chunk.add(command);
+                if (chunk.size() == Constants.BATCH_CHUNK_SIZE) {
+                    runChunk(chunk, out);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            runChunk(chunk, out);
+        }
+        return new Summary(succeeded, merged, failed, System.nanoTime() - start);
+    }
+
+    private Command parse(String line, int lineNumber) {
+        int from = 0;
+        int end = line.length();
+        while (from < end && Character.isWhitespace(line.charAt(from))) {
+            from++;
+        }
+        if (from == end || line.charAt(from) == '#') {
+            return null;
+        }
+        int wordEnd = from;
+        while (wordEnd < end && !Character.isWhitespace(line.charAt(wordEnd))) {
+            wordEnd++;
+        }
+        Command command = new Command(lineNumber, kindOf(line, from, wordEnd));
+        if (command.kind == Kind.INVALID) {
+            command.name = line.substring(from, wordEnd);
+            command.error = "unknown command";
+            return command;
+        }
+        fields.split(line, wordEnd);
+        try {
+            switch (command.kind) {
+                case ADD_DOCTOR:
+                    fields.expect(4, 4);
+                    command.doctor = new Doctor(nextId.applyAsInt(EntityType.DOCTOR), fields.text(0),
+                            fields.integer(1), specialization(fields.text(2)), fields.decimal(3));
+                    break;
+                case ADD_PATIENT:
+                    fields.expect(3, 3);
+                    command.patient = new Patient(nextId.applyAsInt(EntityType.PATIENT), fields.text(0),
+                            fields.integer(1), fields.text(2));
+                    break;
+                case BOOK:
+                    fields.expect(2, 3);
+                    command.patientId = fields.integer(0);
+                    command.doctorId = fields.integer(1);
+                    command.date = fields.count() == 3 ? LocalDate.parse(fields.text(2)) : today;
+                    command.appointmentId = nextId.applyAsInt(EntityType.APPOINTMENT);
+                    break;
+                default:
+                    fields.expect(1, 1);
+                    command.appointmentId = fields.integer(0);
+                    break;
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            command.error = e.getMessage(); // includes NumberFormatException
+        }
+        return command;
+    }
+
+    private static Kind kindOf(String line, int from, int to) {
+        int length = to - from;
+        if (length == 10 && line.startsWith("add-doctor", from)) {
+            return Kind.ADD_DOCTOR;
+        }
+        if (length == 11 && line.startsWith("add-patient", from)) {
+            return Kind.ADD_PATIENT;
+        }
+        if (length == 4 && line.startsWith("book", from)) {
+            return Kind.BOOK;
+        }
+        if (length == 4 && line.startsWith("bill", from)) {
+            return Kind.BILL;
+        }
+        if (length == 6 && line.startsWith("cancel", from)) {
+            return Kind.CANCEL;
+        }
+        return Kind.INVALID;
+    }
+
+    private static Specialization specialization(String text) {
+        try {
+            return Specialization.valueOf(text.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown specialization " + text);
+        }
+    }
+
+    private void runChunk(List<Command> chunk, Writer out) throws IOException {
+        buffer.setLength(0);
+        int from = 0;
+        while (from < chunk.size()) {
+            Kind kind = chunk.get(from).kind;
+            int to = from + 1;
+            while (to < chunk.size() && chunk.get(to).kind == kind) {
+                to++;
+            }
+            List<Command> group = chunk.subList(from, to);
+            switch (kind) {
+                case ADD_DOCTOR:
+                    addDoctors(group);
+                    break;
+                case ADD_PATIENT:
+                    addPatients(group);
+                    break;
+                case BOOK:
+                    book(group);
+                    break;
+                case CANCEL:
+                    for (Command command : group) {
+                        cancel(command);
+                    }
+                    break;
+                case BILL:
+                    for (Command command : group) {
+                        bill(command);
+                    }
+                    break;
+                default:
+                    for (Command command : group) {
+                        fail(command, command.name, command.error);
+                    }
+                    break;
+            }
+            from = to;
+        }
+        out.append(buffer);
+        out.flush();
+    }
+
+    private void addDoctors(List<Command> group) {
+        List<Doctor> doctors = new ArrayList<>(group.size());
+        for (Command command : group) {
+            if (command.error == null) {
+                doctors.add(command.doctor);
+            }
+        }
+        String[] problems = problems(doctorService.addDoctors(doctors), doctors.size());
+        for (int i = 0, k = 0; i < group.size(); i++) {
+            Command command = group.get(i);
+            String problem = command.error != null ? command.error : problems[k++];
+            if (problem != null) {
+                fail(command, "add-doctor", problem);
+            } else {
+                succeed(command, "add-doctor").append(' ').append(command.doctor.getId());
+                endLine();
+            }
+        }
+    }
+
+    private void addPatients(List<Command> group) {
+        List<Patient> patients = new ArrayList<>(group.size());
+        for (Command command : group) {
+            if (command.error == null) {
+                patients.add(command.patient);
+            }
+        }
+        ValidationReport report = patientService.addPatients(patients);
+        String[] problems = problems(report, patients.size());
+        ValidationReport.Merge[] merges = new ValidationReport.Merge[patients.size()];
+        for (ValidationReport.Merge merge : report.getMerges()) {
+            merges[merge.getRow() - 1] = merge;
+        }
+        for (int i = 0, k = 0; i < group.size(); i++) {
+            Command command = group.get(i);
+            if (command.error != null) {
+                fail(command, "add-patient", command.error);
+                continue;
+            }
+            int row = k++;
+            if (problems[row] != null) {
+                fail(command, "add-patient", problems[row]);
+            } else if (merges[row] != null) {
+                merged++;
+                line(command, "merged", "add-patient").append(' ').append(command.patient.getId())
+                        .append(" into ").append(merges[row].getExistingId());
+                endLine();
+            } else {
+                succeed(command, "add-patient").append(' ').append(command.patient.getId());
+                endLine();
+            }
+        }
+    }
+
+    // The first problem of each rejected row, indexed by row - 1.
+    private static String[] problems(ValidationReport report, int rows) {
+        String[] problems = new String[rows];
+        for (ValidationReport.Violation violation : report.getViolations()) {
+            if (problems[violation.getRow() - 1] == null) {
+                problems[violation.getRow() - 1] = violation.getField() + ": " + violation.getReason();
+            }
+        }
+        return problems;
+    }
+
+    private void book(List<Command> group) {
+        List<Appointment> booked = new ArrayList<>(group.size());
+        for (Command command : group) {
+            if (command.error != null) {
+                continue;
+            }
+            Patient patient = patientService.findPatientById(command.patientId);
+            Doctor doctor = doctorService.findDoctorById(command.doctorId);
+            if (patient == null) {
+                command.error = "Patient not found with ID: " + command.patientId;
+            } else if (doctor == null) {
+                command.error = "Doctor not found with ID: " + command.doctorId;
+            } else {
+                booked.add(new Appointment(command.appointmentId, patient, doctor, command.date));
+            }
+        }
+        if (!booked.isEmpty()) {
+            appointmentService.addAppointments(booked);
+        }
+        for (Command command : group) {
+            if (command.error != null) {
+                fail(command, "book", command.error);
+            } else {
+                succeed(command, "book").append(' ').append(command.appointmentId);
+                endLine();
+            }
+        }
+    }
+
+    private void cancel(Command command) {
+        if (command.error != null) {
+            fail(command, "cancel", command.error);
+        } else if (appointmentService.tryCancelAppointment(command.appointmentId)) {
+            succeed(command, "cancel").append(' ').append(command.appointmentId);
+            endLine();
+        } else {
+            fail(command, "cancel", "Appointment not found with ID: " + command.appointmentId);
+        }
+    }
+
+    private void bill(Command command) {
+        if (command.error != null) {
+            fail(command, "bill", command.error);
+            return;
+        }
+        Optional<BillSummary> summary = appointmentService.tryGenerateBill(command.appointmentId);
+        if (summary.isPresent()) {
+            succeed(command, "bill").append(' ').append(command.appointmentId).append(' ')
+                    .append(summary.get().getTotalAmount());
+            endLine();
+        } else {
+            fail(command, "bill", "Appointment not found with ID: " + command.appointmentId);
+        }
+    }
+
+    private StringBuilder succeed(Command command, String name) {
+        succeeded++;
+        return line(command, "ok", name);
+    }
+
+    private void fail(Command command, String name, String reason) {
+        failed++;
+        line(command, "failed", name).append(": ").append(reason);
+        endLine();
+    }
+
+    private StringBuilder line(Command command, String outcome, String name) {
+        return buffer.append(command.line).append(' ').append(outcome).append(' ').append(name);
+    }
+
+    private void endLine() {
+        buffer.append(System.lineSeparator());
+    }
+
+    private static final class Command {
+
+        final int line;
+        final Kind kind;
+        String name;
+        String error;
+        Doctor doctor;
+        Patient patient;
+        int patientId;
+        int doctorId;
+        int appointmentId;
+        LocalDate date;
+
+        Command(int line, Kind kind) {
+            this.line = line;
+            this.kind = kind;
+        }
+    }
+
+    /**
+     * Comma-separated arguments of one line, as trimmed bounds into the line.
+     */
+    private static final class Fields {
+
+        private static final int MAX_FIELDS = 8;
+
+        private final int[] starts = new int[MAX_FIELDS];
+        private final int[] ends = new int[MAX_FIELDS];
+        private String line;
+        private int count;
+
+        void split(String line, int from) {
+            this.line = line;
+            count = 0;
+            int end = line.length();
+            while (from < end && Character.isWhitespace(line.charAt(from))) {
+                from++;
+            }
+            if (from == end) {
+                return;
+            }
+            while (count < MAX_FIELDS) {
+                int comma = line.indexOf(',', from);
+                int to = comma < 0 ? end : comma;
+                int start = from;
+                int stop = to;
+                while (start < stop && Character.isWhitespace(line.charAt(start))) {
+                    start++;
+                }
+                while (stop > start && Character.isWhitespace(line.charAt(stop - 1))) {
+                    stop--;
+                }
+                starts[count] = start;
+                ends[count] = stop;
+                count++;
+                if (comma < 0) {
+                    return;
+                }
+                from = comma + 1;
+            }
+            count++; // more fields than any command takes
+        }
+
+        int count() {
+            return count;
+        }
+
+        void expect(int min, int max) {
+            if (count < min || count > max) {
+                throw new IllegalArgumentException(min == max ? "expected " + min + " arguments"
+                        : "expected " + min + " to " + max + " arguments");
+            }
+        }
+
+        String text(int i) {
+            return line.substring(starts[i], ends[i]);
+        }
+
+        int integer(int i) {
+            if (starts[i] == ends[i]) {
+                throw new NumberFormatException("missing number in argument " + (i + 1));
+            }
+            return Integer.parseInt(line, starts[i], ends[i], 10);
+        }
+
+        double decimal(int i) {
+            return Double.parseDouble(text(i));
+        }
+    }
+
+    /**
+     * Outcome counts of a {@link #run}.
+     */
+    public static final class Summary {
+
+        private final int succeeded;
+        private final int merged;
+        private final int failed;
+        private final long nanos;
+
+        Summary(int succeeded, int merged, int failed, long nanos) {
+            this.succeeded = succeeded;
+            this.merged = merged;
+            this.failed = failed;
+            this.nanos = nanos;
+        }
+
+        public int getCommands() {
+            return succeeded + merged + failed;
+        }
+
+        public int getSucceeded() {
+            return succeeded;
+        }
+
+        /**
+         * @return patients not added because they duplicate a stored patient
+         */
+        public int getMerged() {
+            return merged;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public long getElapsedNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return commands run per second, or 0 for an empty run
+         */
+        public double getCommandsPerSecond() {
+            return nanos == 0 ? 0 : getCommands() * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d commands: %d ok, %d merged, %d failed in %.3f s (%.0f commands/s)",
+                    getCommands(), succeeded, merged, failed, nanos / 1e9, getCommandsPerSecond());
+        }
+    }
+}
@@ -1,16 +1,72 @@
 package com.airtribe.meditrack.service;
 
+import com.airtribe.meditrack.constants.Constants;
 import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.EntityType;
 import com.airtribe.meditrack.entity.Specialization;
 import com.airtribe.meditrack.exception.InvalidDataException;
+import com.airtribe.meditrack.util.BulkValidator;
+import com.airtribe.meditrack.util.CSVUtil;
+import com.airtribe.meditrack.util.ChangeEvent;
+import com.airtribe.meditrack.util.ChangeFeed;
 import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.DoctorLoadIndex;
+import com.airtribe.meditrack.util.ListingWriter;
+import com.airtribe.meditrack.util.Repository;
+import com.airtribe.meditrack.util.ValidationReport;
 import com.airtribe.meditrack.util.Validator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.DoubleSummaryStatistics;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 public class DoctorService {
 
-    private final DataStore<Doctor> doctorStore = new DataStore<>();
+    private final Repository<Doctor> doctorStore;
+    private final ListingWriter console = ListingWriter.toConsole();
+    private volatile ChangeFeed changeFeed;
+    // A store change and its event happen under this lock, so events are numbered in store order.
+    private final Object writeLock = new Object();
+    private volatile DoctorLoadIndex doctorLoad;
+
+    public DoctorService() {
+        this(new DataStore<>(Doctor::getId));
+    }
+
+    /**
+     * Creates a service backed by the given repository.
+     *
+     * @param doctorStore storage for doctors
+     */
+    public DoctorService(Repository<Doctor> doctorStore) {
+        this.doctorStore = Objects.requireNonNull(doctorStore, "doctorStore must not be null");
+    }
+
+    /**
+     * Publishes every subsequent doctor mutation to {@code changeFeed}.
+     *
+     * @param changeFeed feed to publish to, or {@code null} to stop publishing
+     */
+    public void setChangeFeed(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    /**
+     * Registers every stored doctor with {@code doctorLoad} and keeps it in
+     * step with subsequent adds and removals.
+     *
+     * @param doctorLoad per-day doctor workload, or {@code null} to stop registering
+     */
+    public void setDoctorLoadIndex(DoctorLoadIndex doctorLoad) {
+        this.doctorLoad = doctorLoad;
+        if (doctorLoad != null) {
+            for (Doctor doctor : doctorStore.getAll()) {
+                doctorLoad.addDoctor(doctor);
+            }
+        }
+    }
 
     // Add Doctor
     public void addDoctor(Doctor doctor) {
@@ -22,21 +78,107 @@ public class DoctorService {
         Validator.validateAge(doctor.getAge());
         Validator.validateConsultationFee(doctor.getConsultationFee());
 
-        doctorStore.add(doctor);
+        synchronized (writeLock) {
+            doctorStore.add(doctor);
+            register(doctor);
+            publish(ChangeEvent.Kind.ADDED, doctor);
+        }
         System.out.println("Doctor added successfully!");
     }
 
+    /**
+     * Validates a batch of doctors in parallel and stores the valid ones in a
+     * single bulk insert. Invalid rows are reported instead of thrown.
+     *
+     * @param doctors doctors to import
+     * @return report of accepted and rejected rows
+     */
+    public ValidationReport addDoctors(List<Doctor> doctors) {
+        BulkValidator.Result<Doctor> result = BulkValidator.validateDoctors(doctors);
+        synchronized (writeLock) {
+            doctorStore.addAll(result.getAccepted());
+            for (Doctor doctor : result.getAccepted()) {
+                register(doctor);
+                publish(ChangeEvent.Kind.ADDED, doctor);
+            }
+        }
+        return result.getReport();
+    }
+
+    /**
+     * Removes the doctor with the given id.
+     *
+     * @param id id of the doctor
+     * @return {@code true} if a doctor was removed
+     */
+    public boolean removeDoctor(int id) {
+        synchronized (writeLock) {
+            Doctor doctor = findDoctorById(id);
+            if (doctor == null || !doctorStore.remove(doctor)) {
+                return false;
+            }
+            DoctorLoadIndex load = doctorLoad;
+            if (load != null) {
+                load.removeDoctor(doctor);
+            }
+            publish(ChangeEvent.Kind.REMOVED, doctor);
+            return true;
+        }
+    }
+
+    private void register(Doctor doctor) {
+        DoctorLoadIndex load = doctorLoad;
+        if (load != null) {
+            load.addDoctor(doctor);
+        }
+    }
+
+    private void publish(ChangeEvent.Kind kind, Doctor doctor) {
+        ChangeFeed feed = changeFeed;
+        if (feed != null) {
+            feed.publish(kind, EntityType.DOCTOR, doctor.getId(), CSVUtil.toCsvLine(doctor));
+        }
+    }
+
     // Find Doctor by ID
     public Doctor findDoctorById(int id) {
-        return doctorStore.findById(Doctor::getId, id).orElse(null);
+        return doctorStore.findById(id).orElse(null);
     }
 
     // Display All Doctors
     public void displayAllDoctors() {
-        doctorStore.getAll().forEach(doctor -> System.out.println("ID: " + doctor.getId()
-                + ", Name: " + doctor.getName()
-                + ", Specialization: " + doctor.getSpecialization()
-                + ", Fee: " + doctor.getConsultationFee()));
+        synchronized (console) {
+            console.writeAll(doctorStore, Constants.LISTING_PAGE_SIZE, DoctorService::formatRow);
+        }
+    }
+
+    /**
+     * Prints one page of doctors.
+     *
+     * @param cursor   cursor returned for the previous page, or {@code null} for the first page
+     * @param pageSize maximum number of doctors to print
+     * @return cursor of the next page, or {@code null} if this was the last page
+     */
+    public String displayDoctorsPage(String cursor, int pageSize) {
+        synchronized (console) {
+            return console.writePage(doctorStore, cursor, pageSize, DoctorService::formatRow);
+        }
+    }
+
+    /**
+     * Streams every doctor to {@code out} one page at a time.
+     *
+     * @param out destination, flushed after every page but not closed
+     */
+    public void exportDoctors(Writer out) {
+        new ListingWriter(out).writeAll(doctorStore, Constants.EXPORT_PAGE_SIZE, DoctorService::formatRow);
+    }
+
+    private static void formatRow(Doctor doctor, StringBuilder row) {
+        row.append("ID: ").append(doctor.getId())
+                .append(", Name: ").append(doctor.getName())
+                .append(", Specialization: ").append(doctor.getSpecialization())
+                .append(", Fee: ").append(doctor.getConsultationFee());
     }
 
     /**
@@ -49,9 +191,8 @@ public class DoctorService {
         if (specialization == null) {
             return List.of();
         }
-        return doctorStore.getAll().stream()
-                .filter(d -> d.getSpecialization() == specialization)
-                .collect(Collectors.toList());
+        return doctorStore.findByColumn("specialization", specialization.name(),
+                d -> d.getSpecialization() == specialization);
     }
 
     /**
@@ -66,13 +207,45 @@ public class DoctorService {
             .orElse(0.0);
     }
 
+    /**
+     * Returns count, sum, min, max and average of the consultation fees, so
+     * that results from several services can be combined.
+     *
+     * @return fee statistics over all doctors
+     */
+    public DoubleSummaryStatistics getConsultationFeeStatistics() {
+        return doctorStore.getAll().stream()
+            .mapToDouble(Doctor::getConsultationFee)
+            .summaryStatistics();
+    }
+
+    /**
+     * Finds doctors whose name contains the keyword, ignoring case.
+     *
+     * @param keyword text to search for
+     * @return matching doctors
+     */
+    public List<Doctor> searchDoctors(String keyword) {
+        return doctorStore.findMatching(keyword, d -> d.matches(keyword));
+    }
+
     /**
      * Counts the number of doctors in the service.
      *
      * @return count of doctors
      */
     public long countDoctors() {
-        return doctorStore.getAll().stream().count();
+        return doctorStore.size();
+    }
+
+    /**
+     * Returns the largest doctor id in use, without loading every doctor when the
+     * store keeps an id index.
+     *
+     * @return the largest id, or 0 if there are no doctors
+     */
+    public int getMaxDoctorId() {
+        return doctorStore.maxId(Doctor::getId);
     }
 
     /**
@@ -83,4 +256,14 @@ public class DoctorService {
     public List<Doctor> getAllDoctors() {
         return doctorStore.getAll();
     }
+
+    /**
+     * Writes every doctor as a CSV row, in {@link #getAllDoctors()} order.
+     *
+     * @param out receives the rows
+     * @throws IOException if writing fails
+     */
+    public void writeCsv(OutputStream out) throws IOException {
+        doctorStore.writeRows(CSVUtil::toCsvLine, out);
+    }
 }
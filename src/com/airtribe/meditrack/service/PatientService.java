@@ -1,14 +1,87 @@
 package com.airtribe.meditrack.service;
 
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.EntityType;
 import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.exception.DuplicatePatientException;
 import com.airtribe.meditrack.exception.InvalidDataException;
+import com.airtribe.meditrack.util.BulkValidator;
+import com.airtribe.meditrack.util.CSVUtil;
+import com.airtribe.meditrack.util.ChangeEvent;
+import com.airtribe.meditrack.util.ChangeFeed;
 import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.ListingWriter;
+import com.airtribe.meditrack.util.PatientDeduplicator;
+import com.airtribe.meditrack.util.Repository;
+import com.airtribe.meditrack.util.ValidationReport;
 import com.airtribe.meditrack.util.Validator;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class PatientService {
 
-    private final DataStore<Patient> patientStore = new DataStore<>();
+    private final Repository<Patient> patientStore;
+    // Console listings share one writer so its buffer is reused from page to page.
+    private final ListingWriter console = ListingWriter.toConsole();
+    private volatile ChangeFeed changeFeed;
+    // Held from a store change until its event is published, so the feed's sequence follows the store's order.
+    private final Object writeLock = new Object();
+    private volatile PatientDeduplicator deduplicator;
+
+    public PatientService() {
+        this(new DataStore<>(Patient::getId));
+    }
+
+    /**
+     * Creates a service backed by the given repository, for example an
+     * {@link com.airtribe.meditrack.util.OffHeapPatientStore} for very large populations.
+     *
+     * @param patientStore storage for patients
+     */
+    public PatientService(Repository<Patient> patientStore) {
+        this.patientStore = Objects.requireNonNull(patientStore, "patientStore must not be null");
+    }
+
+    /**
+     * Publishes every subsequent patient mutation to {@code changeFeed}.
+     *
+     * @param changeFeed feed to publish to, or {@code null} to stop publishing
+     */
+    public void setChangeFeed(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    /**
+     * Turns duplicate detection on or off. While it is on, a patient with the
+     * same name, age and disease as a stored patient is not added again; the
+     * patients already stored are registered when it is turned on. Stored
+     * patients that duplicate an earlier stored one are kept and reported.
+     *
+     * @param enabled whether to detect duplicates
+     * @return stored duplicates, each numbered by its position in {@link #getAllPatients()}
+     */
+    public List<ValidationReport.Merge> setDuplicateDetection(boolean enabled) {
+        if (!enabled) {
+            deduplicator = null;
+            return List.of();
+        }
+        List<Patient> existing = patientStore.getAll();
+        PatientDeduplicator detector = new PatientDeduplicator(this::findPatientById, existing.size());
+        List<ValidationReport.Merge> duplicates = new ArrayList<>();
+        for (int i = 0; i < existing.size(); i++) {
+            Patient patient = existing.get(i);
+            Patient original = detector.findOrRegister(patient);
+            if (original != null) {
+                duplicates.add(new ValidationReport.Merge(i + 1, patient.getId(), original.getId()));
+            }
+        }
+        deduplicator = detector;
+        return duplicates;
+    }
 
     // Add Patient
     public void addPatient(Patient patient) {
@@ -20,26 +93,196 @@ public class PatientService {
         Validator.validateAge(patient.getAge());
         Validator.validateDisease(patient.getDisease());
 
-        patientStore.add(patient);
+        PatientDeduplicator detector = deduplicator;
+        synchronized (writeLock) {
+            if (detector != null) {
+                Patient existing = detector.findOrRegister(patient);
+                if (existing != null) {
+                    throw new DuplicatePatientException(patient.getId(), existing.getId());
+                }
+            }
+            try {
+                patientStore.add(patient);
+            } catch (RuntimeException e) {
+                if (detector != null) {
+                    detector.forgetUnstored(patient);
+                }
+                throw e;
+            }
+            publish(ChangeEvent.Kind.ADDED, patient);
+        }
         System.out.println("Patient added successfully!");
     }
 
+    /**
+     * Validates a batch of patients in parallel and stores the valid ones in a
+     * single bulk insert. Invalid rows are reported instead of thrown. With
+     * duplicate detection on, valid rows that duplicate a stored patient or an
+     * earlier row of the batch are reported as merged and not stored.
+     *
+     * @param patients patients to import
+     * @return report of accepted, rejected and merged rows
+     */
+    public ValidationReport addPatients(List<Patient> patients) {
+        BulkValidator.Result<Patient> result = BulkValidator.validatePatients(patients);
+        PatientDeduplicator detector = deduplicator;
+        synchronized (writeLock) {
+            if (detector != null) {
+                return addNewPatients(result, detector);
+            }
+            patientStore.addAll(result.getAccepted());
+            for (Patient patient : result.getAccepted()) {
+                publish(ChangeEvent.Kind.ADDED, patient);
+            }
+        }
+        return result.getReport();
+    }
+
+    // Called with writeLock held, so no other add registers or stores a patient in between.
+    private ValidationReport addNewPatients(BulkValidator.Result<Patient> result, PatientDeduplicator detector) {
+        List<Patient> accepted = result.getAccepted();
+        Patient[] duplicates = detector.findOrRegisterAll(accepted);
+        List<Patient> stored = new ArrayList<>(accepted.size());
+        List<ValidationReport.Merge> merges = new ArrayList<>();
+        List<ValidationReport.Violation> violations = result.getReport().getViolations();
+        int nextViolation = 0;
+        int row = 0;
+        for (int i = 0; i < accepted.size(); i++) {
+            // Rejected rows are not in the accepted list; skip their row numbers.
+            row++;
+            while (nextViolation < violations.size() && violations.get(nextViolation).getRow() == row) {
+                while (nextViolation < violations.size() && violations.get(nextViolation).getRow() == row) {
+                    nextViolation++;
+                }
+                row++;
+            }
+            Patient patient = accepted.get(i);
+            if (duplicates[i] == null) {
+                stored.add(patient);
+            } else {
+                merges.add(new ValidationReport.Merge(row, patient.getId(), duplicates[i].getId()));
+            }
+        }
+        try {
+            patientStore.addAll(stored);
+        } catch (RuntimeException e) {
+            for (Patient patient : stored) {
+                detector.forgetUnstored(patient);
+            }
+            throw e;
+        }
+        for (Patient patient : stored) {
+            publish(ChangeEvent.Kind.ADDED, patient);
+        }
+        return merges.isEmpty() ? result.getReport() : result.getReport().withMerges(merges);
+    }
+
+    /**
+     * Removes the patient with the given id.
+     *
+     * @param id id of the patient
+     * @return {@code true} if a patient was removed
+     */
+    public boolean removePatient(int id) {
+        synchronized (writeLock) {
+            Patient patient = findPatientById(id);
+            if (patient == null) {
+                return false;
+            }
+            // Capture the row first; off-heap views cannot be read once removed.
+            String row = CSVUtil.toCsvLine(patient);
+            PatientDeduplicator detector = deduplicator;
+            if (detector != null) {
+                detector.forget(patient);
+            }
+            if (!patientStore.remove(patient)) {
+                return false;
+            }
+            ChangeFeed feed = changeFeed;
+            if (feed != null) {
+                feed.publish(ChangeEvent.Kind.REMOVED, EntityType.PATIENT, id, row);
+            }
+            return true;
+        }
+    }
+
+    private void publish(ChangeEvent.Kind kind, Patient patient) {
+        ChangeFeed feed = changeFeed;
+        if (feed != null) {
+            feed.publish(kind, EntityType.PATIENT, patient.getId(), CSVUtil.toCsvLine(patient));
+        }
+    }
+
     // Find Patient by ID
     public Patient findPatientById(int id) {
-        return patientStore.findById(Patient::getId, id).orElse(null);
+        return patientStore.findById(id).orElse(null);
     }
 
     // Display All Patients
     public void displayAllPatients() {
-        List<Patient> all = patientStore.getAll();
-        for (Patient patient : all) {
-            System.out.println("ID: " + patient.getId()
-                    + ", Name: " + patient.getName()
-                    + ", Age: " + patient.getAge()
-                    + ", Disease: " + patient.getDisease());
+        synchronized (console) {
+            console.writeAll(patientStore, Constants.LISTING_PAGE_SIZE, PatientService::formatRow);
+        }
+    }
+
+    /**
+     * Prints one page of patients.
+     *
+     * @param cursor   cursor returned for the previous page, or {@code null} for the first page
+     * @param pageSize maximum number of patients to print
+     * @return cursor of the next page, or {@code null} if this was the last page
+     */
+    public String displayPatientsPage(String cursor, int pageSize) {
+        synchronized (console) {
+            return console.writePage(patientStore, cursor, pageSize, PatientService::formatRow);
         }
     }
 
+    /**
+     * Streams every patient to {@code out} one page at a time.
+     *
+     * @param out destination, flushed after every page but not closed
+     */
+    public void exportPatients(Writer out) {
+        new ListingWriter(out).writeAll(patientStore, Constants.EXPORT_PAGE_SIZE, PatientService::formatRow);
+    }
+
+    private static void formatRow(Patient patient, StringBuilder row) {
+        row.append("ID: ").append(patient.getId())
+                .append(", Name: ").append(patient.getName())
+                .append(", Age: ").append(patient.getAge())
+                .append(", Disease: ").append(patient.getDisease());
+    }
+
+    /**
+     * Finds patients whose name contains the keyword, ignoring case.
+     *
+     * @param keyword text to search for
+     * @return matching patients
+     */
+    public List<Patient> searchPatients(String keyword) {
+        return patientStore.findMatching(keyword, p -> p.matches(keyword));
+    }
+
+    /**
+     * Counts the number of patients in the service.
+     *
+     * @return count of patients
+     */
+    public long countPatients() {
+        return patientStore.size();
+    }
+
+    /**
+     * Returns the largest patient id in use, without loading every patient when the
+     * store keeps an id index.
+     *
+     * @return the largest id, or 0 if there are no patients
+     */
+    public int getMaxPatientId() {
+        return patientStore.maxId(Patient::getId);
+    }
+
     /**
      * Returns all patients currently stored.
      *
@@ -48,4 +291,15 @@ public class PatientService {
     public List<Patient> getAllPatients() {
         return patientStore.getAll();
     }
+
+    /**
+     * Writes every patient as a CSV row, in {@link #getAllPatients()} order.
+     * Rows a lazy store still holds as text are copied without being parsed.
+     *
+     * @param out receives the rows
+     * @throws IOException if writing fails
+     */
+    public void writeCsv(OutputStream out) throws IOException {
+        patientStore.writeRows(CSVUtil::toCsvLine, out);
+    }
 }
@@ -0,0 +1,405 @@
+package com.airtribe.meditrack.service;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.util.CSVUtil;
+import com.airtribe.meditrack.util.ChangeEvent;
+import com.airtribe.meditrack.util.IntHashSet;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps a read-only copy of a {@link ReplicationPrimary}'s data in this
+ * process's services.
+ * <p>
+ * The follower connects, loads a snapshot if it has nothing the primary can
+ * resume from, and then applies the primary's change events in order on its
+ * own daemon thread. New entities are inserted in bulk; an entity that already
+ * exists is replaced by the row in the event, so an event applied twice
+ * changes nothing. If the connection drops the follower reconnects and asks to
+ * continue after the last sequence it applied; entities missing from a fresh
+ * snapshot are removed.
+ * <p>
+ * The services must not be written to by anything else. Reads may run
+ * concurrently with replication, as they may on the primary. Appointments the
+ * primary moves to its archive are dropped here without being archived.
+ */
+public final class ReplicationFollower implements AutoCloseable {
+
+    private static final int BATCH_SIZE = 4096;
+    private static final long RECONNECT_DELAY_MILLIS = 500;
+
+    private final String host;
+    private final int port;
+    private final DoctorService doctorService;
+    private final PatientService patientService;
+    private final AppointmentService appointmentService;
+    private final Thread applier;
+    private final Object progress = new Object();
+
+    private final List<Doctor> newDoctors = new ArrayList<>();
+    private final List<Patient> newPatients = new ArrayList<>();
+    private final List<Appointment> newAppointments = new ArrayList<>();
+    private final IntHashSet newAppointmentIds = new IntHashSet();
+    private long pendingSequence;
+
+    private volatile boolean running = true;
+    private volatile Socket socket;
+    private volatile long appliedSequence;
+    private volatile boolean ready;
+    private volatile int snapshots;
+    private volatile long skippedRows;
+
+    /**
+     * Connects to the primary and starts replicating into the given services.
+     *
+     * @param host host of the primary
+     * @param port port the primary listens on
+     */
+    public ReplicationFollower(String host, int port, DoctorService doctorService,
+                               PatientService patientService, AppointmentService appointmentService) {
+        this.host = host;
+        this.port = port;
+        this.doctorService = doctorService;
+        this.patientService = patientService;
+        this.appointmentService = appointmentService;
+        this.applier = new Thread(this::run, "replication-follower");
+        this.applier.setDaemon(true);
+        this.applier.start();
+    }
+
+    /**
+     * @return sequence of the last primary event applied here, 0 before the first one
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * @return number of snapshots loaded, 1 after a normal start
+     */
+    public int getSnapshotCount() {
+        return snapshots;
+    }
+
+    /**
+     * @return appointments skipped because their patient or doctor was unknown here,
+     *         and rows rejected by validation
+     */
+    public long getSkippedRows() {
+        return skippedRows;
+    }
+
+    /**
+     * Waits until the first snapshot or resumed tail has been applied.
+     *
+     * @param timeoutMillis maximum time to wait
+     * @return {@code true} if the follower is serving current data
+     */
+    public boolean awaitReady(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (progress) {
+            while (!ready) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                progress.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Waits until the event with the given sequence has been applied.
+     *
+     * @param sequence      sequence of a primary event
+     * @param timeoutMillis maximum time to wait
+     * @return {@code true} if it was applied in time
+     */
+    public boolean awaitSequence(long sequence, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (progress) {
+            while (appliedSequence < sequence) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                progress.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    private void run() {
+        while (running) {
+            try (Socket connection = new Socket(host, port)) {
+                socket = connection;
+                connection.setTcpNoDelay(true);
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8), 1 << 16);
+                Writer out = new BufferedWriter(
+                        new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8));
+                out.write("FOLLOW " + appliedSequence + "\n");
+                out.flush();
+                follow(in, out);
+            } catch (IOException | RuntimeException e) {
+                if (running) {
+                    System.out.println("Replication: lost primary " + host + ":" + port + " (" + e.getMessage()
+                            + "), reconnecting");
+                }
+            }
+            clearPending();
+            if (running) {
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void follow(BufferedReader in, Writer out) throws IOException {
+        String line = in.readLine();
+        if ("SNAPSHOT".equals(line)) {
+            line = loadSnapshot(in);
+        }
+        if (line == null || !line.startsWith("TAIL ")) {
+            throw new IOException("Unexpected reply from primary: " + line);
+        }
+        advance(Long.parseLong(line.substring("TAIL ".length()).trim()) - 1);
+        ack(out);
+        while (running && (line = in.readLine()) != null) {
+            ChangeEvent event = ChangeEvent.fromLine(line);
+            apply(event);
+            pendingSequence = event.getSequence();
+            if (!in.ready() || newAppointments.size() >= BATCH_SIZE) {
+                flush();
+                advance(pendingSequence);
+                ack(out);
+            }
+        }
+    }
+
+    private String loadSnapshot(BufferedReader in) throws IOException {
+        IntHashSet doctorIds = new IntHashSet();
+        IntHashSet patientIds = new IntHashSet();
+        IntHashSet appointmentIds = new IntHashSet();
+        String line;
+        while ((line = in.readLine()) != null && !line.startsWith("TAIL ")) {
+            ChangeEvent event = ChangeEvent.fromLine(line);
+            switch (event.getEntityType()) {
+                case DOCTOR:
+                    doctorIds.add(event.getEntityId());
+                    break;
+                case PATIENT:
+                    patientIds.add(event.getEntityId());
+                    break;
+                case APPOINTMENT:
+                    appointmentIds.add(event.getEntityId());
+                    break;
+                default:
+                    break;
+            }
+            apply(event);
+            if (newAppointments.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+        flush();
+        // Whatever the primary removed or archived while this follower was away is not in the snapshot.
+        for (Appointment appointment : appointmentService.getAllAppointments()) {
+            if (!appointmentIds.contains(appointment.getAppointmentId())) {
+                appointmentService.removeAppointment(appointment.getAppointmentId());
+            }
+        }
+        for (Doctor doctor : doctorService.getAllDoctors()) {
+            if (!doctorIds.contains(doctor.getId())) {
+                doctorService.removeDoctor(doctor.getId());
+            }
+        }
+        for (Patient patient : patientService.getAllPatients()) {
+            if (!patientIds.contains(patient.getId())) {
+                patientService.removePatient(patient.getId());
+            }
+        }
+        snapshots++;
+        return line;
+    }
+
+    private void apply(ChangeEvent event) {
+        int id = event.getEntityId();
+        switch (event.getEntityType()) {
+            case DOCTOR: {
+                flushAppointments(); // a pending appointment may point at the old row
+                Doctor existing = doctorService.findDoctorById(id);
+                if (event.getKind() == ChangeEvent.Kind.REMOVED) {
+                    flush();
+                    doctorService.removeDoctor(id);
+                } else if (existing == null) {
+                    newDoctors.add(CSVUtil.parseDoctor(event.getPayload()));
+                } else if (!event.getPayload().equals(CSVUtil.toCsvLine(existing))) {
+                    flush();
+                    doctorService.removeDoctor(id);
+                    count(doctorService.addDoctors(List.of(CSVUtil.parseDoctor(event.getPayload())))
+                            .getRejectedRows());
+                }
+                break;
+            }
+            case PATIENT: {
+                flushAppointments();
+                Patient existing = patientService.findPatientById(id);
+                if (event.getKind() == ChangeEvent.Kind.REMOVED) {
+                    flush();
+                    patientService.removePatient(id);
+                } else if (existing == null) {
+                    newPatients.add(CSVUtil.parsePatient(event.getPayload()));
+                } else if (!event.getPayload().equals(CSVUtil.toCsvLine(existing))) {
+                    flush();
+                    patientService.removePatient(id);
+                    count(patientService.addPatients(List.of(CSVUtil.parsePatient(event.getPayload())))
+                            .getRejectedRows());
+                }
+                break;
+            }
+            case APPOINTMENT:
+                applyAppointment(event);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown entity type: " + event.getEntityType());
+        }
+    }
+
+    // Appointments are removed only when the primary archives them; otherwise only their status changes.
+    private void applyAppointment(ChangeEvent event) {
+        if (event.getKind() == ChangeEvent.Kind.REMOVED) {
+            if (newAppointmentIds.contains(event.getEntityId())) {
+                flushAppointments();
+            }
+            appointmentService.removeAppointment(event.getEntityId());
+            return;
+        }
+        if (event.getPayload() == null) {
+            return;
+        }
+        String[] parts = event.getPayload().split(",");
+        if (parts.length < 5) {
+            throw new IllegalArgumentException("Invalid appointment row: " + event.getPayload());
+        }
+        AppointmentStatus status = AppointmentStatus.valueOf(parts[4].trim());
+        flushPeople();
+        Optional<Appointment> existing = appointmentService.findAppointment(event.getEntityId());
+        if (existing.isEmpty() && newAppointmentIds.contains(event.getEntityId())) {
+            flushAppointments();
+            existing = appointmentService.findAppointment(event.getEntityId());
+        }
+        if (existing.isPresent()) {
+            if (status == AppointmentStatus.CANCELLED) {
+                appointmentService.tryCancelAppointment(event.getEntityId());
+            } else if (status == AppointmentStatus.CONFIRMED
+                    && existing.get().getStatus() == AppointmentStatus.PENDING) {
+                existing.get().confirm();
+            }
+            return;
+        }
+        Patient patient = parts[1].isEmpty() ? null : patientService.findPatientById(Integer.parseInt(parts[1]));
+        Doctor doctor = parts[2].isEmpty() ? null : doctorService.findDoctorById(Integer.parseInt(parts[2]));
+        if (patient == null || doctor == null) {
+            count(1);
+            return;
+        }
+        Appointment appointment = new Appointment(event.getEntityId(), patient, doctor,
+                parts[3].isEmpty() ? null : LocalDate.parse(parts[3]));
+        if (status == AppointmentStatus.CANCELLED) {
+            appointment.cancel();
+        } else if (status == AppointmentStatus.CONFIRMED) {
+            appointment.confirm();
+        }
+        newAppointments.add(appointment);
+        newAppointmentIds.add(appointment.getAppointmentId());
+    }
+
+    private void flush() {
+        flushPeople();
+        flushAppointments();
+    }
+
+    private void flushPeople() {
+        if (!newDoctors.isEmpty()) {
+            count(doctorService.addDoctors(newDoctors).getRejectedRows());
+            newDoctors.clear();
+        }
+        if (!newPatients.isEmpty()) {
+            count(patientService.addPatients(newPatients).getRejectedRows());
+            newPatients.clear();
+        }
+    }
+
+    private void flushAppointments() {
+        if (!newAppointments.isEmpty()) {
+            appointmentService.addAppointments(new ArrayList<>(newAppointments));
+            newAppointments.clear();
+            newAppointmentIds.clear();
+        }
+    }
+
+    private void clearPending() {
+        newDoctors.clear();
+        newPatients.clear();
+        newAppointments.clear();
+        newAppointmentIds.clear();
+    }
+
+    private void count(long rows) {
+        if (rows > 0) {
+            skippedRows += rows;
+        }
+    }
+
+    private void advance(long sequence) {
+        synchronized (progress) {
+            appliedSequence = sequence;
+            ready = true;
+            progress.notifyAll();
+        }
+    }
+
+    private void ack(Writer out) throws IOException {
+        out.write("ACK " + appliedSequence + "\n");
+        out.flush();
+    }
+
+    /**
+     * Disconnects from the primary and stops applying events.
+     */
+    @Override
+    public void close() {
+        running = false;
+        Socket connection = socket;
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (IOException e) {
+                // already closed
+            }
+        }
+        try {
+            applier.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.airtribe.meditrack.service;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.EntityType;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.exception.PersistenceException;
+import com.airtribe.meditrack.util.CSVUtil;
+import com.airtribe.meditrack.util.ChangeEvent;
+import com.airtribe.meditrack.util.ChangeFeed;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Ships the {@link ChangeFeed} of this process to {@link ReplicationFollower}s
+ * over local TCP connections, so other processes can serve reads from their
+ * own copy of the data.
+ * <p>
+ * The protocol is line based and reuses {@link ChangeEvent#toLine()}. A
+ * follower opens with {@code FOLLOW <lastAppliedSequence>}, 0 when it has no
+ * data yet. If the feed still holds the next event, the primary answers
+ * {@code TAIL <fromSequence>} and streams events from there. Otherwise it
+ * answers {@code SNAPSHOT}, sends every doctor, patient and appointment as an
+ * {@code ADDED} event with sequence 0, and continues with
+ * {@code TAIL <fromSequence>}. The feed is subscribed before the snapshot is
+ * read, so rows changed while the snapshot is sent arrive again in the tail;
+ * applying an event twice is harmless because every payload carries the
+ * entity's full row. The follower answers with {@code ACK <sequence>} lines,
+ * which the primary uses to report lag and to notice a follower that went
+ * away.
+ * <p>
+ * Followers read the feed as observers, so neither a long snapshot nor a
+ * follower that stops reading ever holds writers back. A follower whose
+ * next event has been overwritten, or that has not acknowledged a full
+ * ring's worth of events, is disconnected; it reconnects, finds its sequence
+ * gone from the feed and loads a fresh snapshot.
+ */
+public final class ReplicationPrimary implements AutoCloseable {
+
+    private static final int BATCH_SIZE = 1024;
+    private static final long MAX_IDLE_PARK_NANOS = 200_000;
+    // how often a follower that sends no acks is checked for having fallen too far behind
+    private static final int ACK_CHECK_MILLIS = 250;
+
+    private final ChangeFeed feed;
+    private final DoctorService doctorService;
+    private final PatientService patientService;
+    private final AppointmentService appointmentService;
+    private final ServerSocket serverSocket;
+    private final Thread acceptor;
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+    private volatile boolean running = true;
+
+    /**
+     * Starts accepting followers on the loopback interface.
+     *
+     * @param feed the feed the services publish to
+     * @param port port to listen on, 0 for any free port
+     */
+    public ReplicationPrimary(ChangeFeed feed, int port, DoctorService doctorService,
+                              PatientService patientService, AppointmentService appointmentService) {
+        this.feed = feed;
+        this.doctorService = doctorService;
+        this.patientService = patientService;
+        this.appointmentService = appointmentService;
+        try {
+            this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new PersistenceException("Cannot listen for replication followers on port " + port, e);
+        }
+        this.acceptor = new Thread(this::acceptLoop, "replication-acceptor");
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    /**
+     * @return the port followers connect to
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return number of followers currently connected
+     */
+    public int getFollowerCount() {
+        return connections.size();
+    }
+
+    /**
+     * @return events published but not yet acknowledged by the slowest follower, 0 without followers
+     */
+    public long getMaxLag() {
+        long last = feed.lastSequence();
+        long lag = 0;
+        for (Connection connection : connections) {
+            lag = Math.max(lag, last - connection.acked);
+        }
+        return lag;
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Connection connection = new Connection(socket);
+                connections.add(connection);
+                connection.sender.start();
+            } catch (IOException e) {
+                if (running) {
+                    System.out.println("Replication: failed to accept a follower: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops accepting followers and disconnects the connected ones.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // nothing left to release
+        }
+        for (Connection connection : connections) {
+            connection.close();
+        }
+        try {
+            acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class Connection {
+
+        private final Socket socket;
+        private final Thread sender;
+        private volatile long acked;
+        private volatile boolean open = true;
+
+        Connection(Socket socket) {
+            this.socket = socket;
+            this.sender = new Thread(this::run, "replication-sender-" + socket.getPort());
+            this.sender.setDaemon(true);
+        }
+
+        private void run() {
+            ChangeFeed.Subscription subscription = null;
+            try {
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                Writer out = new BufferedWriter(
+                        new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), 1 << 16);
+                String hello = in.readLine();
+                if (hello == null || !hello.startsWith("FOLLOW ")) {
+                    throw new IOException("Unexpected follower greeting: " + hello);
+                }
+                long from = Long.parseLong(hello.substring("FOLLOW ".length()).trim()) + 1;
+                acked = from - 1;
+                subscription = resume(from);
+                boolean snapshot = subscription == null;
+                if (snapshot) {
+                    subscription = feed.observe();
+                    from = subscription.nextSequence();
+                    acked = from - 1; // where the snapshot leaves the follower
+                }
+                startAckReader(in); // before the snapshot, so a follower that stalls during it is dropped too
+                if (snapshot) {
+                    sendSnapshot(out);
+                }
+                out.write("TAIL " + from + "\n");
+                out.flush();
+                stream(subscription, out);
+            } catch (IOException | UncheckedIOException | NumberFormatException e) {
+                if (open && running) {
+                    System.out.println("Replication: follower " + socket.getRemoteSocketAddress()
+                            + " disconnected: " + e.getMessage());
+                }
+            } catch (IllegalStateException e) {
+                System.out.println("Replication: follower " + socket.getRemoteSocketAddress()
+                        + " fell behind the change feed and will reload a snapshot");
+            } finally {
+                if (subscription != null) {
+                    subscription.close();
+                }
+                close();
+            }
+        }
+
+        // A new follower, or one that fell behind the ring or is ahead of it (this primary restarted), starts over.
+        private ChangeFeed.Subscription resume(long from) {
+            if (from <= 1 || from > feed.lastSequence() + 1) {
+                return null;
+            }
+            try {
+                return feed.observe(from);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        private void sendSnapshot(Writer out) throws IOException {
+            out.write("SNAPSHOT\n");
+            for (Doctor doctor : doctorService.getAllDoctors()) {
+                writeAdded(out, EntityType.DOCTOR, doctor.getId(), CSVUtil.toCsvLine(doctor));
+            }
+            for (Patient patient : patientService.getAllPatients()) {
+                writeAdded(out, EntityType.PATIENT, patient.getId(), CSVUtil.toCsvLine(patient));
+            }
+            for (Appointment appointment : appointmentService.getAllAppointments()) {
+                writeAdded(out, EntityType.APPOINTMENT, appointment.getAppointmentId(),
+                        CSVUtil.toCsvLine(appointment));
+            }
+        }
+
+        private void writeAdded(Writer out, EntityType type, int id, String row) throws IOException {
+            out.write(new ChangeEvent(0, ChangeEvent.Kind.ADDED, type, id, row).toLine());
+            out.write('\n');
+        }
+
+        private void stream(ChangeFeed.Subscription subscription, Writer out) throws IOException {
+            Consumer<ChangeEvent> send = event -> {
+                try {
+                    out.write(event.toLine());
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+            long idleNanos = 0;
+            while (open && running) {
+                if (subscription.poll(BATCH_SIZE, send) > 0) {
+                    idleNanos = 0;
+                    if (subscription.lag() == 0) {
+                        out.flush();
+                    }
+                } else {
+                    out.flush();
+                    idleNanos = Math.min(MAX_IDLE_PARK_NANOS, idleNanos * 2 + 1_000);
+                    LockSupport.parkNanos(idleNanos);
+                }
+            }
+        }
+
+        // Acks double as the liveness check: a closed follower ends the read and the connection with it.
+        // The read times out now and then so that a follower that stopped acking can be dropped.
+        private void startAckReader(BufferedReader in) throws IOException {
+            socket.setSoTimeout(ACK_CHECK_MILLIS);
+            Thread reader = new Thread(() -> {
+                try {
+                    while (!fallenBehind()) {
+                        String line;
+                        try {
+                            line = in.readLine();
+                        } catch (SocketTimeoutException e) {
+                            continue; // an unfinished ack line is lost; the next ack supersedes it
+                        }
+                        if (line == null) {
+                            break;
+                        }
+                        if (line.startsWith("ACK ")) {
+                            acked = Long.parseLong(line.substring("ACK ".length()).trim());
+                        }
+                    }
+                } catch (IOException | NumberFormatException e) {
+                    // handled below
+                }
+                close();
+            }, sender.getName() + "-acks");
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        private boolean fallenBehind() {
+            if (feed.lastSequence() - acked <= feed.getCapacity()) {
+                return false;
+            }
+            if (open && running) {
+                System.out.println("Replication: follower " + socket.getRemoteSocketAddress()
+                        + " is more than " + feed.getCapacity() + " events behind; disconnecting it");
+            }
+            return true;
+        }
+
+        void close() {
+            open = false;
+            connections.remove(this);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // already closed
+            }
+        }
+    }
+}
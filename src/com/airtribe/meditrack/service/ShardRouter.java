@@ -0,0 +1,40 @@
+package com.airtribe.meditrack.service;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Maps a routing key (a clinic id, or an entity id when no clinic is known)
+ * to one of {@code shardCount} shards.
+ */
+@FunctionalInterface
+public interface ShardRouter {
+
+    /**
+     * @param key        routing key
+     * @param shardCount number of shards, always positive
+     * @return shard index in {@code [0, shardCount)}
+     */
+    int shardFor(int key, int shardCount);
+
+    /**
+     * Spreads keys evenly by hash. Consecutive ids land on different shards.
+     */
+    static ShardRouter byHash() {
+        return (key, shardCount) -> Math.floorMod(key * 0x9E3779B9, shardCount);
+    }
+
+    /**
+     * Pins every listed clinic to a shard and hashes unlisted keys.
+     *
+     * @param clinicToShard assignment of clinic ids to shard indexes
+     */
+    static ShardRouter byClinic(Map<Integer, Integer> clinicToShard) {
+        Objects.requireNonNull(clinicToShard, "clinicToShard must not be null");
+        ShardRouter fallback = byHash();
+        return (key, shardCount) -> {
+            Integer shard = clinicToShard.get(key);
+            return shard != null ? Math.floorMod(shard, shardCount) : fallback.shardFor(key, shardCount);
+        };
+    }
+}
@@ -0,0 +1,305 @@
+package com.airtribe.meditrack.service;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.util.AppointmentCsvLoader;
+import com.airtribe.meditrack.util.CSVUtil;
+import com.airtribe.meditrack.util.ValidationReport;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Partitions doctors, patients and appointments across independent shards.
+ * <p>
+ * Each shard is an ordinary {@link DoctorService} / {@link PatientService} /
+ * {@link AppointmentService} triple with its own stores, locks and CSV files,
+ * so writes to different shards never contend. Writes are routed by a
+ * {@link ShardRouter} key (typically the clinic id); an appointment is stored
+ * on the shard of its routing key. Queries that span shards are fanned out on
+ * a dedicated executor and their results merged.
+ */
+public class ShardedMediTrack implements AutoCloseable {
+
+    private final Shard[] shards;
+    private final ShardRouter router;
+    private final ExecutorService executor;
+
+    /**
+     * @param shardCount number of shards
+     * @param router     maps routing keys to shards
+     * @param dataDir    directory holding the per-shard CSV files
+     */
+    public ShardedMediTrack(int shardCount, ShardRouter router, Path dataDir) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be positive");
+        }
+        this.router = Objects.requireNonNull(router, "router must not be null");
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, dataDir);
+        }
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(shardCount, r -> {
+            Thread t = new Thread(r, "meditrack-shard-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @param key routing key
+     * @return the shard index that owns {@code key}
+     */
+    public int shardOf(int key) {
+        return router.shardFor(key, shards.length);
+    }
+
+    /**
+     * Direct access to one shard's services, e.g. for single-clinic screens.
+     */
+    public DoctorService doctors(int shard) {
+        return shards[shard].doctors;
+    }
+
+    public PatientService patients(int shard) {
+        return shards[shard].patients;
+    }
+
+    public AppointmentService appointments(int shard) {
+        return shards[shard].appointments;
+    }
+
+    // Writes, routed by key
+
+    public void addDoctor(int key, Doctor doctor) {
+        shards[shardOf(key)].doctors.addDoctor(doctor);
+    }
+
+    public void addPatient(int key, Patient patient) {
+        shards[shardOf(key)].patients.addPatient(patient);
+    }
+
+    public ValidationReport addDoctors(int key, List<Doctor> doctors) {
+        return shards[shardOf(key)].doctors.addDoctors(doctors);
+    }
+
+    public ValidationReport addPatients(int key, List<Patient> patients) {
+        return shards[shardOf(key)].patients.addPatients(patients);
+    }
+
+    public void bookAppointment(int key, int appointmentId, Patient patient, Doctor doctor, LocalDate date) {
+        shards[shardOf(key)].appointments.bookAppointment(appointmentId, patient, doctor, date);
+    }
+
+    // Point lookups: direct when the key is known, otherwise fanned out
+
+    public Doctor findDoctorById(int key, int id) {
+        return shards[shardOf(key)].doctors.findDoctorById(id);
+    }
+
+    public Patient findPatientById(int key, int id) {
+        return shards[shardOf(key)].patients.findPatientById(id);
+    }
+
+    public Doctor findDoctorById(int id) {
+        return firstNonNull(fanOut(shard -> shard.doctors.findDoctorById(id)));
+    }
+
+    public Patient findPatientById(int id) {
+        return firstNonNull(fanOut(shard -> shard.patients.findPatientById(id)));
+    }
+
+    // Cross-shard queries
+
+    public List<Doctor> findDoctorsBySpecialization(Specialization specialization) {
+        return concat(fanOut(shard -> shard.doctors.findDoctorsBySpecialization(specialization)));
+    }
+
+    public double getAverageConsultationFee() {
+        DoubleSummaryStatistics total = new DoubleSummaryStatistics();
+        for (DoubleSummaryStatistics part : fanOut(shard -> shard.doctors.getConsultationFeeStatistics())) {
+            total.combine(part);
+        }
+        return total.getCount() == 0 ? 0.0 : total.getAverage();
+    }
+
+    public List<Doctor> searchDoctors(String keyword) {
+        return concat(fanOut(shard -> shard.doctors.searchDoctors(keyword)));
+    }
+
+    public List<Patient> searchPatients(String keyword) {
+        return concat(fanOut(shard -> shard.patients.searchPatients(keyword)));
+    }
+
+    public long countDoctors() {
+        return fanOut(shard -> shard.doctors.countDoctors()).stream().mapToLong(Long::longValue).sum();
+    }
+
+    public long countPatients() {
+        return fanOut(shard -> shard.patients.countPatients()).stream().mapToLong(Long::longValue).sum();
+    }
+
+    // Persistence, one set of files per shard, written in parallel
+
+    /**
+     * Writes every shard to its CSV files.
+     *
+     * @throws IOException if a shard's files cannot be written
+     */
+    public void saveAll() throws IOException {
+        try {
+            fanOut(shard -> {
+                try {
+                    CSVUtil.saveDoctorsToCSV(shard.doctors.getAllDoctors(), shard.doctorFile);
+                    CSVUtil.savePatientsToCSV(shard.patients.getAllPatients(), shard.patientFile);
+                    CSVUtil.saveAppointmentsToCSV(shard.appointments.getAllAppointments(), shard.appointmentFile);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Loads every shard from its CSV files.
+     * <p>
+     * Appointments are loaded once every shard holds its doctors and patients,
+     * because a booking may name a patient or doctor stored on another shard.
+     * Rows whose patient or doctor is not found are skipped and summarized on
+     * the console, as the single-store load does.
+     *
+     * @return one report per shard for doctors and patients, doctors first
+     * @throws IOException if a shard's files cannot be read or a row is malformed
+     */
+    public List<ValidationReport> loadAll() throws IOException {
+        try {
+            List<List<ValidationReport>> perShard = fanOut(shard -> {
+                try {
+                    List<ValidationReport> reports = new ArrayList<>(2);
+                    reports.add(shard.doctors.addDoctors(CSVUtil.loadDoctorsFromCSV(shard.doctorFile)));
+                    reports.add(shard.patients.addPatients(CSVUtil.loadPatientsFromCSV(shard.patientFile)));
+                    return reports;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            fanOut(shard -> {
+                try {
+                    AppointmentCsvLoader.Result loaded = CSVUtil.loadAppointmentsFromCSV(shard.appointmentFile,
+                            id -> find(shard, s -> s.patients.findPatientById(id)),
+                            id -> find(shard, s -> s.doctors.findDoctorById(id)));
+                    shard.appointments.addAppointments(loaded.getAppointments());
+                    if (loaded.getSkippedRows() > 0) {
+                        System.out.println("Appointments from shard " + shard.index + ": "
+                                + loaded.format(Constants.REPORT_VIOLATION_LIMIT));
+                    }
+                    return null;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return concat(perShard);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    // Rethrows what a shard's query threw, not the CompletionException wrapping it.
+    private <R> List<R> fanOut(Function<Shard, R> query) {
+        List<CompletableFuture<R>> futures = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(shard), executor));
+        }
+        List<R> results = new ArrayList<>(shards.length);
+        for (CompletableFuture<R> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    // Looks on the given shard first and then on the others, on the calling thread:
+    // it runs inside fanOut, where waiting on the executor again could deadlock.
+    private <R> R find(Shard home, Function<Shard, R> lookup) {
+        R found = lookup.apply(home);
+        for (int i = 0; found == null && i < shards.length; i++) {
+            if (shards[i] != home) {
+                found = lookup.apply(shards[i]);
+            }
+        }
+        return found;
+    }
+
+    private static <T> List<T> concat(List<? extends List<? extends T>> parts) {
+        int size = 0;
+        for (List<? extends T> part : parts) {
+            size += part.size();
+        }
+        List<T> merged = new ArrayList<>(size);
+        for (List<? extends T> part : parts) {
+            merged.addAll(part);
+        }
+        return merged;
+    }
+
+    private static <T> T firstNonNull(List<T> candidates) {
+        for (T candidate : candidates) {
+            if (candidate != null) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static final class Shard {
+        final int index;
+        final DoctorService doctors = new DoctorService();
+        final PatientService patients = new PatientService();
+        final AppointmentService appointments = new AppointmentService();
+        final String doctorFile;
+        final String patientFile;
+        final String appointmentFile;
+
+        Shard(int index, Path dataDir) {
+            this.index = index;
+            this.doctorFile = dataDir.resolve("doctors-" + index + ".csv").toString();
+            this.patientFile = dataDir.resolve("patients-" + index + ".csv").toString();
+            this.appointmentFile = dataDir.resolve("appointments-" + index + ".csv").toString();
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package com.airtribe.meditrack.service;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.BillSummary;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.EntityType;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.exception.AppointmentNotFoundException;
+import com.airtribe.meditrack.exception.InvalidDataException;
+import com.airtribe.meditrack.exception.TransactionConflictException;
+import com.airtribe.meditrack.util.VersionTable;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Atomic multi-entity operations over the doctor, patient and appointment
+ * services, with optimistic concurrency control.
+ * <p>
+ * A {@link Transaction} records the version of every entity it reads and
+ * buffers the one write it may declare. At commit the {@link VersionTable}
+ * stripe of the written entity is locked and the recorded versions are
+ * checked. Only if none changed is the write applied to its service and the
+ * version bumped. Otherwise the transaction runs again from the start, with
+ * a randomized back-off, up to {@code maxAttempts} times. Transactions over
+ * different entities never wait for each other, and a read-only transaction
+ * takes no lock at all.
+ * <p>
+ * A transaction makes at most one write, because the services cannot undo a
+ * write: with two, a failure in the second would leave the first applied.
+ * One write either happens or fails on its own, so nothing needs rolling
+ * back. A second write is refused with {@link IllegalStateException}.
+ * <p>
+ * So a booking fails cleanly instead of referencing a patient removed while
+ * it ran, and a bill never reflects an appointment cancelled while it was
+ * computed. The guarantees hold among operations that go through this
+ * facade; direct service calls do not bump versions.
+ */
+public class TransactionalMediTrack {
+
+    private static final Conflict CONFLICT = new Conflict();
+
+    private final DoctorService doctorService;
+    private final PatientService patientService;
+    private final AppointmentService appointmentService;
+    private final VersionTable versions;
+    private final int maxAttempts;
+
+    private final LongAdder commits = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    public TransactionalMediTrack(DoctorService doctorService, PatientService patientService,
+                                  AppointmentService appointmentService) {
+        this(doctorService, patientService, appointmentService, new VersionTable(),
+                Constants.TRANSACTION_MAX_ATTEMPTS);
+    }
+
+    /**
+     * @param versions    version table shared by every facade over the same services
+     * @param maxAttempts attempts a transaction makes before it gives up
+     */
+    public TransactionalMediTrack(DoctorService doctorService, PatientService patientService,
+                                  AppointmentService appointmentService, VersionTable versions, int maxAttempts) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("maxAttempts must be positive: " + maxAttempts);
+        }
+        this.doctorService = Objects.requireNonNull(doctorService, "doctorService must not be null");
+        this.patientService = Objects.requireNonNull(patientService, "patientService must not be null");
+        this.appointmentService = Objects.requireNonNull(appointmentService, "appointmentService must not be null");
+        this.versions = Objects.requireNonNull(versions, "versions must not be null");
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Runs {@code work} as a transaction and commits it, rerunning it on
+     * conflicts. {@code work} may run several times, so it should have no
+     * effects besides the reads and writes of its {@link Transaction}. An
+     * exception from {@code work} aborts the transaction without applying
+     * anything; it is rethrown unless the reads it was based on were already
+     * stale, in which case the transaction is retried.
+     *
+     * @return the value {@code work} returned in the attempt that committed
+     * @throws TransactionConflictException if every attempt conflicted
+     */
+    public <R> R execute(Function<Transaction, R> work) {
+        for (int attempt = 1; ; attempt++) {
+            Transaction transaction = new Transaction();
+            R result;
+            try {
+                result = work.apply(transaction);
+            } catch (Conflict e) {
+                conflicted(attempt);
+                continue;
+            } catch (RuntimeException e) {
+                if (transaction.readsValid()) {
+                    throw e;
+                }
+                conflicted(attempt); // the failure may stem from an inconsistent read
+                continue;
+            }
+            if (transaction.commit()) {
+                commits.increment();
+                return result;
+            }
+            conflicted(attempt);
+        }
+    }
+
+    /**
+     * Books an appointment and bills it in one transaction.
+     *
+     * @return the bill of the new appointment
+     * @throws InvalidDataException if the patient or doctor does not exist or the id is taken
+     */
+    public BillSummary bookAndBill(int appointmentId, int patientId, int doctorId, LocalDate date) {
+        Objects.requireNonNull(date, "date must not be null");
+        return execute(tx -> {
+            Patient patient = tx.patient(patientId);
+            if (patient == null) {
+                throw new InvalidDataException("Patient not found with ID: " + patientId, false);
+            }
+            Doctor doctor = tx.doctor(doctorId);
+            if (doctor == null) {
+                throw new InvalidDataException("Doctor not found with ID: " + doctorId, false);
+            }
+            if (tx.appointment(appointmentId).isPresent()) {
+                throw new InvalidDataException("Appointment ID already exists: " + appointmentId, false);
+            }
+            return new Bill(tx.book(appointmentId, patient, doctor, date)).generateBillSummary();
+        });
+    }
+
+    /**
+     * Bills an appointment as of one consistent point in time.
+     *
+     * @throws AppointmentNotFoundException if the appointment does not exist
+     * @throws InvalidDataException         if the appointment is cancelled
+     */
+    public BillSummary bill(int appointmentId) {
+        return execute(tx -> {
+            Appointment appointment = tx.appointment(appointmentId)
+                    .orElseThrow(() -> AppointmentNotFoundException.forId(appointmentId));
+            if (appointment.getStatus() == AppointmentStatus.CANCELLED) {
+                throw new InvalidDataException("Appointment " + appointmentId + " is cancelled", false);
+            }
+            return new Bill(appointment).generateBillSummary();
+        });
+    }
+
+    /**
+     * @return {@code true} if the appointment exists and is cancelled now
+     */
+    public boolean cancel(int appointmentId) {
+        return execute(tx -> {
+            Optional<Appointment> appointment = tx.appointment(appointmentId);
+            appointment.ifPresent(tx::cancel);
+            return appointment.isPresent();
+        });
+    }
+
+    /**
+     * @return {@code true} if a patient was removed
+     */
+    public boolean removePatient(int patientId) {
+        return execute(tx -> {
+            Patient patient = tx.patient(patientId);
+            if (patient != null) {
+                tx.removePatient(patient);
+            }
+            return patient != null;
+        });
+    }
+
+    /**
+     * @return {@code true} if a doctor was removed
+     */
+    public boolean removeDoctor(int doctorId) {
+        return execute(tx -> {
+            Doctor doctor = tx.doctor(doctorId);
+            if (doctor != null) {
+                tx.removeDoctor(doctor);
+            }
+            return doctor != null;
+        });
+    }
+
+    /**
+     * @return number of committed transactions
+     */
+    public long getCommits() {
+        return commits.sum();
+    }
+
+    /**
+     * @return number of attempts that conflicted and were retried or given up
+     */
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    private void conflicted(int attempt) {
+        conflicts.increment();
+        if (attempt >= maxAttempts) {
+            throw new TransactionConflictException("Transaction gave up after " + attempt + " conflicting attempts");
+        }
+        if (attempt > 2) {
+            // randomized and growing, so transactions that collided do not collide again in lockstep
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(1_000L << Math.min(attempt, 10)));
+        } else {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Reads and buffered write of one attempt. Reads see the state before
+     * the transaction; the write takes effect at commit.
+     */
+    public final class Transaction {
+
+        private int[] readStripes = new int[8];
+        private long[] readVersions = new long[8];
+        private int reads;
+        private int writeStripe;
+        private Runnable action;
+
+        private Transaction() {
+        }
+
+        /**
+         * @return the patient, or {@code null} if it does not exist
+         */
+        public Patient patient(int id) {
+            return read(EntityType.PATIENT, id, () -> patientService.findPatientById(id));
+        }
+
+        /**
+         * @return the doctor, or {@code null} if it does not exist
+         */
+        public Doctor doctor(int id) {
+            return read(EntityType.DOCTOR, id, () -> doctorService.findDoctorById(id));
+        }
+
+        public Optional<Appointment> appointment(int id) {
+            return read(EntityType.APPOINTMENT, id, () -> appointmentService.findAppointment(id));
+        }
+
+        /**
+         * Books an appointment at commit.
+         *
+         * @return the appointment that will be stored
+         */
+        public Appointment book(int appointmentId, Patient patient, Doctor doctor, LocalDate date) {
+            Appointment appointment = new Appointment(appointmentId, patient, doctor, date);
+            write(EntityType.APPOINTMENT, appointmentId,
+                    () -> appointmentService.addAppointments(List.of(appointment)));
+            return appointment;
+        }
+
+        /**
+         * Cancels the appointment at commit.
+         */
+        public void cancel(Appointment appointment) {
+            int id = appointment.getAppointmentId();
+            write(EntityType.APPOINTMENT, id, () -> appointmentService.tryCancelAppointment(id));
+        }
+
+        /**
+         * Removes the patient at commit.
+         */
+        public void removePatient(Patient patient) {
+            int id = patient.getId();
+            write(EntityType.PATIENT, id, () -> patientService.removePatient(id));
+        }
+
+        /**
+         * Removes the doctor at commit.
+         */
+        public void removeDoctor(Doctor doctor) {
+            int id = doctor.getId();
+            write(EntityType.DOCTOR, id, () -> doctorService.removeDoctor(id));
+        }
+
+        private <T> T read(EntityType type, int id, Supplier<T> lookup) {
+            int stripe = versions.stripeOf(type, id);
+            while (true) {
+                long version = versions.awaitUnlocked(stripe);
+                T value = lookup.get();
+                if (versions.current(stripe) == version) { // no commit touched it while we looked
+                    record(stripe, version);
+                    return value;
+                }
+            }
+        }
+
+        private void record(int stripe, long version) {
+            for (int i = 0; i < reads; i++) {
+                if (readStripes[i] == stripe) {
+                    if (readVersions[i] != version) {
+                        throw CONFLICT; // changed between two reads of this transaction
+                    }
+                    return;
+                }
+            }
+            if (reads == readStripes.length) {
+                readStripes = Arrays.copyOf(readStripes, reads * 2);
+                readVersions = Arrays.copyOf(readVersions, reads * 2);
+            }
+            readStripes[reads] = stripe;
+            readVersions[reads++] = version;
+        }
+
+        private void write(EntityType type, int id, Runnable action) {
+            if (this.action != null) {
+                throw new IllegalStateException("A transaction makes at most one write; split the work up");
+            }
+            writeStripe = versions.stripeOf(type, id);
+            this.action = action;
+        }
+
+        boolean readsValid() {
+            for (int i = 0; i < reads; i++) {
+                if (versions.current(readStripes[i]) != readVersions[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean commit() {
+            if (action == null) {
+                return readsValid();
+            }
+            long lockedAt = versions.tryLock(writeStripe);
+            if (lockedAt < 0) {
+                return false;
+            }
+            boolean applied = false;
+            try {
+                for (int i = 0; i < reads; i++) {
+                    long now = readStripes[i] == writeStripe ? lockedAt : versions.current(readStripes[i]);
+                    if (now != readVersions[i]) {
+                        return false;
+                    }
+                }
+                applied = true; // bump the version even if the write fails partway
+                action.run();
+                return true;
+            } finally {
+                versions.unlock(writeStripe, lockedAt, applied);
+            }
+        }
+    }
+
+    // Thrown inside a transaction to abandon an attempt; carries no stack trace.
+    private static final class Conflict extends RuntimeException {
+
+        Conflict() {
+            super(null, null, false, false);
+        }
+    }
+}
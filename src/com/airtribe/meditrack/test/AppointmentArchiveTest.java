@@ -0,0 +1,218 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.RevenueSummary;
+import com.airtribe.meditrack.exception.PersistenceException;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.util.AppointmentArchive;
+import com.airtribe.meditrack.util.CSVUtil;
+import com.airtribe.meditrack.util.DataGenerator;
+import com.airtribe.meditrack.util.IntHashMap;
+import com.airtribe.meditrack.util.RevenueLedger;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+public class AppointmentArchiveTest {
+
+    private static final int SEGMENT_ROWS = 4_096;
+
+    private static final DataGenerator GENERATOR = new DataGenerator(DataGenerator.DEFAULT_SEED, 20, 500, 50_000);
+    private static final List<Doctor> DOCTORS = GENERATOR.doctors();
+    private static final List<Patient> PATIENTS = GENERATOR.patients();
+    private static final IntHashMap<Doctor> DOCTORS_BY_ID = new IntHashMap<>();
+    private static final IntHashMap<Patient> PATIENTS_BY_ID = new IntHashMap<>();
+
+    public static void main(String[] args) throws IOException {
+        DOCTORS.forEach(d -> DOCTORS_BY_ID.put(d.getId(), d));
+        PATIENTS.forEach(p -> PATIENTS_BY_ID.put(p.getId(), p));
+        List<Appointment> appointments = GENERATOR.appointments(PATIENTS, DOCTORS);
+        Path directory = Files.createTempDirectory("archive");
+        try {
+            testRoundTrip(directory, appointments);
+            testSegmentsFeedTheLedger(directory, appointments);
+            testDateRangeSkipsSegments(directory, appointments);
+            testServiceHistory(appointments);
+            testUnknownReferencesAndImmutability();
+        } finally {
+            deleteRecursively(directory);
+        }
+        System.out.println("AppointmentArchiveTest completed");
+    }
+
+    private static void testRoundTrip(Path directory, List<Appointment> appointments) throws IOException {
+        new AppointmentArchive(directory, PATIENTS_BY_ID::get, DOCTORS_BY_ID::get, SEGMENT_ROWS).addAll(appointments);
+        AppointmentArchive reopened = open(directory);
+        boolean ok = reopened.size() == appointments.size()
+                && reopened.segmentCount() == (appointments.size() + SEGMENT_ROWS - 1) / SEGMENT_ROWS
+                && lines(reopened.getAll()).equals(lines(appointments))
+                && reopened.maxAppointmentId() == appointments.size();
+        Appointment probe = appointments.get(31_337);
+        ok &= reopened.findById(probe.getAppointmentId()).map(CSVUtil::toCsvLine)
+                .equals(Optional.of(CSVUtil.toCsvLine(probe)))
+                && reopened.findById(appointments.size() + 1).isEmpty();
+
+        Path csv = Files.createTempFile("appointments", ".csv");
+        CSVUtil.saveAppointmentsToCSV(appointments, csv.toString());
+        long csvBytes = Files.size(csv);
+        Files.deleteIfExists(csv);
+        ok &= reopened.sizeOnDisk() * 3 < csvBytes;
+        System.out.printf("%s: archive round-trips every field (%.1f bytes per appointment, CSV %.1f)%n",
+                ok ? "PASS" : "FAIL", (double) reopened.sizeOnDisk() / appointments.size(),
+                (double) csvBytes / appointments.size());
+    }
+
+    private static void testSegmentsFeedTheLedger(Path directory, List<Appointment> appointments) {
+        AppointmentArchive archive = open(directory);
+        RevenueLedger bySegment = new RevenueLedger(20);
+        List<Integer> segmentSizes = new ArrayList<>();
+        archive.forEachSegment(rows -> {
+            segmentSizes.add(rows.size());
+            bySegment.addAll(rows);
+        });
+        RevenueLedger whole = new RevenueLedger(20);
+        whole.addAll(appointments);
+        YearMonth first = YearMonth.from(DataGenerator.FIRST_DATE);
+        YearMonth last = first.plusMonths(DataGenerator.DATE_SPAN_DAYS / 28);
+        boolean ok = segmentSizes.size() == archive.segmentCount()
+                && segmentSizes.stream().allMatch(size -> size <= SEGMENT_ROWS)
+                && segmentSizes.stream().mapToInt(Integer::intValue).sum() == appointments.size()
+                && summaries(bySegment, first, last).equals(summaries(whole, first, last));
+        System.out.println((ok ? "PASS" : "FAIL") + ": a ledger fed segment by segment matches one fed every row");
+    }
+
+    private static List<String> summaries(RevenueLedger ledger, YearMonth from, YearMonth to) {
+        return ledger.monthly(from, to, RevenueLedger.Grouping.DOCTOR).stream()
+                .map(RevenueSummary::toString).collect(Collectors.toList());
+    }
+
+    private static void testDateRangeSkipsSegments(Path directory, List<Appointment> appointments)
+            throws IOException {
+        AppointmentArchive archive = open(directory);
+        LocalDate from = DataGenerator.FIRST_DATE.plusDays(100);
+        LocalDate to = from.plusDays(13);
+        boolean ok = ids(archive.between(from, to)).equals(ids(sorted(appointments.stream()
+                .filter(a -> !a.getAppointmentDate().isBefore(from) && !a.getAppointmentDate().isAfter(to)))));
+
+        // the last segment covers only the last days; a query ending before them must not touch it
+        Path last;
+        try (Stream<Path> files = Files.list(directory)) {
+            last = files.max(Comparator.naturalOrder()).orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(last, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+        ok &= archive.between(from, to).size() > 0;
+        try {
+            archive.between(from, DataGenerator.FIRST_DATE.plusDays(DataGenerator.DATE_SPAN_DAYS));
+            ok = false;
+        } catch (PersistenceException expected) {
+            // the damaged segment was read
+        }
+        try {
+            open(directory);
+            ok = false;
+        } catch (PersistenceException expected) {
+            // truncation is detected from the header
+        }
+        System.out.println((ok ? "PASS" : "FAIL") + ": date range queries read only overlapping segments");
+    }
+
+    private static void testServiceHistory(List<Appointment> appointments) throws IOException {
+        Path directory = Files.createTempDirectory("archive");
+        try {
+            AppointmentService service = new AppointmentService();
+            service.addAppointments(appointments);
+            AppointmentArchive archive = open(directory);
+            service.setArchive(archive);
+            int patientId = appointments.get(0).getPatient().getId();
+            List<Integer> patientBefore = ids(service.getAppointmentsForPatient(patientId));
+            patientBefore.sort(null);
+            LocalDate from = DataGenerator.FIRST_DATE.plusDays(300);
+            LocalDate to = DataGenerator.FIRST_DATE.plusDays(420);
+            List<Integer> rangeBefore = ids(service.getAppointmentsBetween(from, to));
+
+            LocalDate cutoff = DataGenerator.FIRST_DATE.plusDays(365);
+            int archived = service.archiveAppointmentsBefore(cutoff);
+            long expected = appointments.stream().filter(a -> a.getAppointmentDate().isBefore(cutoff)).count();
+            List<Integer> patientAfter = ids(service.getAppointmentHistoryForPatient(patientId));
+            List<Integer> patientSorted = new ArrayList<>(patientAfter);
+            patientSorted.sort(null);
+            boolean ok = archived == expected && archive.size() == expected
+                    && service.getAllAppointments().size() == appointments.size() - expected
+                    && service.getAppointmentsBetween(from, cutoff.minusDays(1)).isEmpty()
+                    && patientSorted.equals(patientBefore)
+                    && service.getAppointmentHistoryBetween(from, to).size() == rangeBefore.size()
+                    && ids(service.getAppointmentHistoryBetween(from, to)).equals(rangeBefore);
+            System.out.println((ok ? "PASS" : "FAIL") + ": service history queries span the archive and the live store");
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    private static void testUnknownReferencesAndImmutability() throws IOException {
+        Path directory = Files.createTempDirectory("archive");
+        try {
+            Doctor doctor = DOCTORS.get(0);
+            Patient known = PATIENTS.get(0);
+            Patient removed = new Patient(9_999, "Gone", 40, "Flu");
+            Appointment kept = new Appointment(1, known, doctor, DataGenerator.FIRST_DATE);
+            kept.cancel();
+            AppointmentArchive archive = open(directory);
+            archive.addAll(List.of(kept, new Appointment(2, removed, doctor, DataGenerator.FIRST_DATE)));
+            List<Appointment> all = archive.getAll();
+            boolean ok = archive.size() == 2 && all.size() == 1
+                    && CSVUtil.toCsvLine(all.get(0)).equals(CSVUtil.toCsvLine(kept));
+            try {
+                archive.remove(kept);
+                ok = false;
+            } catch (UnsupportedOperationException expected) {
+                // archived appointments are immutable
+            }
+            System.out.println((ok ? "PASS" : "FAIL") + ": rows of unknown patients are skipped, remove is refused");
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    private static AppointmentArchive open(Path directory) {
+        return new AppointmentArchive(directory, PATIENTS_BY_ID::get, DOCTORS_BY_ID::get, SEGMENT_ROWS);
+    }
+
+    private static List<String> lines(List<Appointment> appointments) {
+        return appointments.stream().map(CSVUtil::toCsvLine).sorted().collect(Collectors.toList());
+    }
+
+    private static List<Appointment> sorted(Stream<Appointment> appointments) {
+        return appointments.sorted(Comparator.comparing(Appointment::getAppointmentDate)
+                        .thenComparingInt(a -> a.getDoctor().getId())
+                        .thenComparingInt(Appointment::getAppointmentId))
+                .collect(Collectors.toList());
+    }
+
+    private static List<Integer> ids(List<Appointment> appointments) {
+        return appointments.stream().map(Appointment::getAppointmentId).collect(Collectors.toList());
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+}
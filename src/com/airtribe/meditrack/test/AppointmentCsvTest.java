@@ -0,0 +1,87 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.util.AppointmentCsvLoader;
+import com.airtribe.meditrack.util.CSVUtil;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+public class AppointmentCsvTest {
+
+    private static final List<Patient> PATIENTS = List.of(new Patient(1, "Asha", 30, "Flu"),
+            new Patient(2, "Ravi", 40, "Cold"));
+    private static final List<Doctor> DOCTORS = List.of(
+            new Doctor(10, "Dr. Rao", 50, Specialization.CARDIOLOGY, 500));
+
+    public static void main(String[] args) throws IOException {
+        testRoundTrip();
+        testDanglingReferencesAreSummarized();
+        testMalformedLineFails();
+        System.out.println("AppointmentCsvTest completed");
+    }
+
+    private static void testRoundTrip() throws IOException {
+        List<Appointment> appointments = new ArrayList<>();
+        for (int id = 1; id <= 3; id++) {
+            appointments.add(new Appointment(id, PATIENTS.get(id % 2), DOCTORS.get(0), LocalDate.of(2024, 5, id)));
+        }
+        appointments.get(1).confirm();
+        appointments.get(2).cancel();
+        Path file = Files.createTempFile("appointments", ".csv");
+        CSVUtil.saveAppointmentsToCSV(appointments, file.toString());
+        AppointmentCsvLoader.Result result = CSVUtil.loadAppointmentsFromCSV(file.toString(), PATIENTS, DOCTORS);
+        List<Appointment> loaded = result.getAppointments();
+        boolean ok = loaded.size() == 3 && result.getSkippedRows() == 0;
+        for (int i = 0; ok && i < 3; i++) {
+            Appointment a = appointments.get(i);
+            Appointment b = loaded.get(i);
+            ok = a.getAppointmentId() == b.getAppointmentId() && a.getPatient() == b.getPatient()
+                    && a.getDoctor() == b.getDoctor() && a.getAppointmentDate().equals(b.getAppointmentDate())
+                    && a.getStatus() == b.getStatus();
+        }
+        ok &= loaded.get(2).getStatus() == AppointmentStatus.CANCELLED;
+        Files.deleteIfExists(file);
+        System.out.println((ok ? "PASS" : "FAIL") + ": appointments survive save and load");
+    }
+
+    private static void testDanglingReferencesAreSummarized() throws IOException {
+        Path file = Files.createTempFile("appointments", ".csv");
+        Files.write(file, ("1,1,10,2024-05-01,PENDING\r\n"
+                + "2,7,10,2024-05-01,PENDING\n"
+                + "3,7,11,2024-05-02,CONFIRMED\n"
+                + "\n"
+                + "4,2,10,2024-05-03,CANCELLED").getBytes(StandardCharsets.UTF_8));
+        AppointmentCsvLoader.Result result = CSVUtil.loadAppointmentsFromCSV(file.toString(), PATIENTS, DOCTORS);
+        boolean ok = result.getRows() == 4 && result.getAppointments().size() == 2
+                && result.getDanglingPatientRows() == 2 && result.getDanglingDoctorRows() == 1
+                && Arrays.equals(result.getMissingPatientIds(), new int[] {7})
+                && Arrays.equals(result.getMissingDoctorIds(), new int[] {11});
+        Files.deleteIfExists(file);
+        System.out.println((ok ? "PASS" : "FAIL") + ": dangling references summarized: "
+                + result.format(5).replace(System.lineSeparator(), " |"));
+    }
+
+    private static void testMalformedLineFails() throws IOException {
+        Path file = Files.createTempFile("appointments", ".csv");
+        Files.write(file, "1,1,10,2024-05-01,PENDING\n2,1,10,2024-13-01,PENDING\n".getBytes(StandardCharsets.UTF_8));
+        boolean failed = false;
+        try {
+            CSVUtil.loadAppointmentsFromCSV(file.toString(), PATIENTS, DOCTORS);
+        } catch (IOException e) {
+            failed = e.getMessage().contains("line 2");
+        }
+        Files.deleteIfExists(file);
+        System.out.println((failed ? "PASS" : "FAIL") + ": malformed row reports its line number");
+    }
+}
@@ -0,0 +1,104 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.Page;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+
+public class AppointmentScheduleTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 3, 1);
+
+    public static void main(String[] args) {
+        AppointmentService service = bookTenDaysOfAppointments();
+        testRangeQuery(service);
+        testDoctorSchedule(service);
+        testCursorPaging(service);
+        testUpcoming(service);
+        testArchive(service);
+        System.out.println("AppointmentScheduleTest completed");
+    }
+
+    // Ten days, three doctors, two appointments per doctor per day: ids 1..60.
+    private static AppointmentService bookTenDaysOfAppointments() {
+        AppointmentService service = new AppointmentService();
+        Patient patient = new Patient(1, "Asha", 30, "Flu");
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        int id = 1;
+        for (int day = 9; day >= 0; day--) {
+            for (int d = 3; d >= 1; d--) {
+                Doctor doctor = new Doctor(d, "Dr. " + d, 45, Specialization.CARDIOLOGY, 400);
+                service.bookAppointment(id++, patient, doctor, START.plusDays(day));
+                service.bookAppointment(id++, patient, doctor, START.plusDays(day));
+            }
+        }
+        System.setOut(out);
+        return service;
+    }
+
+    private static void testRangeQuery(AppointmentService service) {
+        List<Appointment> range = service.getAppointmentsBetween(START.plusDays(2), START.plusDays(4));
+        boolean ok = range.size() == 18 && range.get(0).getAppointmentDate().equals(START.plusDays(2))
+                && range.get(17).getAppointmentDate().equals(START.plusDays(4));
+        for (int i = 1; ok && i < range.size(); i++) {
+            ok = !range.get(i).getAppointmentDate().isBefore(range.get(i - 1).getAppointmentDate());
+        }
+        ok &= service.getAppointmentsBetween(START.plusDays(4), START.plusDays(2)).isEmpty();
+        System.out.println((ok ? "PASS" : "FAIL") + ": range scan returns appointments in date order");
+    }
+
+    private static void testDoctorSchedule(AppointmentService service) {
+        List<Appointment> schedule = service.getScheduleForDoctor(2, START.plusDays(5));
+        boolean ok = schedule.size() == 2;
+        for (Appointment appointment : schedule) {
+            ok &= appointment.getDoctor().getId() == 2
+                    && appointment.getAppointmentDate().equals(START.plusDays(5));
+        }
+        System.out.println((ok ? "PASS" : "FAIL") + ": doctor's schedule for one day");
+    }
+
+    private static void testCursorPaging(AppointmentService service) {
+        List<Appointment> paged = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            Page<Appointment> page = service.getAppointmentsPage(START, START.plusDays(9), cursor, 7);
+            paged.addAll(page.getItems());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        boolean ok = pages == 9 && paged.equals(service.getAppointmentsBetween(START, START.plusDays(9)));
+        System.out.println((ok ? "PASS" : "FAIL") + ": cursor paging visits every appointment once");
+    }
+
+    private static void testUpcoming(AppointmentService service) {
+        List<Appointment> doctorsDay = service.getScheduleForDoctor(3, START.plusDays(8));
+        service.tryCancelAppointment(doctorsDay.get(0).getAppointmentId());
+        List<Appointment> next = service.getUpcomingAppointmentsForDoctor(3, START.plusDays(8), 3);
+        boolean ok = next.size() == 3
+                && next.get(0).getAppointmentId() == doctorsDay.get(1).getAppointmentId()
+                && next.get(1).getAppointmentDate().equals(START.plusDays(9));
+        ok &= service.getUpcomingAppointments(START.plusDays(9), 100).size() == 6;
+        System.out.println((ok ? "PASS" : "FAIL") + ": next appointments skip cancelled ones");
+    }
+
+    private static void testArchive(AppointmentService service) {
+        DataStore<Appointment> cold = new DataStore<>(Appointment::getAppointmentId);
+        int archived = service.archiveAppointmentsBefore(START.plusDays(3), cold);
+        boolean ok = archived == 18 && cold.size() == 18
+                && service.getAllAppointments().size() == 42
+                && service.getAppointmentsBetween(START, START.plusDays(2)).isEmpty()
+                && service.getAppointmentsForDoctor(1).size() == 14;
+        System.out.println((ok ? "PASS" : "FAIL") + ": past appointments move to cold storage");
+    }
+}
@@ -0,0 +1,223 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.util.AppointmentWaitlist;
+import com.airtribe.meditrack.util.DoctorLoadIndex;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class AppointmentWaitlistTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 6);
+
+    public static void main(String[] args) throws Exception {
+        testPriorityThenRequestOrder();
+        testLeaveAndRequeue();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // services print per booking
+        try {
+            report(out, backfillsCancelledSlot(), "a cancelled slot goes to the next waiting patient, once");
+            report(out, skipsPatientsAlreadyBooked(), "patients already booked that day are skipped");
+            report(out, cancellationStorm(out), "concurrent cancellation storm backfills every slot exactly once");
+        } finally {
+            System.setOut(out);
+        }
+        System.out.println("AppointmentWaitlistTest completed");
+    }
+
+    private static void report(PrintStream out, boolean ok, String description) {
+        out.println((ok ? "PASS" : "FAIL") + ": " + description);
+    }
+
+    private static void testPriorityThenRequestOrder() {
+        AppointmentWaitlist waitlist = new AppointmentWaitlist();
+        Doctor doctor = doctor(1);
+        Patient routine1 = patient(1);
+        Patient urgent = patient(2);
+        Patient routine2 = patient(3);
+        waitlist.join(routine1, doctor, DAY, 0);
+        waitlist.join(urgent, doctor, DAY, 5);
+        waitlist.join(routine2, doctor, DAY, 0);
+        waitlist.join(patient(4), doctor(2), DAY, 9);
+        waitlist.join(patient(5), doctor, DAY.plusDays(1), 9);
+        boolean ok = waitlist.size(1, DAY) == 3
+                && waitlist.poll(1, DAY).get().getPatient() == urgent
+                && waitlist.poll(1, DAY).get().getPatient() == routine1
+                && waitlist.poll(1, DAY).get().getPatient() == routine2
+                && waitlist.poll(1, DAY).isEmpty()
+                && waitlist.size(2, DAY) == 1 && waitlist.size(1, DAY.plusDays(1)) == 1;
+        System.out.println((ok ? "PASS" : "FAIL") + ": higher priority first, then request order, per doctor and day");
+    }
+
+    private static void testLeaveAndRequeue() {
+        AppointmentWaitlist waitlist = new AppointmentWaitlist();
+        Doctor doctor = doctor(1);
+        AppointmentWaitlist.Entry first = waitlist.join(patient(1), doctor, DAY, 0);
+        AppointmentWaitlist.Entry second = waitlist.join(patient(2), doctor, DAY, 0);
+        boolean ok = waitlist.leave(second) && !waitlist.leave(second) && waitlist.size(1, DAY) == 1;
+        AppointmentWaitlist.Entry third = waitlist.join(patient(3), doctor, DAY, 0);
+        ok &= waitlist.poll(1, DAY).get() == first;
+        waitlist.requeue(first);
+        ok &= waitlist.poll(1, DAY).get() == first && waitlist.poll(1, DAY).get() == third;
+        waitlist.join(patient(4), doctor, DAY, 0);
+        waitlist.expireBefore(DAY.plusDays(1));
+        ok &= waitlist.size(1, DAY) == 0;
+        System.out.println((ok ? "PASS" : "FAIL") + ": leave removes an entry and requeue restores its place");
+    }
+
+    private static boolean backfillsCancelledSlot() {
+        AppointmentService service = new AppointmentService();
+        AtomicInteger ids = new AtomicInteger(100);
+        DoctorLoadIndex load = new DoctorLoadIndex(10);
+        service.setDoctorLoadIndex(load);
+        service.setWaitlist(new AppointmentWaitlist(), ids::incrementAndGet);
+        Doctor doctor = doctor(1);
+        service.bookAppointment(1, patient(1), doctor, DAY);
+        Patient waiting = patient(2);
+        service.joinWaitlist(waiting, doctor, DAY, 0);
+
+        Optional<Appointment> backfilled = service.cancelAppointment(1);
+        boolean ok = backfilled.isPresent()
+                && backfilled.get().getPatient() == waiting
+                && backfilled.get().getDoctor() == doctor
+                && backfilled.get().getAppointmentDate().equals(DAY)
+                && backfilled.get().getAppointmentId() == 101
+                && service.findAppointment(101).isPresent()
+                && service.getAppointmentsForPatient(2).size() == 1
+                && load.loadOf(doctor, DAY) == 1;
+        ok &= service.cancelAppointment(1).isEmpty(); // already cancelled: nothing freed
+        ok &= !service.cancelAppointment(101).isPresent() && load.loadOf(doctor, DAY) == 0;
+        return ok;
+    }
+
+    private static boolean skipsPatientsAlreadyBooked() {
+        AppointmentService service = new AppointmentService();
+        AtomicInteger ids = new AtomicInteger(100);
+        service.setWaitlist(new AppointmentWaitlist(), ids::incrementAndGet);
+        Doctor doctor = doctor(1);
+        Patient booked = patient(2);
+        Patient next = patient(3);
+        service.bookAppointment(1, patient(1), doctor, DAY);
+        service.joinWaitlist(booked, doctor, DAY, 9);
+        service.joinWaitlist(next, doctor, DAY, 0);
+        service.bookAppointment(2, booked, doctor, DAY); // got a slot some other way meanwhile
+        Optional<Appointment> backfilled = service.cancelAppointment(1);
+        return backfilled.isPresent() && backfilled.get().getPatient() == next
+                && service.getAppointmentsForPatient(2).size() == 1;
+    }
+
+    /**
+     * Doctors call in sick: many threads cancel every appointment of their
+     * day at once, several threads racing on each appointment, while
+     * waitlists are longer than the number of slots for half of the doctors
+     * and shorter for the rest.
+     */
+    private static boolean cancellationStorm(PrintStream out) throws InterruptedException {
+        int doctors = 20;
+        int slots = 20;
+        int threads = 8;
+        AppointmentService service = new AppointmentService();
+        AtomicInteger ids = new AtomicInteger(1_000_000);
+        DoctorLoadIndex load = new DoctorLoadIndex(1_000);
+        service.setDoctorLoadIndex(load);
+        AppointmentWaitlist waitlist = new AppointmentWaitlist();
+        service.setWaitlist(waitlist, ids::incrementAndGet);
+
+        List<Doctor> doctorList = new ArrayList<>();
+        int[] priorityOf = new int[doctors * slots * 4];
+        List<Integer> cancellable = new ArrayList<>();
+        int nextPatient = 1;
+        int expectedBackfills = 0;
+        for (int d = 1; d <= doctors; d++) {
+            Doctor doctor = doctor(d);
+            doctorList.add(doctor);
+            for (int s = 0; s < slots; s++) {
+                int id = d * 1_000 + s;
+                service.bookAppointment(id, patient(nextPatient++), doctor, DAY);
+                cancellable.add(id);
+            }
+            int waiting = d % 2 == 0 ? slots * 2 : slots / 2;
+            for (int w = 0; w < waiting; w++) {
+                priorityOf[nextPatient] = w % 3;
+                service.joinWaitlist(patient(nextPatient++), doctor, DAY, w % 3);
+            }
+            expectedBackfills += Math.min(slots, waiting);
+        }
+
+        ConcurrentLinkedQueue<Appointment> backfilled = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            new Thread(() -> {
+                try {
+                    start.await();
+                    // every appointment is cancelled by two threads
+                    for (int i = 0; i < cancellable.size(); i++) {
+                        int index = (i + offset * cancellable.size() / threads) % cancellable.size();
+                        if (index % (threads / 2) == offset % (threads / 2)) {
+                            service.cancelAppointment(cancellable.get(index)).ifPresent(backfilled::add);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        long t0 = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsedMicros = (System.nanoTime() - t0) / 1_000;
+
+        boolean ok = backfilled.size() == expectedBackfills;
+        Set<Integer> patients = new HashSet<>();
+        for (Appointment appointment : backfilled) {
+            ok &= patients.add(appointment.getPatient().getId()); // nobody is given two slots
+            ok &= appointment.getStatus() != AppointmentStatus.CANCELLED;
+        }
+        for (Doctor doctor : doctorList) {
+            int active = 0;
+            int lowestServed = Integer.MAX_VALUE;
+            for (Appointment appointment : service.getScheduleForDoctor(doctor.getId(), DAY)) {
+                if (appointment.getStatus() != AppointmentStatus.CANCELLED) {
+                    active++;
+                    lowestServed = Math.min(lowestServed, priorityOf[appointment.getPatient().getId()]);
+                }
+            }
+            int waiting = doctor.getId() % 2 == 0 ? slots * 2 : slots / 2;
+            ok &= active == Math.min(slots, waiting) && load.loadOf(doctor, DAY) == active;
+            Optional<AppointmentWaitlist.Entry> left;
+            while ((left = waitlist.poll(doctor.getId(), DAY)).isPresent()) {
+                ok &= left.get().getPriority() <= lowestServed; // nobody more urgent was passed over
+            }
+        }
+        out.printf("  %d cancellations raced by %d threads, %d slots backfilled in %d us%n",
+                cancellable.size(), threads, backfilled.size(), elapsedMicros);
+        return ok;
+    }
+
+    private static Doctor doctor(int id) {
+        return new Doctor(id, "Dr. Sick" + id, 50, Specialization.NEUROLOGY, 900);
+    }
+
+    private static Patient patient(int id) {
+        return new Patient(id, "Waiting" + id, 40, "Migraine");
+    }
+}
@@ -0,0 +1,143 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.exception.InvalidDataException;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.AsyncMediTrack;
+import com.airtribe.meditrack.service.DoctorService;
+import com.airtribe.meditrack.service.PatientService;
+import com.airtribe.meditrack.util.WriteBatcher;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class AsyncMediTrackTest {
+
+    public static void main(String[] args) {
+        PrintStream out = System.out;
+        testBookingAndMissingReferences(out);
+        testInvalidRowsFailIndividually(out);
+        testConcurrentBookingsAreAllStored(out);
+        testCloseWaitsForRunningBatch(out);
+        out.println("AsyncMediTrackTest completed");
+    }
+
+    private static void testBookingAndMissingReferences(PrintStream out) {
+        DoctorService doctors = new DoctorService();
+        PatientService patients = new PatientService();
+        AppointmentService appointments = new AppointmentService();
+        boolean ok;
+        try (AsyncMediTrack async = new AsyncMediTrack(doctors, patients, appointments)) {
+            async.addDoctor(new Doctor(1, "Dr. Rao", 50, Specialization.CARDIOLOGY, 500)).join();
+            async.addPatient(new Patient(1, "Asha", 30, "Flu")).join();
+            Appointment booked = async.bookAppointment(10, 1, 1, LocalDate.of(2024, 5, 1)).join();
+            ok = booked.getPatient().getId() == 1 && appointments.findAppointment(10).isPresent()
+                    && async.findAppointment(10).join().isPresent();
+            ok &= failsWith(async.bookAppointment(11, 99, 1, LocalDate.of(2024, 5, 1)), "Patient not found");
+            ok &= failsWith(async.bookAppointment(12, 1, 99, LocalDate.of(2024, 5, 1)), "Doctor not found");
+            ok &= async.cancelAppointment(10).join() && !async.cancelAppointment(13).join();
+        }
+        out.println((ok ? "PASS" : "FAIL") + ": bookings complete and missing references fail");
+    }
+
+    private static void testInvalidRowsFailIndividually(PrintStream out) {
+        PatientService patients = new PatientService();
+        boolean ok = true;
+        try (AsyncMediTrack async = new AsyncMediTrack(new DoctorService(), patients, new AppointmentService())) {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int id = 1; id <= 100; id++) {
+                futures.add(async.addPatient(new Patient(id, id % 10 == 0 ? " " : "P" + id, 30, "Flu")));
+            }
+            for (int id = 1; id <= 100; id++) {
+                CompletableFuture<Void> future = futures.get(id - 1);
+                ok &= id % 10 == 0 ? failsWith(future, "Name") : succeeds(future);
+            }
+        }
+        ok &= patients.countPatients() == 90;
+        out.println((ok ? "PASS" : "FAIL") + ": invalid rows fail alone, the rest of the batch is stored");
+    }
+
+    private static void testConcurrentBookingsAreAllStored(PrintStream out) {
+        DoctorService doctors = new DoctorService();
+        PatientService patients = new PatientService();
+        AppointmentService appointments = new AppointmentService();
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        doctors.addDoctor(new Doctor(1, "Dr. Rao", 50, Specialization.CARDIOLOGY, 500));
+        patients.addPatient(new Patient(1, "Asha", 30, "Flu"));
+        System.setOut(out);
+        ExecutorService executor = AsyncMediTrack.newExecutor("platform");
+        AsyncMediTrack async = new AsyncMediTrack(doctors, patients, appointments, executor);
+        List<CompletableFuture<Appointment>> futures = new ArrayList<>();
+        for (int id = 1; id <= 5_000; id++) {
+            futures.add(async.bookAppointment(id, 1, 1, LocalDate.of(2024, 5, 1)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        async.close();
+        executor.shutdown();
+        boolean ok = appointments.getAppointmentsForDoctor(1).size() == 5_000
+                && async.getAverageBookingBatchSize() > 1;
+        out.println((ok ? "PASS" : "FAIL") + ": 5000 overlapping bookings stored in batches of "
+                + String.format("%.1f", async.getAverageBookingBatchSize()));
+    }
+
+    private static void testCloseWaitsForRunningBatch(PrintStream out) {
+        ExecutorService executor = AsyncMediTrack.newExecutor("platform");
+        AtomicInteger written = new AtomicInteger();
+        CountDownLatch writing = new CountDownLatch(1);
+        WriteBatcher<Integer> batcher = new WriteBatcher<>((batch, failures) -> {
+            writing.countDown();
+            Thread.sleep(200);
+            written.addAndGet(batch.size());
+        }, executor, 16);
+        CompletableFuture<Void> first = batcher.submit(1);
+        boolean ok;
+        try {
+            ok = writing.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ok = false;
+        }
+        batcher.close(); // the queue is empty now, but the drain is still writing item 1
+        ok &= written.get() == 1 && first.isDone() && !first.isCompletedExceptionally();
+
+        // An Error from the writer still completes the futures of its batch.
+        WriteBatcher<Integer> failing = new WriteBatcher<>((batch, failures) -> {
+            throw new AssertionError("writer failed");
+        }, executor, 16);
+        CompletableFuture<Void> failed = failing.submit(2);
+        failing.close();
+        executor.shutdown();
+        ok &= failed.isCompletedExceptionally();
+        out.println((ok ? "PASS" : "FAIL") + ": close waits for a running batch and writer errors fail its futures");
+    }
+
+    private static boolean succeeds(CompletableFuture<?> future) {
+        try {
+            future.join();
+            return true;
+        } catch (CompletionException e) {
+            return false;
+        }
+    }
+
+    private static boolean failsWith(CompletableFuture<?> future, String message) {
+        try {
+            future.join();
+            return false;
+        } catch (CompletionException e) {
+            return e.getCause() instanceof InvalidDataException && e.getCause().getMessage().contains(message);
+        }
+    }
+}
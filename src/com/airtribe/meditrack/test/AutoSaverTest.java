@@ -0,0 +1,74 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.entity.EntityType;
+import com.airtribe.meditrack.util.AutoSaver;
+import com.airtribe.meditrack.util.ChangeEvent;
+import com.airtribe.meditrack.util.ChangeFeed;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class AutoSaverTest {
+
+    public static void main(String[] args) throws Exception {
+        testBurstIsCoalesced();
+        testThresholdFlushesEarly();
+        testFailedFlushIsRetried();
+        System.out.println("AutoSaverTest completed");
+    }
+
+    private static void testBurstIsCoalesced() throws InterruptedException {
+        ChangeFeed feed = new ChangeFeed(1024);
+        List<int[]> flushes = new CopyOnWriteArrayList<>();
+        AutoSaver saver = new AutoSaver(feed, 200, 10_000)
+                .register(EntityType.PATIENT, flushes::add)
+                .start();
+        for (int i = 0; i < 500; i++) {
+            feed.publish(ChangeEvent.Kind.ADDED, EntityType.PATIENT, i % 100, null);
+        }
+        feed.publish(ChangeEvent.Kind.ADDED, EntityType.APPOINTMENT, 1, null); // no flusher, ignored
+        Thread.sleep(600);
+        boolean ok = flushes.size() == 1 && flushes.get(0).length == 100;
+        feed.publish(ChangeEvent.Kind.REMOVED, EntityType.PATIENT, 7, null);
+        saver.close();
+        ok &= flushes.size() == 2 && flushes.get(1).length == 1 && flushes.get(1)[0] == 7;
+        System.out.println((ok ? "PASS" : "FAIL") + ": burst coalesced into one write, close flushes the rest");
+    }
+
+    private static void testThresholdFlushesEarly() throws InterruptedException {
+        ChangeFeed feed = new ChangeFeed(1024);
+        AtomicInteger flushed = new AtomicInteger();
+        AutoSaver saver = new AutoSaver(feed, 60_000, 50)
+                .register(EntityType.DOCTOR, ids -> flushed.addAndGet(ids.length))
+                .start();
+        for (int i = 1; i <= 50; i++) {
+            feed.publish(ChangeEvent.Kind.ADDED, EntityType.DOCTOR, i, null);
+        }
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (flushed.get() < 50 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        boolean ok = flushed.get() == 50 && saver.dirtyCount() == 0;
+        saver.close();
+        System.out.println((ok ? "PASS" : "FAIL") + ": dirty threshold triggers a flush before the interval");
+    }
+
+    private static void testFailedFlushIsRetried() {
+        ChangeFeed feed = new ChangeFeed(16);
+        AtomicInteger attempts = new AtomicInteger();
+        AutoSaver saver = new AutoSaver(feed, 60_000, 1_000)
+                .register(EntityType.PATIENT, ids -> {
+                    if (attempts.incrementAndGet() == 1) {
+                        throw new IOException("disk full");
+                    }
+                });
+        saver.start();
+        feed.publish(ChangeEvent.Kind.ADDED, EntityType.PATIENT, 1, null);
+        saver.close(); // first attempt fails
+        boolean ok = attempts.get() == 1 && saver.dirtyCount() == 1 && saver.getLastFailure() != null;
+        ok &= saver.flush() && attempts.get() == 2 && saver.dirtyCount() == 0;
+        System.out.println((ok ? "PASS" : "FAIL") + ": failed flush keeps records dirty for a retry");
+    }
+}
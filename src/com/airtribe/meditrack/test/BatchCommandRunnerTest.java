@@ -0,0 +1,116 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.EntityType;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.BatchCommandRunner;
+import com.airtribe.meditrack.service.DoctorService;
+import com.airtribe.meditrack.service.PatientService;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+
+public class BatchCommandRunnerTest {
+
+    public static void main(String[] args) throws IOException {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            report(out, reportsEveryCommand(), "every command gets one result line in script order");
+            report(out, runsAcrossChunks(),
+                    "bookings see patients added in an earlier chunk and every add is stored once");
+        } finally {
+            System.setOut(out);
+        }
+        System.out.println("BatchCommandRunnerTest completed");
+    }
+
+    private static void report(PrintStream out, boolean ok, String description) {
+        out.println((ok ? "PASS" : "FAIL") + ": " + description);
+    }
+
+    private static final class Fixture {
+
+        final DoctorService doctors = new DoctorService();
+        final PatientService patients = new PatientService();
+        final AppointmentService appointments = new AppointmentService();
+        final BatchCommandRunner runner;
+
+        Fixture() {
+            Map<EntityType, Integer> lastIds = new EnumMap<>(EntityType.class);
+            ToIntFunction<EntityType> nextId = type -> lastIds.merge(type, 1, Integer::sum);
+            patients.setDuplicateDetection(true);
+            runner = new BatchCommandRunner(doctors, patients, appointments, nextId);
+        }
+
+        String run(String script, BatchCommandRunner.Summary[] summary) throws IOException {
+            StringWriter result = new StringWriter();
+            summary[0] = runner.run(new BufferedReader(new StringReader(script)), result);
+            return result.toString();
+        }
+    }
+
+    private static boolean reportsEveryCommand() throws IOException {
+        Fixture fixture = new Fixture();
+        String script = String.join("\n",
+                "# doctors",
+                "add-doctor Asha Rao, 45, cardiology, 500",
+                "add-doctor Vikram Sen,40,plumbing,300",
+                "",
+                "add-patient Ravi Kumar,30,Flu",
+                "  add-patient  ravi  KUMAR ,30, flu",
+                "add-patient ,30,Flu",
+                "add-patient Meera,abc,Flu",
+                "book 1,1,2026-11-02",
+                "book 1,7",
+                "bill 1",
+                "cancel 1",
+                "cancel 42",
+                "discharge 1");
+        BatchCommandRunner.Summary[] summary = new BatchCommandRunner.Summary[1];
+        String[] lines = fixture.run(script, summary).split(System.lineSeparator());
+        return lines.length == 12
+                && lines[0].equals("2 ok add-doctor 1")
+                && lines[1].startsWith("3 failed add-doctor: unknown specialization plumbing")
+                && lines[2].equals("5 ok add-patient 1")
+                && lines[3].equals("6 merged add-patient 2 into 1")
+                && lines[4].startsWith("7 failed add-patient: name")
+                && lines[5].startsWith("8 failed add-patient")
+                && lines[6].equals("9 ok book 1")
+                && lines[7].equals("10 failed book: Doctor not found with ID: 7")
+                && lines[8].startsWith("11 ok bill 1 ")
+                && lines[9].equals("12 ok cancel 1")
+                && lines[10].equals("13 failed cancel: Appointment not found with ID: 42")
+                && lines[11].equals("14 failed discharge: unknown command")
+                && summary[0].getCommands() == 12 && summary[0].getSucceeded() == 5
+                && summary[0].getMerged() == 1 && summary[0].getFailed() == 6
+                && fixture.doctors.countDoctors() == 1 && fixture.patients.countPatients() == 1
+                && fixture.appointments.findAppointmentById(1).getStatus() == AppointmentStatus.CANCELLED;
+    }
+
+    private static boolean runsAcrossChunks() throws IOException {
+        Fixture fixture = new Fixture();
+        int count = Constants.BATCH_CHUNK_SIZE + 1_000;
+        StringBuilder script = new StringBuilder("add-doctor Asha Rao,45,NEUROLOGY,800\n");
+        for (int i = 1; i <= count; i++) {
+            script.append("add-patient Patient ").append(i).append(",40,Migraine\n");
+        }
+        for (int i = 1; i <= count; i++) {
+            script.append("book ").append(i).append(",1\n");
+        }
+        BatchCommandRunner.Summary[] summary = new BatchCommandRunner.Summary[1];
+        String result = fixture.run(script.toString(), summary);
+        return summary[0].getSucceeded() == 1 + 2 * count && summary[0].getFailed() == 0
+                && fixture.patients.countPatients() == count
+                && fixture.appointments.getAppointmentsForDoctor(1).size() == count
+                && result.endsWith((2 * count + 1) + " ok book " + count + System.lineSeparator());
+    }
+}
@@ -0,0 +1,36 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.service.DoctorService;
+import com.airtribe.meditrack.util.ValidationReport;
+import java.util.ArrayList;
+import java.util.List;
+
+
+public class BulkValidatorTest {
+
+    public static void main(String[] args) {
+        testReportsRowFieldAndReason();
+        System.out.println("BulkValidatorTest completed");
+    }
+
+    private static void testReportsRowFieldAndReason() {
+        List<Doctor> rows = new ArrayList<>();
+        for (int i = 1; i <= 20_000; i++) {
+            double fee = i == 15_000 ? -1 : 100;
+            String name = i == 3 ? "" : "Doctor-" + i;
+            rows.add(new Doctor(i, name, 40, Specialization.NEUROLOGY, fee));
+        }
+        DoctorService service = new DoctorService();
+        ValidationReport report = service.addDoctors(rows);
+        List<ValidationReport.Violation> violations = report.getViolations();
+        boolean ok = report.getAcceptedRows() == 19_998
+                && service.countDoctors() == 19_998
+                && violations.size() == 2
+                && violations.get(0).getRow() == 3 && "name".equals(violations.get(0).getField())
+                && violations.get(1).getRow() == 15_000 && "consultationFee".equals(violations.get(1).getField())
+                && service.findDoctorById(3) == null && service.findDoctorById(4) != null;
+        System.out.println((ok ? "PASS" : "FAIL") + ": bulk import reports " + report.format(2));
+    }
+}
@@ -0,0 +1,133 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.util.CachingRepository;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.Repository;
+import java.util.List;
+import java.util.Optional;
+
+
+public class CachingRepositoryTest {
+
+    public static void main(String[] args) {
+        testReadThrough();
+        testInvalidationOnMutation();
+        testBoundedSize();
+        testScanResistance();
+        System.out.println("CachingRepositoryTest completed");
+    }
+
+    private static void testReadThrough() {
+        CountingStore store = storeWith(10);
+        CachingRepository<Patient> cache = new CachingRepository<>(store, Patient::getId, 100);
+        cache.findById(3);
+        cache.findById(3);
+        cache.findById(3);
+        boolean missNotCached = !cache.findById(99).isPresent() && !cache.findById(99).isPresent();
+        CachingRepository.CacheStats stats = cache.getStats();
+        boolean ok = store.lookups == 3 && stats.getHits() == 2 && stats.getMisses() == 3 && missNotCached;
+        System.out.println((ok ? "PASS" : "FAIL") + ": repeated lookups are served from the cache (" + stats + ")");
+    }
+
+    private static void testInvalidationOnMutation() {
+        CountingStore store = storeWith(10);
+        CachingRepository<Patient> cache = new CachingRepository<>(store, Patient::getId, 100);
+        Patient original = cache.findById(4).get();
+        cache.remove(original);
+        boolean ok = !cache.findById(4).isPresent();
+        Patient replacement = new Patient(4, "Replacement", 41, "Cold");
+        cache.add(replacement);
+        ok &= cache.findById(4).get() == replacement;
+        cache.findById(5);
+        Patient updated = new Patient(5, "Updated", 50, "Flu");
+        store.replace(updated);
+        ok &= cache.findById(5).get() != updated; // changed behind the cache's back
+        cache.invalidate(5);
+        ok &= cache.findById(5).get() == updated;
+        System.out.println((ok ? "PASS" : "FAIL") + ": add, remove and invalidate drop stale entries");
+    }
+
+    private static void testBoundedSize() {
+        CountingStore store = storeWith(5_000);
+        CachingRepository<Patient> cache = new CachingRepository<>(store, Patient::getId, 200);
+        boolean ok = true;
+        for (int round = 0; round < 3; round++) {
+            for (int id = 1; id <= 5_000; id++) {
+                ok &= cache.findById(id).get().getId() == id;
+            }
+        }
+        ok &= cache.cachedSize() <= 200 && cache.getStats().getEvictions() > 0;
+        System.out.println((ok ? "PASS" : "FAIL") + ": cache stays within its maximum size ("
+                + cache.cachedSize() + " entries)");
+    }
+
+    private static void testScanResistance() {
+        CountingStore store = storeWith(20_000);
+        CachingRepository<Patient> cache = new CachingRepository<>(store, Patient::getId, 100);
+        for (int round = 0; round < 20; round++) {
+            for (int id = 1; id <= 50; id++) {
+                cache.findById(id);
+            }
+        }
+        for (int id = 1_000; id <= 20_000; id++) {
+            cache.findById(id); // one-off scan
+        }
+        int before = store.lookups;
+        for (int id = 1; id <= 50; id++) {
+            cache.findById(id);
+        }
+        int reloaded = store.lookups - before;
+        boolean ok = reloaded <= 2;
+        System.out.println((ok ? "PASS" : "FAIL") + ": a one-off scan does not flush popular entries ("
+                + reloaded + " of 50 reloaded)");
+    }
+
+    private static CountingStore storeWith(int patients) {
+        CountingStore store = new CountingStore();
+        for (int id = 1; id <= patients; id++) {
+            store.add(new Patient(id, "Patient " + id, 30, "Flu"));
+        }
+        return store;
+    }
+
+    /**
+     * Store that counts the lookups reaching it.
+     */
+    private static final class CountingStore implements Repository<Patient> {
+
+        private final DataStore<Patient> store = new DataStore<>(Patient::getId);
+        private int lookups;
+
+        void replace(Patient patient) {
+            store.remove(store.findById(patient.getId()).get());
+            store.add(patient);
+        }
+
+        @Override
+        public void add(Patient item) {
+            store.add(item);
+        }
+
+        @Override
+        public boolean remove(Patient item) {
+            return store.remove(item);
+        }
+
+        @Override
+        public List<Patient> getAll() {
+            return store.getAll();
+        }
+
+        @Override
+        public Optional<Patient> findById(int id) {
+            lookups++;
+            return store.findById(id);
+        }
+
+        @Override
+        public int size() {
+            return store.size();
+        }
+    }
+}
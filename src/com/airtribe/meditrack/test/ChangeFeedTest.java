@@ -0,0 +1,235 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.EntityType;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.PatientService;
+import com.airtribe.meditrack.util.ChangeEvent;
+import com.airtribe.meditrack.util.ChangeFeed;
+import com.airtribe.meditrack.util.ChangeJournal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+
+public class ChangeFeedTest {
+
+    public static void main(String[] args) throws Exception {
+        testOrderedDelivery();
+        testResumeFromSequence();
+        testBackpressure();
+        testObserverDoesNotBlock();
+        testConcurrentPublishers();
+        testServicePublishes();
+        testServiceOrderMatchesStore();
+        testRepeatedCancelPublishesOnce();
+        testJournalAndTailer();
+        testTailerReadsLongLines();
+        System.out.println("ChangeFeedTest completed");
+    }
+
+    private static void testOrderedDelivery() {
+        ChangeFeed feed = new ChangeFeed(8);
+        ChangeFeed.Subscription subscription = feed.subscribe();
+        for (int i = 1; i <= 5; i++) {
+            feed.publish(ChangeEvent.Kind.ADDED, EntityType.DOCTOR, i, null);
+        }
+        List<ChangeEvent> events = new ArrayList<>();
+        subscription.poll(100, events::add);
+        boolean ok = events.size() == 5;
+        for (int i = 0; ok && i < events.size(); i++) {
+            ok = events.get(i).getSequence() == i + 1 && events.get(i).getEntityId() == i + 1;
+        }
+        ok &= subscription.lag() == 0;
+        System.out.println((ok ? "PASS" : "FAIL") + ": events delivered in sequence order");
+    }
+
+    private static void testResumeFromSequence() {
+        ChangeFeed feed = new ChangeFeed(4);
+        for (int i = 1; i <= 10; i++) {
+            feed.publish(ChangeEvent.Kind.ADDED, EntityType.PATIENT, i, null);
+        }
+        List<ChangeEvent> events = new ArrayList<>();
+        feed.subscribe(8).poll(100, events::add);
+        boolean ok = events.size() == 3 && events.get(0).getSequence() == 8;
+        boolean rejected = false;
+        try {
+            feed.subscribe(3);
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        System.out.println((ok && rejected ? "PASS" : "FAIL") + ": resume from a sequence still in the ring");
+    }
+
+    private static void testBackpressure() throws InterruptedException {
+        ChangeFeed feed = new ChangeFeed(4);
+        ChangeFeed.Subscription subscription = feed.subscribe();
+        Thread publisher = new Thread(() -> {
+            for (int i = 1; i <= 6; i++) {
+                feed.publish(ChangeEvent.Kind.ADDED, EntityType.DOCTOR, i, null);
+            }
+        });
+        publisher.start();
+        publisher.join(200);
+        boolean blocked = publisher.isAlive();
+        List<ChangeEvent> events = new ArrayList<>();
+        while (events.size() < 6) {
+            subscription.poll(2, events::add);
+        }
+        publisher.join();
+        boolean ok = blocked && events.get(5).getSequence() == 6;
+        System.out.println((ok ? "PASS" : "FAIL") + ": full ring blocks publishers until subscribers catch up");
+    }
+
+    private static void testObserverDoesNotBlock() {
+        ChangeFeed feed = new ChangeFeed(4);
+        ChangeFeed.Subscription observer = feed.observe();
+        for (int i = 1; i <= 3; i++) {
+            feed.publish(ChangeEvent.Kind.ADDED, EntityType.DOCTOR, i, null);
+        }
+        List<ChangeEvent> events = new ArrayList<>();
+        observer.poll(2, events::add);
+        for (int i = 4; i <= 10; i++) {
+            feed.publish(ChangeEvent.Kind.ADDED, EntityType.DOCTOR, i, null); // would block a subscriber
+        }
+        boolean lapped = false;
+        try {
+            observer.poll(100, events::add);
+        } catch (IllegalStateException e) {
+            lapped = true;
+        }
+        boolean ok = lapped && events.size() == 2 && events.get(1).getSequence() == 2;
+        System.out.println((ok ? "PASS" : "FAIL") + ": an observer never blocks publishers and detects being lapped");
+    }
+
+    private static void testConcurrentPublishers() throws InterruptedException {
+        ChangeFeed feed = new ChangeFeed(64);
+        ChangeFeed.Subscription subscription = feed.subscribe();
+        Thread[] publishers = new Thread[4];
+        for (int t = 0; t < publishers.length; t++) {
+            publishers[t] = new Thread(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    feed.publish(ChangeEvent.Kind.ADDED, EntityType.APPOINTMENT, i, null);
+                }
+            });
+            publishers[t].start();
+        }
+        long[] expected = {1};
+        boolean[] ordered = {true};
+        while (expected[0] <= 20_000) {
+            subscription.poll(128, event -> ordered[0] &= event.getSequence() == expected[0]++);
+        }
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+        System.out.println((ordered[0] ? "PASS" : "FAIL") + ": concurrent publishers produce a gapless sequence");
+    }
+
+    private static void testServicePublishes() {
+        ChangeFeed feed = new ChangeFeed(16);
+        PatientService service = new PatientService();
+        service.setChangeFeed(feed);
+        ChangeFeed.Subscription subscription = feed.subscribe();
+        service.addPatients(List.of(new Patient(1, "Asha", 30, "Flu"), new Patient(2, "Ravi", 40, "Cold")));
+        service.removePatient(1);
+        List<ChangeEvent> events = new ArrayList<>();
+        subscription.poll(100, events::add);
+        boolean ok = events.size() == 3
+                && events.get(2).getKind() == ChangeEvent.Kind.REMOVED
+                && "1,Asha,30,Flu".equals(events.get(2).getPayload());
+        System.out.println((ok ? "PASS" : "FAIL") + ": service publishes add and remove events");
+    }
+
+    private static void testRepeatedCancelPublishesOnce() {
+        ChangeFeed feed = new ChangeFeed(16);
+        AppointmentService service = new AppointmentService();
+        service.setChangeFeed(feed);
+        ChangeFeed.Subscription subscription = feed.subscribe();
+        service.bookAppointment(1, new Patient(1, "Asha", 30, "Flu"),
+                new Doctor(1, "Dr. Rao", 50, Specialization.CARDIOLOGY, 500), LocalDate.of(2024, 6, 3));
+        boolean cancelled = service.tryCancelAppointment(1) && service.tryCancelAppointment(1);
+        List<ChangeEvent> events = new ArrayList<>();
+        subscription.poll(100, events::add);
+        boolean ok = cancelled && events.size() == 2
+                && events.get(1).getKind() == ChangeEvent.Kind.STATUS_CHANGED;
+        System.out.println((ok ? "PASS" : "FAIL") + ": cancelling a cancelled appointment publishes nothing");
+    }
+
+    // A remove racing the add of the same patient must never be published before that add.
+    private static void testServiceOrderMatchesStore() throws InterruptedException {
+        int count = 2_000;
+        ChangeFeed feed = new ChangeFeed(8192);
+        PatientService service = new PatientService();
+        service.setChangeFeed(feed);
+        ChangeFeed.Subscription subscription = feed.subscribe();
+        Thread remover = new Thread(() -> {
+            for (int id = 1; id <= count; id++) {
+                while (!service.removePatient(id)) {
+                    Thread.onSpinWait();
+                }
+            }
+        });
+        remover.start();
+        for (int id = 1; id <= count; id++) {
+            service.addPatients(List.of(new Patient(id, "Patient", 30, "Flu")));
+        }
+        remover.join();
+        List<ChangeEvent> events = new ArrayList<>();
+        subscription.poll(2 * count, events::add);
+        boolean[] added = new boolean[count + 1];
+        boolean ok = events.size() == 2 * count;
+        for (ChangeEvent event : events) {
+            if (event.getKind() == ChangeEvent.Kind.ADDED) {
+                added[event.getEntityId()] = true;
+            } else {
+                ok &= added[event.getEntityId()];
+            }
+        }
+        System.out.println((ok ? "PASS" : "FAIL") + ": service events follow the order of store changes");
+    }
+
+    private static void testJournalAndTailer() throws Exception {
+        Path file = Files.createTempFile("meditrack", ".changes");
+        ChangeFeed feed = new ChangeFeed(16);
+        ChangeJournal journal = new ChangeJournal(feed, file);
+        ChangeJournal.Tailer tailer = new ChangeJournal.Tailer(file, 1);
+        List<ChangeEvent> tailed = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            feed.publish(ChangeEvent.Kind.STATUS_CHANGED, EntityType.APPOINTMENT, i, i + ",1,1,2024-01-01,CANCELLED");
+            tailer.poll(tailed::add);
+        }
+        journal.close();
+        tailer.poll(tailed::add);
+        tailer.close();
+
+        List<ChangeEvent> replayed = new ArrayList<>();
+        long last = ChangeJournal.replay(file, 91, replayed::add);
+        boolean ok = tailed.size() == 100 && tailed.get(99).getEntityId() == 100
+                && last == 100 && replayed.size() == 10
+                && replayed.get(0).getPayload().equals("91,1,1,2024-01-01,CANCELLED");
+        Files.deleteIfExists(file);
+        System.out.println((ok ? "PASS" : "FAIL") + ": journal can be tailed and replayed");
+    }
+
+    private static void testTailerReadsLongLines() throws Exception {
+        Path file = Files.createTempFile("meditrack", ".changes");
+        ChangeFeed feed = new ChangeFeed(16);
+        ChangeJournal journal = new ChangeJournal(feed, file);
+        String name = "x".repeat(200_000); // several times the tailer's initial buffer
+        feed.publish(ChangeEvent.Kind.ADDED, EntityType.PATIENT, 1, "1," + name + ",30,Flu");
+        feed.publish(ChangeEvent.Kind.ADDED, EntityType.PATIENT, 2, "2,Ravi,40,Cold");
+        journal.close();
+        List<ChangeEvent> tailed = new ArrayList<>();
+        try (ChangeJournal.Tailer tailer = new ChangeJournal.Tailer(file, 1)) {
+            tailer.poll(tailed::add);
+        }
+        boolean ok = tailed.size() == 2 && tailed.get(0).getPayload().length() == name.length() + 9
+                && tailed.get(1).getEntityId() == 2;
+        Files.deleteIfExists(file);
+        System.out.println((ok ? "PASS" : "FAIL") + ": tailer reads lines longer than its buffer");
+    }
+}
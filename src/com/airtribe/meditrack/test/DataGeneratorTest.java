@@ -0,0 +1,102 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.util.AppointmentCsvLoader;
+import com.airtribe.meditrack.util.CSVUtil;
+import com.airtribe.meditrack.util.DataGenerator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+
+public class DataGeneratorTest {
+
+    public static void main(String[] args) throws IOException {
+        testOutputIndependentOfThreads();
+        testFilesMatchInMemoryRecords();
+        testDoctorPopularityIsSkewed();
+        System.out.println("DataGeneratorTest completed");
+    }
+
+    private static void testOutputIndependentOfThreads() throws IOException {
+        Path single = Files.createTempDirectory("generated");
+        Path parallel = Files.createTempDirectory("generated");
+        new DataGenerator(7, 50, 1_000, 200_000).setThreads(1).writeAll(single);
+        new DataGenerator(7, 50, 1_000, 200_000).setThreads(4).writeAll(parallel);
+        boolean ok = true;
+        for (String file : new String[] {Constants.DOCTOR_FILE, Constants.PATIENT_FILE, Constants.APPOINTMENT_FILE}) {
+            ok &= Arrays.equals(Files.readAllBytes(single.resolve(file)), Files.readAllBytes(parallel.resolve(file)));
+        }
+        Path otherSeed = Files.createTempDirectory("generated");
+        new DataGenerator(8, 50, 1_000, 200_000).writeAll(otherSeed);
+        ok &= !Arrays.equals(Files.readAllBytes(single.resolve(Constants.PATIENT_FILE)),
+                Files.readAllBytes(otherSeed.resolve(Constants.PATIENT_FILE)));
+        deleteAll(single, parallel, otherSeed);
+        System.out.println((ok ? "PASS" : "FAIL") + ": output depends on the seed, not on the thread count");
+    }
+
+    private static void testFilesMatchInMemoryRecords() throws IOException {
+        DataGenerator generator = new DataGenerator(11, 20, 500, 5_000);
+        Path dir = Files.createTempDirectory("generated");
+        generator.writeAll(dir);
+        List<Doctor> doctors = CSVUtil.loadDoctorsFromCSV(dir.resolve(Constants.DOCTOR_FILE).toString());
+        List<Patient> patients = CSVUtil.loadPatientsFromCSV(dir.resolve(Constants.PATIENT_FILE).toString());
+        AppointmentCsvLoader.Result result = CSVUtil.loadAppointmentsFromCSV(
+                dir.resolve(Constants.APPOINTMENT_FILE).toString(), patients, doctors);
+        List<Doctor> expectedDoctors = generator.doctors();
+        List<Patient> expectedPatients = generator.patients();
+        List<Appointment> expected = generator.appointments(expectedPatients, expectedDoctors);
+
+        boolean ok = doctors.size() == 20 && patients.size() == 500 && result.getSkippedRows() == 0;
+        Set<Specialization> specializations = EnumSet.noneOf(Specialization.class);
+        for (int i = 0; ok && i < doctors.size(); i++) {
+            Doctor a = doctors.get(i);
+            Doctor b = expectedDoctors.get(i);
+            ok = CSVUtil.toCsvLine(a).equals(CSVUtil.toCsvLine(b));
+            specializations.add(a.getSpecialization());
+        }
+        for (int i = 0; ok && i < patients.size(); i++) {
+            ok = CSVUtil.toCsvLine(patients.get(i)).equals(CSVUtil.toCsvLine(expectedPatients.get(i)));
+        }
+        List<Appointment> loaded = result.getAppointments();
+        ok &= loaded.size() == expected.size();
+        for (int i = 0; ok && i < loaded.size(); i++) {
+            ok = CSVUtil.toCsvLine(loaded.get(i)).equals(CSVUtil.toCsvLine(expected.get(i)));
+        }
+        ok &= specializations.size() == Specialization.values().length;
+        deleteAll(dir);
+        System.out.println((ok ? "PASS" : "FAIL") + ": written files load back as the in-memory records");
+    }
+
+    private static void testDoctorPopularityIsSkewed() {
+        DataGenerator generator = new DataGenerator(3, 1_000, 1_000, 100_000);
+        int[] counts = new int[1_001];
+        for (int id = 1; id <= 100_000; id++) {
+            counts[generator.appointmentDoctorId(id)]++;
+        }
+        int[] sorted = counts.clone();
+        Arrays.sort(sorted);
+        int top = sorted[sorted.length - 1];
+        int median = sorted[sorted.length / 2];
+        boolean ok = counts[0] == 0 && top > 20 * Math.max(median, 1);
+        System.out.println((ok ? "PASS" : "FAIL") + ": busiest doctor has " + top
+                + " appointments, median doctor " + median);
+    }
+
+    private static void deleteAll(Path... dirs) throws IOException {
+        for (Path dir : dirs) {
+            for (String file : new String[] {Constants.DOCTOR_FILE, Constants.PATIENT_FILE, Constants.APPOINTMENT_FILE}) {
+                Files.deleteIfExists(dir.resolve(file));
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+}
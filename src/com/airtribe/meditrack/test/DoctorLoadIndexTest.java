@@ -0,0 +1,203 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.DoctorService;
+import com.airtribe.meditrack.util.DoctorLoadIndex;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class DoctorLoadIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    public static void main(String[] args) throws Exception {
+        testLeastLoadedFirst();
+        testReleaseMakesDoctorPreferred();
+        testDailyLimit();
+        testDaysAndSpecializationsAreSeparate();
+        testRemovedDoctorIsNotAssigned();
+        testConcurrentAssignmentIsEven();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // services print per booking
+        boolean serviceOk;
+        try {
+            serviceOk = serviceBooksAndCancels();
+        } finally {
+            System.setOut(out);
+        }
+        System.out.println((serviceOk ? "PASS" : "FAIL")
+                + ": service books with the least-loaded doctor and releases the slot once on cancel");
+        System.out.println("DoctorLoadIndexTest completed");
+    }
+
+    private static void testLeastLoadedFirst() {
+        DoctorLoadIndex index = new DoctorLoadIndex(10);
+        Doctor a = neurologist(1);
+        Doctor b = neurologist(2);
+        Doctor c = neurologist(3);
+        index.addDoctor(a);
+        index.addDoctor(b);
+        index.addDoctor(c);
+        index.booked(a, DAY);
+        index.booked(a, DAY);
+        index.booked(b, DAY);
+        boolean ok = assign(index) == c && assign(index) == b && assign(index) == c;
+        ok &= index.loadOf(a, DAY) == 2 && index.loadOf(b, DAY) == 2 && index.loadOf(c, DAY) == 2;
+        ok &= assign(index) == a; // all equal, lowest id wins
+        System.out.println((ok ? "PASS" : "FAIL") + ": assigns the least-loaded doctor, ties by id");
+    }
+
+    private static void testReleaseMakesDoctorPreferred() {
+        DoctorLoadIndex index = new DoctorLoadIndex(10);
+        Doctor a = neurologist(1);
+        Doctor b = neurologist(2);
+        index.addDoctor(a);
+        index.addDoctor(b);
+        for (int i = 0; i < 4; i++) {
+            assign(index);
+        }
+        index.released(b, DAY);
+        boolean ok = index.loadOf(b, DAY) == 1 && assign(index) == b && assign(index) == a;
+        index.released(a, LocalDate.of(2030, 1, 1)); // day never booked
+        ok &= index.loadOf(a, DAY) == 3;
+        System.out.println((ok ? "PASS" : "FAIL") + ": a cancellation makes the doctor next in line");
+    }
+
+    private static void testDailyLimit() {
+        DoctorLoadIndex index = new DoctorLoadIndex(2);
+        index.addDoctor(neurologist(1));
+        index.addDoctor(neurologist(2));
+        int assigned = 0;
+        while (index.assign(Specialization.NEUROLOGY, DAY).isPresent()) {
+            assigned++;
+        }
+        boolean ok = assigned == 4 && index.assign(Specialization.NEUROLOGY, DAY.plusDays(1)).isPresent();
+        System.out.println((ok ? "PASS" : "FAIL") + ": no doctor is assigned past the daily limit");
+    }
+
+    private static void testDaysAndSpecializationsAreSeparate() {
+        DoctorLoadIndex index = new DoctorLoadIndex(10);
+        Doctor neuro = neurologist(1);
+        Doctor cardio = new Doctor(2, "Dr. Heart", 50, Specialization.CARDIOLOGY, 800);
+        index.addDoctor(neuro);
+        index.addDoctor(cardio);
+        boolean ok = index.assign(Specialization.CARDIOLOGY, DAY).get() == cardio
+                && index.assign(Specialization.DERMATOLOGY, DAY).isEmpty()
+                && index.loadOf(neuro, DAY) == 0
+                && index.loadOf(cardio, DAY.plusDays(1)) == 0;
+        index.expireBefore(DAY.plusDays(1));
+        ok &= index.loadOf(cardio, DAY) == 0;
+        System.out.println((ok ? "PASS" : "FAIL") + ": loads are kept per specialization and per day");
+    }
+
+    private static void testRemovedDoctorIsNotAssigned() {
+        DoctorLoadIndex index = new DoctorLoadIndex(10);
+        Doctor a = neurologist(1);
+        Doctor b = neurologist(2);
+        index.addDoctor(a);
+        index.addDoctor(b);
+        assign(index); // creates the day's heap
+        index.removeDoctor(b);
+        boolean ok = true;
+        for (int i = 0; i < 5; i++) {
+            ok &= assign(index) == a;
+        }
+        Doctor late = neurologist(3);
+        index.addDoctor(late);
+        ok &= assign(index) == late;
+        System.out.println((ok ? "PASS" : "FAIL") + ": removed doctors leave and new doctors join existing days");
+    }
+
+    private static void testConcurrentAssignmentIsEven() throws InterruptedException {
+        int doctors = 10;
+        int threads = 4;
+        int perThread = 1_000;
+        DoctorLoadIndex index = new DoctorLoadIndex(Integer.MAX_VALUE);
+        List<Doctor> all = new ArrayList<>();
+        for (int id = 1; id <= doctors; id++) {
+            all.add(neurologist(id));
+            index.addDoctor(all.get(id - 1));
+        }
+        AtomicInteger failures = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    Optional<Doctor> doctor = index.assign(Specialization.NEUROLOGY, DAY);
+                    if (doctor.isEmpty()) {
+                        failures.incrementAndGet();
+                    } else if (i % 4 == 0) {
+                        index.released(doctor.get(), DAY);
+                        index.booked(doctor.get(), DAY);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        boolean ok = failures.get() == 0;
+        int expected = threads * perThread / doctors;
+        for (Doctor doctor : all) {
+            int load = index.loadOf(doctor, DAY);
+            ok &= Math.abs(load - expected) <= 1;
+        }
+        System.out.println((ok ? "PASS" : "FAIL") + ": concurrent assignments spread evenly over doctors");
+    }
+
+    private static boolean serviceBooksAndCancels() {
+        DoctorService doctorService = new DoctorService();
+        AppointmentService appointmentService = new AppointmentService();
+        Doctor a = neurologist(1);
+        Doctor b = neurologist(2);
+        doctorService.addDoctor(a);
+        Patient patient = new Patient(1, "Pat", 30, "Migraine");
+        appointmentService.bookAppointment(1, patient, a, DAY);
+        appointmentService.bookAppointment(2, patient, a, DAY);
+        DoctorLoadIndex index = new DoctorLoadIndex(10);
+        doctorService.setDoctorLoadIndex(index);
+        appointmentService.setDoctorLoadIndex(index);
+        doctorService.addDoctor(b);
+
+        boolean ok = index.loadOf(a, DAY) == 2;
+        Appointment first = appointmentService.bookWithAvailableDoctor(3, patient, Specialization.NEUROLOGY, DAY)
+                .get();
+        Appointment second = appointmentService.bookWithAvailableDoctor(4, patient, Specialization.NEUROLOGY, DAY)
+                .get();
+        ok &= first.getDoctor() == b && second.getDoctor() == b && index.loadOf(b, DAY) == 2;
+        ok &= appointmentService.getScheduleForDoctor(b.getId(), DAY).size() == 2;
+
+        appointmentService.cancelAppointment(1);
+        appointmentService.cancelAppointment(1);
+        appointmentService.tryCancelAppointment(1);
+        ok &= index.loadOf(a, DAY) == 1;
+        ok &= appointmentService.bookWithAvailableDoctor(5, patient, Specialization.NEUROLOGY, DAY)
+                .get().getDoctor() == a;
+
+        doctorService.removeDoctor(a.getId());
+        ok &= appointmentService.bookWithAvailableDoctor(6, patient, Specialization.NEUROLOGY, DAY)
+                .get().getDoctor() == b;
+        ok &= appointmentService.bookWithAvailableDoctor(7, patient, Specialization.CARDIOLOGY, DAY).isEmpty();
+        return ok;
+    }
+
+    private static Doctor assign(DoctorLoadIndex index) {
+        return index.assign(Specialization.NEUROLOGY, DAY).orElse(null);
+    }
+
+    private static Doctor neurologist(int id) {
+        return new Doctor(id, "Dr. Neuro" + id, 45, Specialization.NEUROLOGY, 1000);
+    }
+}
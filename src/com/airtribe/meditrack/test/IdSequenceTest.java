@@ -0,0 +1,75 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.util.IdSequence;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+public class IdSequenceTest {
+
+    public static void main(String[] args) throws Exception {
+        testUniqueAcrossThreads();
+        testRestartResumesAboveLeases();
+        testEnsureAtLeastDiscardsBlocks();
+        testTimeOrdered();
+        System.out.println("IdSequenceTest completed");
+    }
+
+    private static void testUniqueAcrossThreads() throws InterruptedException {
+        IdSequence sequence = new IdSequence("test", 16);
+        Set<Integer> seen = ConcurrentHashMap.newKeySet();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    seen.add(sequence.nextId());
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        boolean ok = seen.size() == 80_000 && !seen.contains(0);
+        System.out.println((ok ? "PASS" : "FAIL") + ": ids unique across threads");
+    }
+
+    private static void testRestartResumesAboveLeases() throws Exception {
+        Path file = Files.createTempFile("meditrack", ".seq");
+        Files.delete(file);
+        IdSequence first = new IdSequence("test", 10, file);
+        int last = 0;
+        for (int i = 0; i < 15; i++) {
+            last = first.nextId();
+        }
+        IdSequence restarted = new IdSequence("test", 10, file);
+        int next = restarted.nextId();
+        boolean ok = last == 15 && next == 10 * IdSequence.RESERVED_BLOCKS + 1;
+        Files.deleteIfExists(file);
+        System.out.println((ok ? "PASS" : "FAIL") + ": restart resumes after reservation (" + next + ")");
+    }
+
+    private static void testEnsureAtLeastDiscardsBlocks() {
+        IdSequence sequence = new IdSequence("test", 100);
+        sequence.nextId();
+        sequence.ensureAtLeast(500);
+        int next = sequence.nextId();
+        System.out.println((next == 501 ? "PASS" : "FAIL") + ": ensureAtLeast skips stale block (" + next + ")");
+    }
+
+    private static void testTimeOrdered() {
+        IdSequence sequence = new IdSequence("test", 10);
+        long previous = sequence.nextTimeOrderedId();
+        boolean ok = true;
+        for (int i = 0; i < 100_000; i++) {
+            long id = sequence.nextTimeOrderedId();
+            ok &= id > previous;
+            previous = id;
+        }
+        long millis = (previous >>> IdSequence.TIME_SEQUENCE_BITS) + IdSequence.TIME_EPOCH_MILLIS;
+        ok &= Math.abs(System.currentTimeMillis() - millis) < 60_000;
+        System.out.println((ok ? "PASS" : "FAIL") + ": time-ordered ids increase");
+    }
+}
@@ -0,0 +1,70 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.util.IntHashMap;
+import com.airtribe.meditrack.util.IntHashSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+
+
+public class IntHashMapTest {
+
+    public static void main(String[] args) {
+        testPutGetRemove();
+        testRandomAgainstHashMap();
+        testSetWithZero();
+        System.out.println("IntHashMapTest completed");
+    }
+
+    private static void testPutGetRemove() {
+        IntHashMap<String> map = new IntHashMap<>();
+        for (int i = 1; i <= 1000; i++) {
+            map.put(i, "v" + i);
+        }
+        boolean ok = map.size() == 1000 && "v500".equals(map.get(500)) && map.get(1001) == null;
+        map.remove(500);
+        ok &= map.get(500) == null && map.size() == 999 && "v501".equals(map.get(501));
+        System.out.println((ok ? "PASS" : "FAIL") + ": put/get/remove");
+    }
+
+    private static void testRandomAgainstHashMap() {
+        Random random = new Random(42);
+        IntHashMap<Integer> map = new IntHashMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        boolean ok = true;
+        for (int i = 0; i < 200_000 && ok; i++) {
+            int key = random.nextInt(5000) - 100;
+            if (random.nextInt(3) == 0) {
+                ok = Objects.equals(expected.remove(key), map.remove(key));
+            } else {
+                ok = Objects.equals(expected.put(key, i), map.put(key, i));
+            }
+        }
+        for (Map.Entry<Integer, Integer> e : expected.entrySet()) {
+            ok &= e.getValue().equals(map.get(e.getKey()));
+        }
+        ok &= expected.size() == map.size();
+        System.out.println((ok ? "PASS" : "FAIL") + ": random operations match HashMap");
+    }
+
+    private static void testSetWithZero() {
+        Random random = new Random(7);
+        IntHashSet set = new IntHashSet();
+        Set<Integer> expected = new HashSet<>();
+        boolean ok = set.add(0) && !set.add(0) && set.contains(0);
+        expected.add(0);
+        for (int i = 0; i < 100_000 && ok; i++) {
+            int value = random.nextInt(2000);
+            if (random.nextBoolean()) {
+                ok = expected.add(value) == set.add(value);
+            } else {
+                ok = expected.remove(value) == set.remove(value);
+            }
+        }
+        ok &= expected.size() == set.size() && set.toArray().length == expected.size();
+        System.out.println((ok ? "PASS" : "FAIL") + ": int set matches HashSet");
+    }
+}
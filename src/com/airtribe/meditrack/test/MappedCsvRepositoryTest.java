@@ -0,0 +1,146 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.util.CSVUtil;
+import com.airtribe.meditrack.util.CachingRepository;
+import com.airtribe.meditrack.util.DataGenerator;
+import com.airtribe.meditrack.util.MappedCsvRepository;
+import com.airtribe.meditrack.util.Page;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+public class MappedCsvRepositoryTest {
+
+    private static final List<Patient> PATIENTS =
+            new DataGenerator(DataGenerator.DEFAULT_SEED, 10, 20_000, 0).patients();
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Files.createTempDirectory("lazy");
+        try {
+            Path file = directory.resolve("patients.csv");
+            CSVUtil.savePatientsToCSV(PATIENTS, file.toString());
+            testLookupsParseOnlyWhatIsRead(file);
+            testIndexIsReusedUntilTheFileChanges(file);
+            testUnsortedRowsAndDuplicates(directory.resolve("unsorted.csv"));
+            testOverlay(file);
+            testSearchSkipsRowsWithoutTheKeyword(file);
+            testSaveCopiesUnchangedRows(file);
+        } finally {
+            deleteRecursively(directory);
+        }
+        System.out.println("MappedCsvRepositoryTest completed");
+    }
+
+    private static MappedCsvRepository<Patient> open(Path file) {
+        return new MappedCsvRepository<>(file, CSVUtil::parsePatient, Patient::getId);
+    }
+
+    private static void testLookupsParseOnlyWhatIsRead(Path file) {
+        MappedCsvRepository<Patient> lazy = open(file);
+        CachingRepository<Patient> cached = new CachingRepository<>(lazy, Patient::getId, 100);
+        boolean ok = lazy.size() == PATIENTS.size() && lazy.getRowsParsed() == 0;
+        for (int i = 0; i < 10; i++) {
+            Patient expected = PATIENTS.get(i * 997);
+            ok &= cached.findById(expected.getId()).map(CSVUtil::toCsvLine)
+                    .equals(Optional.of(CSVUtil.toCsvLine(expected)));
+            cached.findById(expected.getId()); // second read comes from the cache
+        }
+        ok &= cached.findById(PATIENTS.size() + 1).isEmpty() && lazy.getRowsParsed() == 10
+                && lazy.maxId(Patient::getId) == PATIENTS.size();
+        System.out.println((ok ? "PASS" : "FAIL") + ": lookups parse only the rows they read");
+    }
+
+    private static void testIndexIsReusedUntilTheFileChanges(Path file) throws IOException {
+        Path index = MappedCsvRepository.indexFileFor(file);
+        FileTime built = Files.getLastModifiedTime(index);
+        boolean ok = !open(file).wasIndexRebuilt() && Files.getLastModifiedTime(index).equals(built);
+
+        Files.writeString(file, "20001,Late Arrival,40,Cold\n", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        MappedCsvRepository<Patient> reopened = open(file);
+        ok &= reopened.wasIndexRebuilt() && reopened.size() == PATIENTS.size() + 1
+                && reopened.findById(20_001).map(Patient::getName).equals(Optional.of("Late Arrival"));
+        System.out.println((ok ? "PASS" : "FAIL") + ": the index is reused and rebuilt after the file changes");
+    }
+
+    private static void testUnsortedRowsAndDuplicates(Path file) throws IOException {
+        Files.writeString(file, "3,Carol,30,Flu\r\n\n  1,Alice,41,Cold\r\n2,Bob,52,Cough\n1,Alias,60,Flu",
+                StandardCharsets.UTF_8);
+        MappedCsvRepository<Patient> lazy = open(file);
+        boolean ok = lazy.size() == 3
+                && lazy.getAll().stream().map(Patient::getName).collect(Collectors.toList())
+                        .equals(List.of("Alice", "Bob", "Carol"))
+                && lazy.findById(3).map(Patient::getDisease).equals(Optional.of("Flu"));
+        System.out.println((ok ? "PASS" : "FAIL")
+                + ": unsorted rows, blank lines and CRLF are indexed; the first row of an id wins");
+    }
+
+    private static void testOverlay(Path file) throws IOException {
+        MappedCsvRepository<Patient> lazy = open(file);
+        int rows = lazy.size();
+        Patient added = new Patient(30_000, "New Patient", 25, "Flu");
+        Patient replaced = new Patient(5, "Renamed Patient", 33, "Cold");
+        lazy.add(added);
+        lazy.update(replaced);
+        boolean ok = lazy.remove(lazy.findById(7).orElseThrow()) && !lazy.remove(new Patient(7, "Gone", 1, "x"))
+                && lazy.size() == rows && lazy.findById(7).isEmpty()
+                && lazy.findById(5).map(Patient::getName).equals(Optional.of("Renamed Patient"))
+                && lazy.maxId(Patient::getId) == 30_000;
+
+        List<Patient> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            Page<Patient> page = lazy.page(cursor, 4_096);
+            paged.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        ok &= paged.size() == rows && paged.get(paged.size() - 1) == added
+                && lines(paged).equals(lines(lazy.getAll()));
+        ok &= Files.readAllLines(file).size() == rows; // the file itself is untouched
+        System.out.println((ok ? "PASS" : "FAIL") + ": adds, updates and removes are kept in an overlay");
+    }
+
+    private static void testSearchSkipsRowsWithoutTheKeyword(Path file) {
+        MappedCsvRepository<Patient> lazy = open(file);
+        String name = PATIENTS.get(1234).getName();
+        String keyword = name.substring(0, Math.min(5, name.length())).toUpperCase();
+        List<String> expected = lines(PATIENTS.stream().filter(p -> p.matches(keyword)).collect(Collectors.toList()));
+        boolean ok = lines(lazy.findMatching(keyword, p -> p.matches(keyword))).equals(expected)
+                && lazy.getRowsParsed() < PATIENTS.size() / 2;
+        System.out.printf("%s: search parses only rows containing the keyword (%d of %d)%n",
+                ok ? "PASS" : "FAIL", lazy.getRowsParsed(), PATIENTS.size());
+    }
+
+    private static void testSaveCopiesUnchangedRows(Path file) throws IOException {
+        MappedCsvRepository<Patient> lazy = open(file);
+        lazy.add(new Patient(30_000, "New Patient", 25, "Flu"));
+        lazy.update(new Patient(5, "Renamed Patient", 33, "Cold"));
+        lazy.remove(new Patient(7, "Gone", 1, "x"));
+        CSVUtil.saveToCSV(out -> lazy.writeRows(CSVUtil::toCsvLine, out), file.toString());
+        boolean ok = lazy.getRowsParsed() == 0;
+        ok &= Files.readAllLines(file).equals(lines(lazy.getAll())) && lines(open(file).getAll()).size() == lazy.size();
+        System.out.println((ok ? "PASS" : "FAIL") + ": saving copies unchanged rows without parsing them");
+    }
+
+    private static List<String> lines(List<Patient> patients) {
+        return patients.stream().map(CSVUtil::toCsvLine).collect(Collectors.toList());
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+}
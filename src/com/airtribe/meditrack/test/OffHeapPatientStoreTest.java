@@ -0,0 +1,93 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.entity.BillSummary;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.exception.InvalidDataException;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.PatientService;
+import com.airtribe.meditrack.util.OffHeapPatientStore;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+
+public class OffHeapPatientStoreTest {
+
+    public static void main(String[] args) {
+        testRoundTrip();
+        testRemoveReusesSlot();
+        testDuplicateRejected();
+        testAppointmentsOutliveRemovedPatient();
+        System.out.println("OffHeapPatientStoreTest completed");
+    }
+
+    private static void testRoundTrip() {
+        PatientService service = new PatientService(new OffHeapPatientStore());
+        service.addPatient(new Patient(7, "Zoë Ångström", 41, "Flu"));
+        Patient found = service.findPatientById(7);
+        boolean ok = found != null
+                && "Zoë Ångström".equals(found.getName())
+                && found.getAge() == 41
+                && "Flu".equals(found.getDisease())
+                && service.findPatientById(8) == null;
+        Patient copy = found == null ? null : found.clone();
+        ok &= copy != null && copy.getClass() == Patient.class && "Flu".equals(copy.getDisease());
+        System.out.println((ok ? "PASS" : "FAIL") + ": off-heap round trip");
+    }
+
+    private static void testRemoveReusesSlot() {
+        OffHeapPatientStore store = new OffHeapPatientStore();
+        Patient first = new Patient(1, "A", 10, "Flu");
+        store.add(first);
+        store.add(new Patient(2, "B", 20, "Asthma"));
+        boolean ok = store.remove(first) && !store.remove(first) && store.size() == 1;
+        store.add(new Patient(3, "C", 30, "Migraine"));
+        ok &= store.getAll().size() == 2
+                && "Migraine".equals(store.findById(3).map(Patient::getDisease).orElse(null))
+                && store.findById(1).isEmpty();
+        System.out.println((ok ? "PASS" : "FAIL") + ": remove frees slot");
+    }
+
+    private static void testDuplicateRejected() {
+        OffHeapPatientStore store = new OffHeapPatientStore();
+        store.add(new Patient(1, "A", 10, "Flu"));
+        try {
+            store.add(new Patient(1, "B", 11, "Flu"));
+            System.out.println("FAIL: duplicate id did not throw");
+        } catch (InvalidDataException ex) {
+            System.out.println("PASS: duplicate id threw: " + ex.getMessage());
+        }
+    }
+
+    private static void testAppointmentsOutliveRemovedPatient() {
+        PatientService patients = new PatientService(new OffHeapPatientStore());
+        AppointmentService appointments = new AppointmentService();
+        Doctor doctor = new Doctor(1, "Asha Rao", 45, Specialization.CARDIOLOGY, 500);
+        patients.addPatient(new Patient(5, "Ravi Kumar", 30, "Flu"));
+        appointments.bookAppointment(1, patients.findPatientById(5), doctor, LocalDate.of(2026, 11, 2));
+        appointments.bookAppointment(2, patients.findPatientById(5), doctor, LocalDate.of(2026, 11, 9));
+        patients.removePatient(5);
+        patients.addPatient(new Patient(5, "Meera Iyer", 60, "Asthma"));
+
+        PrintStream console = System.out;
+        ByteArrayOutputStream listing = new ByteArrayOutputStream();
+        boolean ok;
+        try {
+            System.setOut(new PrintStream(listing, true, StandardCharsets.UTF_8));
+            appointments.displayAppointments();
+            BillSummary first = appointments.generateBill(1);
+            BillSummary second = appointments.generateBill(2);
+            ok = "Ravi Kumar".equals(first.getPatientName()) && "Ravi Kumar".equals(second.getPatientName());
+        } catch (IllegalStateException ex) {
+            ok = false;
+        } finally {
+            System.setOut(console);
+        }
+        String listed = listing.toString(StandardCharsets.UTF_8);
+        ok &= listed.contains("Ravi Kumar") && !listed.contains("Meera Iyer");
+        System.out.println((ok ? "PASS" : "FAIL") + ": appointments keep a removed patient's details");
+    }
+}
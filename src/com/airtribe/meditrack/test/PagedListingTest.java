@@ -0,0 +1,94 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.service.PatientService;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.ListingWriter;
+import com.airtribe.meditrack.util.OffHeapPatientStore;
+import com.airtribe.meditrack.util.Page;
+import com.airtribe.meditrack.util.Repository;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+public class PagedListingTest {
+
+    public static void main(String[] args) {
+        testPagesCoverStore(new DataStore<>(Patient::getId), "DataStore");
+        testPagesCoverStore(new OffHeapPatientStore(), "OffHeapPatientStore");
+        testOffHeapCursorSurvivesRemoval();
+        testExportMatchesRows();
+        testConsolePagesFollowSystemOut();
+        System.out.println("PagedListingTest completed");
+    }
+
+    private static void testPagesCoverStore(Repository<Patient> store, String name) {
+        for (int id = 1; id <= 1_005; id++) {
+            store.add(new Patient(id, "P" + id, 30, "Flu"));
+        }
+        Set<Integer> seen = new HashSet<>();
+        int pages = 0;
+        String cursor = null;
+        do {
+            Page<Patient> page = store.page(cursor, 100);
+            page.getItems().forEach(p -> seen.add(p.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        boolean ok = pages == 11 && seen.size() == 1_005;
+        System.out.println((ok ? "PASS" : "FAIL") + ": " + name + " pages cover the store");
+    }
+
+    private static void testOffHeapCursorSurvivesRemoval() {
+        OffHeapPatientStore store = new OffHeapPatientStore();
+        for (int id = 1; id <= 10; id++) {
+            store.add(new Patient(id, "P" + id, 30, "Flu"));
+        }
+        Page<Patient> first = store.page(null, 4);
+        store.remove(first.getItems().get(0).clone());
+        Page<Patient> second = store.page(first.getNextCursor(), 4);
+        boolean ok = second.getItems().get(0).getId() == 5;
+        System.out.println((ok ? "PASS" : "FAIL") + ": off-heap cursor is stable across removals");
+    }
+
+    private static void testConsolePagesFollowSystemOut() {
+        PatientService service = new PatientService();
+        service.addPatients(List.of(new Patient(1, "P1", 21, "Flu"), new Patient(2, "P2", 22, "Flu")));
+        PrintStream console = System.out;
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        String cursor;
+        try {
+            System.setOut(new PrintStream(first, true));
+            cursor = service.displayPatientsPage(null, 1);
+            System.setOut(new PrintStream(second, true));
+            cursor = service.displayPatientsPage(cursor, 1);
+        } finally {
+            System.setOut(console);
+        }
+        boolean ok = cursor == null
+                && first.toString().equals("ID: 1, Name: P1, Age: 21, Disease: Flu" + System.lineSeparator())
+                && second.toString().equals("ID: 2, Name: P2, Age: 22, Disease: Flu" + System.lineSeparator());
+        System.out.println((ok ? "PASS" : "FAIL") + ": console pages go to the current System.out");
+    }
+
+    private static void testExportMatchesRows() {
+        PatientService service = new PatientService();
+        for (int id = 1; id <= 3; id++) {
+            service.addPatients(List.of(new Patient(id, "P" + id, 20 + id, "Flu")));
+        }
+        StringWriter out = new StringWriter();
+        service.exportPatients(out);
+        String expected = "ID: 1, Name: P1, Age: 21, Disease: Flu" + System.lineSeparator()
+                + "ID: 2, Name: P2, Age: 22, Disease: Flu" + System.lineSeparator()
+                + "ID: 3, Name: P3, Age: 23, Disease: Flu" + System.lineSeparator();
+        StringWriter paged = new StringWriter();
+        int pages = new ListingWriter(paged).writeAll(new DataStore<Integer>(), 10, (i, row) -> row.append(i));
+        boolean ok = expected.equals(out.toString()) && pages == 1 && paged.toString().isEmpty();
+        System.out.println((ok ? "PASS" : "FAIL") + ": export writes the console row format");
+    }
+}
@@ -0,0 +1,239 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.exception.DuplicatePatientException;
+import com.airtribe.meditrack.service.PatientService;
+import com.airtribe.meditrack.exception.PersistenceException;
+import com.airtribe.meditrack.util.DataGenerator;
+import com.airtribe.meditrack.util.DataStore;
+import com.airtribe.meditrack.util.IntHashMap;
+import com.airtribe.meditrack.util.PatientDeduplicator;
+import com.airtribe.meditrack.util.Repository;
+import com.airtribe.meditrack.util.ValidationReport;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+
+public class PatientDeduplicatorTest {
+
+    public static void main(String[] args) {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // addPatient prints per patient
+        try {
+            report(out, fingerprintIgnoresCaseAndWhitespace(),
+                    "name and disease match ignoring case and extra whitespace; age must be equal");
+            report(out, addPatientRejectsDuplicates(), "addPatient rejects a duplicate until the original is removed");
+            report(out, failedStoreLeavesNoEntry(), "a patient the store fails to add leaves no fingerprint behind");
+            report(out, enablingReportsStoredDuplicates(),
+                    "turning detection on reports stored duplicates and keeps them");
+            report(out, importReportsMergedAndRejectedRows(),
+                    "an import merges duplicates of stored and earlier rows and reports them");
+            report(out, matchesExactComparison(),
+                    "row-by-row and bulk detection agree with an exact set of normalized fingerprints");
+        } finally {
+            System.setOut(out);
+        }
+        System.out.println("PatientDeduplicatorTest completed");
+    }
+
+    private static void report(PrintStream out, boolean ok, String description) {
+        out.println((ok ? "PASS" : "FAIL") + ": " + description);
+    }
+
+    private static boolean fingerprintIgnoresCaseAndWhitespace() {
+        IntHashMap<Patient> stored = new IntHashMap<>();
+        PatientDeduplicator detector = new PatientDeduplicator(stored::get);
+        Patient original = new Patient(1, "Asha Rao", 34, "Common Cold");
+        stored.put(1, original);
+        boolean ok = detector.findOrRegister(original) == null
+                && detector.findOrRegister(original) == null // registering the same patient again is not a duplicate
+                && detector.findOrRegister(new Patient(2, "  asha\t  RAO ", 34, "common   cold ")) == original;
+        ok &= detector.findOrRegister(new Patient(3, "Asha Rao", 35, "Common Cold")) == null
+                && detector.findOrRegister(new Patient(4, "Asha Rao", 34, "Common Colds")) == null
+                && detector.findOrRegister(new Patient(5, "AshaRao", 34, "Common Cold")) == null;
+        return ok && detector.size() == 4;
+    }
+
+    private static boolean addPatientRejectsDuplicates() {
+        PatientService service = new PatientService();
+        service.addPatient(new Patient(1, "Kabir Shah", 51, "Gout"));
+        service.setDuplicateDetection(true);
+        service.addPatient(new Patient(2, "Meera Shah", 51, "Gout"));
+        boolean ok;
+        try {
+            service.addPatient(new Patient(3, "kabir shah", 51, "GOUT"));
+            ok = false;
+        } catch (DuplicatePatientException e) {
+            ok = e.getExistingId() == 1 && service.countPatients() == 2;
+        }
+        ok &= service.removePatient(1);
+        service.addPatient(new Patient(4, "Kabir Shah", 51, "Gout"));
+        return ok && service.countPatients() == 2 && service.findPatientById(4) != null;
+    }
+
+    private static boolean failedStoreLeavesNoEntry() {
+        IntHashMap<Patient> stored = new IntHashMap<>();
+        PatientDeduplicator detector = new PatientDeduplicator(stored::get);
+        Patient unstored = new Patient(5, "Ravi Kumar", 30, "Flu");
+        Patient kept = new Patient(6, "Asha Rao", 34, "Gout");
+        stored.put(6, kept);
+        boolean ok = detector.findOrRegister(unstored) == null && detector.findOrRegister(kept) == null
+                && detector.forgetUnstored(unstored)
+                && !detector.forgetUnstored(new Patient(6, "asha rao", 34, "gout")) // the stored patient's entry
+                && detector.size() == 1;
+
+        FailingStore store = new FailingStore();
+        PatientService service = new PatientService(store);
+        service.setDuplicateDetection(true);
+        store.failures = 2;
+        try {
+            service.addPatient(new Patient(1, "Kabir Shah", 51, "Gout"));
+            ok = false;
+        } catch (PersistenceException e) {
+            ok &= service.countPatients() == 0;
+        }
+        try {
+            service.addPatients(List.of(new Patient(2, "Meera Shah", 51, "Gout")));
+            ok = false;
+        } catch (PersistenceException e) {
+            ok &= service.countPatients() == 0;
+        }
+        service.addPatient(new Patient(1, "Kabir Shah", 51, "Gout"));
+        ValidationReport report = service.addPatients(List.of(new Patient(2, "Meera Shah", 51, "Gout")));
+        ok &= report.getMergedRows() == 0 && service.countPatients() == 2;
+        try {
+            service.addPatient(new Patient(3, "Meera Shah", 51, "Gout"));
+            ok = false;
+        } catch (DuplicatePatientException e) {
+            ok &= e.getExistingId() == 2;
+        }
+        return ok;
+    }
+
+    // Fails the next adds, as a database that loses its connection would.
+    private static final class FailingStore implements Repository<Patient> {
+
+        private final DataStore<Patient> rows = new DataStore<>(Patient::getId);
+        int failures;
+
+        @Override
+        public void add(Patient patient) {
+            failIfDue();
+            rows.add(patient);
+        }
+
+        @Override
+        public void addAll(Collection<? extends Patient> batch) {
+            failIfDue();
+            rows.addAll(batch);
+        }
+
+        @Override
+        public boolean remove(Patient patient) {
+            return rows.remove(patient);
+        }
+
+        @Override
+        public List<Patient> getAll() {
+            return rows.getAll();
+        }
+
+        @Override
+        public Optional<Patient> findById(int id) {
+            return rows.findById(id);
+        }
+
+        @Override
+        public int size() {
+            return rows.size();
+        }
+
+        private void failIfDue() {
+            if (failures > 0) {
+                failures--;
+                throw new PersistenceException("store unavailable");
+            }
+        }
+    }
+
+    private static boolean enablingReportsStoredDuplicates() {
+        PatientService service = new PatientService();
+        service.addPatients(List.of(new Patient(1, "Kabir Shah", 51, "Gout"),
+                new Patient(2, "Meera Shah", 51, "Gout"), new Patient(3, "kabir  SHAH", 51, "gout")));
+        List<ValidationReport.Merge> duplicates = service.setDuplicateDetection(true);
+        boolean ok = duplicates.size() == 1 && duplicates.get(0).getId() == 3
+                && duplicates.get(0).getExistingId() == 1 && service.countPatients() == 3;
+        try {
+            service.addPatient(new Patient(4, "Meera Shah", 51, "Gout"));
+            ok = false;
+        } catch (DuplicatePatientException e) {
+            ok &= e.getExistingId() == 2;
+        }
+        return ok;
+    }
+
+    private static boolean importReportsMergedAndRejectedRows() {
+        PatientService service = new PatientService();
+        service.setDuplicateDetection(true);
+        service.addPatient(new Patient(1, "Omar Khan", 40, "Flu"));
+        List<Patient> rows = new ArrayList<>();
+        for (int id = 10; id < 20_010; id++) {
+            rows.add(new Patient(id, "Patient " + id, 30, "Asthma"));
+        }
+        rows.set(4, new Patient(14, "OMAR KHAN", 40, "flu"));         // row 5: duplicate of a stored patient
+        rows.set(8_999, new Patient(9_009, "", 30, "Asthma"));          // row 9000: invalid name
+        rows.set(9_000, new Patient(9_010, "patient  15", 30, "Asthma")); // row 9001: duplicate of row 6
+        ValidationReport report = service.addPatients(rows);
+        List<ValidationReport.Merge> merges = report.getMerges();
+        String text = report.format(5);
+        return report.getTotalRows() == 20_000 && report.getAcceptedRows() == 19_997
+                && report.getRejectedRows() == 1 && report.getMergedRows() == 2
+                && merges.get(0).getRow() == 5 && merges.get(0).getExistingId() == 1
+                && merges.get(1).getRow() == 9_001 && merges.get(1).getId() == 9_010
+                && merges.get(1).getExistingId() == 15
+                && service.countPatients() == 19_998 && service.findPatientById(9_010) == null
+                && text.contains("2 merged") && text.contains("row 5, id 14: duplicate of 1");
+    }
+
+    private static boolean matchesExactComparison() {
+        // Generated names repeat often enough to produce real duplicates among 200,000 patients.
+        List<Patient> patients = new DataGenerator(DataGenerator.DEFAULT_SEED, 1, 200_000, 0).patients();
+        IntHashMap<Patient> stored = new IntHashMap<>(patients.size());
+        PatientDeduplicator oneByOne = new PatientDeduplicator(stored::get, 0);
+        Patient[] found = new Patient[patients.size()];
+        Set<String> seen = new HashSet<>();
+        int expected = 0;
+        for (int i = 0; i < patients.size(); i++) {
+            Patient patient = patients.get(i);
+            String key = patient.getName().toLowerCase(Locale.ROOT) + "|" + patient.getAge() + "|"
+                    + patient.getDisease().toLowerCase(Locale.ROOT);
+            boolean duplicate = !seen.add(key);
+            found[i] = oneByOne.findOrRegister(patient);
+            if (found[i] == null) {
+                stored.put(patient.getId(), patient);
+            }
+            if (duplicate) {
+                expected++;
+            }
+            if (duplicate != (found[i] != null)) {
+                return false;
+            }
+        }
+
+        // A bulk registration of the same rows, none of them stored, must find the same duplicates.
+        PatientDeduplicator bulk = new PatientDeduplicator(id -> null);
+        Patient[] bulkFound = bulk.findOrRegisterAll(patients);
+        boolean same = true;
+        for (int i = 0; i < patients.size(); i++) {
+            same &= bulkFound[i] == found[i];
+        }
+        return expected > 0 && same && oneByOne.size() == seen.size() && bulk.size() == seen.size();
+    }
+}
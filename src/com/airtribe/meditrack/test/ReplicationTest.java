@@ -0,0 +1,208 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.DoctorService;
+import com.airtribe.meditrack.service.PatientService;
+import com.airtribe.meditrack.service.ReplicationFollower;
+import com.airtribe.meditrack.service.ReplicationPrimary;
+import com.airtribe.meditrack.util.CSVUtil;
+import com.airtribe.meditrack.util.ChangeFeed;
+import com.airtribe.meditrack.util.DataStore;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+
+public class ReplicationTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 6, 3);
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // services print per change
+        try {
+            report(out, snapshotThenTail(), "a new follower loads the snapshot and then applies the tail");
+            report(out, resumesAfterReconnect(),
+                    "a follower resumes from its last sequence after the primary restarts");
+            report(out, resnapshotRemovesMissingRows(), "a fresh snapshot removes rows the primary no longer has");
+            report(out, archivingRemovesFromFollowers(), "appointments the primary archives leave its followers");
+            report(out, stalledFollowerIsDropped(),
+                    "a follower that stops reading never blocks writes and is dropped once a ring behind");
+        } finally {
+            System.setOut(out);
+        }
+        System.out.println("ReplicationTest completed");
+    }
+
+    private static void report(PrintStream out, boolean ok, String description) {
+        out.println((ok ? "PASS" : "FAIL") + ": " + description);
+    }
+
+    private static boolean snapshotThenTail() throws InterruptedException {
+        Node primary = new Node();
+        primary.seed(20, 5, 40);
+        ChangeFeed feed = primary.attachFeed();
+        try (ReplicationPrimary shipper = new ReplicationPrimary(feed, 0, primary.doctors, primary.patients,
+                primary.appointments)) {
+            Node replica = new Node();
+            try (ReplicationFollower follower = replica.follow(shipper.getPort())) {
+                boolean ok = follower.awaitReady(TIMEOUT_MILLIS) && sameData(primary, replica);
+                primary.patients.addPatient(new Patient(21, "Late Patient", 33, "Cold"));
+                primary.doctors.removeDoctor(5);
+                primary.appointments.bookAppointment(41, primary.patients.findPatientById(21),
+                        primary.doctors.findDoctorById(1), DAY);
+                primary.appointments.tryCancelAppointment(3);
+                ok &= follower.awaitSequence(feed.lastSequence(), TIMEOUT_MILLIS);
+                return ok && sameData(primary, replica) && follower.getSnapshotCount() == 1
+                        && replica.appointments.findAppointment(41).isPresent();
+            }
+        }
+    }
+
+    private static boolean resumesAfterReconnect() throws InterruptedException {
+        Node primary = new Node();
+        primary.seed(10, 3, 10);
+        ChangeFeed feed = primary.attachFeed();
+        ReplicationPrimary shipper = new ReplicationPrimary(feed, 0, primary.doctors, primary.patients,
+                primary.appointments);
+        int port = shipper.getPort();
+        Node replica = new Node();
+        try (ReplicationFollower follower = replica.follow(port)) {
+            boolean ok = follower.awaitReady(TIMEOUT_MILLIS);
+            primary.patients.addPatient(new Patient(11, "Before Restart", 40, "Flu"));
+            ok &= follower.awaitSequence(feed.lastSequence(), TIMEOUT_MILLIS);
+            shipper.close();
+            primary.patients.addPatient(new Patient(12, "During Restart", 41, "Flu"));
+            primary.appointments.tryCancelAppointment(2);
+            shipper = new ReplicationPrimary(feed, port, primary.doctors, primary.patients, primary.appointments);
+            ok &= follower.awaitSequence(feed.lastSequence(), TIMEOUT_MILLIS);
+            return ok && sameData(primary, replica) && follower.getSnapshotCount() == 1;
+        } finally {
+            shipper.close();
+        }
+    }
+
+    private static boolean resnapshotRemovesMissingRows() throws InterruptedException {
+        Node primary = new Node();
+        primary.seed(5, 2, 5);
+        Node replica = new Node();
+        replica.patients.addPatient(new Patient(99, "Stale Patient", 50, "Gone"));
+        replica.doctors.addDoctor(new Doctor(98, "Dr. Stale", 60, Specialization.DERMATOLOGY, 80));
+        replica.appointments.bookAppointment(97, replica.patients.findPatientById(99),
+                replica.doctors.findDoctorById(98), DAY);
+        ChangeFeed feed = primary.attachFeed();
+        try (ReplicationPrimary shipper = new ReplicationPrimary(feed, 0, primary.doctors, primary.patients,
+                primary.appointments);
+             ReplicationFollower follower = replica.follow(shipper.getPort())) {
+            return follower.awaitReady(TIMEOUT_MILLIS) && sameData(primary, replica)
+                    && replica.patients.findPatientById(99) == null
+                    && replica.appointments.findAppointment(97).isEmpty();
+        }
+    }
+
+    private static boolean archivingRemovesFromFollowers() throws InterruptedException {
+        Node primary = new Node();
+        primary.seed(10, 2, 21);
+        ChangeFeed feed = primary.attachFeed();
+        try (ReplicationPrimary shipper = new ReplicationPrimary(feed, 0, primary.doctors, primary.patients,
+                primary.appointments)) {
+            Node replica = new Node();
+            try (ReplicationFollower follower = replica.follow(shipper.getPort())) {
+                boolean ok = follower.awaitReady(TIMEOUT_MILLIS);
+                LocalDate cutoff = DAY.plusDays(3);
+                ok &= primary.appointments.archiveAppointmentsBefore(cutoff,
+                        new DataStore<>(Appointment::getAppointmentId)) == 9;
+                ok &= follower.awaitSequence(feed.lastSequence(), TIMEOUT_MILLIS);
+                return ok && sameData(primary, replica) && replica.appointments.getAllAppointments().size() == 12
+                        && replica.appointments.getAppointmentsBetween(DAY, cutoff.minusDays(1)).isEmpty();
+            }
+        }
+    }
+
+    private static boolean stalledFollowerIsDropped() throws Exception {
+        Node primary = new Node();
+        primary.seed(10, 2, 10);
+        ChangeFeed feed = primary.attachFeed();
+        try (ReplicationPrimary shipper = new ReplicationPrimary(feed, 0, primary.doctors, primary.patients,
+                primary.appointments);
+             Socket stalled = new Socket("127.0.0.1", shipper.getPort())) {
+            stalled.getOutputStream().write("FOLLOW 0\n".getBytes(StandardCharsets.UTF_8));
+            stalled.getOutputStream().flush();
+            Node replica = new Node();
+            try (ReplicationFollower follower = replica.follow(shipper.getPort())) {
+                boolean ok = follower.awaitReady(TIMEOUT_MILLIS);
+                Thread writer = new Thread(() -> {
+                    for (int id = 11; id <= 10 + 4 * feed.getCapacity(); id++) {
+                        primary.patients.addPatient(new Patient(id, "Busy Patient" + id, 30, "Flu"));
+                    }
+                });
+                writer.start();
+                writer.join(TIMEOUT_MILLIS);
+                ok &= !writer.isAlive();
+                long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+                while (shipper.getFollowerCount() > 1 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+                ok &= shipper.getFollowerCount() == 1 && follower.awaitSequence(feed.lastSequence(), TIMEOUT_MILLIS);
+                return ok && sameData(primary, replica);
+            }
+        }
+    }
+
+    private static boolean sameData(Node a, Node b) {
+        return rows(a).equals(rows(b));
+    }
+
+    private static List<String> rows(Node node) {
+        List<String> rows = new ArrayList<>();
+        node.doctors.getAllDoctors().stream().map(CSVUtil::toCsvLine).sorted().forEach(rows::add);
+        node.patients.getAllPatients().stream().map(CSVUtil::toCsvLine).sorted().forEach(rows::add);
+        rows.addAll(node.appointments.getAllAppointments().stream().map(CSVUtil::toCsvLine).sorted()
+                .collect(Collectors.toList()));
+        return rows;
+    }
+
+    private static final class Node {
+
+        final DoctorService doctors = new DoctorService();
+        final PatientService patients = new PatientService();
+        final AppointmentService appointments = new AppointmentService();
+
+        void seed(int patientCount, int doctorCount, int appointmentCount) {
+            for (int id = 1; id <= patientCount; id++) {
+                patients.addPatient(new Patient(id, "Patient" + id, 20 + id, "Flu"));
+            }
+            for (int id = 1; id <= doctorCount; id++) {
+                doctors.addDoctor(new Doctor(id, "Dr. Replica" + id, 40 + id, Specialization.CARDIOLOGY, 100 + id));
+            }
+            List<Appointment> booked = new ArrayList<>();
+            for (int id = 1; id <= appointmentCount; id++) {
+                booked.add(new Appointment(id, patients.findPatientById(1 + id % patientCount),
+                        doctors.findDoctorById(1 + id % doctorCount), DAY.plusDays(id % 7)));
+            }
+            appointments.addAppointments(booked);
+        }
+
+        ChangeFeed attachFeed() {
+            ChangeFeed feed = new ChangeFeed(1024);
+            doctors.setChangeFeed(feed);
+            patients.setChangeFeed(feed);
+            appointments.setChangeFeed(feed);
+            return feed;
+        }
+
+        ReplicationFollower follow(int port) {
+            return new ReplicationFollower("127.0.0.1", port, doctors, patients, appointments);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Bill;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.RevenueSummary;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.util.DataGenerator;
+import com.airtribe.meditrack.util.RevenueLedger;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+public class RevenueLedgerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 2, 29);
+
+    public static void main(String[] args) throws Exception {
+        testParallelLoadMatchesBills();
+        testDailyRowsAddUpToMonth();
+        testIncrementalUpdates();
+        testConcurrentUpdates();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // services print per booking
+        boolean serviceOk;
+        try {
+            serviceOk = serviceKeepsLedgerCurrent();
+        } finally {
+            System.setOut(out);
+        }
+        System.out.println((serviceOk ? "PASS" : "FAIL") + ": service bookings and cancellations update the ledger");
+        System.out.println("RevenueLedgerTest completed");
+    }
+
+    private static void testParallelLoadMatchesBills() {
+        DataGenerator generator = new DataGenerator(DataGenerator.DEFAULT_SEED, 25, 500, 200_000);
+        List<Doctor> doctors = generator.doctors();
+        List<Appointment> appointments = generator.appointments(generator.patients(), doctors);
+        RevenueLedger ledger = new RevenueLedger(20);
+        ledger.addAll(appointments);
+
+        // expected figures per (doctor, month) from one bill per appointment
+        Map<String, long[]> expected = new HashMap<>();
+        for (Appointment appointment : appointments) {
+            String key = appointment.getDoctor().getId() + "@" + YearMonth.from(appointment.getAppointmentDate());
+            long[] figures = expected.computeIfAbsent(key, k -> new long[3]);
+            if (appointment.getStatus() == AppointmentStatus.CANCELLED) {
+                figures[1]++;
+            } else {
+                figures[0]++;
+                figures[2] += Math.round(new Bill(appointment).generateBillSummary().getTotalAmount() * 100);
+            }
+        }
+        YearMonth first = YearMonth.from(DataGenerator.FIRST_DATE);
+        YearMonth last = YearMonth.from(DataGenerator.FIRST_DATE.plusDays(DataGenerator.DATE_SPAN_DAYS - 1));
+        List<RevenueSummary> rows = ledger.monthly(first, last, RevenueLedger.Grouping.DOCTOR);
+        boolean ok = rows.size() == expected.size();
+        for (RevenueSummary row : rows) {
+            String id = row.getGroup().substring(row.getGroup().indexOf("(#") + 2, row.getGroup().length() - 1);
+            long[] figures = expected.get(id + "@" + YearMonth.from(row.getPeriodStart()));
+            ok &= figures != null && figures[0] == row.getAppointments() && figures[1] == row.getCancelled()
+                    && figures[2] == row.getRevenueCents();
+        }
+        long total = 0;
+        for (RevenueSummary row : ledger.monthly(first, last, RevenueLedger.Grouping.SPECIALIZATION)) {
+            total += row.getAppointments() + row.getCancelled();
+        }
+        ok &= total == appointments.size();
+        System.out.println((ok ? "PASS" : "FAIL") + ": parallel load matches per-appointment bills ("
+                + rows.size() + " doctor-months)");
+    }
+
+    private static void testDailyRowsAddUpToMonth() {
+        DataGenerator generator = new DataGenerator(7, 10, 100, 20_000);
+        RevenueLedger ledger = new RevenueLedger(20);
+        ledger.addAll(generator.appointments(generator.patients(), generator.doctors()));
+        YearMonth month = YearMonth.of(2024, 3);
+        long[] daily = new long[4];
+        for (RevenueSummary row : ledger.daily(month.atDay(1), month.atEndOfMonth(),
+                RevenueLedger.Grouping.SPECIALIZATION)) {
+            daily[0] += row.getAppointments();
+            daily[1] += row.getCancelled();
+            daily[2] += row.getFeeCents();
+            daily[3] += row.getTaxCents();
+        }
+        long[] monthly = new long[4];
+        for (RevenueSummary row : ledger.monthly(month, month, RevenueLedger.Grouping.DOCTOR)) {
+            monthly[0] += row.getAppointments();
+            monthly[1] += row.getCancelled();
+            monthly[2] += row.getFeeCents();
+            monthly[3] += row.getTaxCents();
+        }
+        boolean ok = monthly[0] > 0 && Arrays.equals(daily, monthly);
+        System.out.println((ok ? "PASS" : "FAIL") + ": daily rows add up to the monthly figures");
+    }
+
+    private static void testIncrementalUpdates() {
+        RevenueLedger ledger = new RevenueLedger(4);
+        Doctor neuro = new Doctor(1, "Dr. Neuro", 45, Specialization.NEUROLOGY, 1000.50);
+        Doctor neuro2 = new Doctor(2, "Dr. Nerve", 45, Specialization.NEUROLOGY, 500);
+        Patient patient = new Patient(1, "Pat", 30, "Migraine");
+        Appointment a = new Appointment(1, patient, neuro, DAY);
+        Appointment b = new Appointment(2, patient, neuro, DAY);
+        Appointment c = new Appointment(3, patient, neuro2, DAY.plusDays(1)); // next month
+        ledger.booked(a);
+        ledger.booked(b);
+        ledger.booked(c);
+        b.cancel();
+        ledger.cancelled(b);
+
+        List<RevenueSummary> february = ledger.monthly(YearMonth.from(DAY), YearMonth.from(DAY),
+                RevenueLedger.Grouping.DOCTOR);
+        RevenueSummary row = february.get(0);
+        boolean ok = february.size() == 1 && row.getAppointments() == 1 && row.getCancelled() == 1
+                && row.getFeeCents() == 100_050 && row.getTaxCents() == 10_005
+                && row.getCancellationRate() == 0.5
+                && Math.abs(row.getUtilization() - 1.0 / (4 * 29)) < 1e-12;
+        List<RevenueSummary> byDay = ledger.daily(DAY, DAY.plusDays(1), RevenueLedger.Grouping.SPECIALIZATION);
+        ok &= byDay.size() == 2 && byDay.get(1).getRevenueCents() == 55_000
+                && Math.abs(byDay.get(1).getUtilization() - 1.0 / (4 * 2)) < 1e-12; // two neurologists known
+        System.out.println((ok ? "PASS" : "FAIL") + ": bookings and cancellations update figures in place");
+    }
+
+    private static void testConcurrentUpdates() throws InterruptedException {
+        RevenueLedger ledger = new RevenueLedger(20);
+        Doctor doctor = new Doctor(1, "Dr. Busy", 45, Specialization.CARDIOLOGY, 100);
+        Patient patient = new Patient(1, "Pat", 30, "Flu");
+        int threads = 4;
+        int perThread = 10_000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    Appointment appointment = new Appointment(i, patient, doctor, DAY.minusDays(i % 60));
+                    ledger.booked(appointment);
+                    if (i % 3 == 0) {
+                        ledger.cancelled(appointment);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long active = 0;
+        long cancelled = 0;
+        long fees = 0;
+        for (RevenueSummary row : ledger.daily(DAY.minusDays(60), DAY, RevenueLedger.Grouping.DOCTOR)) {
+            active += row.getAppointments();
+            cancelled += row.getCancelled();
+            fees += row.getFeeCents();
+        }
+        long expectedCancelled = (long) threads * ((perThread + 2) / 3);
+        boolean ok = cancelled == expectedCancelled && active == (long) threads * perThread - expectedCancelled
+                && fees == active * 10_000;
+        System.out.println((ok ? "PASS" : "FAIL") + ": concurrent updates are not lost");
+    }
+
+    private static boolean serviceKeepsLedgerCurrent() {
+        AppointmentService service = new AppointmentService();
+        Doctor doctor = new Doctor(1, "Dr. Skin", 50, Specialization.DERMATOLOGY, 200);
+        Patient patient = new Patient(1, "Pat", 30, "Rash");
+        service.bookAppointment(1, patient, doctor, DAY);
+        RevenueLedger ledger = new RevenueLedger(20);
+        service.setRevenueLedger(ledger);
+        service.bookAppointment(2, patient, doctor, DAY);
+        service.cancelAppointment(1);
+        service.cancelAppointment(1);
+        List<RevenueSummary> rows = ledger.daily(DAY, DAY, RevenueLedger.Grouping.DOCTOR);
+        return rows.size() == 1 && rows.get(0).getAppointments() == 1 && rows.get(0).getCancelled() == 1
+                && rows.get(0).getRevenueCents() == 22_000;
+    }
+}
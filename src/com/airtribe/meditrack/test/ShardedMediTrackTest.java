@@ -0,0 +1,152 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.service.ShardRouter;
+import com.airtribe.meditrack.service.ShardedMediTrack;
+import com.airtribe.meditrack.util.ValidationReport;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+public class ShardedMediTrackTest {
+
+    private static final int SHARDS = 4;
+    private static final int NORTH_CLINIC = 1;
+    private static final int SOUTH_CLINIC = 2;
+    private static final ShardRouter ROUTER = ShardRouter.byClinic(Map.of(NORTH_CLINIC, 0, SOUTH_CLINIC, 3));
+
+    public static void main(String[] args) throws IOException {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Path directory = Files.createTempDirectory("meditrack-shards");
+        try (ShardedMediTrack sharded = new ShardedMediTrack(SHARDS, ROUTER, directory)) {
+            populate(sharded);
+            report(out, poolThreadsAreNumbered(sharded), "every pool thread has its own numbered name");
+            report(out, routesByKey(sharded), "writes land on the shard their key routes to");
+            report(out, fansOutQueries(sharded), "queries without a key see every shard");
+            report(out, roundTrips(sharded, directory),
+                    "saveAll and loadAll restore doctors, patients and appointments of every shard");
+            report(out, failuresSurfaceAsIOException(directory), "a failed save or load throws the IOException itself");
+        } finally {
+            System.setOut(out);
+            deleteRecursively(directory);
+        }
+        System.out.println("ShardedMediTrackTest completed");
+    }
+
+    private static void report(PrintStream out, boolean ok, String description) {
+        out.println((ok ? "PASS" : "FAIL") + ": " + description);
+    }
+
+    // Doctors and patients 1-2 belong to the north clinic, 3-4 to the south; 5-8 are routed by id.
+    private static void populate(ShardedMediTrack sharded) {
+        Specialization[] specializations = {Specialization.CARDIOLOGY, Specialization.NEUROLOGY};
+        for (int id = 1; id <= 8; id++) {
+            int key = id <= 2 ? NORTH_CLINIC : id <= 4 ? SOUTH_CLINIC : id;
+            sharded.addDoctor(key, new Doctor(id, "Doctor " + id, 30 + id, specializations[id % 2], 100 * id));
+            sharded.addPatient(key, new Patient(id, "Patient " + id, 20 + id, id % 2 == 0 ? "Flu" : "Migraine"));
+        }
+    }
+
+    private static boolean poolThreadsAreNumbered(ShardedMediTrack sharded) {
+        sharded.countDoctors(); // one task per shard starts every pool thread
+        Set<String> names = Thread.getAllStackTraces().keySet().stream()
+                .map(Thread::getName)
+                .filter(name -> name.startsWith("meditrack-shard-"))
+                .collect(Collectors.toSet());
+        return names.size() == SHARDS;
+    }
+
+    private static boolean routesByKey(ShardedMediTrack sharded) {
+        boolean routed = sharded.shardOf(NORTH_CLINIC) == 0 && sharded.shardOf(SOUTH_CLINIC) == 3
+                && sharded.doctors(0).findDoctorById(1) != null
+                && sharded.patients(3).findPatientById(4) != null
+                && sharded.findDoctorById(SOUTH_CLINIC, 3) != null
+                && sharded.findPatientById(NORTH_CLINIC, 2) != null
+                && sharded.findPatientById(NORTH_CLINIC, 3) == null;
+        for (int id = 5; id <= 8; id++) {
+            int home = sharded.shardOf(id);
+            for (int shard = 0; shard < SHARDS; shard++) {
+                routed &= (sharded.doctors(shard).findDoctorById(id) != null) == (shard == home);
+            }
+        }
+        return routed;
+    }
+
+    private static boolean fansOutQueries(ShardedMediTrack sharded) {
+        List<Doctor> neurologists = sharded.findDoctorsBySpecialization(Specialization.NEUROLOGY);
+        return sharded.countDoctors() == 8 && sharded.countPatients() == 8
+                && sharded.findDoctorById(7) != null && sharded.findDoctorById(7).getId() == 7
+                && sharded.findPatientById(6) != null && sharded.findPatientById(9) == null
+                && neurologists.size() == 4 && neurologists.stream().allMatch(d -> d.getId() % 2 == 1)
+                && Math.abs(sharded.getAverageConsultationFee() - 450.0) < 1e-9
+                && sharded.searchPatients("patient").size() == 8
+                && sharded.searchDoctors("Doctor 8").size() == 1;
+    }
+
+    private static boolean roundTrips(ShardedMediTrack sharded, Path directory) throws IOException {
+        LocalDate date = LocalDate.of(2026, 11, 2);
+        // A south clinic booking whose patient is stored on the north clinic's shard.
+        sharded.bookAppointment(SOUTH_CLINIC, 1, sharded.findPatientById(1), sharded.findDoctorById(3), date);
+        sharded.bookAppointment(NORTH_CLINIC, 2, sharded.findPatientById(2), sharded.findDoctorById(1), date);
+        sharded.appointments(0).tryCancelAppointment(2);
+        sharded.saveAll();
+
+        try (ShardedMediTrack reloaded = new ShardedMediTrack(SHARDS, ROUTER, directory)) {
+            List<ValidationReport> reports = reloaded.loadAll();
+            Appointment south = reloaded.appointments(3).findAppointmentById(1);
+            Appointment north = reloaded.appointments(0).findAppointmentById(2);
+            return Files.exists(directory.resolve("appointments-3.csv"))
+                    && reports.size() == 2 * SHARDS
+                    && reports.stream().noneMatch(ValidationReport::hasViolations)
+                    && reloaded.countDoctors() == 8 && reloaded.countPatients() == 8
+                    && reloaded.doctors(0).findDoctorById(2) != null
+                    && reloaded.patients(3).findPatientById(3) != null
+                    && south != null && south.getPatient() == reloaded.findPatientById(NORTH_CLINIC, 1)
+                    && south.getDoctor() == reloaded.findDoctorById(SOUTH_CLINIC, 3)
+                    && south.getAppointmentDate().equals(date)
+                    && north != null && north.getStatus() == AppointmentStatus.CANCELLED
+                    && reloaded.appointments(1).getAllAppointments().isEmpty();
+        }
+    }
+
+    private static boolean failuresSurfaceAsIOException(Path directory) {
+        boolean saveFailed = false;
+        try (ShardedMediTrack missing = new ShardedMediTrack(SHARDS, ROUTER, directory.resolve("missing"))) {
+            missing.addPatient(NORTH_CLINIC, new Patient(1, "Patient 1", 21, "Flu"));
+            missing.saveAll();
+        } catch (IOException e) {
+            saveFailed = true;
+        }
+        boolean loadFailed = false;
+        try (ShardedMediTrack reloaded = new ShardedMediTrack(SHARDS, ROUTER, directory)) {
+            Files.writeString(directory.resolve("appointments-2.csv"), "1,x,3,2026-11-02,PENDING\n");
+            reloaded.loadAll();
+        } catch (IOException e) {
+            loadFailed = true;
+        }
+        return saveFailed && loadFailed;
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+}
@@ -0,0 +1,43 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.util.StringPool;
+
+
+public class StringPoolTest {
+
+    public static void main(String[] args) {
+        testCanonicalize();
+        testBounded();
+        testPatientsShareDisease();
+        System.out.println("StringPoolTest completed");
+    }
+
+    private static void testCanonicalize() {
+        StringPool pool = new StringPool(10);
+        String first = new String("Flu".toCharArray());
+        String second = new String("Flu".toCharArray());
+        boolean ok = pool.canonicalize(first) == first && pool.canonicalize(second) == first
+                && pool.canonicalize(null) == null && pool.size() == 1;
+        System.out.println((ok ? "PASS" : "FAIL") + ": equal strings map to one instance");
+    }
+
+    private static void testBounded() {
+        StringPool pool = new StringPool(2);
+        pool.canonicalize("a");
+        pool.canonicalize("b");
+        String c = new String("c".toCharArray());
+        boolean ok = pool.canonicalize(c) == c && pool.size() == 2 && !pool.isCanonical(c)
+                && pool.isCanonical(pool.canonicalize(new String("a".toCharArray())));
+        System.out.println((ok ? "PASS" : "FAIL") + ": a full pool returns new values unchanged");
+    }
+
+    private static void testPatientsShareDisease() {
+        Patient a = new Patient(1, "Asha", 30, new String("Migraine".toCharArray()));
+        Patient b = new Patient(2, "Ravi", 40, new String("Migraine".toCharArray()));
+        Patient clone = a.clone();
+        boolean ok = a.getDisease() == b.getDisease() && clone.getDisease() == a.getDisease()
+                && clone != a && clone.getId() == 1;
+        System.out.println((ok ? "PASS" : "FAIL") + ": patients and clones share the pooled disease");
+    }
+}
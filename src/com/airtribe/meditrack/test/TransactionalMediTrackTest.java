@@ -0,0 +1,200 @@
+package com.airtribe.meditrack.test;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.BillSummary;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.exception.InvalidDataException;
+import com.airtribe.meditrack.exception.TransactionConflictException;
+import com.airtribe.meditrack.service.AppointmentService;
+import com.airtribe.meditrack.service.DoctorService;
+import com.airtribe.meditrack.service.PatientService;
+import com.airtribe.meditrack.service.TransactionalMediTrack;
+import com.airtribe.meditrack.util.VersionTable;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class TransactionalMediTrackTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 6, 3);
+
+    public static void main(String[] args) throws Exception {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // services print per change
+        try {
+            report(out, bookBillAndCancel(), "book-and-bill, bill and cancel keep their checks");
+            report(out, removalDuringBookingIsRetried(), "a patient removed mid-booking makes the booking retry and fail");
+            report(out, cancelDuringBillingIsRetried(), "a cancel committed mid-billing makes the bill retry");
+            report(out, racingBookingsOfOneIdCommitOnce(out), "racing bookings of the same id commit exactly once");
+            report(out, givesUpAfterMaxAttempts(), "a transaction that always conflicts gives up");
+            report(out, secondWriteIsRefused(), "a second write is refused and nothing is applied");
+        } finally {
+            System.setOut(out);
+        }
+        System.out.println("TransactionalMediTrackTest completed");
+    }
+
+    private static void report(PrintStream out, boolean ok, String description) {
+        out.println((ok ? "PASS" : "FAIL") + ": " + description);
+    }
+
+    private static boolean bookBillAndCancel() {
+        Fixture f = new Fixture(2, 2);
+        BillSummary booked = f.facade.bookAndBill(1, 1, 1, DAY);
+        boolean ok = booked.getTotalAmount() > 0
+                && f.facade.bill(1).getTotalAmount() == booked.getTotalAmount()
+                && f.appointments.findAppointment(1).isPresent();
+        ok &= rejects(() -> f.facade.bookAndBill(1, 2, 2, DAY)); // id taken
+        ok &= rejects(() -> f.facade.bookAndBill(2, 99, 1, DAY)); // no such patient
+        ok &= f.facade.cancel(1) && !f.facade.cancel(42);
+        ok &= rejects(() -> f.facade.bill(1));
+        ok &= f.facade.removePatient(2) && !f.facade.removePatient(2) && f.patients.findPatientById(2) == null;
+        return ok && f.facade.getConflicts() == 0;
+    }
+
+    private static boolean removalDuringBookingIsRetried() {
+        Fixture f = new Fixture(2, 2);
+        AtomicInteger attempts = new AtomicInteger();
+        boolean failed = rejects(() -> f.facade.execute(tx -> {
+            Patient patient = tx.patient(1);
+            if (patient == null) {
+                throw new InvalidDataException("Patient not found with ID: 1");
+            }
+            if (attempts.incrementAndGet() == 1) {
+                f.facade.removePatient(1); // commits before this transaction does
+            }
+            return tx.book(1, patient, tx.doctor(1), DAY);
+        }));
+        return failed && attempts.get() == 1 && f.appointments.getAllAppointments().isEmpty()
+                && f.facade.getConflicts() == 1;
+    }
+
+    private static boolean cancelDuringBillingIsRetried() {
+        Fixture f = new Fixture(1, 1);
+        f.facade.bookAndBill(1, 1, 1, DAY);
+        AtomicInteger attempts = new AtomicInteger();
+        boolean refused = rejects(() -> f.facade.execute(tx -> {
+            Appointment appointment = tx.appointment(1).orElseThrow();
+            if (appointment.getStatus() == AppointmentStatus.CANCELLED) {
+                throw new InvalidDataException("cancelled");
+            }
+            if (attempts.incrementAndGet() == 1) {
+                f.facade.cancel(1);
+            }
+            return appointment.getDoctor().getConsultationFee();
+        }));
+        return refused && attempts.get() == 1 && f.facade.getConflicts() == 1;
+    }
+
+    private static boolean racingBookingsOfOneIdCommitOnce(PrintStream out) throws InterruptedException {
+        int threads = 8;
+        int ids = 2_000;
+        Fixture f = new Fixture(50, 10);
+        AtomicInteger successes = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int patientId = 1 + t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int id = 1; id <= ids; id++) {
+                    int appointmentId = id;
+                    boolean booked = f.facade.execute(tx -> {
+                        if (tx.appointment(appointmentId).isPresent()) {
+                            return false;
+                        }
+                        Patient patient = tx.patient(patientId);
+                        Thread.yield(); // widen the window between the check and the write
+                        tx.book(appointmentId, patient, tx.doctor(1 + appointmentId % 10), DAY);
+                        return true;
+                    });
+                    if (booked) {
+                        successes.incrementAndGet();
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        out.printf("  %d threads, %d ids: %d commits, %d conflicts retried%n",
+                threads, ids, f.facade.getCommits(), f.facade.getConflicts());
+        return successes.get() == ids && f.appointments.getAllAppointments().size() == ids;
+    }
+
+    private static boolean givesUpAfterMaxAttempts() {
+        Fixture f = new Fixture(1, 1);
+        TransactionalMediTrack facade = new TransactionalMediTrack(f.doctors, f.patients, f.appointments,
+                new VersionTable(64), 3);
+        facade.bookAndBill(1, 1, 1, DAY);
+        try {
+            facade.execute(tx -> {
+                Appointment appointment = tx.appointment(1).orElseThrow();
+                facade.cancel(1); // another commit to the same appointment, every time
+                tx.cancel(appointment);
+                return null;
+            });
+            return false;
+        } catch (TransactionConflictException expected) {
+            return facade.getConflicts() == 3 && facade.getCommits() == 4;
+        }
+    }
+
+    private static boolean secondWriteIsRefused() {
+        Fixture f = new Fixture(2, 1);
+        boolean refused;
+        try {
+            f.facade.execute(tx -> {
+                Appointment appointment = tx.book(1, tx.patient(1), tx.doctor(1), DAY);
+                tx.removePatient(tx.patient(2));
+                return appointment;
+            });
+            refused = false;
+        } catch (IllegalStateException expected) {
+            refused = true;
+        }
+        return refused && f.appointments.findAppointment(1).isEmpty() && f.patients.findPatientById(2) != null
+                && f.facade.getCommits() == 0;
+    }
+
+    private static boolean rejects(Runnable action) {
+        try {
+            action.run();
+            return false;
+        } catch (RuntimeException expected) {
+            return true;
+        }
+    }
+
+    private static final class Fixture {
+
+        final DoctorService doctors = new DoctorService();
+        final PatientService patients = new PatientService();
+        final AppointmentService appointments = new AppointmentService();
+        final TransactionalMediTrack facade = new TransactionalMediTrack(doctors, patients, appointments);
+
+        Fixture(int patientCount, int doctorCount) {
+            for (int id = 1; id <= patientCount; id++) {
+                patients.addPatient(new Patient(id, "Patient" + id, 30, "Flu"));
+            }
+            for (int id = 1; id <= doctorCount; id++) {
+                doctors.addDoctor(new Doctor(id, "Dr. Tx" + id, 45, Specialization.CARDIOLOGY, 100 + id));
+            }
+        }
+    }
+}
@@ -0,0 +1,702 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.exception.PersistenceException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Appointment history kept in compressed, immutable segment files.
+ * <p>
+ * Every {@link #addAll} writes its batch, sorted by date, doctor and id, as
+ * segments of at most {@code segmentRows} rows. A segment stores each field
+ * in its own column: dates as varint deltas from the previous row, the
+ * appointment, patient and doctor ids as zigzag varint deltas, and the status
+ * as a bit-packed code into a per-segment dictionary of status names. The
+ * header records the row count and the minimum and maximum date, appointment
+ * id and patient id of the segment. Headers stay in memory, so a query opens
+ * only the segments whose ranges can match, and reads the date, id or patient
+ * column on its own before decoding any further column.
+ * <p>
+ * Segment files are written under a temporary name and renamed into place, so
+ * a crash never leaves a partial segment behind. Ids are resolved to patients
+ * and doctors through the given lookups when rows are read; a row whose
+ * patient or doctor is no longer known is skipped. Archived appointments
+ * cannot be removed or changed: {@link #remove} throws.
+ */
+public final class AppointmentArchive implements Repository<Appointment> {
+
+    /** Rows per segment unless configured otherwise. */
+    public static final int DEFAULT_SEGMENT_ROWS = 65_536;
+
+    private static final int MAGIC = 0x4D544153; // "MTAS"
+    private static final int VERSION = 1;
+    private static final String SEGMENT_PREFIX = "appointments-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int MAX_HEADER_BYTES = 512;
+
+    private static final int DATE = 0;
+    private static final int ID = 1;
+    private static final int PATIENT = 2;
+    private static final int DOCTOR = 3;
+    private static final int STATUS = 4;
+    private static final int COLUMNS = 5;
+
+    // the order of getAppointmentsBetween, which also keeps the doctor deltas small
+    private static final Comparator<Appointment> ROW_ORDER = Comparator
+            .comparing(Appointment::getAppointmentDate)
+            .thenComparingInt(a -> idOf(a.getDoctor()))
+            .thenComparingInt(Appointment::getAppointmentId);
+
+    private final Path directory;
+    private final IntFunction<Patient> patients;
+    private final IntFunction<Doctor> doctors;
+    private final int segmentRows;
+    private final Object writeLock = new Object();
+    private volatile List<Segment> segments;
+    private int nextSegmentNumber;
+
+    /**
+     * Opens the archive in {@code directory} with {@link #DEFAULT_SEGMENT_ROWS}
+     * rows per segment, creating the directory if needed.
+     *
+     * @param directory directory holding the segment files
+     * @param patients  patient lookup by id, returning {@code null} if unknown
+     * @param doctors   doctor lookup by id, returning {@code null} if unknown
+     */
+    public AppointmentArchive(Path directory, IntFunction<Patient> patients, IntFunction<Doctor> doctors) {
+        this(directory, patients, doctors, DEFAULT_SEGMENT_ROWS);
+    }
+
+    /**
+     * @param directory   directory holding the segment files
+     * @param patients    patient lookup by id, returning {@code null} if unknown
+     * @param doctors     doctor lookup by id, returning {@code null} if unknown
+     * @param segmentRows maximum number of rows written to one segment
+     * @throws PersistenceException if the directory or a segment header cannot be read
+     */
+    public AppointmentArchive(Path directory, IntFunction<Patient> patients, IntFunction<Doctor> doctors,
+                              int segmentRows) {
+        if (segmentRows <= 0) {
+            throw new IllegalArgumentException("segmentRows must be positive: " + segmentRows);
+        }
+        this.directory = Objects.requireNonNull(directory, "directory must not be null");
+        this.patients = Objects.requireNonNull(patients, "patients must not be null");
+        this.doctors = Objects.requireNonNull(doctors, "doctors must not be null");
+        this.segmentRows = segmentRows;
+        List<Path> files = new ArrayList<>();
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                    SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+                stream.forEach(files::add);
+            }
+        } catch (IOException e) {
+            throw new PersistenceException("Cannot open appointment archive " + directory, e);
+        }
+        files.sort(Comparator.comparing(Path::toString));
+        List<Segment> opened = new ArrayList<>(files.size());
+        for (Path file : files) {
+            opened.add(Segment.open(file));
+            nextSegmentNumber = Math.max(nextSegmentNumber, segmentNumber(file) + 1);
+        }
+        this.segments = List.copyOf(opened);
+    }
+
+    /**
+     * Writes one segment holding just {@code item}. Prefer {@link #addAll},
+     * which packs a whole batch into as few segments as possible.
+     */
+    @Override
+    public void add(Appointment item) {
+        addAll(List.of(item));
+    }
+
+    /**
+     * Writes {@code batch} as new segments. The segments become visible
+     * together once all of them are on disk.
+     *
+     * @throws PersistenceException if a segment cannot be written; nothing is added then
+     */
+    @Override
+    public void addAll(Collection<? extends Appointment> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Appointment> rows = new ArrayList<>(batch);
+        for (Appointment row : rows) {
+            Objects.requireNonNull(row.getAppointmentDate(), "appointment date must not be null");
+        }
+        rows.sort(ROW_ORDER);
+        synchronized (writeLock) {
+            List<Path> temporary = new ArrayList<>();
+            List<Segment> written = new ArrayList<>(segments);
+            try {
+                for (int from = 0; from < rows.size(); from += segmentRows) {
+                    Path file = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX,
+                            nextSegmentNumber + temporary.size(), SEGMENT_SUFFIX));
+                    Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+                    temporary.add(tmp);
+                    Segment.write(tmp, rows.subList(from, Math.min(rows.size(), from + segmentRows)));
+                }
+                for (Path tmp : temporary) {
+                    String name = tmp.getFileName().toString();
+                    Path file = tmp.resolveSibling(name.substring(0, name.length() - ".tmp".length()));
+                    Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+                    written.add(Segment.open(file));
+                }
+            } catch (IOException e) {
+                for (Path tmp : temporary) {
+                    try {
+                        Files.deleteIfExists(tmp);
+                    } catch (IOException ignored) {
+                        // best effort; the name does not match the segment pattern
+                    }
+                }
+                throw new PersistenceException("Cannot write appointment archive " + directory, e);
+            }
+            nextSegmentNumber += temporary.size();
+            segments = List.copyOf(written);
+        }
+    }
+
+    /**
+     * Archived appointments are immutable.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean remove(Appointment item) {
+        throw new UnsupportedOperationException("Archived appointments cannot be removed");
+    }
+
+    @Override
+    public List<Appointment> getAll() {
+        List<Appointment> result = new ArrayList<>(size());
+        forEachSegment(result::addAll);
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Hands the appointments of one segment at a time to {@code action}, so
+     * a caller that only aggregates them never holds the whole archive.
+     *
+     * @param action receives each segment's appointments, in segment order, as a random-access list
+     */
+    public void forEachSegment(Consumer<List<Appointment>> action) {
+        for (Segment segment : segments) {
+            List<Appointment> rows = new ArrayList<>(segment.rows);
+            try (FileChannel channel = FileChannel.open(segment.file, StandardOpenOption.READ)) {
+                int[] days = segment.decode(channel, DATE);
+                segment.materialize(channel, days, 0, segment.rows, null, rows, patients, doctors);
+            } catch (IOException e) {
+                throw readFailure(segment, e);
+            }
+            action.accept(rows);
+        }
+    }
+
+    @Override
+    public Optional<Appointment> findById(int id) {
+        for (Segment segment : segments) {
+            if (id < segment.minId || id > segment.maxId) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(segment.file, StandardOpenOption.READ)) {
+                int[] ids = segment.decode(channel, ID);
+                for (int row = 0; row < ids.length; row++) {
+                    if (ids[row] == id) {
+                        List<Appointment> found = new ArrayList<>(1);
+                        segment.materialize(channel, segment.decode(channel, DATE), row, row + 1, null, found,
+                                patients, doctors);
+                        return found.stream().findFirst();
+                    }
+                }
+            } catch (IOException e) {
+                throw readFailure(segment, e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return number of archived rows, including any whose patient or doctor is no longer known
+     */
+    @Override
+    public int size() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.rows;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, total);
+    }
+
+    /**
+     * Returns the archived appointments between two dates. Only segments
+     * whose date range overlaps the query are read.
+     *
+     * @param from first day, inclusive
+     * @param to   last day, inclusive
+     * @return appointments ordered by date, doctor and id
+     */
+    public List<Appointment> between(LocalDate from, LocalDate to) {
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        List<Appointment> result = new ArrayList<>();
+        int matchedSegments = 0;
+        for (Segment segment : segments) {
+            if (segment.maxDay < fromDay || segment.minDay > toDay) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(segment.file, StandardOpenOption.READ)) {
+                int[] days = segment.decode(channel, DATE);
+                int start = lowerBound(days, fromDay);
+                int end = lowerBound(days, toDay + 1);
+                if (start < end) {
+                    segment.materialize(channel, days, start, end, null, result, patients, doctors);
+                    matchedSegments++;
+                }
+            } catch (IOException e) {
+                throw readFailure(segment, e);
+            }
+        }
+        if (matchedSegments > 1) {
+            result.sort(ROW_ORDER);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a patient's archived appointments. Segments outside the
+     * patient id range are skipped; of the others only the patient column is
+     * read unless the patient occurs in it.
+     *
+     * @param patientId id of the patient
+     * @return the patient's appointments, ordered by date, doctor and id
+     */
+    public List<Appointment> forPatient(int patientId) {
+        List<Appointment> result = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (patientId < segment.minPatient || patientId > segment.maxPatient) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(segment.file, StandardOpenOption.READ)) {
+                int[] patientIds = segment.decode(channel, PATIENT);
+                boolean[] match = null;
+                for (int row = 0; row < patientIds.length; row++) {
+                    if (patientIds[row] == patientId) {
+                        if (match == null) {
+                            match = new boolean[patientIds.length];
+                        }
+                        match[row] = true;
+                    }
+                }
+                if (match != null) {
+                    segment.materialize(channel, segment.decode(channel, DATE), 0, segment.rows, match, result,
+                            patients, doctors);
+                }
+            } catch (IOException e) {
+                throw readFailure(segment, e);
+            }
+        }
+        result.sort(ROW_ORDER);
+        return result;
+    }
+
+    /**
+     * @return highest archived appointment id, 0 if the archive is empty
+     */
+    public int maxAppointmentId() {
+        int max = 0;
+        for (Segment segment : segments) {
+            max = Math.max(max, segment.maxId);
+        }
+        return max;
+    }
+
+    /**
+     * @return number of segment files
+     */
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * @return total size of the segment files in bytes
+     */
+    public long sizeOnDisk() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.fileBytes;
+        }
+        return total;
+    }
+
+    private PersistenceException readFailure(Segment segment, IOException e) {
+        return new PersistenceException("Cannot read archive segment " + segment.file, e);
+    }
+
+    private static int segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int lowerBound(int[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int idOf(Patient patient) {
+        return patient == null ? 0 : patient.getId();
+    }
+
+    private static int idOf(Doctor doctor) {
+        return doctor == null ? 0 : doctor.getId();
+    }
+
+    /**
+     * One segment file: its header in memory, its columns on disk.
+     * <p>
+     * Layout: magic, version, row count, min/max epoch day, min/max
+     * appointment id and min/max patient id as ints; the status dictionary as
+     * a count byte followed by length-prefixed names; the byte length of each
+     * column as an int; then the columns in {@code DATE, ID, PATIENT, DOCTOR,
+     * STATUS} order.
+     */
+    private static final class Segment {
+
+        final Path file;
+        final long fileBytes;
+        final int rows;
+        final int minDay;
+        final int maxDay;
+        final int minId;
+        final int maxId;
+        final int minPatient;
+        final int maxPatient;
+        final AppointmentStatus[] dictionary;
+        final long[] columnStart = new long[COLUMNS + 1];
+
+        private Segment(Path file, ByteBuffer header, long fileBytes) throws IOException {
+            this.file = file;
+            this.fileBytes = fileBytes;
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not an appointment archive segment");
+            }
+            rows = header.getInt();
+            minDay = header.getInt();
+            maxDay = header.getInt();
+            minId = header.getInt();
+            maxId = header.getInt();
+            minPatient = header.getInt();
+            maxPatient = header.getInt();
+            dictionary = new AppointmentStatus[header.get()];
+            for (int code = 0; code < dictionary.length; code++) {
+                byte[] name = new byte[header.get()];
+                header.get(name);
+                try {
+                    dictionary[code] = AppointmentStatus.valueOf(new String(name, StandardCharsets.US_ASCII));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Unknown appointment status in segment", e);
+                }
+            }
+            long[] lengths = new long[COLUMNS];
+            for (int column = 0; column < COLUMNS; column++) {
+                lengths[column] = header.getInt();
+            }
+            columnStart[0] = header.position();
+            for (int column = 0; column < COLUMNS; column++) {
+                columnStart[column + 1] = columnStart[column] + lengths[column];
+            }
+            if (columnStart[COLUMNS] != fileBytes) {
+                throw new IOException("Truncated segment");
+            }
+        }
+
+        static Segment open(Path file) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                ByteBuffer header = ByteBuffer.allocate((int) Math.min(size, MAX_HEADER_BYTES));
+                readFully(channel, header, 0);
+                header.flip();
+                return new Segment(file, header, size);
+            } catch (IOException e) {
+                throw new PersistenceException("Cannot open archive segment " + file, e);
+            } catch (BufferUnderflowException e) {
+                throw new PersistenceException("Cannot open archive segment " + file,
+                        new IOException("Truncated segment header", e));
+            }
+        }
+
+        static void write(Path file, List<Appointment> rows) throws IOException {
+            ColumnWriter[] columns = new ColumnWriter[COLUMNS];
+            for (int column = 0; column < COLUMNS; column++) {
+                columns[column] = new ColumnWriter(column == STATUS ? rows.size() / 4 + 1 : rows.size() * 2);
+            }
+            List<AppointmentStatus> dictionary = new ArrayList<>(AppointmentStatus.values().length);
+            int minDay = Integer.MAX_VALUE;
+            int maxDay = Integer.MIN_VALUE;
+            int minId = Integer.MAX_VALUE;
+            int maxId = Integer.MIN_VALUE;
+            int minPatient = Integer.MAX_VALUE;
+            int maxPatient = Integer.MIN_VALUE;
+            int previousDay = 0;
+            int previousId = 0;
+            int previousPatient = 0;
+            int previousDoctor = 0;
+            int[] codes = new int[rows.size()];
+            for (int row = 0; row < rows.size(); row++) {
+                Appointment appointment = rows.get(row);
+                int day = Math.toIntExact(appointment.getAppointmentDate().toEpochDay());
+                int id = appointment.getAppointmentId();
+                int patient = idOf(appointment.getPatient());
+                int doctor = idOf(appointment.getDoctor());
+                if (row == 0) {
+                    minDay = day;
+                    previousDay = day;
+                }
+                maxDay = day;
+                minId = Math.min(minId, id);
+                maxId = Math.max(maxId, id);
+                minPatient = Math.min(minPatient, patient);
+                maxPatient = Math.max(maxPatient, patient);
+                columns[DATE].writeVarint(day - previousDay); // rows are in date order
+                columns[ID].writeVarint(zigzag(id - previousId));
+                columns[PATIENT].writeVarint(zigzag(patient - previousPatient));
+                columns[DOCTOR].writeVarint(zigzag(doctor - previousDoctor));
+                previousDay = day;
+                previousId = id;
+                previousPatient = patient;
+                previousDoctor = doctor;
+                AppointmentStatus status = appointment.getStatus();
+                int code = dictionary.indexOf(status);
+                if (code < 0) {
+                    code = dictionary.size();
+                    dictionary.add(status);
+                }
+                codes[row] = code;
+            }
+            int bits = codeBits(dictionary.size());
+            int packed = 0;
+            int filled = 0;
+            for (int code : codes) {
+                packed |= code << filled;
+                filled += bits;
+                if (filled == 8) {
+                    columns[STATUS].writeByte(packed);
+                    packed = 0;
+                    filled = 0;
+                }
+            }
+            if (filled > 0) {
+                columns[STATUS].writeByte(packed);
+            }
+
+            ColumnWriter header = new ColumnWriter(MAX_HEADER_BYTES);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeInt(rows.size());
+            header.writeInt(minDay);
+            header.writeInt(maxDay);
+            header.writeInt(minId);
+            header.writeInt(maxId);
+            header.writeInt(minPatient);
+            header.writeInt(maxPatient);
+            header.writeByte(dictionary.size());
+            for (AppointmentStatus status : dictionary) {
+                byte[] name = status.name().getBytes(StandardCharsets.US_ASCII);
+                header.writeByte(name.length);
+                header.write(name, name.length);
+            }
+            for (ColumnWriter column : columns) {
+                header.writeInt(column.size);
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer[] buffers = new ByteBuffer[COLUMNS + 1];
+                buffers[0] = header.asBuffer();
+                for (int column = 0; column < COLUMNS; column++) {
+                    buffers[column + 1] = columns[column].asBuffer();
+                }
+                while (buffers[COLUMNS].hasRemaining()) {
+                    channel.write(buffers);
+                }
+                channel.force(true);
+            }
+        }
+
+        /**
+         * Decodes the date, id, patient or doctor column: epoch days for
+         * {@code DATE}, ids otherwise.
+         */
+        int[] decode(FileChannel channel, int column) throws IOException {
+            byte[] bytes = read(channel, column);
+            int[] values = new int[rows];
+            int pos = 0;
+            int previous = column == DATE ? minDay : 0;
+            for (int row = 0; row < rows; row++) {
+                int value = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = bytes[pos++];
+                    value |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                previous += column == DATE ? value : (value >>> 1) ^ -(value & 1);
+                values[row] = previous;
+            }
+            return values;
+        }
+
+        /**
+         * Adds the rows {@code [start, end)} for which {@code match} is set
+         * (all of them if it is {@code null}) to {@code out}.
+         */
+        void materialize(FileChannel channel, int[] days, int start, int end, boolean[] match,
+                         List<Appointment> out, IntFunction<Patient> patientLookup,
+                         IntFunction<Doctor> doctorLookup) throws IOException {
+            int[] ids = decode(channel, ID);
+            int[] patientIds = decode(channel, PATIENT);
+            int[] doctorIds = decode(channel, DOCTOR);
+            byte[] statusCodes = read(channel, STATUS);
+            int bits = codeBits(dictionary.length);
+            int perByte = 8 / bits;
+            int mask = (1 << bits) - 1;
+            LocalDate date = null;
+            for (int row = start; row < end; row++) {
+                if (match != null && !match[row]) {
+                    continue;
+                }
+                Patient patient = patientIds[row] == 0 ? null : patientLookup.apply(patientIds[row]);
+                Doctor doctor = doctorIds[row] == 0 ? null : doctorLookup.apply(doctorIds[row]);
+                if ((patient == null && patientIds[row] != 0) || (doctor == null && doctorIds[row] != 0)) {
+                    continue;
+                }
+                if (date == null || date.toEpochDay() != days[row]) {
+                    date = LocalDate.ofEpochDay(days[row]); // shared by the rows of one day
+                }
+                Appointment appointment = new Appointment(ids[row], patient, doctor, date);
+                int code = (statusCodes[row / perByte] >>> ((row % perByte) * bits)) & mask;
+                AppointmentStatus status = dictionary[code];
+                if (status == AppointmentStatus.CONFIRMED) {
+                    appointment.confirm();
+                } else if (status == AppointmentStatus.CANCELLED) {
+                    appointment.cancel();
+                }
+                out.add(appointment);
+            }
+        }
+
+        private byte[] read(FileChannel channel, int column) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate((int) (columnStart[column + 1] - columnStart[column]));
+            readFully(channel, buffer, columnStart[column]);
+            return buffer.array();
+        }
+
+        private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of segment");
+                }
+                position += read;
+            }
+        }
+
+        // 1, 2, 4 or 8 bits, so that no code spans two bytes
+        private static int codeBits(int dictionarySize) {
+            if (dictionarySize <= 2) {
+                return 1;
+            }
+            return dictionarySize <= 4 ? 2 : dictionarySize <= 16 ? 4 : 8;
+        }
+
+        private static int zigzag(int value) {
+            return (value << 1) ^ (value >> 31);
+        }
+    }
+
+    /** Growable byte array for building one column. */
+    private static final class ColumnWriter {
+
+        byte[] bytes;
+        int size;
+
+        ColumnWriter(int initialCapacity) {
+            bytes = new byte[Math.max(16, initialCapacity)];
+        }
+
+        void writeVarint(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeInt(int value) {
+            ensure(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                bytes[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void write(byte[] source, int length) {
+            ensure(length);
+            System.arraycopy(source, 0, bytes, size, length);
+            size += length;
+        }
+
+        ByteBuffer asBuffer() {
+            return ByteBuffer.wrap(bytes, 0, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+    }
+}
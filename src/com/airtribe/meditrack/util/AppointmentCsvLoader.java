@@ -0,0 +1,354 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bulk loader for the appointments file written by
+ * {@link CSVUtil#saveAppointmentsToCSV}.
+ * <p>
+ * Each row is {@code id,patientId,doctorId,date,status}. Rows are parsed
+ * straight from the byte buffer without creating a {@code String} per line.
+ * Patient and doctor ids are resolved through {@link IntHashMap}s built once
+ * from the loaded records, or through lookup functions when the records are
+ * loaded on demand, and each distinct date becomes a single
+ * {@link LocalDate}. Rows that reference unknown patients or doctors are
+ * skipped and summarized in the {@link Result}; a malformed row aborts the
+ * load with an {@link IOException}, like the other CSV loaders.
+ */
+public final class AppointmentCsvLoader {
+
+    private static final int BUFFER_BYTES = 1 << 20;
+    private static final byte[] PENDING = bytes(AppointmentStatus.PENDING);
+    private static final byte[] CONFIRMED = bytes(AppointmentStatus.CONFIRMED);
+    private static final byte[] CANCELLED = bytes(AppointmentStatus.CANCELLED);
+
+    private final IntFunction<Patient> patients;
+    private final IntFunction<Doctor> doctors;
+    private final IntHashMap<LocalDate> dates = new IntHashMap<>();
+
+    private final ArrayList<Appointment> appointments = new ArrayList<>();
+    private final IntHashSet missingPatients = new IntHashSet();
+    private final IntHashSet missingDoctors = new IntHashSet();
+    private int rows;
+    private int danglingPatientRows;
+    private int danglingDoctorRows;
+
+    // cursor into the current line while parsing
+    private int pos;
+
+    AppointmentCsvLoader(Collection<Patient> patients, Collection<Doctor> doctors) {
+        this(byId(patients, Patient::getId)::get, byId(doctors, Doctor::getId)::get);
+    }
+
+    AppointmentCsvLoader(IntFunction<Patient> patients, IntFunction<Doctor> doctors) {
+        this.patients = patients;
+        this.doctors = doctors;
+    }
+
+    // The first record of an id wins, as it does in the stores.
+    private static <T> IntHashMap<T> byId(Collection<T> items, ToIntFunction<T> idFunction) {
+        IntHashMap<T> map = new IntHashMap<>(items.size());
+        for (T item : items) {
+            int id = idFunction.applyAsInt(item);
+            if (!map.containsKey(id)) {
+                map.put(id, item);
+            }
+        }
+        return map;
+    }
+
+    Result load(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return result();
+        }
+        // Rows are rarely shorter than 32 bytes; presizing avoids repeated copies of a 10M-element list.
+        appointments.ensureCapacity((int) Math.min(Integer.MAX_VALUE - 8, Files.size(path) / 32));
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] buffer = new byte[BUFFER_BYTES];
+            int filled = 0;
+            int lineNumber = 0;
+            int read;
+            while ((read = in.read(buffer, filled, buffer.length - filled)) != -1 || filled > 0) {
+                int end = read == -1 ? filled : filled + read;
+                int lineStart = 0;
+                for (int i = lineStart; i < end; i++) {
+                    if (buffer[i] == '\n') {
+                        parseLine(buffer, lineStart, i, ++lineNumber);
+                        lineStart = i + 1;
+                    }
+                }
+                if (read == -1) {
+                    if (lineStart < end) {
+                        parseLine(buffer, lineStart, end, ++lineNumber); // last line without a newline
+                    }
+                    break;
+                }
+                filled = end - lineStart;
+                System.arraycopy(buffer, lineStart, buffer, 0, filled);
+                if (filled == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2); // a line longer than the buffer
+                }
+            }
+        }
+        return result();
+    }
+
+    private void parseLine(byte[] line, int start, int end, int lineNumber) throws IOException {
+        if (end > start && line[end - 1] == '\r') {
+            end--;
+        }
+        while (start < end && line[start] == ' ') {
+            start++;
+        }
+        if (start == end) {
+            return;
+        }
+        try {
+            pos = start;
+            int id = parseInt(line, end);
+            Patient patient = resolve(line, end, patients);
+            Doctor doctor = resolve(line, end, doctors);
+            LocalDate date = parseDate(line, end);
+            AppointmentStatus status = parseStatus(line, end);
+            rows++;
+            if (patient == null || doctor == null) {
+                recordDangling(line, start, patient, doctor);
+                return;
+            }
+            Appointment appointment = new Appointment(id, patient, doctor, date);
+            if (status == AppointmentStatus.CONFIRMED) {
+                appointment.confirm();
+            } else if (status == AppointmentStatus.CANCELLED) {
+                appointment.cancel();
+            }
+            appointments.add(appointment);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IOException("Invalid appointment CSV line " + lineNumber + ": "
+                    + new String(line, start, end - start, StandardCharsets.UTF_8), e);
+        }
+    }
+
+    // Re-reads the two id columns to record which reference is dangling.
+    private void recordDangling(byte[] line, int start, Patient patient, Doctor doctor) {
+        pos = start;
+        parseInt(line, Integer.MAX_VALUE);
+        int patientEnd = fieldEnd(line, pos);
+        if (patient == null) {
+            danglingPatientRows++;
+            if (patientEnd > pos) {
+                missingPatients.add(parseInt(line, patientEnd));
+            }
+        }
+        pos = patientEnd + 1;
+        int doctorEnd = fieldEnd(line, pos);
+        if (doctor == null) {
+            danglingDoctorRows++;
+            if (doctorEnd > pos) {
+                missingDoctors.add(parseInt(line, doctorEnd));
+            }
+        }
+    }
+
+    private static int fieldEnd(byte[] line, int from) {
+        int i = from;
+        while (line[i] != ',') {
+            i++;
+        }
+        return i;
+    }
+
+    private <T> T resolve(byte[] line, int end, IntFunction<T> byId) {
+        if (pos < end && line[pos] == ',') {
+            pos++;
+            return null; // empty reference column
+        }
+        return byId.apply(parseInt(line, end));
+    }
+
+    // Parses a decimal int ending at the next comma or at end, and moves past the comma.
+    private int parseInt(byte[] line, int end) {
+        int i = pos;
+        boolean negative = i < end && line[i] == '-';
+        if (negative) {
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        while (i < end && line[i] != ',') {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9 || ++digits > 10) {
+                throw new IllegalArgumentException("invalid number");
+            }
+            value = value * 10 + digit;
+            i++;
+        }
+        value = negative ? -value : value;
+        if (digits == 0 || value != (int) value) {
+            throw new IllegalArgumentException("invalid number");
+        }
+        pos = i + 1;
+        return (int) value;
+    }
+
+    private LocalDate parseDate(byte[] line, int end) {
+        if (pos < end && line[pos] == ',') {
+            pos++;
+            return null;
+        }
+        if (pos + 10 > end || line[pos + 4] != '-' || line[pos + 7] != '-') {
+            throw new IllegalArgumentException("invalid date");
+        }
+        int year = digits(line, pos, 4);
+        int month = digits(line, pos + 5, 2);
+        int day = digits(line, pos + 8, 2);
+        pos += 10;
+        if (pos < end && line[pos] != ',') {
+            throw new IllegalArgumentException("invalid date");
+        }
+        pos++;
+        int key = year * 10_000 + month * 100 + day;
+        LocalDate date = dates.get(key);
+        if (date == null) {
+            date = LocalDate.of(year, month, day);
+            dates.put(key, date);
+        }
+        return date;
+    }
+
+    private static int digits(byte[] line, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("invalid date");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private AppointmentStatus parseStatus(byte[] line, int end) {
+        int length = end - pos;
+        AppointmentStatus status;
+        if (matches(line, pos, length, PENDING)) {
+            status = AppointmentStatus.PENDING;
+        } else if (matches(line, pos, length, CONFIRMED)) {
+            status = AppointmentStatus.CONFIRMED;
+        } else if (matches(line, pos, length, CANCELLED)) {
+            status = AppointmentStatus.CANCELLED;
+        } else {
+            throw new IllegalArgumentException("invalid status");
+        }
+        pos = end + 1;
+        return status;
+    }
+
+    private static boolean matches(byte[] line, int from, int length, byte[] expected) {
+        return length == expected.length && Arrays.equals(line, from, from + length, expected, 0, length);
+    }
+
+    private static byte[] bytes(AppointmentStatus status) {
+        return status.name().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private Result result() {
+        return new Result(appointments, rows, danglingPatientRows, missingPatients,
+                danglingDoctorRows, missingDoctors);
+    }
+
+    /**
+     * Loaded appointments together with a summary of skipped rows.
+     */
+    public static final class Result {
+
+        private final List<Appointment> appointments;
+        private final int rows;
+        private final int danglingPatientRows;
+        private final int[] missingPatientIds;
+        private final int danglingDoctorRows;
+        private final int[] missingDoctorIds;
+
+        private Result(List<Appointment> appointments, int rows, int danglingPatientRows, IntHashSet missingPatients,
+                       int danglingDoctorRows, IntHashSet missingDoctors) {
+            this.appointments = appointments;
+            this.rows = rows;
+            this.danglingPatientRows = danglingPatientRows;
+            this.missingPatientIds = missingPatients.toArray();
+            this.danglingDoctorRows = danglingDoctorRows;
+            this.missingDoctorIds = missingDoctors.toArray();
+            Arrays.sort(missingPatientIds);
+            Arrays.sort(missingDoctorIds);
+        }
+
+        public List<Appointment> getAppointments() {
+            return appointments;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public int getSkippedRows() {
+            return rows - appointments.size();
+        }
+
+        public int getDanglingPatientRows() {
+            return danglingPatientRows;
+        }
+
+        public int getDanglingDoctorRows() {
+            return danglingDoctorRows;
+        }
+
+        public int[] getMissingPatientIds() {
+            return missingPatientIds.clone();
+        }
+
+        public int[] getMissingDoctorIds() {
+            return missingDoctorIds.clone();
+        }
+
+        public String format(int limit) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(appointments.size()).append(" of ").append(rows).append(" appointments loaded, ")
+                    .append(getSkippedRows()).append(" skipped");
+            appendDangling(sb, "patient", danglingPatientRows, missingPatientIds, limit);
+            appendDangling(sb, "doctor", danglingDoctorRows, missingDoctorIds, limit);
+            return sb.toString();
+        }
+
+        private static void appendDangling(StringBuilder sb, String kind, int rowCount, int[] ids, int limit) {
+            if (rowCount == 0) {
+                return;
+            }
+            sb.append(System.lineSeparator()).append("  ").append(rowCount).append(" rows reference ")
+                    .append(ids.length).append(" unknown ").append(kind).append(" ids");
+            int shown = Math.min(limit, ids.length);
+            if (shown > 0) {
+                sb.append(": ");
+                for (int i = 0; i < shown; i++) {
+                    sb.append(i == 0 ? "" : ", ").append(ids[i]);
+                }
+                if (ids.length > shown) {
+                    sb.append(", ...");
+                }
+            }
+        }
+    }
+}
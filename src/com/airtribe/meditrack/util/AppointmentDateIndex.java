@@ -0,0 +1,245 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * Appointments ordered by date, then doctor id, then appointment id.
+ * <p>
+ * Backed by a {@link ConcurrentSkipListMap}, so every query is a
+ * logarithmic seek followed by a scan of exactly the matching entries, and
+ * readers never block writers. A doctor's schedule for one day is a single
+ * contiguous key range. Appointments without a date are not indexed.
+ */
+public final class AppointmentDateIndex {
+
+    private final ConcurrentSkipListMap<Key, Appointment> byDate = new ConcurrentSkipListMap<>();
+
+    public void add(Appointment appointment) {
+        if (appointment.getAppointmentDate() != null) {
+            byDate.put(keyOf(appointment), appointment);
+        }
+    }
+
+    public boolean remove(Appointment appointment) {
+        return appointment.getAppointmentDate() != null && byDate.remove(keyOf(appointment), appointment);
+    }
+
+    public int size() {
+        return byDate.size();
+    }
+
+    /**
+     * Returns all appointments between two dates, both inclusive.
+     *
+     * @param from first day
+     * @param to   last day
+     * @return appointments in date order
+     */
+    public List<Appointment> between(LocalDate from, LocalDate to) {
+        return new ArrayList<>(range(from, to).values());
+    }
+
+    /**
+     * Returns a doctor's appointments on one day.
+     *
+     * @param doctorId id of the doctor
+     * @param day      the day
+     * @return appointments in id order
+     */
+    public List<Appointment> forDoctorOn(int doctorId, LocalDate day) {
+        long epochDay = day.toEpochDay();
+        return new ArrayList<>(byDate.subMap(new Key(epochDay, doctorId, Integer.MIN_VALUE), true,
+                new Key(epochDay, doctorId, Integer.MAX_VALUE), true).values());
+    }
+
+    /**
+     * Returns one page of the appointments between two dates.
+     *
+     * @param from   first day, inclusive
+     * @param to     last day, inclusive
+     * @param cursor {@link Page#getNextCursor()} of the previous page, or {@code null} for the first page
+     * @param limit  maximum number of appointments on the page
+     * @return the page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public Page<Appointment> page(LocalDate from, LocalDate to, String cursor, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        ConcurrentNavigableMap<Key, Appointment> range = range(from, to);
+        if (cursor != null) {
+            range = range.tailMap(Key.parse(cursor), false);
+        }
+        List<Appointment> items = new ArrayList<>(Math.min(limit, 1024));
+        Key last = null;
+        Iterator<Map.Entry<Key, Appointment>> it = range.entrySet().iterator();
+        while (items.size() < limit && it.hasNext()) {
+            Map.Entry<Key, Appointment> entry = it.next();
+            items.add(entry.getValue());
+            last = entry.getKey();
+        }
+        return new Page<>(items, it.hasNext() ? last.toString() : null);
+    }
+
+    /**
+     * Returns the next {@code count} appointments on or after {@code from}
+     * that are not cancelled.
+     *
+     * @param from  first day to consider
+     * @param count maximum number of appointments
+     * @return appointments in date order
+     */
+    public List<Appointment> next(LocalDate from, int count) {
+        List<Appointment> result = new ArrayList<>(Math.min(count, 1024));
+        for (Appointment appointment : byDate.tailMap(Key.first(from.toEpochDay())).values()) {
+            if (result.size() >= count) {
+                break;
+            }
+            if (appointment.getStatus() != AppointmentStatus.CANCELLED) {
+                result.add(appointment);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a doctor's next {@code count} appointments on or after
+     * {@code from} that are not cancelled. Days on which the doctor has no
+     * appointments cost one seek each, not a scan of other doctors' entries.
+     *
+     * @param doctorId id of the doctor
+     * @param from     first day to consider
+     * @param count    maximum number of appointments
+     * @return appointments in date order
+     */
+    public List<Appointment> nextForDoctor(int doctorId, LocalDate from, int count) {
+        List<Appointment> result = new ArrayList<>(Math.min(count, 1024));
+        long day = from.toEpochDay();
+        while (result.size() < count) {
+            Key found = byDate.ceilingKey(new Key(day, doctorId, Integer.MIN_VALUE));
+            if (found == null) {
+                break;
+            }
+            if (found.epochDay != day) {
+                day = found.epochDay; // jump over empty days
+                continue;
+            }
+            if (found.doctorId == doctorId) {
+                for (Appointment appointment : byDate.subMap(found, true,
+                        new Key(day, doctorId, Integer.MAX_VALUE), true).values()) {
+                    if (result.size() >= count) {
+                        break;
+                    }
+                    if (appointment.getStatus() != AppointmentStatus.CANCELLED) {
+                        result.add(appointment);
+                    }
+                }
+            }
+            day++;
+        }
+        return result;
+    }
+
+    /**
+     * Removes every appointment dated before {@code cutoff} from the index,
+     * handing each one to {@code archive}.
+     *
+     * @param cutoff  first day to keep
+     * @param archive receives the removed appointments in date order
+     * @return number of appointments removed
+     */
+    public int expireBefore(LocalDate cutoff, Consumer<? super Appointment> archive) {
+        long cutoffDay = cutoff.toEpochDay();
+        int expired = 0;
+        Map.Entry<Key, Appointment> oldest;
+        while ((oldest = byDate.firstEntry()) != null && oldest.getKey().epochDay < cutoffDay) {
+            // remove(key, value) fails if another thread expired the entry first
+            if (byDate.remove(oldest.getKey(), oldest.getValue())) {
+                archive.accept(oldest.getValue());
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    private ConcurrentNavigableMap<Key, Appointment> range(LocalDate from, LocalDate to) {
+        Key low = Key.first(from.toEpochDay());
+        Key high = new Key(to.toEpochDay(), Integer.MAX_VALUE, Integer.MAX_VALUE);
+        if (low.compareTo(high) > 0) {
+            return new ConcurrentSkipListMap<>();
+        }
+        return byDate.subMap(low, true, high, true);
+    }
+
+    private static Key keyOf(Appointment appointment) {
+        return new Key(appointment.getAppointmentDate().toEpochDay(),
+                appointment.getDoctor() == null ? 0 : appointment.getDoctor().getId(),
+                appointment.getAppointmentId());
+    }
+
+    /**
+     * (epochDay, doctorId, appointmentId); its string form is the page cursor.
+     */
+    private static final class Key implements Comparable<Key> {
+
+        final long epochDay;
+        final int doctorId;
+        final int appointmentId;
+
+        Key(long epochDay, int doctorId, int appointmentId) {
+            this.epochDay = epochDay;
+            this.doctorId = doctorId;
+            this.appointmentId = appointmentId;
+        }
+
+        static Key first(long epochDay) {
+            return new Key(epochDay, Integer.MIN_VALUE, Integer.MIN_VALUE);
+        }
+
+        static Key parse(String cursor) {
+            String[] parts = cursor.split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            try {
+                return new Key(Long.parseLong(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+            }
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int c = Long.compare(epochDay, other.epochDay);
+            if (c != 0) {
+                return c;
+            }
+            c = Integer.compare(doctorId, other.doctorId);
+            return c != 0 ? c : Integer.compare(appointmentId, other.appointmentId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && compareTo((Key) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(epochDay) * 31 * 31 + doctorId * 31 + appointmentId;
+        }
+
+        @Override
+        public String toString() {
+            return epochDay + ":" + doctorId + ":" + appointmentId;
+        }
+    }
+}
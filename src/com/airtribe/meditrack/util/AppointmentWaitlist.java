@@ -0,0 +1,163 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Patients waiting for a slot with a doctor on a given day.
+ * <p>
+ * Each (doctor, day) pair has its own priority heap, ordered by priority
+ * (higher first) and then by request order. Heaps are created when the first
+ * patient joins and dropped when the last one leaves; both happen inside the
+ * map's per-key {@code compute}, so a join can never land in a heap that is
+ * being dropped. There is no lock across doctors or days, and
+ * {@link #poll(int, LocalDate)} hands every entry to exactly one caller.
+ */
+public final class AppointmentWaitlist {
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt((Entry e) -> -e.priority)
+            .thenComparingLong(e -> e.sequence);
+
+    // (epochDay << 32 | doctor id) -> waiting patients
+    private final ConcurrentHashMap<Long, PriorityBlockingQueue<Entry>> waiting = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Puts a patient on the waitlist of a doctor for a day.
+     *
+     * @param patient  the waiting patient
+     * @param doctor   the requested doctor
+     * @param date     the requested day
+     * @param priority urgency; higher values are served first, equal
+     *                 values in request order
+     * @return the entry, which {@link #leave(Entry)} accepts
+     */
+    public Entry join(Patient patient, Doctor doctor, LocalDate date, int priority) {
+        Entry entry = new Entry(Objects.requireNonNull(patient, "patient must not be null"),
+                Objects.requireNonNull(doctor, "doctor must not be null"),
+                Objects.requireNonNull(date, "date must not be null"),
+                priority, sequence.incrementAndGet());
+        requeue(entry);
+        return entry;
+    }
+
+    /**
+     * Takes a patient off the waitlist.
+     *
+     * @return {@code true} if the entry was still waiting
+     */
+    public boolean leave(Entry entry) {
+        long key = keyOf(entry.doctor.getId(), entry.date);
+        PriorityBlockingQueue<Entry> queue = waiting.get(key);
+        if (queue == null || !queue.remove(entry)) {
+            return false;
+        }
+        dropIfEmpty(key);
+        return true;
+    }
+
+    /**
+     * Removes and returns the next patient waiting for the doctor on that day.
+     *
+     * @return the entry, or empty if nobody is waiting
+     */
+    public Optional<Entry> poll(int doctorId, LocalDate date) {
+        long key = keyOf(doctorId, date);
+        PriorityBlockingQueue<Entry> queue = waiting.get(key);
+        if (queue == null) {
+            return Optional.empty();
+        }
+        Entry next = queue.poll();
+        if (queue.isEmpty()) {
+            dropIfEmpty(key);
+        }
+        return Optional.ofNullable(next);
+    }
+
+    /**
+     * Puts a polled entry back in its original place, e.g. when booking the
+     * slot it was given failed.
+     */
+    public void requeue(Entry entry) {
+        waiting.compute(keyOf(entry.doctor.getId(), entry.date), (key, queue) -> {
+            if (queue == null) {
+                queue = new PriorityBlockingQueue<>(4, ORDER);
+            }
+            queue.add(entry);
+            return queue;
+        });
+    }
+
+    /**
+     * @return number of patients waiting for the doctor on that day
+     */
+    public int size(int doctorId, LocalDate date) {
+        PriorityBlockingQueue<Entry> queue = waiting.get(keyOf(doctorId, date));
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * Drops every waitlist for a day before {@code cutoff}.
+     */
+    public void expireBefore(LocalDate cutoff) {
+        long firstDay = cutoff.toEpochDay();
+        waiting.keySet().removeIf(key -> (key >> 32) < firstDay);
+    }
+
+    private void dropIfEmpty(long key) {
+        waiting.computeIfPresent(key, (k, queue) -> queue.isEmpty() ? null : queue);
+    }
+
+    private static long keyOf(int doctorId, LocalDate date) {
+        return (date.toEpochDay() << 32) | (doctorId & 0xFFFF_FFFFL);
+    }
+
+    /**
+     * One patient waiting for one doctor on one day.
+     */
+    public static final class Entry {
+
+        private final Patient patient;
+        private final Doctor doctor;
+        private final LocalDate date;
+        private final int priority;
+        private final long sequence;
+
+        private Entry(Patient patient, Doctor doctor, LocalDate date, int priority, long sequence) {
+            this.patient = patient;
+            this.doctor = doctor;
+            this.date = date;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        public Patient getPatient() {
+            return patient;
+        }
+
+        public Doctor getDoctor() {
+            return doctor;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public String toString() {
+            return "Waitlist entry: patient " + patient.getId() + ", doctor " + doctor.getId() + ", " + date
+                    + ", priority " + priority;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.EntityType;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind persistence driven by the {@link ChangeFeed}.
+ * <p>
+ * A dedicated thread drains the feed and records which records of each
+ * entity type changed since the last flush, so publishing threads never wait
+ * for disk I/O. A single scheduled thread flushes when the oldest unsaved
+ * change is older than the interval or when the number of dirty records of a
+ * type reaches the threshold, whichever comes first. Any burst of changes in
+ * between is coalesced into one write per type. {@link #close()} performs a
+ * final flush, and {@link #installShutdownHook()} makes a normal JVM exit or
+ * a {@code kill} do the same.
+ */
+public final class AutoSaver implements AutoCloseable {
+
+    /**
+     * Persists the current state of one entity type.
+     */
+    @FunctionalInterface
+    public interface Flusher {
+        /**
+         * @param dirtyIds ids changed since the previous successful flush, unordered
+         * @throws Exception if saving failed; the ids stay dirty and are retried
+         */
+        void flush(int[] dirtyIds) throws Exception;
+    }
+
+    private static final int DRAIN_BATCH = 4096;
+
+    private final ChangeFeed.Subscription subscription;
+    private final long intervalMillis;
+    private final int dirtyThreshold;
+    private final Map<EntityType, Flusher> flushers = new EnumMap<>(EntityType.class);
+
+    // Dirty state, guarded by this.
+    private final Map<EntityType, IntHashSet> dirty = new EnumMap<>(EntityType.class);
+    private long dirtySinceMillis;
+    private boolean thresholdFlushQueued;
+
+    // Serializes flushes so that two writers never rewrite the same file at once.
+    private final Object flushLock = new Object();
+
+    private final ScheduledExecutorService scheduler;
+    private final Thread drainer;
+    private volatile boolean running;
+    private volatile boolean closed;
+    private volatile Exception lastFailure;
+    private volatile long flushCount;
+
+    /**
+     * @param feed           feed to track; changes published from now on are saved
+     * @param intervalMillis maximum age of an unsaved change
+     * @param dirtyThreshold number of dirty records of one type that triggers an early flush
+     */
+    public AutoSaver(ChangeFeed feed, long intervalMillis, int dirtyThreshold) {
+        if (intervalMillis <= 0 || dirtyThreshold <= 0) {
+            throw new IllegalArgumentException("interval and threshold must be positive");
+        }
+        this.intervalMillis = intervalMillis;
+        this.dirtyThreshold = dirtyThreshold;
+        this.subscription = feed.subscribe();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.drainer = new Thread(this::drainLoop, "autosave-drain");
+        this.drainer.setDaemon(true);
+    }
+
+    /**
+     * Registers how to save an entity type. Changes to types without a
+     * flusher are ignored. Must be called before {@link #start()}.
+     */
+    public AutoSaver register(EntityType type, Flusher flusher) {
+        if (running) {
+            throw new IllegalStateException("AutoSaver already started");
+        }
+        flushers.put(type, flusher);
+        return this;
+    }
+
+    /**
+     * Starts tracking changes and saving in the background.
+     */
+    public AutoSaver start() {
+        running = true;
+        drainer.start();
+        long period = Math.max(1, intervalMillis / 4);
+        scheduler.scheduleWithFixedDelay(this::flushIfDue, period, period, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    /**
+     * Flushes on JVM shutdown, including SIGTERM/SIGINT.
+     */
+    public AutoSaver installShutdownHook() {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "autosave-shutdown"));
+        return this;
+    }
+
+    private void drainLoop() {
+        while (running) {
+            if (subscription.poll(DRAIN_BATCH, this::markDirty) == 0) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private synchronized void markDirty(ChangeEvent event) {
+        if (!flushers.containsKey(event.getEntityType())) {
+            return;
+        }
+        if (dirty.isEmpty()) {
+            dirtySinceMillis = System.currentTimeMillis();
+        }
+        IntHashSet ids = dirty.computeIfAbsent(event.getEntityType(), t -> new IntHashSet());
+        ids.add(event.getEntityId());
+        if (ids.size() >= dirtyThreshold && !thresholdFlushQueued && !closed) {
+            thresholdFlushQueued = true;
+            scheduler.execute(this::flush);
+        }
+    }
+
+    private void flushIfDue() {
+        boolean due;
+        synchronized (this) {
+            due = !dirty.isEmpty() && System.currentTimeMillis() - dirtySinceMillis >= intervalMillis;
+        }
+        if (due) {
+            flush();
+        }
+    }
+
+    /**
+     * Saves every dirty entity type now, on the calling thread.
+     *
+     * @return {@code true} if nothing failed
+     */
+    public boolean flush() {
+        synchronized (flushLock) {
+            Map<EntityType, IntHashSet> snapshot;
+            synchronized (this) {
+                thresholdFlushQueued = false;
+                if (dirty.isEmpty()) {
+                    return true;
+                }
+                snapshot = new EnumMap<>(dirty);
+                dirty.clear();
+            }
+            boolean ok = true;
+            for (Map.Entry<EntityType, IntHashSet> entry : snapshot.entrySet()) {
+                try {
+                    flushers.get(entry.getKey()).flush(entry.getValue().toArray());
+                } catch (Exception e) {
+                    lastFailure = e;
+                    ok = false;
+                    remarkDirty(entry.getKey(), entry.getValue());
+                }
+            }
+            flushCount++;
+            return ok;
+        }
+    }
+
+    private synchronized void remarkDirty(EntityType type, IntHashSet ids) {
+        if (dirty.isEmpty()) {
+            dirtySinceMillis = System.currentTimeMillis();
+        }
+        IntHashSet current = dirty.computeIfAbsent(type, t -> new IntHashSet());
+        ids.forEach(current::add);
+    }
+
+    /**
+     * @return number of records changed since the last flush
+     */
+    public synchronized int dirtyCount() {
+        int count = 0;
+        for (IntHashSet ids : dirty.values()) {
+            count += ids.size();
+        }
+        return count;
+    }
+
+    public long getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * @return the exception of the most recent failed flush, or {@code null}
+     */
+    public Exception getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Stops background work and performs a final flush of everything
+     * published before this call. Safe to call more than once.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        running = false;
+        try {
+            if (drainer.isAlive()) {
+                drainer.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        while (subscription.poll(DRAIN_BATCH, this::markDirty) > 0) {
+            // pick up changes published before close()
+        }
+        subscription.close();
+        flush();
+    }
+}
@@ -0,0 +1,132 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Validates large batches of imported records without throwing.
+ * <p>
+ * Rows are split into fixed-size chunks that are checked in parallel with
+ * the non-throwing {@code Validator.check*} methods. Every chunk collects its
+ * accepted rows and its violations locally; the chunks are then concatenated
+ * in order, so the result is the same as a sequential pass.
+ */
+public final class BulkValidator {
+
+    static final int CHUNK_SIZE = 8192;
+
+    private BulkValidator() {
+        throw new AssertionError("BulkValidator is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Validates doctors with the same rules as {@code DoctorService.addDoctor}.
+     *
+     * @param doctors rows to validate; row numbers are list positions starting at 1
+     * @return accepted doctors and the violation report
+     */
+    public static Result<Doctor> validateDoctors(List<Doctor> doctors) {
+        return validate(doctors, (doctor, row, out) -> {
+            if (doctor == null) {
+                out.add(new ValidationReport.Violation(row, "doctor", "Doctor must not be null"));
+                return;
+            }
+            addIfInvalid(out, row, "name", Validator.checkName(doctor.getName()));
+            addIfInvalid(out, row, "age", Validator.checkAge(doctor.getAge()));
+            addIfInvalid(out, row, "consultationFee", Validator.checkConsultationFee(doctor.getConsultationFee()));
+        });
+    }
+
+    /**
+     * Validates patients with the same rules as {@code PatientService.addPatient}.
+     *
+     * @param patients rows to validate; row numbers are list positions starting at 1
+     * @return accepted patients and the violation report
+     */
+    public static Result<Patient> validatePatients(List<Patient> patients) {
+        return validate(patients, (patient, row, out) -> {
+            if (patient == null) {
+                out.add(new ValidationReport.Violation(row, "patient", "Patient must not be null"));
+                return;
+            }
+            addIfInvalid(out, row, "name", Validator.checkName(patient.getName()));
+            addIfInvalid(out, row, "age", Validator.checkAge(patient.getAge()));
+            addIfInvalid(out, row, "disease", Validator.checkDisease(patient.getDisease()));
+        });
+    }
+
+    private static void addIfInvalid(List<ValidationReport.Violation> out, int row, String field, String reason) {
+        if (reason != null) {
+            out.add(new ValidationReport.Violation(row, field, reason));
+        }
+    }
+
+    private static <T> Result<T> validate(List<T> rows, RowCheck<T> check) {
+        int total = rows.size();
+        int chunks = (total + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        // One slot per chunk; each parallel task sets only its own.
+        List<List<T>> accepted = new ArrayList<>(Collections.nCopies(chunks, null));
+        List<List<ValidationReport.Violation>> violations = new ArrayList<>(Collections.nCopies(chunks, null));
+
+        IntStream.range(0, chunks).parallel().forEach(c -> {
+            int from = c * CHUNK_SIZE;
+            int to = Math.min(total, from + CHUNK_SIZE);
+            List<T> ok = new ArrayList<>(to - from);
+            List<ValidationReport.Violation> bad = new ArrayList<>();
+            for (int i = from; i < to; i++) {
+                T row = rows.get(i);
+                int before = bad.size();
+                check.check(row, i + 1, bad);
+                if (bad.size() == before) {
+                    ok.add(row);
+                }
+            }
+            accepted.set(c, ok);
+            violations.set(c, bad);
+        });
+
+        List<T> allAccepted = new ArrayList<>(total);
+        List<ValidationReport.Violation> allViolations = new ArrayList<>();
+        for (int c = 0; c < chunks; c++) {
+            allAccepted.addAll(accepted.get(c));
+            allViolations.addAll(violations.get(c));
+        }
+        return new Result<>(allAccepted, new ValidationReport(total, allAccepted.size(), allViolations));
+    }
+
+    @FunctionalInterface
+    private interface RowCheck<T> {
+        void check(T row, int rowNumber, List<ValidationReport.Violation> out);
+    }
+
+    /**
+     * Accepted rows together with the report for the whole batch.
+     *
+     * @param <T> record type
+     */
+    public static final class Result<T> {
+
+        private final List<T> accepted;
+        private final ValidationReport report;
+
+        Result(List<T> accepted, ValidationReport report) {
+            this.accepted = accepted;
+            this.report = report;
+        }
+
+        /**
+         * @return rows that passed validation, in input order
+         */
+        public List<T> getAccepted() {
+            return accepted;
+        }
+
+        public ValidationReport getReport() {
+            return report;
+        }
+    }
+}
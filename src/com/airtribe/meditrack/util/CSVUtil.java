@@ -1,18 +1,25 @@
 package com.airtribe.meditrack.util;
 
+import com.airtribe.meditrack.entity.Appointment;
 import com.airtribe.meditrack.entity.Doctor;
 import com.airtribe.meditrack.entity.Patient;
 import com.airtribe.meditrack.entity.Specialization;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.IntFunction;
 
 
 public final class CSVUtil {
@@ -28,15 +35,15 @@ public final class CSVUtil {
         }
 
         Path path = Paths.get(filePath);
-        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+        Path tmp = tempFileFor(path);
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8,
                 StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
             for (Patient p : patients) {
-                String line = String.format("%d,%s,%d,%s",
-                        p.getId(), p.getName(), p.getAge(), p.getDisease());
-                writer.write(line);
+                writer.write(toCsvLine(p));
                 writer.newLine();
             }
         }
+        replace(tmp, path);
     }
 
     
@@ -56,20 +63,12 @@ public final class CSVUtil {
                     continue;
                 }
 
-                String[] parts = line.split(",");
-                if (parts.length < 4) {
-                    throw new IOException("Invalid CSV line, expected 4 columns: " + line);
-                }
-
                 try {
-                    int id = Integer.parseInt(parts[0].trim());
-                    String name = parts[1].trim();
-                    int age = Integer.parseInt(parts[2].trim());
-                    String disease = parts[3].trim();
-                    Patient patient = new Patient(id, name, age, disease);
-                    result.add(patient);
+                    result.add(parsePatient(line));
                 } catch (NumberFormatException ex) {
                     throw new IOException("Failed to parse numeric value from line: " + line, ex);
+                } catch (IllegalArgumentException ex) {
+                    throw new IOException(ex.getMessage(), ex);
                 }
             }
         }
@@ -84,17 +83,15 @@ public final class CSVUtil {
         }
 
         Path path = Paths.get(filePath);
-        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+        Path tmp = tempFileFor(path);
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8,
                 StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
             for (Doctor d : doctors) {
-                String line = String.format("%d,%s,%d,%s,%.2f",
-                        d.getId(), d.getName(), d.getAge(),
-                        d.getSpecialization() == null ? "" : d.getSpecialization().name(),
-                        d.getConsultationFee());
-                writer.write(line);
+                writer.write(toCsvLine(d));
                 writer.newLine();
             }
         }
+        replace(tmp, path);
     }
 
     
@@ -120,15 +117,7 @@ public final class CSVUtil {
                 }
 
                 try {
-                    int id = Integer.parseInt(parts[0].trim());
-                    String name = parts[1].trim();
-                    int age = Integer.parseInt(parts[2].trim());
-                    String spec = parts[3].trim();
-                    Specialization specialization = spec.isEmpty() ? null : Specialization.valueOf(spec);
-                    double fee = Double.parseDouble(parts[4].trim());
-
-                    Doctor doctor = new Doctor(id, name, age, specialization, fee);
-                    result.add(doctor);
+                    result.add(parseDoctor(line));
                 } catch (IllegalArgumentException ex) {
                     throw new IOException("Failed to parse line: " + line, ex);
                 }
@@ -137,4 +126,171 @@ public final class CSVUtil {
 
         return result;
     }
+
+    /**
+     * Saves appointments as {@code id,patientId,doctorId,date,status} rows.
+     *
+     * @param appointments appointments to save
+     * @param filePath     destination file
+     * @throws IOException if the file cannot be written
+     */
+    public static void saveAppointmentsToCSV(List<Appointment> appointments, String filePath) throws IOException {
+        if (appointments == null) {
+            return;
+        }
+
+        Path path = Paths.get(filePath);
+        Path tmp = tempFileFor(path);
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (Appointment a : appointments) {
+                writer.write(toCsvLine(a));
+                writer.newLine();
+            }
+        }
+        replace(tmp, path);
+    }
+
+    /**
+     * Loads appointments and links them to already loaded patients and
+     * doctors. Rows referencing unknown ids are skipped and summarized in
+     * the result instead of failing the load.
+     *
+     * @param filePath file written by {@link #saveAppointmentsToCSV}
+     * @param patients patients to resolve patient ids against
+     * @param doctors  doctors to resolve doctor ids against
+     * @return the loaded appointments and a summary of skipped rows
+     * @throws IOException if the file cannot be read or a row is malformed
+     */
+    public static AppointmentCsvLoader.Result loadAppointmentsFromCSV(String filePath, Collection<Patient> patients,
+                                                                      Collection<Doctor> doctors) throws IOException {
+        return new AppointmentCsvLoader(patients, doctors).load(Paths.get(filePath));
+    }
+
+    /**
+     * Loads appointments, resolving patient and doctor ids through lookups
+     * instead of loaded collections, e.g. against stores that load records
+     * on demand.
+     *
+     * @param filePath file written by {@link #saveAppointmentsToCSV}
+     * @param patients returns the patient with an id, or {@code null}
+     * @param doctors  returns the doctor with an id, or {@code null}
+     * @return the loaded appointments and a summary of skipped rows
+     * @throws IOException if the file cannot be read or a row is malformed
+     */
+    public static AppointmentCsvLoader.Result loadAppointmentsFromCSV(String filePath, IntFunction<Patient> patients,
+                                                                      IntFunction<Doctor> doctors) throws IOException {
+        return new AppointmentCsvLoader(patients, doctors).load(Paths.get(filePath));
+    }
+
+    /**
+     * Writes the rows of one CSV file, e.g. {@code PatientService::writeCsv}.
+     */
+    @FunctionalInterface
+    public interface RowWriter {
+
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Saves whatever {@code rows} writes to {@code filePath}, replacing the
+     * file only once every row is written, like the other save methods.
+     *
+     * @param rows     writes the rows
+     * @param filePath target file
+     * @throws IOException if the file cannot be written
+     */
+    public static void saveToCSV(RowWriter rows, String filePath) throws IOException {
+        Path path = Paths.get(filePath);
+        Path tmp = tempFileFor(path);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), 1 << 16)) {
+            rows.writeTo(out);
+        }
+        replace(tmp, path);
+    }
+
+    // Files are written next to the target and moved over it, so a crash mid-save keeps the previous file.
+    private static Path tempFileFor(Path path) {
+        return path.resolveSibling(path.getFileName() + ".tmp");
+    }
+
+    private static void replace(Path tmp, Path path) throws IOException {
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Parses one row of the patients file, as written by {@link #toCsvLine(Patient)}.
+     *
+     * @param line {@code id,name,age,disease}
+     * @return the patient
+     * @throws IllegalArgumentException if the row is malformed
+     */
+    public static Patient parsePatient(String line) {
+        String[] parts = line.split(",");
+        if (parts.length < 4) {
+            throw new IllegalArgumentException("Invalid CSV line, expected 4 columns: " + line);
+        }
+        return new Patient(Integer.parseInt(parts[0].trim()), parts[1].trim(),
+                Integer.parseInt(parts[2].trim()), parts[3].trim());
+    }
+
+    /**
+     * Parses one row of the doctors file, as written by {@link #toCsvLine(Doctor)}.
+     *
+     * @param line {@code id,name,age,specialization,fee}
+     * @return the doctor
+     * @throws IllegalArgumentException if the row is malformed
+     */
+    public static Doctor parseDoctor(String line) {
+        String[] parts = line.split(",");
+        if (parts.length < 5) {
+            throw new IllegalArgumentException("Invalid CSV line, expected 5 columns: " + line);
+        }
+        String spec = parts[3].trim();
+        Specialization specialization = spec.isEmpty() ? null : Specialization.valueOf(spec);
+        return new Doctor(Integer.parseInt(parts[0].trim()), parts[1].trim(),
+                Integer.parseInt(parts[2].trim()), specialization, Double.parseDouble(parts[4].trim()));
+    }
+
+    /**
+     * Formats a patient as one row of the patients file.
+     *
+     * @param p the patient
+     * @return {@code id,name,age,disease}
+     */
+    public static String toCsvLine(Patient p) {
+        return String.format("%d,%s,%d,%s", p.getId(), p.getName(), p.getAge(), p.getDisease());
+    }
+
+    /**
+     * Formats a doctor as one row of the doctors file.
+     *
+     * @param d the doctor
+     * @return {@code id,name,age,specialization,fee}
+     */
+    public static String toCsvLine(Doctor d) {
+        return String.format("%d,%s,%d,%s,%.2f",
+                d.getId(), d.getName(), d.getAge(),
+                d.getSpecialization() == null ? "" : d.getSpecialization().name(),
+                d.getConsultationFee());
+    }
+
+    /**
+     * Formats an appointment by reference to its patient and doctor.
+     *
+     * @param a the appointment
+     * @return {@code id,patientId,doctorId,date,status}
+     */
+    public static String toCsvLine(Appointment a) {
+        return a.getAppointmentId()
+                + "," + (a.getPatient() == null ? "" : String.valueOf(a.getPatient().getId()))
+                + "," + (a.getDoctor() == null ? "" : String.valueOf(a.getDoctor().getId()))
+                + "," + (a.getAppointmentDate() == null ? "" : a.getAppointmentDate().toString())
+                + "," + a.getStatus();
+    }
 }
@@ -0,0 +1,393 @@
+package com.airtribe.meditrack.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounded read-through cache for {@link Repository#findById(int)} in front
+ * of a slower repository.
+ * <p>
+ * Eviction follows W-TinyLFU. New entries enter a small LRU window (1% of
+ * the capacity). Entries leaving the window compete for the main space,
+ * which is a segmented LRU: a probation segment and a protected segment of
+ * 80%. A candidate is admitted only if a {@link FrequencySketch} has seen
+ * it more often than the probation entry it would replace. One-off reads,
+ * such as a scan over all ids, therefore cannot flush the frequently used
+ * entries.
+ * <p>
+ * Every mutation through this repository invalidates the affected id. The
+ * policy state is guarded by the repository's monitor, which is held only
+ * for short pointer updates. Loads from the backing repository run outside
+ * it, and a load that races with a mutation of the same repository is not
+ * cached. Misses are not cached.
+ *
+ * @param <T> entity type
+ */
+public final class CachingRepository<T> implements Repository<T> {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final Repository<T> delegate;
+    private final ToIntFunction<T> idFunction;
+    private final int maximumSize;
+    private final int windowMax;
+    private final int protectedMax;
+
+    private final IntHashMap<Node<T>> nodes;
+    private final FrequencySketch sketch;
+    private final Node<T> window = Node.sentinel();
+    private final Node<T> probation = Node.sentinel();
+    private final Node<T> protectedSegment = Node.sentinel();
+    private int windowSize;
+    private int probationSize;
+    private int protectedSize;
+
+    // Incremented on every mutation; a load that spans a mutation is not cached.
+    private long mutations;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param delegate    the backing repository
+     * @param idFunction  extracts the primary id of an item
+     * @param maximumSize maximum number of cached items
+     */
+    public CachingRepository(Repository<T> delegate, ToIntFunction<T> idFunction, int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
+        this.idFunction = Objects.requireNonNull(idFunction, "idFunction must not be null");
+        this.maximumSize = maximumSize;
+        this.windowMax = Math.max(1, maximumSize / 100);
+        this.protectedMax = (int) ((maximumSize - windowMax) * 0.8);
+        this.nodes = new IntHashMap<>(maximumSize);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    @Override
+    public Optional<T> findById(int id) {
+        long observedMutations;
+        synchronized (this) {
+            sketch.increment(id);
+            Node<T> node = nodes.get(id);
+            if (node != null) {
+                hits++;
+                onHit(node);
+                return Optional.of(node.value);
+            }
+            misses++;
+            observedMutations = mutations;
+        }
+        Optional<T> loaded = delegate.findById(id);
+        if (loaded.isPresent()) {
+            synchronized (this) {
+                if (mutations == observedMutations && !nodes.containsKey(id)) {
+                    insert(id, loaded.get());
+                }
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public void add(T item) {
+        delegate.add(item);
+        invalidate(idFunction.applyAsInt(item));
+    }
+
+    @Override
+    public void addAll(Collection<? extends T> batch) {
+        delegate.addAll(batch);
+        synchronized (this) {
+            mutations++;
+            for (T item : batch) {
+                removeNode(idFunction.applyAsInt(item));
+            }
+        }
+    }
+
+    @Override
+    public void update(T item) {
+        delegate.update(item);
+        invalidate(idFunction.applyAsInt(item));
+    }
+
+    @Override
+    public boolean remove(T item) {
+        boolean removed = delegate.remove(item);
+        if (item != null) {
+            invalidate(idFunction.applyAsInt(item));
+        }
+        return removed;
+    }
+
+    @Override
+    public int removeAll(Collection<? extends T> batch) {
+        int removed = delegate.removeAll(batch);
+        synchronized (this) {
+            mutations++;
+            for (T item : batch) {
+                removeNode(idFunction.applyAsInt(item));
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public List<T> getAll() {
+        return delegate.getAll();
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public Page<T> page(String cursor, int limit) {
+        return delegate.page(cursor, limit);
+    }
+
+    @Override
+    public List<T> findMatching(String rowHint, Predicate<? super T> filter) {
+        return delegate.findMatching(rowHint, filter);
+    }
+
+    @Override
+    public List<T> findByColumn(String column, String value, Predicate<? super T> filter) {
+        return delegate.findByColumn(column, value, filter);
+    }
+
+    @Override
+    public int maxId(ToIntFunction<? super T> idFunction) {
+        return delegate.maxId(idFunction);
+    }
+
+    @Override
+    public void writeRows(Function<? super T, String> formatter, OutputStream out) throws IOException {
+        delegate.writeRows(formatter, out);
+    }
+
+    /**
+     * Drops the cached item with the given id, e.g. after it was changed
+     * directly in the backing store.
+     *
+     * @param id the primary id
+     */
+    public synchronized void invalidate(int id) {
+        mutations++;
+        removeNode(id);
+    }
+
+    /**
+     * Drops every cached item and resets the frequency history.
+     */
+    public synchronized void invalidateAll() {
+        mutations++;
+        nodes.clear();
+        window.unlinkAll();
+        probation.unlinkAll();
+        protectedSegment.unlinkAll();
+        windowSize = 0;
+        probationSize = 0;
+        protectedSize = 0;
+        sketch.clear();
+    }
+
+    /**
+     * @return number of items currently cached
+     */
+    public synchronized int cachedSize() {
+        return nodes.size();
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits, misses, evictions);
+    }
+
+    private void onHit(Node<T> node) {
+        switch (node.segment) {
+            case WINDOW:
+                node.moveToTail(window);
+                break;
+            case PROBATION:
+                node.unlink();
+                probationSize--;
+                node.segment = PROTECTED;
+                node.appendTo(protectedSegment);
+                protectedSize++;
+                if (protectedSize > protectedMax) {
+                    Node<T> demoted = protectedSegment.next;
+                    demoted.unlink();
+                    protectedSize--;
+                    demoted.segment = PROBATION;
+                    demoted.appendTo(probation);
+                    probationSize++;
+                }
+                break;
+            default:
+                node.moveToTail(protectedSegment);
+                break;
+        }
+    }
+
+    private void insert(int id, T value) {
+        Node<T> node = new Node<>(id, value);
+        nodes.put(id, node);
+        node.segment = WINDOW;
+        node.appendTo(window);
+        windowSize++;
+        if (windowSize <= windowMax) {
+            return;
+        }
+        // The window overflowed: its least recent entry competes for the main space.
+        Node<T> candidate = window.next;
+        candidate.unlink();
+        windowSize--;
+        candidate.segment = PROBATION;
+        candidate.appendTo(probation);
+        probationSize++;
+        if (probationSize + protectedSize <= maximumSize - windowMax) {
+            return;
+        }
+        Node<T> victim = probation.next != candidate ? probation.next : protectedSegment.next;
+        if (victim == protectedSegment) {
+            victim = candidate;
+        }
+        Node<T> evicted = sketch.frequency(candidate.id) > sketch.frequency(victim.id) ? victim : candidate;
+        evict(evicted);
+    }
+
+    private void evict(Node<T> node) {
+        node.unlink();
+        if (node.segment == PROTECTED) {
+            protectedSize--;
+        } else {
+            probationSize--;
+        }
+        nodes.remove(node.id);
+        evictions++;
+    }
+
+    private void removeNode(int id) {
+        Node<T> node = nodes.remove(id);
+        if (node == null) {
+            return;
+        }
+        node.unlink();
+        switch (node.segment) {
+            case WINDOW:
+                windowSize--;
+                break;
+            case PROBATION:
+                probationSize--;
+                break;
+            default:
+                protectedSize--;
+                break;
+        }
+    }
+
+    /**
+     * Entry of one of the three intrusive LRU lists; the sentinel's
+     * {@code next} is the least recently used entry.
+     */
+    private static final class Node<T> {
+
+        final int id;
+        final T value;
+        int segment;
+        Node<T> prev;
+        Node<T> next;
+
+        Node(int id, T value) {
+            this.id = id;
+            this.value = value;
+        }
+
+        static <T> Node<T> sentinel() {
+            Node<T> sentinel = new Node<>(0, null);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        void appendTo(Node<T> sentinel) {
+            prev = sentinel.prev;
+            next = sentinel;
+            sentinel.prev.next = this;
+            sentinel.prev = this;
+        }
+
+        void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+
+        void moveToTail(Node<T> sentinel) {
+            unlink();
+            appendTo(sentinel);
+        }
+
+        void unlinkAll() {
+            prev = this;
+            next = this;
+        }
+    }
+
+    /**
+     * Snapshot of cache counters.
+     */
+    public static final class CacheStats {
+
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+
+        CacheStats(long hits, long misses, long evictions) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        /**
+         * @return hits divided by lookups, 0 if there were none
+         */
+        public double getHitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d, misses=%d, evictions=%d, hit rate=%.1f%%",
+                    hits, misses, evictions, getHitRate() * 100);
+        }
+    }
+}
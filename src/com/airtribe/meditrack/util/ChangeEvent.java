@@ -0,0 +1,99 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.EntityType;
+import java.util.Objects;
+
+/**
+ * One entry of the change feed: a mutation of a single entity.
+ * <p>
+ * The payload is the entity's CSV row after the change (see
+ * {@link CSVUtil}), so consumers can rebuild state without querying the
+ * services. Events are immutable.
+ */
+public final class ChangeEvent {
+
+    /**
+     * The kind of mutation.
+     */
+    public enum Kind {
+        ADDED,
+        REMOVED,
+        STATUS_CHANGED
+    }
+
+    private static final char SEPARATOR = '|';
+
+    private final long sequence;
+    private final Kind kind;
+    private final EntityType entityType;
+    private final int entityId;
+    private final String payload;
+
+    public ChangeEvent(long sequence, Kind kind, EntityType entityType, int entityId, String payload) {
+        this.sequence = sequence;
+        this.kind = Objects.requireNonNull(kind, "kind must not be null");
+        this.entityType = Objects.requireNonNull(entityType, "entityType must not be null");
+        this.entityId = entityId;
+        this.payload = payload;
+    }
+
+    /**
+     * @return position of this event in the feed, starting at 1
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    /**
+     * @return CSV row of the entity, or {@code null} if none was recorded
+     */
+    public String getPayload() {
+        return payload;
+    }
+
+    /**
+     * Encodes the event as a single line: {@code sequence|kind|entity|id|payload}.
+     */
+    public String toLine() {
+        return sequence + String.valueOf(SEPARATOR) + kind + SEPARATOR + entityType + SEPARATOR
+                + entityId + SEPARATOR + (payload == null ? "" : payload);
+    }
+
+    /**
+     * Decodes a line produced by {@link #toLine()}.
+     *
+     * @param line encoded event
+     * @return the event
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    public static ChangeEvent fromLine(String line) {
+        String[] parts = line.split("\\|", 5);
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("Invalid change event line: " + line);
+        }
+        try {
+            return new ChangeEvent(Long.parseLong(parts[0]), Kind.valueOf(parts[1]),
+                    EntityType.valueOf(parts[2]), Integer.parseInt(parts[3]),
+                    parts[4].isEmpty() ? null : parts[4]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid change event line: " + line, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toLine();
+    }
+}
@@ -0,0 +1,229 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.EntityType;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Ordered, sequence-numbered stream of entity mutations.
+ * <p>
+ * Events live in a bounded ring buffer. Publishers claim a sequence number
+ * with a single atomic increment, write the slot and then mark it published;
+ * no locks are taken. Every {@link Subscription} tracks the next sequence it
+ * will read, and a publisher whose slot still holds an event some subscriber
+ * has not read waits for it. This is the backpressure: a slow subscriber
+ * slows writers down instead of losing events. With no subscribers the ring
+ * simply overwrites old events. An observer ({@link #observe}) reads the same
+ * way but never holds publishers back; one that falls a full ring behind
+ * finds its next event overwritten and has to start again from elsewhere.
+ * <p>
+ * A subscriber can resume from any sequence still held in the ring. Older
+ * history can be replayed from a {@link ChangeJournal} file first.
+ */
+public final class ChangeFeed {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<ChangeEvent> events;
+    private final AtomicLongArray published;
+    private final AtomicLong cursor;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param capacity ring size, rounded up to a power of two
+     */
+    public ChangeFeed(int capacity) {
+        this(capacity, 0);
+    }
+
+    /**
+     * @param capacity     ring size, rounded up to a power of two
+     * @param lastSequence sequence of the last event already emitted, e.g.
+     *                     {@link ChangeJournal#lastSequence} after a restart
+     */
+    public ChangeFeed(int capacity, long lastSequence) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        }
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.events = new AtomicReferenceArray<>(this.capacity);
+        this.published = new AtomicLongArray(this.capacity);
+        this.cursor = new AtomicLong(lastSequence);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return sequence of the most recently claimed event, 0 if none
+     */
+    public long lastSequence() {
+        return cursor.get();
+    }
+
+    /**
+     * Publishes an event, waiting while the ring is full.
+     *
+     * @return the sequence assigned to the event
+     */
+    public long publish(ChangeEvent.Kind kind, EntityType entityType, int entityId, String payload) {
+        long sequence = cursor.incrementAndGet();
+        long wrapPoint = sequence - capacity;
+        long idleSpins = 0;
+        while (wrapPoint >= minimumGatingSequence(sequence)) {
+            if (++idleSpins < 100) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(1_000);
+            }
+        }
+        int index = (int) sequence & mask;
+        events.set(index, new ChangeEvent(sequence, kind, entityType, entityId, payload));
+        // Without subscribers a lapping publisher may finish first; never move a slot backwards.
+        published.accumulateAndGet(index, sequence, Math::max);
+        return sequence;
+    }
+
+    private long minimumGatingSequence(long defaultValue) {
+        long min = defaultValue;
+        for (Subscription subscription : subscriptions) {
+            min = Math.min(min, subscription.next);
+        }
+        return min;
+    }
+
+    /**
+     * Subscribes to events published after this call.
+     */
+    public Subscription subscribe() {
+        return subscribe(cursor.get() + 1);
+    }
+
+    /**
+     * Subscribes starting at {@code fromSequence}, which must still be held in
+     * the ring (or not yet published).
+     *
+     * @param fromSequence first sequence to deliver
+     * @return the subscription
+     * @throws IllegalArgumentException if events from {@code fromSequence} were already overwritten
+     */
+    public Subscription subscribe(long fromSequence) {
+        return subscribe(fromSequence, true);
+    }
+
+    /**
+     * Like {@link #subscribe()}, but the subscription does not hold
+     * publishers back.
+     */
+    public Subscription observe() {
+        return observe(cursor.get() + 1);
+    }
+
+    /**
+     * Like {@link #subscribe(long)}, but the subscription does not hold
+     * publishers back. Once they overwrite an event it has not read yet,
+     * {@link Subscription#poll} throws {@link IllegalStateException}.
+     *
+     * @param fromSequence first sequence to deliver
+     * @return the subscription
+     * @throws IllegalArgumentException if events from {@code fromSequence} were already overwritten
+     */
+    public Subscription observe(long fromSequence) {
+        return subscribe(fromSequence, false);
+    }
+
+    private Subscription subscribe(long fromSequence, boolean gating) {
+        if (fromSequence < 1) {
+            throw new IllegalArgumentException("fromSequence must be positive");
+        }
+        Subscription subscription = new Subscription(fromSequence);
+        if (gating) {
+            subscriptions.add(subscription);
+        }
+        long oldest = cursor.get() - capacity + 1;
+        if (fromSequence < oldest || (fromSequence <= cursor.get() && isOverwritten(fromSequence))) {
+            subscriptions.remove(subscription);
+            throw new IllegalArgumentException("Sequence " + fromSequence + " is no longer in the change feed; "
+                    + "replay it from the journal first");
+        }
+        return subscription;
+    }
+
+    private boolean isOverwritten(long sequence) {
+        return published.get((int) sequence & mask) > sequence;
+    }
+
+    /**
+     * A cursor over the feed. Each subscription must keep polling (or be
+     * closed), otherwise publishers block once the ring is full; an observer
+     * need not. A subscription is meant to be polled by one thread.
+     */
+    public final class Subscription implements AutoCloseable {
+
+        private volatile long next;
+
+        private Subscription(long next) {
+            this.next = next;
+        }
+
+        /**
+         * @return the next sequence this subscription will deliver
+         */
+        public long nextSequence() {
+            return next;
+        }
+
+        /**
+         * Delivers up to {@code maxEvents} published events in order.
+         *
+         * @param maxEvents maximum number of events to deliver
+         * @param handler   receives the events
+         * @return number of events delivered
+         */
+        public int poll(int maxEvents, Consumer<? super ChangeEvent> handler) {
+            int delivered = 0;
+            long sequence = next;
+            while (delivered < maxEvents) {
+                int index = (int) sequence & mask;
+                long slotSequence = published.get(index);
+                if (slotSequence < sequence) {
+                    break; // not published yet
+                }
+                if (slotSequence > sequence) {
+                    throw new IllegalStateException("Change feed overwrote sequence " + sequence);
+                }
+                ChangeEvent event = events.get(index);
+                if (event.getSequence() != sequence) {
+                    throw new IllegalStateException("Change feed overwrote sequence " + sequence);
+                }
+                handler.accept(event);
+                sequence++;
+                delivered++;
+                next = sequence; // frees the slot for publishers
+            }
+            return delivered;
+        }
+
+        /**
+         * @return number of published events not yet delivered
+         */
+        public long lag() {
+            return Math.max(0, cursor.get() - next + 1);
+        }
+
+        /**
+         * Stops gating publishers; does nothing for an observer.
+         */
+        @Override
+        public void close() {
+            subscriptions.remove(this);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.exception.PersistenceException;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Appends the events of a {@link ChangeFeed} to a local file, one
+ * {@link ChangeEvent#toLine() line} per event.
+ * <p>
+ * The journal is an ordinary feed subscriber that drains on its own daemon
+ * thread and flushes after every drained batch. Other processes can follow
+ * the file with a {@link Tailer}, and a consumer that restarts can
+ * {@link #replay replay} from its last sequence before subscribing to the
+ * feed again.
+ */
+public final class ChangeJournal implements AutoCloseable {
+
+    private static final int BATCH_SIZE = 1024;
+
+    private final ChangeFeed.Subscription subscription;
+    private final BufferedWriter writer;
+    private final Thread drainer;
+    private volatile boolean running = true;
+    private volatile IOException failure;
+
+    /**
+     * Starts journaling every event published to {@code feed} from now on.
+     *
+     * @param feed the feed to record
+     * @param file journal file, appended to if it exists
+     */
+    public ChangeJournal(ChangeFeed feed, Path file) {
+        try {
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new PersistenceException("Cannot open change journal " + file, e);
+        }
+        this.subscription = feed.subscribe();
+        this.drainer = new Thread(this::drainLoop, "change-journal");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    private void drainLoop() {
+        Consumer<ChangeEvent> append = event -> {
+            try {
+                writer.write(event.toLine());
+                writer.newLine();
+            } catch (IOException e) {
+                throw new PersistenceException("Cannot write change journal", e);
+            }
+        };
+        try {
+            while (running) {
+                if (subscription.poll(BATCH_SIZE, append) > 0) {
+                    writer.flush();
+                } else {
+                    Thread.sleep(1);
+                }
+            }
+            while (subscription.poll(BATCH_SIZE, append) > 0) {
+                // drain what was published before close()
+            }
+            writer.flush();
+        } catch (IOException e) {
+            failure = e;
+        } catch (PersistenceException e) {
+            failure = (IOException) e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            subscription.close();
+        }
+    }
+
+    /**
+     * Writes the remaining events and closes the file.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            drainer.join();
+            writer.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new PersistenceException("Cannot close change journal", e);
+        }
+        if (failure != null) {
+            throw new PersistenceException("Change journal stopped after a write failure", failure);
+        }
+    }
+
+    /**
+     * Delivers every journaled event with a sequence of at least {@code fromSequence}.
+     *
+     * @param file         journal file
+     * @param fromSequence first sequence to deliver
+     * @param handler      receives the events in order
+     * @return sequence of the last event in the file, 0 if it is empty or missing
+     * @throws IOException if the file cannot be read
+     */
+    public static long replay(Path file, long fromSequence, Consumer<? super ChangeEvent> handler) throws IOException {
+        long last = 0;
+        if (!Files.exists(file)) {
+            return last;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                ChangeEvent event = ChangeEvent.fromLine(line);
+                last = event.getSequence();
+                if (last >= fromSequence) {
+                    handler.accept(event);
+                }
+            }
+        }
+        return last;
+    }
+
+    /**
+     * @param file journal file
+     * @return sequence of the last event in the file, 0 if it is empty or missing
+     * @throws IOException if the file cannot be read
+     */
+    public static long lastSequence(Path file) throws IOException {
+        return replay(file, Long.MAX_VALUE, event -> { });
+    }
+
+    /**
+     * Follows a journal file that another thread or process is appending to.
+     * Each {@link #poll} reads only the bytes added since the previous call,
+     * so the cost is proportional to the number of new events.
+     */
+    public static final class Tailer implements AutoCloseable {
+
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024); // doubled for a line that does not fit
+        private final long fromSequence;
+        private long position;
+
+        /**
+         * @param file         journal file, which must exist
+         * @param fromSequence events with a lower sequence are skipped
+         * @throws IOException if the file cannot be opened
+         */
+        public Tailer(Path file, long fromSequence) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.fromSequence = fromSequence;
+        }
+
+        /**
+         * Delivers the complete lines appended since the last call.
+         *
+         * @param handler receives the events in order
+         * @return number of events delivered
+         * @throws IOException if the file cannot be read
+         */
+        public int poll(Consumer<? super ChangeEvent> handler) throws IOException {
+            int delivered = 0;
+            int read;
+            while ((read = channel.read(buffer, position)) > 0) {
+                position += read;
+                buffer.flip();
+                // Decode whole lines only; an incomplete last line stays in the buffer for the next call.
+                int lineStart = 0;
+                for (int i = 0; i < buffer.limit(); i++) {
+                    if (buffer.get(i) == '\n') {
+                        delivered += emit(decode(lineStart, i), handler);
+                        lineStart = i + 1;
+                    }
+                }
+                buffer.position(lineStart);
+                buffer.compact();
+                if (!buffer.hasRemaining()) {
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2).put(buffer.flip());
+                }
+            }
+            return delivered;
+        }
+
+        private String decode(int start, int end) {
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+            String line = new String(bytes, StandardCharsets.UTF_8);
+            return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+        }
+
+        private int emit(String line, Consumer<? super ChangeEvent> handler) {
+            if (line.isEmpty()) {
+                return 0;
+            }
+            ChangeEvent event = ChangeEvent.fromLine(line);
+            if (event.getSequence() < fromSequence) {
+                return 0;
+            }
+            handler.accept(event);
+            return 1;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,530 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Deterministic synthetic data for load and scale testing.
+ * <p>
+ * Every field of every record is a hash of the seed, the record type, the
+ * record id and the field, so the same seed always yields the same data no
+ * matter how many threads produce it or in which order records are asked
+ * for. Doctors cycle through all {@link Specialization} values; patient
+ * diseases follow a skewed distribution over common diagnoses; appointments
+ * reference existing patients uniformly and doctors with Zipf-like
+ * popularity, so a few doctors are far busier than the rest.
+ * <p>
+ * The {@code write} methods produce the CSV formats read by {@link CSVUtil}.
+ * Rows are rendered in chunks on a thread pool and appended to the file in
+ * order, with at most two chunks per thread in flight, so memory stays
+ * bounded however many rows are written. Benchmarks and tests use the same
+ * generator in memory through {@link #doctors()}, {@link #patients()} and
+ * {@link #appointments(List, List)}.
+ * <p>
+ * Usage: {@code java -cp out com.airtribe.meditrack.util.DataGenerator <directory> <doctors> <patients> <appointments> [seed]}
+ */
+public final class DataGenerator {
+
+    /** Seed used when none is given. */
+    public static final long DEFAULT_SEED = 20240101L;
+
+    /** Date of the earliest generated appointment. */
+    public static final LocalDate FIRST_DATE = LocalDate.of(2024, 1, 1);
+
+    /** Number of consecutive days appointments are spread over. */
+    public static final int DATE_SPAN_DAYS = 730;
+
+    private static final int CHUNK_ROWS = 1 << 16;
+
+    // Zipf-like exponent of doctor popularity.
+    private static final double DOCTOR_SKEW = 0.8;
+
+    private static final int DOCTOR = 1;
+    private static final int PATIENT = 2;
+    private static final int APPOINTMENT = 3;
+
+    private static final String[] FIRST_NAMES = {
+        "Aarav", "Asha", "Rohan", "Priya", "Vikram", "Ananya", "Arjun", "Meera", "Kabir", "Isha",
+        "Rahul", "Neha", "Sanjay", "Kavya", "Aditya", "Pooja", "Nikhil", "Divya", "Karan", "Sneha",
+        "James", "Maria", "David", "Sarah", "Omar", "Fatima", "Chen", "Yuki", "Lucas", "Amara"
+    };
+    private static final String[] LAST_NAMES = {
+        "Sharma", "Rao", "Patel", "Iyer", "Reddy", "Nair", "Gupta", "Singh", "Das", "Menon",
+        "Kumar", "Joshi", "Mehta", "Verma", "Kapoor", "Bose", "Pillai", "Shah", "Chopra", "Banerjee",
+        "Smith", "Garcia", "Khan", "Wang", "Tanaka", "Silva", "Okafor", "Muller", "Cohen", "Brown"
+    };
+    private static final String[] DISEASES = {
+        "Hypertension", "Diabetes", "Common Cold", "Flu", "Back Pain", "Asthma", "Migraine", "Allergy",
+        "Arthritis", "Anxiety", "Gastritis", "Bronchitis", "Depression", "Sinusitis", "Hypothyroidism",
+        "Eczema", "Anemia", "Fracture", "Conjunctivitis", "Urinary Tract Infection", "Otitis Media",
+        "Pneumonia", "Kidney Stones", "Psoriasis", "Gout", "Osteoporosis", "COPD", "Tonsillitis",
+        "Coronary Artery Disease", "Chronic Kidney Disease"
+    };
+    private static final byte[][] FIRST_NAME_BYTES = ascii(FIRST_NAMES);
+    private static final byte[][] LAST_NAME_BYTES = ascii(LAST_NAMES);
+    private static final byte[][] DISEASE_BYTES = ascii(DISEASES);
+    private static final byte[][] SPECIALIZATION_BYTES = ascii(names(Specialization.values()));
+    private static final byte[][] STATUS_BYTES = ascii(names(AppointmentStatus.values()));
+    private static final byte[][] DATE_BYTES = dateBytes();
+    private static final byte[] DOCTOR_TITLE = ascii("Dr. ");
+
+    // Cumulative disease weights: the i-th diagnosis is weighted 1 / (i + 3).
+    private static final double[] DISEASE_CDF = diseaseCdf();
+
+    private final long seed;
+    private final int doctorCount;
+    private final int patientCount;
+    private final int appointmentCount;
+    private final long doctorStride;
+    private final double zipfBase;
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * @param seed         seed of all generated values
+     * @param doctors      number of doctors, with ids {@code 1..doctors}
+     * @param patients     number of patients, with ids {@code 1..patients}
+     * @param appointments number of appointments, with ids {@code 1..appointments}
+     */
+    public DataGenerator(long seed, int doctors, int patients, int appointments) {
+        if (doctors < 0 || patients < 0 || appointments < 0) {
+            throw new IllegalArgumentException("record counts must not be negative");
+        }
+        if (appointments > 0 && (doctors == 0 || patients == 0)) {
+            throw new IllegalArgumentException("appointments need at least one doctor and one patient");
+        }
+        this.seed = seed;
+        this.doctorCount = doctors;
+        this.patientCount = patients;
+        this.appointmentCount = appointments;
+        this.doctorStride = strideFor(doctors);
+        this.zipfBase = Math.pow(Math.max(doctors, 1) + 1, 1 - DOCTOR_SKEW) - 1;
+    }
+
+    /**
+     * Sets the number of threads that render rows for the {@code write}
+     * methods; the output does not depend on it.
+     *
+     * @param threads number of rendering threads
+     * @return this generator
+     */
+    public DataGenerator setThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getDoctorCount() {
+        return doctorCount;
+    }
+
+    public int getPatientCount() {
+        return patientCount;
+    }
+
+    public int getAppointmentCount() {
+        return appointmentCount;
+    }
+
+    public Doctor doctor(int id) {
+        checkId(id, doctorCount);
+        return new Doctor(id, doctorName(id), doctorAge(id), doctorSpecialization(id), doctorFeeCents(id) / 100.0);
+    }
+
+    public Patient patient(int id) {
+        checkId(id, patientCount);
+        return new Patient(id, FIRST_NAMES[firstNameIndex(PATIENT, id)] + " " + LAST_NAMES[lastNameIndex(PATIENT, id)],
+                patientAge(id), DISEASES[diseaseIndex(id)]);
+    }
+
+    /**
+     * @return all doctors, ordered by id
+     */
+    public List<Doctor> doctors() {
+        List<Doctor> doctors = new ArrayList<>(doctorCount);
+        for (int id = 1; id <= doctorCount; id++) {
+            doctors.add(doctor(id));
+        }
+        return doctors;
+    }
+
+    /**
+     * @return all patients, ordered by id
+     */
+    public List<Patient> patients() {
+        List<Patient> patients = new ArrayList<>(patientCount);
+        for (int id = 1; id <= patientCount; id++) {
+            patients.add(patient(id));
+        }
+        return patients;
+    }
+
+    /**
+     * Builds an appointment that references records of the given lists,
+     * which must be the ones returned by {@link #patients()} and
+     * {@link #doctors()}.
+     */
+    public Appointment appointment(int id, List<Patient> patients, List<Doctor> doctors) {
+        checkId(id, appointmentCount);
+        Appointment appointment = new Appointment(id, patients.get(appointmentPatientId(id) - 1),
+                doctors.get(appointmentDoctorId(id) - 1), appointmentDate(id));
+        AppointmentStatus status = appointmentStatus(id);
+        if (status == AppointmentStatus.CONFIRMED) {
+            appointment.confirm();
+        } else if (status == AppointmentStatus.CANCELLED) {
+            appointment.cancel();
+        }
+        return appointment;
+    }
+
+    /**
+     * @return all appointments, ordered by id
+     */
+    public List<Appointment> appointments(List<Patient> patients, List<Doctor> doctors) {
+        List<Appointment> appointments = new ArrayList<>(appointmentCount);
+        for (int id = 1; id <= appointmentCount; id++) {
+            appointments.add(appointment(id, patients, doctors));
+        }
+        return appointments;
+    }
+
+    public int appointmentPatientId(int id) {
+        return 1 + below(hash(APPOINTMENT, id, 0), patientCount);
+    }
+
+    /**
+     * Picks the doctor's popularity rank from a continuous Zipf distribution
+     * by inversion and spreads ranks over the id space with a stride, so the
+     * busiest doctors are not simply the lowest ids.
+     */
+    public int appointmentDoctorId(int id) {
+        double u = unit(hash(APPOINTMENT, id, 1));
+        int rank = (int) Math.min(doctorCount, Math.pow(1 + u * zipfBase, 1 / (1 - DOCTOR_SKEW))) - 1;
+        return 1 + (int) (Math.max(rank, 0) * doctorStride % doctorCount);
+    }
+
+    public LocalDate appointmentDate(int id) {
+        return FIRST_DATE.plusDays(appointmentDayOffset(id));
+    }
+
+    /**
+     * @return 60% confirmed, 25% pending and 15% cancelled
+     */
+    public AppointmentStatus appointmentStatus(int id) {
+        int percent = below(hash(APPOINTMENT, id, 3), 100);
+        return percent < 60 ? AppointmentStatus.CONFIRMED
+                : percent < 85 ? AppointmentStatus.PENDING : AppointmentStatus.CANCELLED;
+    }
+
+    /**
+     * Writes {@link Constants#DOCTOR_FILE}, {@link Constants#PATIENT_FILE}
+     * and {@link Constants#APPOINTMENT_FILE} to a directory.
+     *
+     * @param directory target directory, created if missing
+     * @throws IOException if a file cannot be written
+     */
+    public void writeAll(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        writeDoctors(directory.resolve(Constants.DOCTOR_FILE));
+        writePatients(directory.resolve(Constants.PATIENT_FILE));
+        writeAppointments(directory.resolve(Constants.APPOINTMENT_FILE));
+    }
+
+    public void writeDoctors(Path file) throws IOException {
+        write(file, doctorCount, (out, id) -> {
+            out.appendInt(id).append(',').append(DOCTOR_TITLE)
+                    .append(FIRST_NAME_BYTES[firstNameIndex(DOCTOR, id)]).append(' ')
+                    .append(LAST_NAME_BYTES[lastNameIndex(DOCTOR, id)]).append(',')
+                    .appendInt(doctorAge(id)).append(',')
+                    .append(SPECIALIZATION_BYTES[doctorSpecialization(id).ordinal()]).append(',');
+            int cents = doctorFeeCents(id);
+            out.appendInt(cents / 100).append('.').appendInt(cents % 100 / 10).appendInt(cents % 10);
+        });
+    }
+
+    public void writePatients(Path file) throws IOException {
+        write(file, patientCount, (out, id) -> out.appendInt(id).append(',')
+                .append(FIRST_NAME_BYTES[firstNameIndex(PATIENT, id)]).append(' ')
+                .append(LAST_NAME_BYTES[lastNameIndex(PATIENT, id)]).append(',')
+                .appendInt(patientAge(id)).append(',')
+                .append(DISEASE_BYTES[diseaseIndex(id)]));
+    }
+
+    public void writeAppointments(Path file) throws IOException {
+        write(file, appointmentCount, (out, id) -> out.appendInt(id).append(',')
+                .appendInt(appointmentPatientId(id)).append(',')
+                .appendInt(appointmentDoctorId(id)).append(',')
+                .append(DATE_BYTES[appointmentDayOffset(id)]).append(',')
+                .append(STATUS_BYTES[appointmentStatus(id).ordinal()]));
+    }
+
+    private String doctorName(int id) {
+        return "Dr. " + FIRST_NAMES[firstNameIndex(DOCTOR, id)] + " " + LAST_NAMES[lastNameIndex(DOCTOR, id)];
+    }
+
+    private int firstNameIndex(int type, int id) {
+        return below(hash(type, id, 0), FIRST_NAMES.length);
+    }
+
+    private int lastNameIndex(int type, int id) {
+        return below(hash(type, id, 1), LAST_NAMES.length);
+    }
+
+    private int doctorAge(int id) {
+        return 30 + below(hash(DOCTOR, id, 2), 36);
+    }
+
+    private static Specialization doctorSpecialization(int id) {
+        Specialization[] values = Specialization.values();
+        return values[(id - 1) % values.length];
+    }
+
+    private int doctorFeeCents(int id) {
+        return (300 + 50 * below(hash(DOCTOR, id, 3), 35)) * 100;
+    }
+
+    private int patientAge(int id) {
+        return 1 + below(hash(PATIENT, id, 2), 90);
+    }
+
+    private int diseaseIndex(int id) {
+        int index = Arrays.binarySearch(DISEASE_CDF, unit(hash(PATIENT, id, 3)));
+        return Math.min(index < 0 ? -index - 1 : index, DISEASES.length - 1);
+    }
+
+    private int appointmentDayOffset(int id) {
+        return below(hash(APPOINTMENT, id, 2), DATE_SPAN_DAYS);
+    }
+
+    // SplitMix64 finalizer over seed, record type, id and field.
+    private long hash(int type, int id, int field) {
+        long h = seed + 0x9E3779B97F4A7C15L * (((long) type << 40) ^ ((long) field << 32) ^ (id & 0xFFFFFFFFL));
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+
+    private static int below(long hash, int bound) {
+        return (int) (((hash >>> 32) * bound) >>> 32);
+    }
+
+    private static double unit(long hash) {
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+
+    private static void checkId(int id, int count) {
+        if (id < 1 || id > count) {
+            throw new IllegalArgumentException("id " + id + " is outside 1.." + count);
+        }
+    }
+
+    // A stride coprime to n visits every id once as the rank goes from 0 to n - 1.
+    private static long strideFor(int n) {
+        if (n <= 1) {
+            return 1;
+        }
+        long stride = (long) (n * 0.6180339887) | 1;
+        while (gcd(stride, n) != 1) {
+            stride += 2;
+        }
+        return stride;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    private void write(Path file, int rows, RowFormatter formatter) throws IOException {
+        int chunks = (rows + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        ConcurrentLinkedQueue<RowBuffer> spare = new ConcurrentLinkedQueue<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "data-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ArrayDeque<Future<RowBuffer>> inFlight = new ArrayDeque<>();
+            int next = 0;
+            while (next < chunks || !inFlight.isEmpty()) {
+                while (next < chunks && inFlight.size() < 2 * threads) {
+                    int first = next * CHUNK_ROWS + 1;
+                    int last = (int) Math.min(rows, (long) first + CHUNK_ROWS - 1);
+                    inFlight.add(pool.submit(() -> render(first, last, formatter, spare)));
+                    next++;
+                }
+                RowBuffer buffer = await(inFlight.poll());
+                ByteBuffer bytes = ByteBuffer.wrap(buffer.bytes, 0, buffer.length);
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                spare.add(buffer);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static RowBuffer render(int first, int last, RowFormatter formatter, ConcurrentLinkedQueue<RowBuffer> spare) {
+        RowBuffer buffer = spare.poll();
+        if (buffer == null) {
+            buffer = new RowBuffer();
+        }
+        buffer.length = 0;
+        for (int id = first; id <= last; id++) {
+            formatter.format(buffer, id);
+            buffer.append('\n');
+        }
+        return buffer;
+    }
+
+    private static RowBuffer await(Future<RowBuffer> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while generating data");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException("data generation failed", e.getCause());
+        }
+    }
+
+    private static double[] diseaseCdf() {
+        double[] cdf = new double[DISEASES.length];
+        double sum = 0;
+        for (int i = 0; i < cdf.length; i++) {
+            sum += 1.0 / (i + 3);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < cdf.length; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    private static byte[][] dateBytes() {
+        byte[][] dates = new byte[DATE_SPAN_DAYS][];
+        for (int day = 0; day < DATE_SPAN_DAYS; day++) {
+            dates[day] = ascii(FIRST_DATE.plusDays(day).toString());
+        }
+        return dates;
+    }
+
+    private static String[] names(Enum<?>[] values) {
+        String[] names = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = values[i].name();
+        }
+        return names;
+    }
+
+    private static byte[][] ascii(String[] values) {
+        byte[][] bytes = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = ascii(values[i]);
+        }
+        return bytes;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Usage: DataGenerator <directory> <doctors> <patients> <appointments> [seed]");
+            System.exit(2);
+        }
+        Path directory = Paths.get(args[0]);
+        DataGenerator generator = new DataGenerator(args.length > 4 ? Long.parseLong(args[4]) : DEFAULT_SEED,
+                Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+        long start = System.nanoTime();
+        generator.writeAll(directory);
+        System.out.printf("Wrote %d doctors, %d patients and %d appointments to %s in %.1f s%n",
+                generator.getDoctorCount(), generator.getPatientCount(), generator.getAppointmentCount(),
+                directory.toAbsolutePath(), (System.nanoTime() - start) / 1e9);
+    }
+
+    private interface RowFormatter {
+        void format(RowBuffer out, int id);
+    }
+
+    /**
+     * Growable byte buffer for one chunk of ASCII rows.
+     */
+    private static final class RowBuffer {
+
+        byte[] bytes = new byte[CHUNK_ROWS * 48];
+        int length;
+
+        RowBuffer append(byte[] value) {
+            ensure(value.length);
+            System.arraycopy(value, 0, bytes, length, value.length);
+            length += value.length;
+            return this;
+        }
+
+        RowBuffer append(char c) {
+            ensure(1);
+            bytes[length++] = (byte) c;
+            return this;
+        }
+
+        // Non-negative values only.
+        RowBuffer appendInt(int value) {
+            ensure(10);
+            int digits = 1;
+            for (int v = value; v >= 10; v /= 10) {
+                digits++;
+            }
+            for (int i = length + digits - 1; i >= length; i--) {
+                bytes[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            length += digits;
+            return this;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
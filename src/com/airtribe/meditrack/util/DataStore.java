@@ -2,36 +2,159 @@ package com.airtribe.meditrack.util;
 
 import com.airtribe.meditrack.exception.InvalidDataException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
-public final class DataStore<T> {
+public final class DataStore<T> implements Repository<T> {
+
+    private final ArrayList<T> items = new ArrayList<>();
+
+    // Optional primary-key index; null when the store was created without an id function.
+    private final ToIntFunction<T> idFunction;
+    private final IntHashMap<T> idIndex;
 
-    private final List<T> items = new ArrayList<>();
 
-    
     public DataStore() {
+        this.idFunction = null;
+        this.idIndex = null;
+    }
+
+    /**
+     * Creates a store that maintains a primitive id index so that
+     * {@link #findById(int)} is a constant-time hash lookup.
+     *
+     * @param idFunction extracts the primary id of an item
+     */
+    public DataStore(ToIntFunction<T> idFunction) {
+        this.idFunction = Objects.requireNonNull(idFunction, "idFunction must not be null");
+        this.idIndex = new IntHashMap<>();
     }
 
+    @Override
     public synchronized void add(T item) {
         if (item == null) {
             throw new InvalidDataException("Item to add must not be null");
         }
         items.add(item);
+        if (idIndex != null) {
+            int id = idFunction.applyAsInt(item);
+            // Keep the first item stored under an id, matching the scan order of findById.
+            if (!idIndex.containsKey(id)) {
+                idIndex.put(id, item);
+            }
+        }
     }
 
+    @Override
+    public synchronized void addAll(Collection<? extends T> batch) {
+        for (T item : batch) {
+            if (item == null) {
+                throw new InvalidDataException("Item to add must not be null");
+            }
+        }
+        items.ensureCapacity(items.size() + batch.size());
+        for (T item : batch) {
+            add(item);
+        }
+    }
+
+    @Override
     public synchronized boolean remove(T item) {
-        return items.remove(item);
+        boolean removed = items.remove(item);
+        if (removed && idIndex != null) {
+            int id = idFunction.applyAsInt(item);
+            if (idIndex.get(id) == item) {
+                idIndex.remove(id);
+                for (T other : items) {
+                    if (idFunction.applyAsInt(other) == id) {
+                        idIndex.put(id, other);
+                        break;
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the batch in one pass instead of one list scan per item, so
+     * archiving millions of appointments stays linear.
+     */
+    @Override
+    public synchronized int removeAll(Collection<? extends T> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Set<Object> doomed = new HashSet<>(batch);
+        int before = items.size();
+        items.removeIf(doomed::contains);
+        if (idIndex != null) {
+            IntHashSet orphaned = new IntHashSet();
+            for (T item : batch) {
+                int id = idFunction.applyAsInt(item);
+                if (doomed.contains(idIndex.get(id))) {
+                    idIndex.remove(id);
+                    orphaned.add(id);
+                }
+            }
+            if (!orphaned.isEmpty()) {
+                for (T other : items) { // another item stored under a removed id takes its place
+                    int id = idFunction.applyAsInt(other);
+                    if (orphaned.contains(id) && !idIndex.containsKey(id)) {
+                        idIndex.put(id, other);
+                    }
+                }
+            }
+        }
+        return before - items.size();
     }
 
-    
+
+    @Override
     public synchronized List<T> getAll() {
         return Collections.unmodifiableList(new ArrayList<>(items));
     }
 
+    @Override
+    public synchronized int size() {
+        return items.size();
+    }
+
+    /**
+     * Returns a page in insertion order, copying only the page under the lock.
+     * The cursor is a position, so removing items between two calls shifts
+     * later items and may skip some of them.
+     */
+    @Override
+    public synchronized Page<T> page(String cursor, int limit) {
+        int from = Page.parsePosition(cursor);
+        int to = (int) Math.min(items.size(), (long) from + Page.checkLimit(limit));
+        List<T> pageItems = from >= to ? List.of() : new ArrayList<>(items.subList(from, to));
+        return new Page<>(pageItems, to < items.size() ? Integer.toString(to) : null);
+    }
+
+    /**
+     * Looks up an item through the id index.
+     *
+     * @param id the primary id
+     * @return the item, or empty if none is stored under {@code id}
+     * @throws IllegalStateException if the store was created without an id function
+     */
+    @Override
+    public synchronized Optional<T> findById(int id) {
+        if (idIndex == null) {
+            throw new IllegalStateException("DataStore has no id index");
+        }
+        return Optional.ofNullable(idIndex.get(id));
+    }
+
     public synchronized Optional<T> findById(Function<T, Integer> idExtractor, int id) {
         Objects.requireNonNull(idExtractor, "idExtractor must not be null");
 
@@ -0,0 +1,313 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Specialization;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Number of active appointments of every doctor per day, ordered so that the
+ * least-loaded doctor of a specialization is found without a scan.
+ * <p>
+ * Each (specialization, day) pair has its own indexed binary min-heap of
+ * doctors keyed by that day's appointment count, ties broken by doctor id.
+ * Booking, cancelling and {@link #assign(Specialization, LocalDate)} move one
+ * doctor within one heap in O(log n). Heaps are created on first use from
+ * the registered doctors and are locked individually, so bookings for
+ * different days or specializations never contend. A doctor is available
+ * while their count for the day is below the daily limit.
+ */
+public final class DoctorLoadIndex {
+
+    private static final int SPECIALIZATIONS = Specialization.values().length;
+
+    private final int dailyLimit;
+
+    // registered doctors by specialization, guarded by itself; heaps are created under the same lock
+    private final Map<Specialization, IntHashMap<Doctor>> doctors = new EnumMap<>(Specialization.class);
+
+    // epochDay * SPECIALIZATIONS + ordinal -> that day's heap
+    private final ConcurrentHashMap<Long, DayLoad> days = new ConcurrentHashMap<>();
+
+    /**
+     * @param dailyLimit most appointments a doctor takes per day
+     */
+    public DoctorLoadIndex(int dailyLimit) {
+        if (dailyLimit <= 0) {
+            throw new IllegalArgumentException("dailyLimit must be positive");
+        }
+        this.dailyLimit = dailyLimit;
+        for (Specialization specialization : Specialization.values()) {
+            doctors.put(specialization, new IntHashMap<>());
+        }
+    }
+
+    public int getDailyLimit() {
+        return dailyLimit;
+    }
+
+    /**
+     * Makes a doctor eligible for assignment, with no appointments on days
+     * not yet booked. Doctors without a specialization are ignored.
+     */
+    public void addDoctor(Doctor doctor) {
+        Specialization specialization = doctor.getSpecialization();
+        if (specialization == null) {
+            return;
+        }
+        synchronized (doctors) {
+            IntHashMap<Doctor> registered = doctors.get(specialization);
+            if (registered.get(doctor.getId()) != null) {
+                return;
+            }
+            registered.put(doctor.getId(), doctor);
+            for (DayLoad day : daysOf(specialization)) {
+                day.add(doctor);
+            }
+        }
+    }
+
+    /**
+     * Stops assigning the doctor and forgets their counts.
+     */
+    public void removeDoctor(Doctor doctor) {
+        Specialization specialization = doctor.getSpecialization();
+        if (specialization == null) {
+            return;
+        }
+        synchronized (doctors) {
+            if (doctors.get(specialization).remove(doctor.getId()) == null) {
+                return;
+            }
+            for (DayLoad day : daysOf(specialization)) {
+                day.remove(doctor.getId());
+            }
+        }
+    }
+
+    /**
+     * Counts an appointment booked directly with a doctor, registering the
+     * doctor if necessary.
+     */
+    public void booked(Doctor doctor, LocalDate date) {
+        if (doctor.getSpecialization() == null || date == null) {
+            return;
+        }
+        DayLoad day = dayOf(doctor.getSpecialization(), date);
+        if (!day.adjust(doctor.getId(), 1)) {
+            addDoctor(doctor);
+            day.adjust(doctor.getId(), 1);
+        }
+    }
+
+    /**
+     * Uncounts a cancelled appointment.
+     */
+    public void released(Doctor doctor, LocalDate date) {
+        if (doctor.getSpecialization() == null || date == null) {
+            return;
+        }
+        DayLoad day = days.get(keyOf(doctor.getSpecialization(), date));
+        if (day != null) {
+            day.adjust(doctor.getId(), -1);
+        }
+    }
+
+    /**
+     * Picks the least-loaded doctor of a specialization for a day and counts
+     * one appointment for them. The caller must {@link #released release}
+     * the slot if it does not book the appointment after all.
+     *
+     * @param specialization required specialization
+     * @param date           day of the appointment
+     * @return the doctor, or empty if every doctor of the specialization is
+     *         at the daily limit or none is registered
+     */
+    public Optional<Doctor> assign(Specialization specialization, LocalDate date) {
+        return Optional.ofNullable(dayOf(specialization, date).takeLeastLoaded(dailyLimit));
+    }
+
+    /**
+     * @return number of appointments counted for the doctor on that day
+     */
+    public int loadOf(Doctor doctor, LocalDate date) {
+        if (doctor.getSpecialization() == null) {
+            return 0;
+        }
+        DayLoad day = days.get(keyOf(doctor.getSpecialization(), date));
+        return day == null ? 0 : day.loadOf(doctor.getId());
+    }
+
+    /**
+     * Drops the counts of every day before {@code cutoff}.
+     */
+    public void expireBefore(LocalDate cutoff) {
+        long firstDay = cutoff.toEpochDay();
+        days.keySet().removeIf(key -> Math.floorDiv(key, SPECIALIZATIONS) < firstDay);
+    }
+
+    private DayLoad dayOf(Specialization specialization, LocalDate date) {
+        long key = keyOf(specialization, date);
+        DayLoad day = days.get(key);
+        if (day != null) {
+            return day;
+        }
+        synchronized (doctors) {
+            return days.computeIfAbsent(key, k -> {
+                IntHashMap<Doctor> registered = doctors.get(specialization);
+                DayLoad created = new DayLoad(registered.size());
+                for (Doctor doctor : registered.values()) {
+                    created.add(doctor);
+                }
+                return created;
+            });
+        }
+    }
+
+    // Called with the doctors lock held, so no heap of the specialization is created meanwhile.
+    private List<DayLoad> daysOf(Specialization specialization) {
+        List<DayLoad> result = new ArrayList<>();
+        for (Map.Entry<Long, DayLoad> entry : days.entrySet()) {
+            if (Math.floorMod(entry.getKey(), SPECIALIZATIONS) == specialization.ordinal()) {
+                result.add(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    private static long keyOf(Specialization specialization, LocalDate date) {
+        return date.toEpochDay() * SPECIALIZATIONS + specialization.ordinal();
+    }
+
+    /**
+     * Indexed min-heap of (load, doctor id); {@code positions} maps a doctor
+     * id to its slot so a single doctor can be found and re-sifted.
+     */
+    private static final class DayLoad {
+
+        private Doctor[] heap;
+        private int[] loads;
+        private int size;
+        private final IntIntHashMap positions;
+
+        DayLoad(int expectedSize) {
+            int capacity = Math.max(8, expectedSize);
+            this.heap = new Doctor[capacity];
+            this.loads = new int[capacity];
+            this.positions = new IntIntHashMap(capacity, -1);
+        }
+
+        synchronized void add(Doctor doctor) {
+            if (positions.containsKey(doctor.getId())) {
+                return;
+            }
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, size * 2);
+                loads = Arrays.copyOf(loads, size * 2);
+            }
+            heap[size] = doctor;
+            loads[size] = 0;
+            positions.put(doctor.getId(), size);
+            siftUp(size++);
+        }
+
+        synchronized void remove(int doctorId) {
+            int position = positions.remove(doctorId);
+            if (position < 0) {
+                return;
+            }
+            int last = --size;
+            if (position != last) {
+                move(last, position);
+                siftDown(position);
+                siftUp(position);
+            }
+            heap[last] = null;
+        }
+
+        synchronized boolean adjust(int doctorId, int delta) {
+            int position = positions.get(doctorId);
+            if (position < 0) {
+                return false;
+            }
+            loads[position] = Math.max(0, loads[position] + delta);
+            if (delta > 0) {
+                siftDown(position);
+            } else {
+                siftUp(position);
+            }
+            return true;
+        }
+
+        /** @return the least-loaded doctor after counting one appointment for them, or null if none is available */
+        synchronized Doctor takeLeastLoaded(int limit) {
+            if (size == 0 || loads[0] >= limit) {
+                return null;
+            }
+            Doctor doctor = heap[0];
+            loads[0]++;
+            siftDown(0);
+            return doctor;
+        }
+
+        synchronized int loadOf(int doctorId) {
+            int position = positions.get(doctorId);
+            return position < 0 ? 0 : loads[position];
+        }
+
+        private boolean less(int i, int j) {
+            return loads[i] < loads[j] || (loads[i] == loads[j] && heap[i].getId() < heap[j].getId());
+        }
+
+        private void siftUp(int position) {
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (!less(position, parent)) {
+                    return;
+                }
+                swap(position, parent);
+                position = parent;
+            }
+        }
+
+        private void siftDown(int position) {
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= size) {
+                    return;
+                }
+                if (child + 1 < size && less(child + 1, child)) {
+                    child++;
+                }
+                if (!less(child, position)) {
+                    return;
+                }
+                swap(position, child);
+                position = child;
+            }
+        }
+
+        private void swap(int i, int j) {
+            Doctor doctor = heap[i];
+            int load = loads[i];
+            heap[i] = heap[j];
+            loads[i] = loads[j];
+            heap[j] = doctor;
+            loads[j] = load;
+            positions.put(heap[i].getId(), i);
+            positions.put(heap[j].getId(), j);
+        }
+
+        private void move(int from, int to) {
+            heap[to] = heap[from];
+            loads[to] = loads[from];
+            positions.put(heap[to].getId(), to);
+        }
+    }
+}
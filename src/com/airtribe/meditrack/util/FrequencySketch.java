@@ -0,0 +1,79 @@
+package com.airtribe.meditrack.util;
+
+import java.util.Arrays;
+
+/**
+ * Approximate access counts for int keys: a count-min sketch of 4-bit
+ * counters, sixteen per {@code long}.
+ * <p>
+ * Each key maps to four counters and its estimate is the smallest of them.
+ * Once the number of increments reaches ten times the tracked capacity,
+ * every counter is halved. That way old popularity fades and the sketch
+ * follows shifts in the workload. Not thread-safe.
+ */
+final class FrequencySketch {
+
+    private static final int MAX_COUNT = 15;
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+
+    private final long[] table;
+    private final int counterMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param capacity number of keys the owning cache holds
+     */
+    FrequencySketch(int capacity) {
+        int longs = IntHashMap.tableSizeFor(Math.max(capacity, 16));
+        this.table = new long[longs];
+        this.counterMask = longs * 16 - 1;
+        this.sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * Math.max(capacity, 16));
+    }
+
+    int frequency(int key) {
+        int min = MAX_COUNT;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int counter = counterIndex(key, i);
+            min = Math.min(min, (int) (table[counter >>> 4] >>> ((counter & 15) << 2)) & MAX_COUNT);
+        }
+        return min;
+    }
+
+    void increment(int key) {
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            int counter = counterIndex(key, i);
+            int shift = (counter & 15) << 2;
+            long word = table[counter >>> 4];
+            if (((word >>> shift) & MAX_COUNT) < MAX_COUNT) {
+                table[counter >>> 4] = word + (1L << shift);
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            halve();
+        }
+    }
+
+    private void halve() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+
+    void clear() {
+        Arrays.fill(table, 0L);
+        additions = 0;
+    }
+
+    private int counterIndex(int key, int i) {
+        long hash = (key + SEEDS[i]) * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 29;
+        return (int) hash & counterMask;
+    }
+}
@@ -1,32 +1,73 @@
 package com.airtribe.meditrack.util;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.EntityType;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
 
 
 public final class IdGenerator {
 
-    private final AtomicInteger counter = new AtomicInteger(0);
+    // One independent, persisted sequence per entity type.
+    private final Map<EntityType, IdSequence> sequences = new EnumMap<>(EntityType.class);
 
     private IdGenerator() {
+        sequences.put(EntityType.DOCTOR, new IdSequence("doctor", Constants.ID_BLOCK_SIZE,
+                Paths.get(Constants.DOCTOR_SEQUENCE_FILE)));
+        sequences.put(EntityType.PATIENT, new IdSequence("patient", Constants.ID_BLOCK_SIZE,
+                Paths.get(Constants.PATIENT_SEQUENCE_FILE)));
+        sequences.put(EntityType.APPOINTMENT, new IdSequence("appointment", Constants.ID_BLOCK_SIZE,
+                Paths.get(Constants.APPOINTMENT_SEQUENCE_FILE)));
     }
 
-    
+
     public static IdGenerator getInstance() {
         return Holder.INSTANCE;
     }
 
-    
-    public int generateId() {
-        return counter.incrementAndGet();
+    /**
+     * Returns the next id for the given entity type. Most calls are served
+     * from a thread-local block without contention.
+     *
+     * @param type entity type
+     * @return a new id, unique within {@code type}
+     */
+    public int nextId(EntityType type) {
+        return sequence(type).nextId();
+    }
+
+    /**
+     * Returns a 64-bit time-ordered id for the given entity type.
+     *
+     * @param type entity type
+     * @return a new id that sorts by creation time
+     */
+    public long nextTimeOrderedId(EntityType type) {
+        return sequence(type).nextTimeOrderedId();
     }
 
-    
-    public void ensureAtLeast(int min) {
+    /**
+     * Ensures future ids of {@code type} are greater than {@code min}, e.g.
+     * after importing records from CSV.
+     *
+     * @param type entity type
+     * @param min  highest id already in use
+     */
+    public void ensureAtLeast(EntityType type, int min) {
         if (min <= 0) return;
-        counter.updateAndGet(curr -> Math.max(curr, min));
+        sequence(type).ensureAtLeast(min);
     }
 
-    
+    /**
+     * @param type entity type
+     * @return the sequence backing {@code type}
+     */
+    public IdSequence sequence(EntityType type) {
+        return sequences.get(type);
+    }
+
+
     private static class Holder {
         private static final IdGenerator INSTANCE = new IdGenerator();
     }
@@ -0,0 +1,179 @@
+package com.airtribe.meditrack.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A monotonically increasing id sequence that hands out ids from
+ * thread-local blocks.
+ * <p>
+ * Each thread leases a block of {@code blockSize} consecutive ids and then
+ * allocates from it without any shared-memory traffic; only the lease itself
+ * takes the sequence lock. When a persistence file is configured, a
+ * reservation of {@link #RESERVED_BLOCKS} blocks is written to it
+ * <em>before</em> any id inside it is used, so after a restart the sequence
+ * resumes above every id that may have been handed out while touching the
+ * file only once per reservation. A restart skips at most one reservation.
+ * <p>
+ * The sequence also offers 64-bit time-ordered ids: milliseconds since
+ * {@link #TIME_EPOCH_MILLIS} in the high bits and a per-millisecond counter in
+ * the low {@link #TIME_SEQUENCE_BITS} bits. They sort by creation time and
+ * are unique within the process even when the clock stalls.
+ */
+public final class IdSequence {
+
+    /** Custom epoch for time-ordered ids: 2024-01-01T00:00:00Z. */
+    public static final long TIME_EPOCH_MILLIS = 1_704_067_200_000L;
+
+    /** Number of low bits used for the per-millisecond counter of time-ordered ids. */
+    public static final int TIME_SEQUENCE_BITS = 22;
+
+    /** Number of blocks covered by each write of the high-water mark file. */
+    public static final int RESERVED_BLOCKS = 64;
+
+    private final String name;
+    private final int blockSize;
+    private final Path file;
+
+    // Guarded by this: highest id covered by a lease and highest id persisted as reserved.
+    private long leasedHigh;
+    private long reservedHigh;
+    // Bumped by ensureAtLeast so threads drop blocks leased before the call.
+    private volatile int generation;
+
+    private final ThreadLocal<Block> blocks = ThreadLocal.withInitial(Block::new);
+    private final AtomicLong lastTimeOrdered = new AtomicLong();
+
+    /**
+     * Creates an in-memory sequence that starts at 1.
+     *
+     * @param name      name used in error messages
+     * @param blockSize number of ids leased per thread at a time
+     */
+    public IdSequence(String name, int blockSize) {
+        this(name, blockSize, null);
+    }
+
+    /**
+     * Creates a sequence whose leases are persisted to {@code file}. If the
+     * file exists the sequence resumes after the persisted high-water mark.
+     *
+     * @param name      name used in error messages
+     * @param blockSize number of ids leased per thread at a time
+     * @param file      high-water mark file, or {@code null} for an in-memory sequence
+     */
+    public IdSequence(String name, int blockSize, Path file) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be positive");
+        }
+        this.name = name;
+        this.blockSize = blockSize;
+        this.file = file;
+        this.leasedHigh = file == null ? 0 : readHighWaterMark(file);
+        this.reservedHigh = leasedHigh;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the next id of this sequence.
+     *
+     * @return a positive id that has not been returned before
+     * @throws IllegalStateException if the 32-bit id space is exhausted
+     */
+    public int nextId() {
+        Block block = blocks.get();
+        if (block.next > block.end || block.generation != generation) {
+            lease(block);
+        }
+        return (int) block.next++;
+    }
+
+    /**
+     * Returns the next 64-bit time-ordered id of this sequence.
+     */
+    public long nextTimeOrderedId() {
+        long floor = (System.currentTimeMillis() - TIME_EPOCH_MILLIS) << TIME_SEQUENCE_BITS;
+        return lastTimeOrdered.updateAndGet(prev -> Math.max(prev + 1, floor));
+    }
+
+    /**
+     * Ensures that ids returned from now on are greater than {@code min}.
+     * Blocks leased before the call are discarded.
+     *
+     * @param min the highest id already in use
+     */
+    public synchronized void ensureAtLeast(int min) {
+        if (min <= leasedHigh) {
+            return;
+        }
+        reserve(min);
+        leasedHigh = min;
+        generation++;
+    }
+
+    private synchronized void lease(Block block) {
+        long start = leasedHigh + 1;
+        long end = leasedHigh + blockSize;
+        if (end > Integer.MAX_VALUE) {
+            end = Integer.MAX_VALUE;
+            if (start > end) {
+                throw new IllegalStateException("Id sequence '" + name + "' is exhausted");
+            }
+        }
+        reserve(end);
+        leasedHigh = end;
+        block.next = start;
+        block.end = end;
+        block.generation = generation;
+    }
+
+    private void reserve(long high) {
+        if (file == null || high <= reservedHigh) {
+            return;
+        }
+        long target = Math.min(Integer.MAX_VALUE, Math.max(high, reservedHigh + (long) blockSize * RESERVED_BLOCKS));
+        persist(target);
+        reservedHigh = target;
+    }
+
+    private void persist(long highWaterMark) {
+        try {
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(tmp, Long.toString(highWaterMark).getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to persist id sequence '" + name + "'", e);
+        }
+    }
+
+    private static long readHighWaterMark(Path file) {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try {
+            String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+            return content.isEmpty() ? 0 : Long.parseLong(content);
+        } catch (IOException | NumberFormatException e) {
+            throw new IllegalStateException("Unreadable id sequence file: " + file, e);
+        }
+    }
+
+    private static final class Block {
+        long next = 1;
+        long end = 0;
+        int generation = -1;
+    }
+}
@@ -0,0 +1,245 @@
+package com.airtribe.meditrack.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+/**
+ * Open-addressing hash map keyed by a primitive {@code int}.
+ * <p>
+ * Keys are stored in a plain {@code int[]} and values in a parallel
+ * {@code Object[]}, so lookups never box the key and each entry costs two
+ * array slots instead of a {@code HashMap.Node} plus an {@link Integer}.
+ * Collisions are resolved with linear probing and removals use backward
+ * shifting, so the table never accumulates tombstones.
+ * <p>
+ * The hash function is tuned for the ids handed out by {@link IdGenerator}:
+ * they are dense and monotonically increasing. Fibonacci hashing (multiply by
+ * 2<sup>32</sup>/&phi; and keep the top bits) places consecutive ids as far
+ * apart as possible, so a dense run never forms one long probe cluster, while
+ * sparse ids imported from CSV are still scrambled across the whole table.
+ * <p>
+ * {@code null} values are not permitted; a {@code null} value slot marks an
+ * empty bucket. This class is not thread-safe; callers synchronize externally.
+ *
+ * @param <V> value type
+ */
+public final class IntHashMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int shift;
+    private int size;
+    private int resizeThreshold;
+
+    public IntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a map able to hold {@code expectedSize} entries without resizing.
+     *
+     * @param expectedSize expected number of entries
+     */
+    public IntHashMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative");
+        }
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    static int tableSizeFor(int expectedSize) {
+        long needed = (long) Math.ceil(Math.max(expectedSize, 1) / (double) LOAD_FACTOR);
+        if (needed > (1 << 30)) {
+            throw new IllegalArgumentException("expectedSize too large: " + expectedSize);
+        }
+        return Math.max(DEFAULT_CAPACITY, Integer.highestOneBit((int) needed - 1) << 1);
+    }
+
+    static int slot(int key, int shift) {
+        return (key * 0x9E3779B9) >>> shift;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(mask);
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the value mapped to {@code key}, or {@code null} if absent.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int pos = slot(key, shift);
+        Object value;
+        while ((value = values[pos]) != null) {
+            if (keys[pos] == key) {
+                return (V) value;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associates {@code value} with {@code key}.
+     *
+     * @return the previous value, or {@code null} if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "value must not be null");
+        int pos = slot(key, shift);
+        Object current;
+        while ((current = values[pos]) != null) {
+            if (keys[pos] == key) {
+                values[pos] = value;
+                return (V) current;
+            }
+            pos = (pos + 1) & mask;
+        }
+        keys[pos] = key;
+        values[pos] = value;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the value for {@code key}, creating and storing it with
+     * {@code factory} if absent.
+     */
+    public V computeIfAbsent(int key, IntFunction<? extends V> factory) {
+        V existing = get(key);
+        if (existing != null) {
+            return existing;
+        }
+        V created = factory.apply(key);
+        put(key, created);
+        return created;
+    }
+
+    /**
+     * Removes the mapping for {@code key}.
+     *
+     * @return the removed value, or {@code null} if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int pos = slot(key, shift);
+        Object current;
+        while ((current = values[pos]) != null) {
+            if (keys[pos] == key) {
+                size--;
+                shiftKeys(pos);
+                return (V) current;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return null;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Invokes {@code action} for every entry in table order.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        Objects.requireNonNull(action, "action must not be null");
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value != null) {
+                action.accept(keys[i], (V) value);
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the values in table order.
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        for (Object value : values) {
+            if (value != null) {
+                result.add((V) value);
+            }
+        }
+        return result;
+    }
+
+    // Backward-shift deletion: pull later entries of the probe chain into the hole.
+    private void shiftKeys(int pos) {
+        int last;
+        int slot;
+        while (true) {
+            pos = ((last = pos) + 1) & mask;
+            while (true) {
+                if (values[pos] == null) {
+                    values[last] = null;
+                    return;
+                }
+                slot = slot(keys[pos], shift);
+                if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = keys[pos];
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            Object value = oldValues[i];
+            if (value != null) {
+                int pos = slot(oldKeys[i], shift);
+                while (values[pos] != null) {
+                    pos = (pos + 1) & mask;
+                }
+                keys[pos] = oldKeys[i];
+                values[pos] = value;
+            }
+        }
+    }
+
+    /**
+     * Receives a primitive key together with its value.
+     *
+     * @param <V> value type
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(int key, V value);
+    }
+}
@@ -0,0 +1,196 @@
+package com.airtribe.meditrack.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+/**
+ * Open-addressing set of primitive {@code int} values.
+ * <p>
+ * Uses the same probing and hashing scheme as {@link IntHashMap}. Since the
+ * table is a bare {@code int[]}, the value {@code 0} marks a free slot and a
+ * member {@code 0} is tracked by a separate flag. This class is not
+ * thread-safe; callers synchronize externally.
+ */
+public final class IntHashSet {
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private int[] keys;
+    private int mask;
+    private int shift;
+    private int size;
+    private int resizeThreshold;
+    private boolean containsZero;
+
+    public IntHashSet() {
+        this(4);
+    }
+
+    /**
+     * Creates a set able to hold {@code expectedSize} values without resizing.
+     *
+     * @param expectedSize expected number of values
+     */
+    public IntHashSet(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative");
+        }
+        allocate(IntHashMap.tableSizeFor(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(mask);
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        int pos = IntHashMap.slot(value, shift);
+        int current;
+        while ((current = keys[pos]) != 0) {
+            if (current == value) {
+                return true;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Adds {@code value} to the set.
+     *
+     * @return {@code true} if the set did not already contain it
+     */
+    public boolean add(int value) {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int pos = IntHashMap.slot(value, shift);
+        int current;
+        while ((current = keys[pos]) != 0) {
+            if (current == value) {
+                return false;
+            }
+            pos = (pos + 1) & mask;
+        }
+        keys[pos] = value;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * Removes {@code value} from the set.
+     *
+     * @return {@code true} if the set contained it
+     */
+    public boolean remove(int value) {
+        if (value == 0) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+        int pos = IntHashMap.slot(value, shift);
+        int current;
+        while ((current = keys[pos]) != 0) {
+            if (current == value) {
+                size--;
+                shiftKeys(pos);
+                return true;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return false;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        containsZero = false;
+        size = 0;
+    }
+
+    public void forEach(IntConsumer action) {
+        Objects.requireNonNull(action, "action must not be null");
+        if (containsZero) {
+            action.accept(0);
+        }
+        for (int key : keys) {
+            if (key != 0) {
+                action.accept(key);
+            }
+        }
+    }
+
+    /**
+     * Returns the members as a new array in table order.
+     */
+    public int[] toArray() {
+        int[] result = new int[size];
+        int i = 0;
+        if (containsZero) {
+            result[i++] = 0;
+        }
+        for (int key : keys) {
+            if (key != 0) {
+                result[i++] = key;
+            }
+        }
+        return result;
+    }
+
+    private void shiftKeys(int pos) {
+        int last;
+        int slot;
+        while (true) {
+            pos = ((last = pos) + 1) & mask;
+            while (true) {
+                if (keys[pos] == 0) {
+                    keys[last] = 0;
+                    return;
+                }
+                slot = IntHashMap.slot(keys[pos], shift);
+                if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = keys[pos];
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        allocate(newCapacity);
+        for (int key : oldKeys) {
+            if (key != 0) {
+                int pos = IntHashMap.slot(key, shift);
+                while (keys[pos] != 0) {
+                    pos = (pos + 1) & mask;
+                }
+                keys[pos] = key;
+            }
+        }
+    }
+}
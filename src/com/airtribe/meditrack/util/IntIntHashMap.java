@@ -0,0 +1,191 @@
+package com.airtribe.meditrack.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from primitive {@code int} keys to primitive
+ * {@code int} values.
+ * <p>
+ * Same layout and hashing as {@link IntHashMap}, but values live in an
+ * {@code int[]}, so an entry costs eight bytes of table space and creates no
+ * objects at all. The key {@code 0} marks a free slot and is tracked by a
+ * separate flag. Lookups of absent keys return the {@code missingValue}
+ * supplied at construction. This class is not thread-safe; callers
+ * synchronize externally.
+ */
+public final class IntIntHashMap {
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final int missingValue;
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int shift;
+    private int size;
+    private int resizeThreshold;
+    private boolean containsZeroKey;
+    private int zeroValue;
+
+    /**
+     * @param expectedSize expected number of entries
+     * @param missingValue value returned by {@link #get(int)} for absent keys
+     */
+    public IntIntHashMap(int expectedSize, int missingValue) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative");
+        }
+        this.missingValue = missingValue;
+        allocate(IntHashMap.tableSizeFor(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(mask);
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean containsKey(int key) {
+        if (key == 0) {
+            return containsZeroKey;
+        }
+        int pos = IntHashMap.slot(key, shift);
+        int current;
+        while ((current = keys[pos]) != 0) {
+            if (current == key) {
+                return true;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the value mapped to {@code key}, or the missing value if absent.
+     */
+    public int get(int key) {
+        if (key == 0) {
+            return containsZeroKey ? zeroValue : missingValue;
+        }
+        int pos = IntHashMap.slot(key, shift);
+        int current;
+        while ((current = keys[pos]) != 0) {
+            if (current == key) {
+                return values[pos];
+            }
+            pos = (pos + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    /**
+     * Associates {@code value} with {@code key}.
+     *
+     * @return the previous value, or the missing value if there was none
+     */
+    public int put(int key, int value) {
+        if (key == 0) {
+            int previous = containsZeroKey ? zeroValue : missingValue;
+            if (!containsZeroKey) {
+                containsZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+        int pos = IntHashMap.slot(key, shift);
+        int current;
+        while ((current = keys[pos]) != 0) {
+            if (current == key) {
+                int previous = values[pos];
+                values[pos] = value;
+                return previous;
+            }
+            pos = (pos + 1) & mask;
+        }
+        keys[pos] = key;
+        values[pos] = value;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+        return missingValue;
+    }
+
+    /**
+     * Removes the mapping for {@code key}.
+     *
+     * @return the removed value, or the missing value if there was none
+     */
+    public int remove(int key) {
+        if (key == 0) {
+            if (!containsZeroKey) {
+                return missingValue;
+            }
+            containsZeroKey = false;
+            size--;
+            return zeroValue;
+        }
+        int pos = IntHashMap.slot(key, shift);
+        int current;
+        while ((current = keys[pos]) != 0) {
+            if (current == key) {
+                int previous = values[pos];
+                size--;
+                shiftKeys(pos);
+                return previous;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        containsZeroKey = false;
+        size = 0;
+    }
+
+    private void shiftKeys(int pos) {
+        int last;
+        int slot;
+        while (true) {
+            pos = ((last = pos) + 1) & mask;
+            while (true) {
+                if (keys[pos] == 0) {
+                    keys[last] = 0;
+                    return;
+                }
+                slot = IntHashMap.slot(keys[pos], shift);
+                if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            keys[last] = keys[pos];
+            values[last] = values[pos];
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != 0) {
+                int pos = IntHashMap.slot(key, shift);
+                while (keys[pos] != 0) {
+                    pos = (pos + 1) & mask;
+                }
+                keys[pos] = key;
+                values[pos] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.exception.PersistenceException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Appointments stored in the {@code appointments} table.
+ * <p>
+ * Rows hold patient and doctor ids; reads join both tables to rebuild the
+ * referenced entities. Status changes are written back by {@link #update}.
+ */
+public final class JdbcAppointmentRepository extends JdbcRepository<Appointment> {
+
+    private static final String SELECT = "SELECT a.id, a.appointment_day, a.status, "
+            + "p.id, p.name, p.age, p.disease, "
+            + "d.id, d.name, d.age, d.specialization, d.consultation_fee "
+            + "FROM appointments a "
+            + "JOIN patients p ON p.id = a.patient_id "
+            + "JOIN doctors d ON d.id = a.doctor_id";
+
+    private final PreparedStatement updateStatus;
+    private final PreparedStatement selectByDoctor;
+    private final PreparedStatement selectByDayRange;
+
+    public JdbcAppointmentRepository(JdbcDatabase database) {
+        super(database, "appointments",
+                "INSERT INTO appointments (id, patient_id, doctor_id, appointment_day, status) VALUES (?, ?, ?, ?, ?)",
+                SELECT, "a.id", Appointment::getAppointmentId);
+        this.updateStatus = prepare("UPDATE appointments SET status = ? WHERE id = ?");
+        this.selectByDoctor = prepare(SELECT + " WHERE a.doctor_id = ?");
+        this.selectByDayRange = prepare(SELECT + " WHERE a.appointment_day BETWEEN ? AND ?");
+    }
+
+    @Override
+    public void update(Appointment appointment) {
+        synchronized (lock) {
+            try {
+                updateStatus.setString(1, appointment.getStatus().name());
+                updateStatus.setInt(2, appointment.getAppointmentId());
+                updateStatus.executeUpdate();
+            } catch (SQLException e) {
+                throw new PersistenceException("Failed to update appointment " + appointment.getAppointmentId(), e);
+            }
+        }
+    }
+
+    /**
+     * Finds appointments of a doctor through the doctor id index.
+     *
+     * @param doctorId id of the doctor
+     * @return the doctor's appointments
+     */
+    public List<Appointment> findByDoctorId(int doctorId) {
+        synchronized (lock) {
+            try {
+                selectByDoctor.setInt(1, doctorId);
+            } catch (SQLException e) {
+                throw new PersistenceException("Failed to query appointments", e);
+            }
+            return query(selectByDoctor);
+        }
+    }
+
+    /**
+     * Finds appointments in an inclusive date range through the date index.
+     *
+     * @param from first day of the range
+     * @param to   last day of the range
+     * @return appointments within the range
+     */
+    public List<Appointment> findByDateRange(LocalDate from, LocalDate to) {
+        synchronized (lock) {
+            try {
+                selectByDayRange.setLong(1, from.toEpochDay());
+                selectByDayRange.setLong(2, to.toEpochDay());
+            } catch (SQLException e) {
+                throw new PersistenceException("Failed to query appointments", e);
+            }
+            return query(selectByDayRange);
+        }
+    }
+
+    @Override
+    void bindInsert(PreparedStatement statement, Appointment appointment) throws SQLException {
+        statement.setInt(1, appointment.getAppointmentId());
+        statement.setInt(2, appointment.getPatient().getId());
+        statement.setInt(3, appointment.getDoctor().getId());
+        statement.setLong(4, appointment.getAppointmentDate().toEpochDay());
+        statement.setString(5, appointment.getStatus().name());
+    }
+
+    @Override
+    Appointment map(ResultSet row) throws SQLException {
+        Patient patient = new Patient(row.getInt(4), row.getString(5), row.getInt(6), row.getString(7));
+        String spec = row.getString(11);
+        Doctor doctor = new Doctor(row.getInt(8), row.getString(9), row.getInt(10),
+                spec == null ? null : Specialization.valueOf(spec), row.getDouble(12));
+        Appointment appointment = new Appointment(row.getInt(1), patient, doctor,
+                LocalDate.ofEpochDay(row.getLong(2)));
+        AppointmentStatus status = AppointmentStatus.valueOf(row.getString(3));
+        if (status == AppointmentStatus.CONFIRMED) appointment.confirm();
+        if (status == AppointmentStatus.CANCELLED) appointment.cancel();
+        return appointment;
+    }
+}
@@ -0,0 +1,86 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.exception.PersistenceException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A single reused connection to an embedded SQL database plus the MediTrack
+ * schema.
+ * <p>
+ * The repositories of a database share its connection and hold
+ * {@link #lock()} for every use of it, including whole transactions.
+ * <p>
+ * Any JDBC driver that supports an embedded file mode works, e.g.
+ * {@code jdbc:h2:./meditrack} or {@code jdbc:sqlite:meditrack.db}; the driver
+ * jar only has to be on the classpath. The schema uses portable types only:
+ * appointment dates are stored as epoch days so that they index and compare
+ * the same way on every engine.
+ */
+public final class JdbcDatabase implements AutoCloseable {
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS doctors ("
+                + "id INTEGER PRIMARY KEY, name VARCHAR(255) NOT NULL, age INTEGER NOT NULL, "
+                + "specialization VARCHAR(32), consultation_fee DOUBLE NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS idx_doctors_specialization ON doctors (specialization)",
+        "CREATE TABLE IF NOT EXISTS patients ("
+                + "id INTEGER PRIMARY KEY, name VARCHAR(255) NOT NULL, age INTEGER NOT NULL, "
+                + "disease VARCHAR(255))",
+        "CREATE TABLE IF NOT EXISTS appointments ("
+                + "id INTEGER PRIMARY KEY, patient_id INTEGER NOT NULL, doctor_id INTEGER NOT NULL, "
+                + "appointment_day INTEGER NOT NULL, status VARCHAR(16) NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS idx_appointments_doctor ON appointments (doctor_id)",
+        "CREATE INDEX IF NOT EXISTS idx_appointments_patient ON appointments (patient_id)",
+        "CREATE INDEX IF NOT EXISTS idx_appointments_day ON appointments (appointment_day)"
+    };
+
+    private final Connection connection;
+    private final Object lock = new Object();
+
+    /**
+     * Opens the database at {@code url} and creates the schema if needed.
+     *
+     * @param url JDBC url of an embedded database
+     * @throws PersistenceException if the connection cannot be opened
+     */
+    public JdbcDatabase(String url) {
+        try {
+            this.connection = DriverManager.getConnection(url);
+            try (Statement statement = connection.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    statement.execute(ddl);
+                }
+            }
+        } catch (SQLException e) {
+            throw new PersistenceException("Failed to open database " + url, e);
+        }
+    }
+
+    /**
+     * @return the shared connection; use it only while holding {@link #lock()}
+     */
+    Connection connection() {
+        return connection;
+    }
+
+    /**
+     * @return the lock that serializes every use of the shared connection
+     */
+    Object lock() {
+        return lock;
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                throw new PersistenceException("Failed to close database", e);
+            }
+        }
+    }
+}
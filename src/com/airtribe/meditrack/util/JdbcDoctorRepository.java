@@ -0,0 +1,62 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Specialization;
+import com.airtribe.meditrack.exception.PersistenceException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Doctors stored in the {@code doctors} table.
+ */
+public final class JdbcDoctorRepository extends JdbcRepository<Doctor> {
+
+    private static final String SELECT = "SELECT id, name, age, specialization, consultation_fee FROM doctors";
+
+    private final PreparedStatement selectBySpecialization;
+
+    public JdbcDoctorRepository(JdbcDatabase database) {
+        super(database, "doctors",
+                "INSERT INTO doctors (id, name, age, specialization, consultation_fee) VALUES (?, ?, ?, ?, ?)",
+                SELECT, "id", Doctor::getId, "name", "specialization");
+        this.selectBySpecialization = prepare(SELECT + " WHERE specialization = ?");
+    }
+
+    /**
+     * Looks up the {@code specialization} column through its index; other
+     * columns fall back to {@link #findMatching}.
+     */
+    @Override
+    public List<Doctor> findByColumn(String column, String value, Predicate<? super Doctor> filter) {
+        if (!"specialization".equals(column)) {
+            return super.findByColumn(column, value, filter);
+        }
+        synchronized (lock) {
+            try {
+                selectBySpecialization.setString(1, value);
+            } catch (SQLException e) {
+                throw new PersistenceException("Failed to query doctors", e);
+            }
+            return query(selectBySpecialization);
+        }
+    }
+
+    @Override
+    void bindInsert(PreparedStatement statement, Doctor doctor) throws SQLException {
+        statement.setInt(1, doctor.getId());
+        statement.setString(2, doctor.getName());
+        statement.setInt(3, doctor.getAge());
+        statement.setString(4, doctor.getSpecialization() == null ? null : doctor.getSpecialization().name());
+        statement.setDouble(5, doctor.getConsultationFee());
+    }
+
+    @Override
+    Doctor map(ResultSet row) throws SQLException {
+        String spec = row.getString(4);
+        return new Doctor(row.getInt(1), row.getString(2), row.getInt(3),
+                spec == null ? null : Specialization.valueOf(spec), row.getDouble(5));
+    }
+}
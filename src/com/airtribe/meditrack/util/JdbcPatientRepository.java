@@ -0,0 +1,31 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.Patient;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Patients stored in the {@code patients} table.
+ */
+public final class JdbcPatientRepository extends JdbcRepository<Patient> {
+
+    public JdbcPatientRepository(JdbcDatabase database) {
+        super(database, "patients",
+                "INSERT INTO patients (id, name, age, disease) VALUES (?, ?, ?, ?)",
+                "SELECT id, name, age, disease FROM patients", "id", Patient::getId, "name", "disease");
+    }
+
+    @Override
+    void bindInsert(PreparedStatement statement, Patient patient) throws SQLException {
+        statement.setInt(1, patient.getId());
+        statement.setString(2, patient.getName());
+        statement.setInt(3, patient.getAge());
+        statement.setString(4, patient.getDisease());
+    }
+
+    @Override
+    Patient map(ResultSet row) throws SQLException {
+        return new Patient(row.getInt(1), row.getString(2), row.getInt(3), row.getString(4));
+    }
+}
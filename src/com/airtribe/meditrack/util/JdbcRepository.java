@@ -0,0 +1,259 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.exception.InvalidDataException;
+import com.airtribe.meditrack.exception.PersistenceException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Base class for repositories stored in a {@link JdbcDatabase}.
+ * <p>
+ * All statements are prepared once on the shared connection and reused.
+ * {@link #addAll(Collection)} inserts in JDBC batches of {@link #BATCH_SIZE}
+ * rows inside one transaction. A JDBC connection is not safe for concurrent
+ * use, and the repositories of one database share a connection, so every
+ * method holds the database's {@link JdbcDatabase#lock() lock}: a batch
+ * insert that switches autocommit off never commits or rolls back another
+ * repository's write.
+ *
+ * @param <T> entity type
+ */
+abstract class JdbcRepository<T> implements Repository<T> {
+
+    static final int BATCH_SIZE = 1000;
+
+    final Object lock;
+    private final Connection connection;
+    private final String table;
+    private final ToIntFunction<T> idFunction;
+
+    private final PreparedStatement insert;
+    private final PreparedStatement deleteById;
+    private final PreparedStatement selectAll;
+    private final PreparedStatement selectById;
+    private final PreparedStatement count;
+    private final PreparedStatement selectPage;
+    private final PreparedStatement selectByHint; // null without text columns
+    private final int hintColumns;
+
+    /**
+     * @param textColumns columns searched for the row hint of {@link #findMatching}
+     */
+    JdbcRepository(JdbcDatabase database, String table, String insertSql,
+                   String selectSql, String idColumn, ToIntFunction<T> idFunction, String... textColumns) {
+        this.lock = database.lock();
+        this.connection = database.connection();
+        this.table = table;
+        this.idFunction = idFunction;
+        this.insert = prepare(insertSql);
+        this.deleteById = prepare("DELETE FROM " + table + " WHERE id = ?");
+        this.selectAll = prepare(selectSql);
+        this.selectById = prepare(selectSql + " WHERE " + idColumn + " = ?");
+        this.count = prepare("SELECT COUNT(*) FROM " + table);
+        this.selectPage = prepare(selectSql + " WHERE " + idColumn + " > ? ORDER BY " + idColumn + " LIMIT ?");
+        this.hintColumns = textColumns.length;
+        StringJoiner hintMatch = new StringJoiner(" OR ", " WHERE ", "");
+        for (String column : textColumns) {
+            hintMatch.add("LOWER(" + column + ") LIKE ? ESCAPE '\\'");
+        }
+        this.selectByHint = hintColumns == 0 ? null : prepare(selectSql + hintMatch);
+    }
+
+    /** Binds the columns of {@code item} to the insert statement. */
+    abstract void bindInsert(PreparedStatement statement, T item) throws SQLException;
+
+    /** Builds an entity from the current row of a select. */
+    abstract T map(ResultSet row) throws SQLException;
+
+    @Override
+    public void add(T item) {
+        synchronized (lock) {
+            if (item == null) {
+                throw new InvalidDataException("Item to add must not be null");
+            }
+            try {
+                bindInsert(insert, item);
+                insert.executeUpdate();
+            } catch (SQLException e) {
+                throw new PersistenceException("Failed to insert into " + table, e);
+            }
+        }
+    }
+
+    @Override
+    public void addAll(Collection<? extends T> batch) {
+        synchronized (lock) {
+            for (T item : batch) {
+                if (item == null) {
+                    throw new InvalidDataException("Item to add must not be null");
+                }
+            }
+            try {
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try {
+                    int pending = 0;
+                    for (T item : batch) {
+                        bindInsert(insert, item);
+                        insert.addBatch();
+                        if (++pending == BATCH_SIZE) {
+                            insert.executeBatch();
+                            pending = 0;
+                        }
+                    }
+                    if (pending > 0) {
+                        insert.executeBatch();
+                    }
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+            } catch (SQLException e) {
+                throw new PersistenceException("Failed to batch insert into " + table, e);
+            }
+        }
+    }
+
+    @Override
+    public boolean remove(T item) {
+        synchronized (lock) {
+            if (item == null) {
+                return false;
+            }
+            try {
+                deleteById.setInt(1, idFunction.applyAsInt(item));
+                return deleteById.executeUpdate() > 0;
+            } catch (SQLException e) {
+                throw new PersistenceException("Failed to delete from " + table, e);
+            }
+        }
+    }
+
+    @Override
+    public List<T> getAll() {
+        synchronized (lock) {
+            return Collections.unmodifiableList(query(selectAll));
+        }
+    }
+
+    @Override
+    public Optional<T> findById(int id) {
+        synchronized (lock) {
+            try {
+                selectById.setInt(1, id);
+            } catch (SQLException e) {
+                throw new PersistenceException("Failed to query " + table, e);
+            }
+            List<T> rows = query(selectById);
+            return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+        }
+    }
+
+    @Override
+    public int size() {
+        synchronized (lock) {
+            try (ResultSet rs = count.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            } catch (SQLException e) {
+                throw new PersistenceException("Failed to count " + table, e);
+            }
+        }
+    }
+
+    /**
+     * Returns a page in id order using keyset pagination: the cursor is the
+     * last id returned, so each page is one index range read.
+     */
+    @Override
+    public Page<T> page(String cursor, int limit) {
+        synchronized (lock) {
+            int afterId;
+            try {
+                afterId = cursor == null ? Integer.MIN_VALUE : Integer.parseInt(cursor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+            }
+            int pageSize = Page.checkLimit(limit);
+            try {
+                selectPage.setInt(1, afterId);
+                // One extra row tells whether another page follows.
+                selectPage.setInt(2, pageSize == Integer.MAX_VALUE ? pageSize : pageSize + 1);
+            } catch (SQLException e) {
+                throw new PersistenceException("Failed to query " + table, e);
+            }
+            List<T> rows = query(selectPage);
+            if (rows.size() <= pageSize) {
+                return new Page<>(rows, null);
+            }
+            List<T> items = new ArrayList<>(rows.subList(0, pageSize));
+            return new Page<>(items, Integer.toString(idFunction.applyAsInt(items.get(pageSize - 1))));
+        }
+    }
+
+    /**
+     * Narrows the rows in SQL to those with {@code rowHint} in one of the
+     * text columns, then applies {@code filter}. A hint with non-ASCII
+     * characters is not used, since the database may fold case differently.
+     */
+    @Override
+    public List<T> findMatching(String rowHint, Predicate<? super T> filter) {
+        String hint = rowHint == null ? "" : rowHint.trim().toLowerCase(Locale.ROOT);
+        if (selectByHint == null || hint.isEmpty() || !hint.chars().allMatch(c -> c < 0x80)) {
+            return Repository.super.findMatching(rowHint, filter);
+        }
+        String pattern = "%" + hint.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        List<T> rows;
+        synchronized (lock) {
+            try {
+                for (int i = 1; i <= hintColumns; i++) {
+                    selectByHint.setString(i, pattern);
+                }
+            } catch (SQLException e) {
+                throw new PersistenceException("Failed to query " + table, e);
+            }
+            rows = query(selectByHint);
+        }
+        rows.removeIf(filter.negate());
+        return rows;
+    }
+
+    /**
+     * Runs a prepared query whose parameters are already bound and maps every row.
+     * Callers must hold {@link #lock}.
+     */
+    List<T> query(PreparedStatement statement) {
+        List<T> result = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                result.add(map(rs));
+            }
+        } catch (SQLException e) {
+            throw new PersistenceException("Failed to query " + table, e);
+        }
+        return result;
+    }
+
+    PreparedStatement prepare(String sql) {
+        synchronized (lock) {
+            try {
+                return connection.prepareStatement(sql);
+            } catch (SQLException e) {
+                throw new PersistenceException("Failed to prepare statement for " + table, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.exception.PersistenceException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.Objects;
+
+/**
+ * Streams the contents of a {@link Repository} page by page.
+ * <p>
+ * Rows of a page are formatted into one reusable {@link StringBuilder} and
+ * sent to the underlying {@link Writer} in a single write followed by a
+ * flush. Only one page of items is held at a time, so memory use does not
+ * depend on the size of the store, and a writer kept across pages reuses
+ * its buffer. A writer is not thread-safe.
+ */
+public final class ListingWriter {
+
+    /**
+     * Appends one item as a row, without the line separator.
+     *
+     * @param <T> item type
+     */
+    @FunctionalInterface
+    public interface RowFormatter<T> {
+        void format(T item, StringBuilder row);
+    }
+
+    private final Writer out; // null for the console
+    private final StringBuilder buffer = new StringBuilder(8192);
+
+    /**
+     * @param out destination; it is flushed after every page but never closed
+     */
+    public ListingWriter(Writer out) {
+        this.out = Objects.requireNonNull(out, "out must not be null");
+    }
+
+    private ListingWriter() {
+        this.out = null;
+    }
+
+    /**
+     * @return a writer to {@link System#out}, looked up again for every page
+     */
+    public static ListingWriter toConsole() {
+        return new ListingWriter();
+    }
+
+    /**
+     * Writes one page of {@code store}.
+     *
+     * @param store     repository to list
+     * @param cursor    cursor returned by the previous call, or {@code null} to start
+     * @param pageSize  maximum number of rows to write
+     * @param formatter formats one row
+     * @return cursor of the next page, or {@code null} once the listing is complete
+     * @throws PersistenceException if writing fails
+     */
+    public <T> String writePage(Repository<T> store, String cursor, int pageSize,
+                                RowFormatter<? super T> formatter) {
+        Page<T> page = store.page(cursor, pageSize);
+        buffer.setLength(0);
+        for (T item : page.getItems()) {
+            formatter.format(item, buffer);
+            buffer.append(System.lineSeparator());
+        }
+        flushBuffer();
+        return page.getNextCursor();
+    }
+
+    /**
+     * Writes every item of {@code store}.
+     *
+     * @return number of pages written
+     * @throws PersistenceException if writing fails
+     */
+    public <T> int writeAll(Repository<T> store, int pageSize, RowFormatter<? super T> formatter) {
+        int pages = 0;
+        String cursor = null;
+        do {
+            cursor = writePage(store, cursor, pageSize, formatter);
+            pages++;
+        } while (cursor != null);
+        return pages;
+    }
+
+    private void flushBuffer() {
+        if (out == null) {
+            PrintStream console = System.out;
+            console.append(buffer);
+            console.flush();
+            return;
+        }
+        try {
+            out.append(buffer);
+            out.flush();
+        } catch (IOException e) {
+            throw new PersistenceException("Failed to write listing", e);
+        }
+    }
+}
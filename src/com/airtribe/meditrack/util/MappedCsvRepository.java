@@ -0,0 +1,523 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.exception.PersistenceException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Read-mostly repository over a CSV file that materializes rows only when
+ * they are looked up.
+ * <p>
+ * The data file is memory-mapped and never read as a whole. An index of
+ * {@code (id, offset)} entries sorted by id lives next to it in
+ * {@code <file>.idx}; it is memory-mapped as well, so opening costs the same
+ * for any file size and a lookup is a binary search followed by parsing one
+ * row. The index records the size and modification time of the data file
+ * and is rebuilt with one sequential scan when they no longer match. If the
+ * index cannot be written, it is kept on the heap for this run.
+ * <p>
+ * Rows are parsed on every {@link #findById} call, so this repository is
+ * meant to sit behind a {@link CachingRepository} that keeps the hot ones.
+ * Items added, updated or removed are kept in an overlay on the heap; the
+ * file itself is never written and the changes reach it when the caller
+ * saves the CSV as usual. {@link #writeRows} copies the unchanged rows'
+ * bytes to the saved file, so saving parses nothing. {@link #getAll()}
+ * parses every row and is meant for full listings only. If a row id appears
+ * more than once, the first row wins.
+ *
+ * @param <T> entity type
+ */
+public final class MappedCsvRepository<T> implements Repository<T> {
+
+    private static final int MAGIC = 0x4D494458; // "MIDX"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int ENTRY_BYTES = 12;
+    private static final long SEGMENT_BYTES = 1L << 30;
+    private static final int MAX_ROW_BYTES = 1 << 16;
+
+    private final Path file;
+    private final Function<String, T> parser;
+    private final ToIntFunction<T> idFunction;
+    private final MappedByteBuffer[] segments;
+    private final ByteBuffer index;
+    private final int fileRows;
+    private final boolean indexRebuilt;
+
+    private final IntHashMap<T> overlay = new IntHashMap<>();
+    private final IntHashSet hidden = new IntHashSet();
+    private long rowsParsed;
+
+    /**
+     * Opens {@code file}, building its index if it is missing or stale. A
+     * missing data file gives an empty repository.
+     *
+     * @param file       CSV file with the id in the first column
+     * @param parser     parses one row, e.g. {@link CSVUtil#parsePatient}
+     * @param idFunction extracts the primary id of an item
+     * @throws PersistenceException if the file cannot be mapped or a row has no id
+     */
+    public MappedCsvRepository(Path file, Function<String, T> parser, ToIntFunction<T> idFunction) {
+        this.file = Objects.requireNonNull(file, "file must not be null");
+        this.parser = Objects.requireNonNull(parser, "parser must not be null");
+        this.idFunction = Objects.requireNonNull(idFunction, "idFunction must not be null");
+        if (!Files.exists(file)) {
+            this.segments = new MappedByteBuffer[0];
+            this.index = ByteBuffer.allocate(HEADER_BYTES);
+            this.fileRows = 0;
+            this.indexRebuilt = false;
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            this.segments = map(channel, size);
+            Path indexFile = indexFileFor(file);
+            ByteBuffer existing = openIndex(indexFile, size, modified);
+            this.indexRebuilt = existing == null;
+            this.index = existing != null ? existing : writeIndex(indexFile, buildIndex(size, modified));
+            this.fileRows = index.getInt(24);
+        } catch (IOException e) {
+            throw new PersistenceException("Cannot map " + file, e);
+        }
+    }
+
+    /**
+     * @return the index file kept next to {@code file}
+     */
+    public static Path indexFileFor(Path file) {
+        return file.resolveSibling(file.getFileName() + ".idx");
+    }
+
+    // Segments overlap by the longest supported row, so every row lies within the segment it starts in.
+    private static MappedByteBuffer[] map(FileChannel channel, long size) throws IOException {
+        int count = (int) ((size + SEGMENT_BYTES - 1) / SEGMENT_BYTES);
+        MappedByteBuffer[] mapped = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long start = i * SEGMENT_BYTES;
+            mapped[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                    Math.min(size - start, SEGMENT_BYTES + MAX_ROW_BYTES));
+        }
+        return mapped;
+    }
+
+    private static ByteBuffer openIndex(Path indexFile, long size, long modified) throws IOException {
+        if (!Files.exists(indexFile) || Files.size(indexFile) < HEADER_BYTES) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            boolean current = mapped.getInt(0) == MAGIC && mapped.getInt(4) == VERSION
+                    && mapped.getLong(8) == size && mapped.getLong(16) == modified
+                    && channel.size() == HEADER_BYTES + (long) mapped.getInt(24) * ENTRY_BYTES;
+            return current ? mapped : null;
+        }
+    }
+
+    private ByteBuffer buildIndex(long size, long modified) {
+        int[] ids = new int[1024];
+        long[] offsets = new long[1024];
+        int rows = 0;
+        boolean sorted = true;
+        long offset = 0;
+        while (offset < size) {
+            MappedByteBuffer segment = segments[(int) (offset / SEGMENT_BYTES)];
+            int lineStart = (int) (offset % SEGMENT_BYTES);
+            int from = lineStart;
+            int limit = segment.limit();
+            while (from < limit && segment.get(from) == ' ') {
+                from++;
+            }
+            int to = from;
+            while (to < limit && segment.get(to) != '\n') {
+                to++;
+            }
+            if (to == limit && offset + (to - lineStart) < size) {
+                throw new PersistenceException("Row longer than " + MAX_ROW_BYTES + " bytes in " + file
+                        + " at byte " + offset);
+            }
+            if (to > from && !(to == from + 1 && segment.get(from) == '\r')) {
+                if (rows == ids.length) {
+                    ids = Arrays.copyOf(ids, rows * 2);
+                    offsets = Arrays.copyOf(offsets, rows * 2);
+                }
+                ids[rows] = parseId(segment, from, to, offset + (from - lineStart));
+                offsets[rows] = offset + (from - lineStart);
+                sorted &= rows == 0 || ids[rows - 1] <= ids[rows];
+                rows++;
+            }
+            offset += to - lineStart + 1;
+        }
+
+        int[] order = null;
+        if (!sorted) {
+            long[] keys = new long[rows];
+            for (int i = 0; i < rows; i++) {
+                keys[i] = ((long) ids[i] << 32) | i;
+            }
+            Arrays.sort(keys);
+            order = new int[rows];
+            for (int i = 0; i < rows; i++) {
+                order[i] = (int) keys[i];
+            }
+        }
+        ByteBuffer built = ByteBuffer.allocate(HEADER_BYTES + rows * ENTRY_BYTES);
+        built.position(HEADER_BYTES);
+        int entries = 0;
+        for (int i = 0; i < rows; i++) {
+            int row = order == null ? i : order[i];
+            if (entries > 0 && built.getInt(HEADER_BYTES + (entries - 1) * ENTRY_BYTES) == ids[row]) {
+                continue; // duplicate id: keep the first row
+            }
+            built.putInt(ids[row]).putLong(offsets[row]);
+            entries++;
+        }
+        built.putInt(0, MAGIC).putInt(4, VERSION).putLong(8, size).putLong(16, modified).putInt(24, entries);
+        built.limit(HEADER_BYTES + entries * ENTRY_BYTES);
+        return built;
+    }
+
+    private int parseId(MappedByteBuffer segment, int from, int to, long offset) {
+        int i = from;
+        boolean negative = segment.get(i) == '-';
+        if (negative) {
+            i++;
+        }
+        long value = 0;
+        int digitsStart = i;
+        byte b;
+        while (i < to && (b = segment.get(i)) >= '0' && b <= '9' && value <= Integer.MAX_VALUE) {
+            value = value * 10 + (b - '0');
+            i++;
+        }
+        if (i == digitsStart || value > Integer.MAX_VALUE
+                || (i < to && segment.get(i) != ',' && segment.get(i) != ' ')) {
+            throw new PersistenceException("Invalid row in " + file + " at byte " + offset + ": " + rowAt(offset));
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    // Persisting is an optimization: if the directory is read-only the heap copy serves this run.
+    private static ByteBuffer writeIndex(Path indexFile, ByteBuffer built) {
+        Path tmp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer source = built.duplicate();
+                source.position(0);
+                while (source.hasRemaining()) {
+                    channel.write(source);
+                }
+            }
+            try {
+                Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        } catch (IOException e) {
+            return built;
+        }
+    }
+
+    private String rowAt(long offset) {
+        MappedByteBuffer segment = segments[(int) (offset / SEGMENT_BYTES)];
+        int start = (int) (offset % SEGMENT_BYTES);
+        int end = start;
+        while (end < segment.limit() && segment.get(end) != '\n') {
+            end++;
+        }
+        if (end > start && segment.get(end - 1) == '\r') {
+            end--;
+        }
+        byte[] bytes = new byte[end - start];
+        segment.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int idAt(int position) {
+        return index.getInt(HEADER_BYTES + position * ENTRY_BYTES);
+    }
+
+    private long offsetAt(int position) {
+        return index.getLong(HEADER_BYTES + position * ENTRY_BYTES + 4);
+    }
+
+    private int positionOf(int id) {
+        int low = 0;
+        int high = fileRows - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = idAt(mid);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private T load(int position) {
+        long offset = offsetAt(position);
+        String row = rowAt(offset);
+        rowsParsed++;
+        try {
+            return parser.apply(row);
+        } catch (RuntimeException e) {
+            throw new PersistenceException("Invalid row in " + file + " at byte " + offset + ": " + row, e);
+        }
+    }
+
+    // Case-insensitive for ASCII; a row with other characters may match after case folding, so it is parsed.
+    private boolean mayContain(int position, byte[] hint) {
+        if (hint.length == 0) {
+            return true;
+        }
+        long offset = offsetAt(position);
+        MappedByteBuffer segment = segments[(int) (offset / SEGMENT_BYTES)];
+        int start = (int) (offset % SEGMENT_BYTES);
+        int end = start;
+        boolean ascii = true;
+        byte b;
+        while (end < segment.limit() && (b = segment.get(end)) != '\n') {
+            ascii &= b >= 0;
+            end++;
+        }
+        if (!ascii) {
+            return true;
+        }
+        for (int i = start; i <= end - hint.length; i++) {
+            int j = 0;
+            while (j < hint.length && toLower(segment.get(i + j)) == hint[j]) {
+                j++;
+            }
+            if (j == hint.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte toLower(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    @Override
+    public synchronized void add(T item) {
+        Objects.requireNonNull(item, "item must not be null");
+        int id = idFunction.applyAsInt(item);
+        overlay.put(id, item);
+        if (positionOf(id) >= 0) {
+            hidden.add(id);
+        }
+    }
+
+    /**
+     * Items read from the file are copies, so a modified one is kept in the
+     * overlay from now on.
+     */
+    @Override
+    public synchronized void update(T item) {
+        if (overlay.get(idFunction.applyAsInt(item)) != item) {
+            add(item);
+        }
+    }
+
+    @Override
+    public synchronized boolean remove(T item) {
+        int id = idFunction.applyAsInt(item);
+        boolean removed = overlay.remove(id) != null;
+        if (positionOf(id) >= 0 && hidden.add(id)) {
+            removed = true;
+        }
+        return removed;
+    }
+
+    @Override
+    public synchronized List<T> getAll() {
+        List<T> all = new ArrayList<>(size());
+        for (int position = 0; position < fileRows; position++) {
+            if (!hidden.contains(idAt(position))) {
+                all.add(load(position));
+            }
+        }
+        all.addAll(overlayById());
+        return Collections.unmodifiableList(all);
+    }
+
+    private List<T> overlayById() {
+        List<T> items = overlay.values();
+        items.sort((a, b) -> Integer.compare(idFunction.applyAsInt(a), idFunction.applyAsInt(b)));
+        return items;
+    }
+
+    @Override
+    public synchronized Optional<T> findById(int id) {
+        T item = overlay.get(id);
+        if (item != null) {
+            return Optional.of(item);
+        }
+        if (hidden.contains(id)) {
+            return Optional.empty();
+        }
+        int position = positionOf(id);
+        return position < 0 ? Optional.empty() : Optional.of(load(position));
+    }
+
+    @Override
+    public synchronized int size() {
+        return fileRows - hidden.size() + overlay.size();
+    }
+
+    /**
+     * Pages through the file rows in id order, then through the overlay. The
+     * cursor is a position, so only the rows on the page are parsed.
+     */
+    @Override
+    public synchronized Page<T> page(String cursor, int limit) {
+        int position = Page.parsePosition(cursor);
+        int max = Page.checkLimit(limit);
+        List<T> items = new ArrayList<>(Math.min(max, 1024));
+        for (; position < fileRows && items.size() < max; position++) {
+            if (!hidden.contains(idAt(position))) {
+                items.add(load(position));
+            }
+        }
+        List<T> added = overlayById();
+        for (; position >= fileRows && position - fileRows < added.size() && items.size() < max; position++) {
+            items.add(added.get(position - fileRows));
+        }
+        return new Page<>(items, position < fileRows + added.size() ? Integer.toString(position) : null);
+    }
+
+    @Override
+    public synchronized List<T> findMatching(String rowHint, Predicate<? super T> filter) {
+        byte[] hint = rowHint == null ? new byte[0]
+                : rowHint.trim().toLowerCase().getBytes(StandardCharsets.UTF_8);
+        for (byte b : hint) {
+            if (b < 0) {
+                hint = new byte[0]; // locale-specific case folding: parse every row
+                break;
+            }
+        }
+        List<T> matches = new ArrayList<>();
+        for (int position = 0; position < fileRows; position++) {
+            if (!hidden.contains(idAt(position)) && mayContain(position, hint)) {
+                T item = load(position);
+                if (filter.test(item)) {
+                    matches.add(item);
+                }
+            }
+        }
+        for (T item : overlayById()) {
+            if (filter.test(item)) {
+                matches.add(item);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Copies the bytes of every file row that was not changed, in id order,
+     * then formats the overlay. Only the overlay and the set of changed ids
+     * are copied under the lock; the mapped file is read outside it.
+     */
+    @Override
+    public void writeRows(Function<? super T, String> formatter, OutputStream out) throws IOException {
+        int[] skipped;
+        List<T> added;
+        synchronized (this) {
+            skipped = hidden.toArray();
+            added = overlayById();
+        }
+        Arrays.sort(skipped);
+        byte[] lineSeparator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+        byte[] row = new byte[MAX_ROW_BYTES];
+        int next = 0;
+        for (int position = 0; position < fileRows; position++) {
+            int id = idAt(position);
+            while (next < skipped.length && skipped[next] < id) {
+                next++;
+            }
+            if (next < skipped.length && skipped[next] == id) {
+                continue;
+            }
+            long offset = offsetAt(position);
+            MappedByteBuffer segment = segments[(int) (offset / SEGMENT_BYTES)];
+            int start = (int) (offset % SEGMENT_BYTES);
+            int end = start;
+            while (end < segment.limit() && segment.get(end) != '\n') {
+                end++;
+            }
+            if (end > start && segment.get(end - 1) == '\r') {
+                end--;
+            }
+            segment.get(start, row, 0, end - start);
+            out.write(row, 0, end - start);
+            out.write(lineSeparator);
+        }
+        for (T item : added) {
+            out.write(formatter.apply(item).getBytes(StandardCharsets.UTF_8));
+            out.write(lineSeparator);
+        }
+    }
+
+    @Override
+    public synchronized int maxId(ToIntFunction<? super T> idFunction) {
+        int max = 0;
+        for (int position = fileRows - 1; position >= 0; position--) {
+            if (!hidden.contains(idAt(position))) {
+                max = idAt(position);
+                break;
+            }
+        }
+        for (T item : overlay.values()) {
+            max = Math.max(max, idFunction.applyAsInt(item));
+        }
+        return max;
+    }
+
+    /**
+     * @return rows parsed from the file so far
+     */
+    public synchronized long getRowsParsed() {
+        return rowsParsed;
+    }
+
+    /**
+     * @return number of distinct ids in the data file
+     */
+    public int getFileRows() {
+        return fileRows;
+    }
+
+    /**
+     * @return {@code true} if the index had to be built when opening
+     */
+    public boolean wasIndexRebuilt() {
+        return indexRebuilt;
+    }
+}
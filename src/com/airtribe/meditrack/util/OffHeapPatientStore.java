@@ -0,0 +1,269 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.Patient;
+import com.airtribe.meditrack.exception.InvalidDataException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Patient repository that keeps records outside the Java heap.
+ * <p>
+ * Every patient occupies one fixed-width slot in a direct
+ * {@link ByteBuffer}: {@code id} and {@code age} as ints followed by two
+ * references into a string arena that holds the UTF-8 bytes of the name and
+ * disease. Slots and the arena are allocated in chunks so the store can grow
+ * past the 2&nbsp;GB limit of a single buffer. The only on-heap structure
+ * that grows with the population is an {@link IntIntHashMap} from id to slot,
+ * i.e. two {@code int}s per patient and no objects, which keeps full-GC
+ * pauses independent of the number of patients.
+ * <p>
+ * Lookups return flyweight {@link Patient} views that hold just the id and
+ * decode fields on access. A view is only valid while its patient is stored;
+ * {@link Patient#clone()} or {@link Patient#detached()} on a view
+ * materializes an ordinary on-heap copy. An {@link
+ * com.airtribe.meditrack.entity.Appointment} detaches its patient when it is
+ * created, so bookings outlive the removal of their patient.
+ * The string arena is append-only, so removing a patient frees the slot for
+ * reuse but not the bytes of its strings.
+ */
+public final class OffHeapPatientStore implements Repository<Patient> {
+
+    private static final int SLOT_BYTES = 24;
+    private static final int ID_OFFSET = 0;
+    private static final int AGE_OFFSET = 4;
+    private static final int NAME_OFFSET = 8;
+    private static final int DISEASE_OFFSET = 16;
+    private static final int FREE = -1;
+    private static final long NULL_REF = -1L;
+
+    private static final int SLOT_CHUNK_SHIFT = 20;
+    private static final int SLOTS_PER_CHUNK = 1 << SLOT_CHUNK_SHIFT;
+    private static final int ARENA_CHUNK_BYTES = 1 << 26;
+
+    private ByteBuffer[] slotChunks = new ByteBuffer[0];
+    private ByteBuffer[] arenaChunks = new ByteBuffer[0];
+    private int arenaPosition = ARENA_CHUNK_BYTES; // forces the first arena chunk to be allocated
+
+    private final IntIntHashMap slotById;
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    public OffHeapPatientStore() {
+        this(1024);
+    }
+
+    /**
+     * @param expectedSize number of patients to size the id index for
+     */
+    public OffHeapPatientStore(int expectedSize) {
+        this.slotById = new IntIntHashMap(expectedSize, FREE);
+    }
+
+    @Override
+    public synchronized void add(Patient patient) {
+        if (patient == null) {
+            throw new InvalidDataException("Item to add must not be null");
+        }
+        int id = patient.getId();
+        if (slotById.containsKey(id)) {
+            throw new InvalidDataException("Patient with id " + id + " is already stored");
+        }
+        long nameRef = writeString(patient.getName());
+        long diseaseRef = writeString(patient.getDisease());
+
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : allocateSlot();
+        ByteBuffer chunk = slotChunks[slot >>> SLOT_CHUNK_SHIFT];
+        int base = (slot & (SLOTS_PER_CHUNK - 1)) * SLOT_BYTES;
+        chunk.putInt(base + ID_OFFSET, id);
+        chunk.putInt(base + AGE_OFFSET, patient.getAge());
+        chunk.putLong(base + NAME_OFFSET, nameRef);
+        chunk.putLong(base + DISEASE_OFFSET, diseaseRef);
+        slotById.put(id, slot);
+    }
+
+    @Override
+    public synchronized boolean remove(Patient patient) {
+        if (patient == null) {
+            return false;
+        }
+        int slot = slotById.remove(patient.getId());
+        if (slot == FREE) {
+            return false;
+        }
+        ByteBuffer chunk = slotChunks[slot >>> SLOT_CHUNK_SHIFT];
+        chunk.putInt((slot & (SLOTS_PER_CHUNK - 1)) * SLOT_BYTES + AGE_OFFSET, FREE);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        return true;
+    }
+
+    @Override
+    public synchronized List<Patient> getAll() {
+        List<Patient> result = new ArrayList<>(slotById.size());
+        for (int slot = 0; slot < slotCount; slot++) {
+            ByteBuffer chunk = slotChunks[slot >>> SLOT_CHUNK_SHIFT];
+            int base = (slot & (SLOTS_PER_CHUNK - 1)) * SLOT_BYTES;
+            if (chunk.getInt(base + AGE_OFFSET) != FREE) {
+                result.add(new PatientView(this, chunk.getInt(base + ID_OFFSET)));
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Returns a page in slot order. The cursor is the next slot to scan, so it
+     * stays valid while patients are added or removed.
+     */
+    @Override
+    public synchronized Page<Patient> page(String cursor, int limit) {
+        int slot = Page.parsePosition(cursor);
+        List<Patient> result = new ArrayList<>(Math.min(Page.checkLimit(limit), 1024));
+        for (; slot < slotCount && result.size() < limit; slot++) {
+            ByteBuffer chunk = slotChunks[slot >>> SLOT_CHUNK_SHIFT];
+            int base = (slot & (SLOTS_PER_CHUNK - 1)) * SLOT_BYTES;
+            if (chunk.getInt(base + AGE_OFFSET) != FREE) {
+                result.add(new PatientView(this, chunk.getInt(base + ID_OFFSET)));
+            }
+        }
+        return new Page<>(result, slot < slotCount ? Integer.toString(slot) : null);
+    }
+
+    @Override
+    public synchronized Optional<Patient> findById(int id) {
+        if (!slotById.containsKey(id)) {
+            return Optional.empty();
+        }
+        return Optional.of(new PatientView(this, id));
+    }
+
+    @Override
+    public synchronized int size() {
+        return slotById.size();
+    }
+
+    /**
+     * @return bytes of direct memory reserved for slots and strings
+     */
+    public synchronized long offHeapBytes() {
+        return (long) slotChunks.length * SLOTS_PER_CHUNK * SLOT_BYTES
+                + (long) arenaChunks.length * ARENA_CHUNK_BYTES;
+    }
+
+    private int allocateSlot() {
+        int slot = slotCount;
+        int chunkIndex = slot >>> SLOT_CHUNK_SHIFT;
+        if (chunkIndex == slotChunks.length) {
+            slotChunks = Arrays.copyOf(slotChunks, chunkIndex + 1);
+            slotChunks[chunkIndex] = ByteBuffer.allocateDirect(SLOTS_PER_CHUNK * SLOT_BYTES);
+        }
+        slotCount++;
+        return slot;
+    }
+
+    // Arena entries are an int length followed by the UTF-8 bytes; a reference is chunk << 32 | offset.
+    private long writeString(String value) {
+        if (value == null) {
+            return NULL_REF;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int needed = Integer.BYTES + bytes.length;
+        if (needed > ARENA_CHUNK_BYTES) {
+            throw new InvalidDataException("String too long for off-heap storage: " + bytes.length + " bytes");
+        }
+        if (arenaPosition + needed > ARENA_CHUNK_BYTES) {
+            arenaChunks = Arrays.copyOf(arenaChunks, arenaChunks.length + 1);
+            arenaChunks[arenaChunks.length - 1] = ByteBuffer.allocateDirect(ARENA_CHUNK_BYTES);
+            arenaPosition = 0;
+        }
+        int chunkIndex = arenaChunks.length - 1;
+        ByteBuffer chunk = arenaChunks[chunkIndex];
+        chunk.putInt(arenaPosition, bytes.length);
+        chunk.put(arenaPosition + Integer.BYTES, bytes);
+        long ref = ((long) chunkIndex << 32) | arenaPosition;
+        arenaPosition += needed;
+        return ref;
+    }
+
+    private String readString(long ref) {
+        if (ref == NULL_REF) {
+            return null;
+        }
+        ByteBuffer chunk = arenaChunks[(int) (ref >>> 32)];
+        int offset = (int) ref;
+        byte[] bytes = new byte[chunk.getInt(offset)];
+        chunk.get(offset + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int slotOf(int id) {
+        int slot = slotById.get(id);
+        if (slot == FREE) {
+            throw new IllegalStateException("Patient " + id + " is no longer stored");
+        }
+        return slot;
+    }
+
+    private synchronized String nameOf(int id) {
+        int slot = slotOf(id);
+        return readString(slotChunks[slot >>> SLOT_CHUNK_SHIFT]
+                .getLong((slot & (SLOTS_PER_CHUNK - 1)) * SLOT_BYTES + NAME_OFFSET));
+    }
+
+    private synchronized String diseaseOf(int id) {
+        int slot = slotOf(id);
+        return StringPool.DISEASES.canonicalize(readString(slotChunks[slot >>> SLOT_CHUNK_SHIFT]
+                .getLong((slot & (SLOTS_PER_CHUNK - 1)) * SLOT_BYTES + DISEASE_OFFSET)));
+    }
+
+    private synchronized int ageOf(int id) {
+        int slot = slotOf(id);
+        return slotChunks[slot >>> SLOT_CHUNK_SHIFT]
+                .getInt((slot & (SLOTS_PER_CHUNK - 1)) * SLOT_BYTES + AGE_OFFSET);
+    }
+
+    /**
+     * Flyweight patient that reads its fields from the owning store.
+     */
+    private static final class PatientView extends Patient {
+
+        private final OffHeapPatientStore store;
+
+        PatientView(OffHeapPatientStore store, int id) {
+            super(id, null, 0, null);
+            this.store = store;
+        }
+
+        @Override
+        public String getName() {
+            return store.nameOf(getId());
+        }
+
+        @Override
+        public int getAge() {
+            return store.ageOf(getId());
+        }
+
+        @Override
+        public String getDisease() {
+            return store.diseaseOf(getId());
+        }
+
+        @Override
+        public Patient clone() {
+            return new Patient(getId(), getName(), getAge(), getDisease());
+        }
+
+        @Override
+        public Patient detached() {
+            return clone();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.airtribe.meditrack.util;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a cursor-paged query.
+ * <p>
+ * The cursor is an opaque string: pass {@link #getNextCursor()} back to the
+ * query to continue after the last item of this page. Unlike an offset, a
+ * cursor stays valid while items are added or removed before it.
+ *
+ * @param <T> item type
+ */
+public final class Page<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * @return the items of this page, in query order
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return cursor of the following page, or {@code null} if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    // Helpers for repositories whose cursor is a non-negative position.
+
+    static int parsePosition(String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        try {
+            int position = Integer.parseInt(cursor);
+            if (position >= 0) {
+                return position;
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+
+    static int checkLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return limit;
+    }
+}
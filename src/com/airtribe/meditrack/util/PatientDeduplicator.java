@@ -0,0 +1,356 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.Patient;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Recognizes a patient that is already registered under another id.
+ * <p>
+ * Two patients are the same person when their name, age and disease match,
+ * with name and disease compared ignoring case, surrounding whitespace and
+ * repeated inner whitespace. Each registered patient is remembered as one
+ * {@code long}: a 32-bit hash of that normalized fingerprint in the high half
+ * and the patient id in the low half, in an open-addressing table with linear
+ * probing. The table works as a filter: a probe that meets no slot with the
+ * same hash proves the patient is new without touching any patient object.
+ * Only when the hash matches is the stored patient looked up by id and its
+ * fields compared, so hash collisions never merge two different people.
+ * <p>
+ * A table for millions of patients is far larger than the CPU caches, so
+ * registering one row at a time costs a cache miss per row. Bulk imports use
+ * {@link #findOrRegisterAll}, which first groups the rows by the region of
+ * the table they hash to and then works through one region at a time.
+ * <p>
+ * Entries are not updated when a stored patient changes or disappears; the
+ * comparison against the current stored patient skips such stale entries.
+ * All methods are synchronized.
+ */
+public final class PatientDeduplicator {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final float LOAD_FACTOR = 0.75f;
+    // Bulk registration works through the table in regions of 2^12 slots (32 KB).
+    private static final int REGION_BITS = 12;
+
+    private final IntFunction<Patient> lookup;
+    private long[] slots;
+    private int mask;
+    private int shift;
+    private int size;
+    private int resizeThreshold;
+
+    /**
+     * @param lookup resolves a registered id to the stored patient, or {@code null} if it is gone
+     */
+    public PatientDeduplicator(IntFunction<Patient> lookup) {
+        this(lookup, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param lookup       resolves a registered id to the stored patient, or {@code null} if it is gone
+     * @param expectedSize number of patients expected to be registered
+     */
+    public PatientDeduplicator(IntFunction<Patient> lookup, int expectedSize) {
+        this.lookup = Objects.requireNonNull(lookup, "lookup must not be null");
+        allocate(IntHashMap.tableSizeFor(expectedSize));
+    }
+
+    private void allocate(int capacity) {
+        slots = new long[capacity];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(mask);
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * @return number of registered entries, including stale ones
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the stored patient with the same fingerprint, or registers
+     * {@code patient} as new.
+     *
+     * @param patient patient about to be stored
+     * @return the stored duplicate, or {@code null} if {@code patient} was registered
+     */
+    public synchronized Patient findOrRegister(Patient patient) {
+        int hash = fingerprint(patient);
+        int pos = IntHashMap.slot(hash, shift);
+        long slot;
+        while ((slot = slots[pos]) != 0) {
+            if ((int) (slot >>> 32) == hash) {
+                Patient existing = lookup.apply((int) slot);
+                if (existing != null && sameFingerprint(existing, patient)) {
+                    return existing.getId() == patient.getId() ? null : existing;
+                }
+            }
+            pos = (pos + 1) & mask;
+        }
+        insertAt(pos, entry(hash, patient.getId()));
+        return null;
+    }
+
+    /**
+     * Registers a batch of patients that are about to be stored together.
+     * <p>
+     * The result is the same as calling {@link #findOrRegister} for each
+     * patient in order: a patient that duplicates a stored patient or an
+     * earlier patient of the batch is not registered. The fingerprints are
+     * computed up front, a stable counting sort groups them by table
+     * region, and each region is then probed while it is in cache. Patients
+     * with equal fingerprints land in the same region in batch order, so
+     * duplicates within the batch are found there too.
+     *
+     * @param patients patients about to be stored, none of them stored yet
+     * @return for each patient, the patient it duplicates, or {@code null} if it was registered
+     */
+    public synchronized Patient[] findOrRegisterAll(List<Patient> patients) {
+        int count = patients.size();
+        Patient[] duplicates = new Patient[count];
+        if (size + (long) count > resizeThreshold) {
+            rehash(IntHashMap.tableSizeFor((int) Math.min(Integer.MAX_VALUE, size + (long) count)));
+        }
+
+        // Fingerprints are independent of each other and of the table, so they are computed in parallel chunks.
+        long[] entries = new long[count];
+        IntStream.range(0, (count + BulkValidator.CHUNK_SIZE - 1) / BulkValidator.CHUNK_SIZE).parallel().forEach(c -> {
+            int to = Math.min(count, (c + 1) * BulkValidator.CHUNK_SIZE);
+            for (int i = c * BulkValidator.CHUNK_SIZE; i < to; i++) {
+                Patient patient = patients.get(i);
+                entries[i] = entry(fingerprint(patient), patient.getId());
+            }
+        });
+
+        // Stable counting sort of the entries, with their batch positions, by table region.
+        int regionShift = Math.min(REGION_BITS, 32 - shift);
+        int[] regionStart = new int[(slots.length >>> regionShift) + 1];
+        for (long entry : entries) {
+            regionStart[(home(entry) >>> regionShift) + 1]++;
+        }
+        for (int r = 1; r < regionStart.length; r++) {
+            regionStart[r] += regionStart[r - 1];
+        }
+        long[] sorted = new long[count];
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            int k = regionStart[home(entries[i]) >>> regionShift]++;
+            sorted[k] = entries[i];
+            positions[k] = i;
+        }
+
+        // Batch positions of the entries registered in the current region, by patient id.
+        IntIntHashMap registered = new IntIntHashMap(2 * count / (regionStart.length - 1), -1);
+        int region = -1;
+        for (int k = 0; k < count; k++) {
+            long entry = sorted[k];
+            int pos = home(entry);
+            if (pos >>> regionShift != region) {
+                region = pos >>> regionShift;
+                registered.clear();
+            }
+            Patient duplicate = null;
+            long slot;
+            while ((slot = slots[pos]) != 0) {
+                if ((int) (slot >>> 32) == (int) (entry >>> 32)) {
+                    int earlier = registered.get((int) slot);
+                    Patient existing = earlier >= 0 ? patients.get(earlier) : lookup.apply((int) slot);
+                    if (existing != null && sameFingerprint(existing, patients.get(positions[k]))) {
+                        duplicate = existing;
+                        break;
+                    }
+                }
+                pos = (pos + 1) & mask;
+            }
+            if (duplicate == null) {
+                insertAt(pos, entry);
+                registered.put((int) entry, positions[k]);
+            } else if (duplicate.getId() != (int) entry) {
+                duplicates[positions[k]] = duplicate;
+            }
+        }
+        return duplicates;
+    }
+
+    private void insertAt(int pos, long entry) {
+        slots[pos] = entry;
+        if (++size > resizeThreshold) {
+            rehash(slots.length << 1);
+        }
+    }
+
+    private int home(long entry) {
+        return IntHashMap.slot((int) (entry >>> 32), shift);
+    }
+
+    /**
+     * Drops the entry of a patient that is being removed.
+     *
+     * @param patient the removed patient, with the fields it was registered with
+     * @return {@code true} if an entry was dropped
+     */
+    public synchronized boolean forget(Patient patient) {
+        long wanted = entry(fingerprint(patient), patient.getId());
+        int pos = home(wanted);
+        long slot;
+        while ((slot = slots[pos]) != 0) {
+            if (slot == wanted) {
+                shiftSlots(pos);
+                size--;
+                return true;
+            }
+            pos = (pos + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Drops the entry registered for a patient that then failed to be
+     * stored. The entry is kept if the stored patient with the same id has
+     * the same fingerprint, since it then belongs to that patient.
+     *
+     * @param patient the patient whose store failed
+     * @return {@code true} if an entry was dropped
+     */
+    public synchronized boolean forgetUnstored(Patient patient) {
+        Patient stored = lookup.apply(patient.getId());
+        return (stored == null || !sameFingerprint(stored, patient)) && forget(patient);
+    }
+
+    private static long entry(int hash, int id) {
+        return ((long) hash << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    // Backward-shift deletion, as in IntHashMap.
+    private void shiftSlots(int pos) {
+        while (true) {
+            int last = pos;
+            pos = (pos + 1) & mask;
+            long slot;
+            while (true) {
+                slot = slots[pos];
+                if (slot == 0) {
+                    slots[last] = 0;
+                    return;
+                }
+                int home = home(slot);
+                if (last <= pos ? last >= home || home > pos : last >= home && home > pos) {
+                    break;
+                }
+                pos = (pos + 1) & mask;
+            }
+            slots[last] = slot;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        long[] old = slots;
+        allocate(newCapacity);
+        for (long slot : old) {
+            if (slot != 0) {
+                int pos = home(slot);
+                while (slots[pos] != 0) {
+                    pos = (pos + 1) & mask;
+                }
+                slots[pos] = slot;
+            }
+        }
+    }
+
+    /**
+     * Hashes the normalized name, age and disease of {@code patient}. Never
+     * returns 0, so a stored entry is never mistaken for a free slot.
+     *
+     * @param patient patient to fingerprint
+     * @return the fingerprint hash
+     */
+    static int fingerprint(Patient patient) {
+        long h = hashText(patient.getAge(), patient.getName());
+        h = hashText(31 * h + '|', patient.getDisease());
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        int hash = (int) (h ^ (h >>> 32));
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static long hashText(long h, String text) {
+        if (text == null) {
+            return h;
+        }
+        int end = trimmedEnd(text);
+        for (int i = skipSpace(text, 0); i < end; i++) {
+            char c = text.charAt(i);
+            if (c > ' ' && c < 0x80) {
+                // Printable ASCII, the common case: lower-case letters without a table lookup.
+                if (c >= 'A' && c <= 'Z') {
+                    c += 'a' - 'A';
+                }
+            } else if (Character.isWhitespace(c)) {
+                c = ' ';
+                i = skipSpace(text, i) - 1;
+            } else {
+                c = Character.toLowerCase(c);
+            }
+            h = 31 * h + c;
+        }
+        return h;
+    }
+
+    /**
+     * @return {@code true} if both patients have the same normalized name, age and disease
+     */
+    static boolean sameFingerprint(Patient a, Patient b) {
+        return a.getAge() == b.getAge() && sameText(a.getName(), b.getName())
+                && sameText(a.getDisease(), b.getDisease());
+    }
+
+    private static boolean sameText(String a, String b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        int endA = trimmedEnd(a);
+        int endB = trimmedEnd(b);
+        int i = skipSpace(a, 0);
+        int j = skipSpace(b, 0);
+        // Whitespace inside [start, end) is always followed by a visible character.
+        while (i < endA && j < endB) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(j);
+            boolean spaceA = Character.isWhitespace(ca);
+            if (spaceA != Character.isWhitespace(cb)) {
+                return false;
+            }
+            if (spaceA) {
+                i = skipSpace(a, i);
+                j = skipSpace(b, j);
+            } else if (ca == cb || Character.toLowerCase(ca) == Character.toLowerCase(cb)) {
+                i++;
+                j++;
+            } else {
+                return false;
+            }
+        }
+        return i == endA && j == endB;
+    }
+
+    private static int skipSpace(String text, int from) {
+        while (from < text.length() && Character.isWhitespace(text.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    private static int trimmedEnd(String text) {
+        int end = text.length();
+        while (end > 0 && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,183 @@
+package com.airtribe.meditrack.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Storage contract used by the services.
+ * <p>
+ * {@link DataStore} is the default in-memory implementation; alternative
+ * backends (off-heap storage, an embedded SQL database) implement the same
+ * operations so that services can switch storage without changing their
+ * public API. {@link RepositoryFactory} picks the backend from configuration.
+ *
+ * @param <T> entity type
+ */
+public interface Repository<T> {
+
+    /**
+     * Stores {@code item}.
+     *
+     * @param item the item to store, must not be null
+     */
+    void add(T item);
+
+    /**
+     * Stores every item of {@code batch}. Implementations may do this under a
+     * single lock acquisition.
+     *
+     * @param batch the items to store, none of which may be null
+     */
+    default void addAll(Collection<? extends T> batch) {
+        for (T item : batch) {
+            add(item);
+        }
+    }
+
+    /**
+     * Persists changes made to an already stored item, such as an appointment
+     * status change. In-memory implementations hold the item itself, so the
+     * default does nothing.
+     *
+     * @param item the modified item
+     */
+    default void update(T item) {
+    }
+
+    /**
+     * Removes {@code item} from the repository.
+     *
+     * @param item the item to remove
+     * @return {@code true} if the item was stored
+     */
+    boolean remove(T item);
+
+    /**
+     * Removes every item of {@code batch}. Implementations may do this in a
+     * single pass over the stored items.
+     *
+     * @param batch the items to remove
+     * @return number of items that were stored
+     */
+    default int removeAll(Collection<? extends T> batch) {
+        int removed = 0;
+        for (T item : batch) {
+            if (remove(item)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Returns a snapshot of all stored items.
+     *
+     * @return unmodifiable list of items
+     */
+    List<T> getAll();
+
+    /**
+     * Looks up an item by its primary id.
+     *
+     * @param id the primary id
+     * @return the item, or empty if none is stored under {@code id}
+     */
+    Optional<T> findById(int id);
+
+    /**
+     * @return number of stored items
+     */
+    int size();
+
+    /**
+     * Returns the stored items that satisfy {@code filter}. {@code rowHint}
+     * is text that the stored row of every match contains, ignoring case, or
+     * {@code null} if there is none; backends that keep items as text rows
+     * use it to skip rows without materializing them. The default filters
+     * {@link #getAll()}.
+     *
+     * @param rowHint text every matching row contains, or {@code null}
+     * @param filter  the condition items must satisfy
+     * @return the matching items
+     */
+    default List<T> findMatching(String rowHint, Predicate<? super T> filter) {
+        return getAll().stream().filter(filter).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the stored items whose {@code column} holds exactly
+     * {@code value} and that satisfy {@code filter}. {@code filter} must
+     * express the same condition; backends that index the column answer with
+     * an equality lookup, and the default treats {@code value} as the row
+     * hint of {@link #findMatching}.
+     *
+     * @param column name of the stored field, e.g. {@code "specialization"}
+     * @param value  the field value as stored
+     * @param filter the same condition on items
+     * @return the matching items
+     */
+    default List<T> findByColumn(String column, String value, Predicate<? super T> filter) {
+        return findMatching(value, filter);
+    }
+
+    /**
+     * Returns the largest id stored. The default scans {@link #getAll()};
+     * backends with an ordered id index answer without materializing items.
+     *
+     * @param idFunction extracts the primary id of an item
+     * @return the largest id, or 0 if the repository is empty
+     */
+    default int maxId(ToIntFunction<? super T> idFunction) {
+        int max = 0;
+        for (T item : getAll()) {
+            max = Math.max(max, idFunction.applyAsInt(item));
+        }
+        return max;
+    }
+
+    /**
+     * Writes every stored item to {@code out} as one UTF-8 line made by
+     * {@code formatter}, in {@link #getAll()} order. The default formats
+     * {@link #getAll()}; backends that keep items as text rows copy the
+     * unchanged rows without materializing them.
+     *
+     * @param formatter turns an item into its row, e.g. {@code CSVUtil::toCsvLine}
+     * @param out       receives the rows; it is neither flushed nor closed
+     * @throws IOException if writing fails
+     */
+    default void writeRows(Function<? super T, String> formatter, OutputStream out) throws IOException {
+        byte[] lineSeparator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+        for (T item : getAll()) {
+            out.write(formatter.apply(item).getBytes(StandardCharsets.UTF_8));
+            out.write(lineSeparator);
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} items following {@code cursor}, so large
+     * stores can be listed without copying them. The cursor format belongs to
+     * the implementation. The default slices a full {@link #getAll()} copy;
+     * backends override it to read only one page.
+     *
+     * @param cursor {@link Page#getNextCursor()} of the previous page, or {@code null} for the first page
+     * @param limit  maximum number of items on the page
+     * @return the page
+     * @throws IllegalArgumentException if the cursor is malformed or {@code limit} is not positive
+     */
+    default Page<T> page(String cursor, int limit) {
+        List<T> all = getAll();
+        int from = Page.parsePosition(cursor);
+        int to = (int) Math.min(all.size(), (long) from + Page.checkLimit(limit));
+        List<T> items = from >= to ? List.of() : new ArrayList<>(all.subList(from, to));
+        return new Page<>(items, to < all.size() ? Integer.toString(to) : null);
+    }
+}
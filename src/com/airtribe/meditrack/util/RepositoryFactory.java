@@ -0,0 +1,154 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.Patient;
+import java.nio.file.Paths;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Creates the repositories used by the services according to configuration.
+ * <p>
+ * The backend is chosen with the {@code meditrack.store} system property:
+ * {@code memory} (default) keeps everything in {@link DataStore}s that are
+ * loaded from and saved to CSV, {@code jdbc} stores everything in an embedded
+ * database at {@code meditrack.jdbc.url}. In memory mode patients can still be
+ * moved off-heap with {@code meditrack.patients.offheap=true}, or patients and
+ * doctors can be read from their CSV files on demand with
+ * {@code meditrack.lazy=true} (see {@link MappedCsvRepository}); those are
+ * always cached, with {@link Constants#DEFAULT_LAZY_CACHE_SIZE} entries unless
+ * {@code meditrack.cache.size} says otherwise.
+ * <p>
+ * With {@code meditrack.cache.size} greater than zero, every repository is
+ * wrapped in a {@link CachingRepository} of that size. The database backend
+ * uses a cache of {@link Constants#DEFAULT_JDBC_CACHE_SIZE} by default;
+ * in-memory stores are already hash-indexed and are not cached by default.
+ */
+public final class RepositoryFactory implements AutoCloseable {
+
+    /**
+     * Available storage backends.
+     */
+    public enum Backend {
+        MEMORY,
+        JDBC
+    }
+
+    private final Backend backend;
+    private final boolean offHeapPatients;
+    private final boolean lazy;
+    private final JdbcDatabase database;
+    private final int cacheSize;
+
+    /**
+     * @param backend         the backend to create repositories for
+     * @param jdbcUrl         database url, used only by {@link Backend#JDBC}
+     * @param offHeapPatients whether memory mode keeps patients off-heap
+     */
+    public RepositoryFactory(Backend backend, String jdbcUrl, boolean offHeapPatients) {
+        this(backend, jdbcUrl, offHeapPatients, backend == Backend.JDBC ? Constants.DEFAULT_JDBC_CACHE_SIZE : 0);
+    }
+
+    /**
+     * @param backend         the backend to create repositories for
+     * @param jdbcUrl         database url, used only by {@link Backend#JDBC}
+     * @param offHeapPatients whether memory mode keeps patients off-heap
+     * @param cacheSize       records cached per repository, 0 for no cache
+     */
+    public RepositoryFactory(Backend backend, String jdbcUrl, boolean offHeapPatients, int cacheSize) {
+        this(backend, jdbcUrl, offHeapPatients, cacheSize, false);
+    }
+
+    /**
+     * @param backend         the backend to create repositories for
+     * @param jdbcUrl         database url, used only by {@link Backend#JDBC}
+     * @param offHeapPatients whether memory mode keeps patients off-heap
+     * @param cacheSize       records cached per repository, 0 for no cache
+     * @param lazy            whether memory mode reads patients and doctors from their CSV files on demand
+     */
+    public RepositoryFactory(Backend backend, String jdbcUrl, boolean offHeapPatients, int cacheSize, boolean lazy) {
+        this.cacheSize = cacheSize;
+        this.backend = backend;
+        this.offHeapPatients = offHeapPatients;
+        this.lazy = lazy && backend == Backend.MEMORY;
+        this.database = backend == Backend.JDBC ? new JdbcDatabase(jdbcUrl) : null;
+    }
+
+    /**
+     * Reads the backend configuration from system properties.
+     *
+     * @return a factory for the configured backend
+     */
+    public static RepositoryFactory fromSystemProperties() {
+        Backend backend = Backend.valueOf(
+                System.getProperty(Constants.STORE_BACKEND_PROPERTY, "memory").trim().toUpperCase());
+        return new RepositoryFactory(backend,
+                System.getProperty(Constants.JDBC_URL_PROPERTY, Constants.DEFAULT_JDBC_URL),
+                Boolean.getBoolean(Constants.OFF_HEAP_PATIENTS_PROPERTY),
+                Integer.getInteger(Constants.CACHE_SIZE_PROPERTY,
+                        backend == Backend.JDBC ? Constants.DEFAULT_JDBC_CACHE_SIZE : 0),
+                Boolean.getBoolean(Constants.LAZY_LOAD_PROPERTY));
+    }
+
+    public Backend getBackend() {
+        return backend;
+    }
+
+    /**
+     * @return {@code true} if the repositories persist by themselves and the
+     *         CSV files should neither be loaded nor saved
+     */
+    public boolean isPersistent() {
+        return backend == Backend.JDBC;
+    }
+
+    /**
+     * @return {@code true} if patients and doctors are read from their CSV
+     *         files on demand and must not be loaded into the services
+     */
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    public Repository<Doctor> doctors() {
+        if (lazy) {
+            return onDemand(Constants.DOCTOR_FILE, CSVUtil::parseDoctor, Doctor::getId);
+        }
+        return cached(database != null ? new JdbcDoctorRepository(database) : new DataStore<>(Doctor::getId),
+                Doctor::getId);
+    }
+
+    public Repository<Patient> patients() {
+        if (database != null) {
+            return cached(new JdbcPatientRepository(database), Patient::getId);
+        }
+        if (lazy) {
+            return onDemand(Constants.PATIENT_FILE, CSVUtil::parsePatient, Patient::getId);
+        }
+        return cached(offHeapPatients ? new OffHeapPatientStore() : new DataStore<>(Patient::getId), Patient::getId);
+    }
+
+    public Repository<Appointment> appointments() {
+        return cached(database != null
+                ? new JdbcAppointmentRepository(database)
+                : new DataStore<>(Appointment::getAppointmentId), Appointment::getAppointmentId);
+    }
+
+    private <T> Repository<T> onDemand(String file, Function<String, T> parser, ToIntFunction<T> idFunction) {
+        return new CachingRepository<>(new MappedCsvRepository<>(Paths.get(file), parser, idFunction), idFunction,
+                cacheSize > 0 ? cacheSize : Constants.DEFAULT_LAZY_CACHE_SIZE);
+    }
+
+    private <T> Repository<T> cached(Repository<T> store, ToIntFunction<T> idFunction) {
+        return cacheSize > 0 ? new CachingRepository<>(store, idFunction, cacheSize) : store;
+    }
+
+    @Override
+    public void close() {
+        if (database != null) {
+            database.close();
+        }
+    }
+}
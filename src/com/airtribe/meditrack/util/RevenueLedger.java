@@ -0,0 +1,482 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.constants.Constants;
+import com.airtribe.meditrack.entity.Appointment;
+import com.airtribe.meditrack.entity.AppointmentStatus;
+import com.airtribe.meditrack.entity.Doctor;
+import com.airtribe.meditrack.entity.RevenueSummary;
+import com.airtribe.meditrack.entity.Specialization;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Revenue, tax, cancellation and utilization figures per doctor and day,
+ * kept up to date as appointments are booked and cancelled.
+ * <p>
+ * Counters are plain {@code long}s (amounts in cents) in one dense block
+ * per month, indexed by doctor slot and day of month. A booking or
+ * cancellation adds to one cell under that month's lock; a report copies the
+ * blocks of the months it covers and sums doctors into specializations as
+ * needed, so its cost depends on the number of doctors and days, not on the
+ * number of appointments.
+ * <p>
+ * {@link #addAll(List)} loads existing appointments with a fork-join
+ * reduction: leaves accumulate their share of the list into a private dense
+ * array over (doctor, day) that is summed pairwise on the way up, so no
+ * counter is shared between threads until the result is merged into the
+ * month blocks. Utilization is measured against
+ * {@code dailyLimit} appointments per doctor per day, for the doctors the
+ * ledger has seen.
+ */
+public final class RevenueLedger {
+
+    /**
+     * How report rows are grouped.
+     */
+    public enum Grouping {
+        DOCTOR,
+        SPECIALIZATION
+    }
+
+    private static final int ACTIVE = 0;
+    private static final int CANCELLED = 1;
+    private static final int FEE = 2;
+    private static final int TAX = 3;
+    private static final int FIELDS = 4;
+    private static final int MONTH_DAYS = 31;
+
+    private static final int MIN_LEAF = 1 << 15;
+    // bound on the leaf accumulators of one addAll pass, which decides how far the list is split
+    private static final long ACCUMULATOR_BUDGET_BYTES = 256L << 20;
+
+    private final int dailyLimit;
+    private final ForkJoinPool pool;
+
+    // copy-on-write, replaced under registerLock
+    private volatile Doctors doctors = new Doctors();
+    private final Object registerLock = new Object();
+
+    // year * 12 + month - 1 -> counters of that month
+    private final ConcurrentHashMap<Integer, MonthBlock> months = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a ledger that loads appointments on the common fork-join pool.
+     *
+     * @param dailyLimit appointments a doctor can take per day, the basis of utilization
+     */
+    public RevenueLedger(int dailyLimit) {
+        this(dailyLimit, ForkJoinPool.commonPool());
+    }
+
+    public RevenueLedger(int dailyLimit, ForkJoinPool pool) {
+        if (dailyLimit <= 0) {
+            throw new IllegalArgumentException("dailyLimit must be positive");
+        }
+        this.dailyLimit = dailyLimit;
+        this.pool = pool;
+    }
+
+    /**
+     * Counts a new appointment.
+     */
+    public void booked(Appointment appointment) {
+        Doctor doctor = appointment.getDoctor();
+        LocalDate date = appointment.getAppointmentDate();
+        if (doctor == null || date == null) {
+            return;
+        }
+        int slot = slotOf(doctor);
+        Doctors known = doctors;
+        if (appointment.getStatus() == AppointmentStatus.CANCELLED) {
+            monthOf(date).add(slot, date.getDayOfMonth() - 1, 0, 1, 0, 0);
+        } else {
+            monthOf(date).add(slot, date.getDayOfMonth() - 1, 1, 0, known.feeCents[slot], known.taxCents[slot]);
+        }
+    }
+
+    /**
+     * Moves an appointment counted by {@link #booked} from active to
+     * cancelled; call once, when its status changes.
+     */
+    public void cancelled(Appointment appointment) {
+        Doctor doctor = appointment.getDoctor();
+        LocalDate date = appointment.getAppointmentDate();
+        if (doctor == null || date == null) {
+            return;
+        }
+        int slot = slotOf(doctor);
+        Doctors known = doctors;
+        monthOf(date).add(slot, date.getDayOfMonth() - 1, -1, 1, -known.feeCents[slot], -known.taxCents[slot]);
+    }
+
+    /**
+     * Counts a batch of appointments with a parallel reduction.
+     *
+     * @param appointments appointments to count; must support fast random access
+     */
+    public void addAll(List<Appointment> appointments) {
+        if (appointments.isEmpty()) {
+            return;
+        }
+        int size = appointments.size();
+        Span span = pool.invoke(new SpanTask(appointments, 0, size,
+                Math.max(MIN_LEAF, size / (4 * pool.getParallelism()))));
+        if (span.firstDay > span.lastDay) {
+            return; // nothing dated
+        }
+        register(span.newDoctors);
+        Doctors known = doctors;
+
+        // A span too long for one accumulator within the budget is reduced in windows, one pass each.
+        long budgetCells = ACCUMULATOR_BUDGET_BYTES / Long.BYTES / FIELDS;
+        int windowDays = (int) Math.min(span.lastDay - span.firstDay + 1, Math.max(1, budgetCells / known.size));
+        for (long windowStart = span.firstDay; windowStart <= span.lastDay; windowStart += windowDays) {
+            int days = (int) Math.min(windowDays, span.lastDay - windowStart + 1);
+            long accumulatorCells = (long) known.size * days;
+            int leaves = (int) Math.max(1, Math.min(4L * pool.getParallelism(), budgetCells / accumulatorCells));
+            int leafSize = Math.max(MIN_LEAF, (size + leaves - 1) / leaves);
+            long[] totals = pool.invoke(new AccumulateTask(appointments, 0, size, leafSize, known, windowStart, days));
+
+            // hand each month its days, taking every month lock once
+            LocalDate first = LocalDate.ofEpochDay(windowStart);
+            int offset = 0;
+            while (offset < days) {
+                LocalDate day = first.plusDays(offset);
+                int count = Math.min(days - offset, day.lengthOfMonth() - day.getDayOfMonth() + 1);
+                monthOf(day).merge(totals, known.size, days, offset, day.getDayOfMonth() - 1, count);
+                offset += count;
+            }
+        }
+    }
+
+    /**
+     * Returns one row per day and group for the days between {@code from}
+     * and {@code to}, both inclusive. Groups without appointments that day
+     * are left out.
+     */
+    public List<RevenueSummary> daily(LocalDate from, LocalDate to, Grouping grouping) {
+        List<RevenueSummary> rows = new ArrayList<>();
+        Doctors known = doctors;
+        for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+            long[] counters = snapshot(month, known.size);
+            LocalDate start = from.isAfter(month.atDay(1)) ? from : month.atDay(1);
+            LocalDate end = to.isBefore(month.atEndOfMonth()) ? to : month.atEndOfMonth();
+            for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+                summarize(counters, known, day.getDayOfMonth() - 1, day.getDayOfMonth() - 1, day, day, grouping, rows);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Returns one row per month and group for the months between
+     * {@code from} and {@code to}, both inclusive. Groups without
+     * appointments that month are left out.
+     */
+    public List<RevenueSummary> monthly(YearMonth from, YearMonth to, Grouping grouping) {
+        List<RevenueSummary> rows = new ArrayList<>();
+        Doctors known = doctors;
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            long[] counters = snapshot(month, known.size);
+            summarize(counters, known, 0, month.lengthOfMonth() - 1, month.atDay(1), month.atEndOfMonth(),
+                    grouping, rows);
+        }
+        return rows;
+    }
+
+    private void summarize(long[] counters, Doctors known, int firstDay, int lastDay, LocalDate periodStart,
+                           LocalDate periodEnd, Grouping grouping, List<RevenueSummary> rows) {
+        long dayCapacity = (long) dailyLimit * (lastDay - firstDay + 1);
+        if (grouping == Grouping.DOCTOR) {
+            long[] sum = new long[FIELDS];
+            for (int slot = 0; slot < known.size; slot++) {
+                Arrays.fill(sum, 0);
+                addDays(counters, slot, firstDay, lastDay, sum);
+                if (sum[ACTIVE] != 0 || sum[CANCELLED] != 0) {
+                    Doctor doctor = known.bySlot[slot];
+                    rows.add(new RevenueSummary(doctor.getName() + " (#" + doctor.getId() + ")", periodStart,
+                            periodEnd, sum[ACTIVE], sum[CANCELLED], sum[FEE], sum[TAX], dayCapacity));
+                }
+            }
+            return;
+        }
+        Specialization[] specializations = Specialization.values();
+        long[][] sums = new long[specializations.length][FIELDS];
+        int[] doctorCounts = new int[specializations.length];
+        for (int slot = 0; slot < known.size; slot++) {
+            Specialization specialization = known.bySlot[slot].getSpecialization();
+            if (specialization != null) {
+                addDays(counters, slot, firstDay, lastDay, sums[specialization.ordinal()]);
+                doctorCounts[specialization.ordinal()]++;
+            }
+        }
+        for (Specialization specialization : specializations) {
+            long[] sum = sums[specialization.ordinal()];
+            if (sum[ACTIVE] != 0 || sum[CANCELLED] != 0) {
+                rows.add(new RevenueSummary(specialization.name(), periodStart, periodEnd, sum[ACTIVE],
+                        sum[CANCELLED], sum[FEE], sum[TAX], dayCapacity * doctorCounts[specialization.ordinal()]));
+            }
+        }
+    }
+
+    private static void addDays(long[] counters, int slot, int firstDay, int lastDay, long[] sum) {
+        for (int day = firstDay; day <= lastDay; day++) {
+            int base = (slot * MONTH_DAYS + day) * FIELDS;
+            for (int field = 0; field < FIELDS; field++) {
+                sum[field] += counters[base + field];
+            }
+        }
+    }
+
+    private long[] snapshot(YearMonth month, int slots) {
+        MonthBlock block = months.get(month.getYear() * 12 + month.getMonthValue() - 1);
+        return block == null ? new long[slots * MONTH_DAYS * FIELDS] : block.copy(slots);
+    }
+
+    private MonthBlock monthOf(LocalDate date) {
+        return months.computeIfAbsent(date.getYear() * 12 + date.getMonthValue() - 1, k -> new MonthBlock());
+    }
+
+    private int slotOf(Doctor doctor) {
+        int slot = doctors.slotOf.get(doctor.getId());
+        if (slot >= 0) {
+            return slot;
+        }
+        IntHashMap<Doctor> single = new IntHashMap<>();
+        single.put(doctor.getId(), doctor);
+        register(single);
+        return doctors.slotOf.get(doctor.getId());
+    }
+
+    private void register(IntHashMap<Doctor> candidates) {
+        if (candidates.isEmpty()) {
+            return;
+        }
+        synchronized (registerLock) {
+            doctors = doctors.with(candidates.values());
+        }
+    }
+
+    // Same rounding as Bill: tax on the fee, half up to the cent.
+    private static long taxCents(long feeCents) {
+        return BigDecimal.valueOf(feeCents).multiply(BigDecimal.valueOf(Constants.TAX_RATE))
+                .setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Immutable registry of doctors by slot, with their fee and tax per
+     * appointment precomputed.
+     */
+    private static final class Doctors {
+        final int size;
+        final IntIntHashMap slotOf;
+        final Doctor[] bySlot;
+        final long[] feeCents;
+        final long[] taxCents;
+
+        Doctors() {
+            this(0, new IntIntHashMap(0, -1), new Doctor[0], new long[0], new long[0]);
+        }
+
+        private Doctors(int size, IntIntHashMap slotOf, Doctor[] bySlot, long[] feeCents, long[] taxCents) {
+            this.size = size;
+            this.slotOf = slotOf;
+            this.bySlot = bySlot;
+            this.feeCents = feeCents;
+            this.taxCents = taxCents;
+        }
+
+        Doctors with(List<Doctor> candidates) {
+            int capacity = size + candidates.size();
+            IntIntHashMap slots = new IntIntHashMap(capacity, -1);
+            Doctor[] doctors = Arrays.copyOf(bySlot, capacity);
+            long[] fees = Arrays.copyOf(feeCents, capacity);
+            long[] taxes = Arrays.copyOf(taxCents, capacity);
+            for (int slot = 0; slot < size; slot++) {
+                slots.put(bySlot[slot].getId(), slot);
+            }
+            int next = size;
+            for (Doctor doctor : candidates) {
+                if (slots.containsKey(doctor.getId())) {
+                    continue; // registered concurrently
+                }
+                slots.put(doctor.getId(), next);
+                doctors[next] = doctor;
+                fees[next] = Math.round(doctor.getConsultationFee() * 100);
+                taxes[next] = taxCents(fees[next]);
+                next++;
+            }
+            return new Doctors(next, slots, doctors, fees, taxes);
+        }
+    }
+
+    /**
+     * Counters of one month, {@code (slot * 31 + dayOfMonth - 1) * FIELDS + field}.
+     */
+    private static final class MonthBlock {
+
+        private long[] counters = new long[0];
+
+        synchronized void add(int slot, int day, long active, long cancelled, long fee, long tax) {
+            int base = (slot * MONTH_DAYS + day) * FIELDS;
+            ensureCapacity(base + FIELDS);
+            counters[base + ACTIVE] += active;
+            counters[base + CANCELLED] += cancelled;
+            counters[base + FEE] += fee;
+            counters[base + TAX] += tax;
+        }
+
+        // Adds days [offset, offset + count) of a (slot, day) accumulator as days [dayOfMonth, ...) of this month.
+        synchronized void merge(long[] totals, int slots, int days, int offset, int dayOfMonth, int count) {
+            ensureCapacity(slots * MONTH_DAYS * FIELDS);
+            for (int slot = 0; slot < slots; slot++) {
+                int from = (slot * days + offset) * FIELDS;
+                int to = (slot * MONTH_DAYS + dayOfMonth) * FIELDS;
+                for (int i = 0; i < count * FIELDS; i++) {
+                    counters[to + i] += totals[from + i];
+                }
+            }
+        }
+
+        synchronized long[] copy(int slots) {
+            return Arrays.copyOf(counters, Math.max(counters.length, slots * MONTH_DAYS * FIELDS));
+        }
+
+        private void ensureCapacity(int length) {
+            if (counters.length < length) {
+                counters = Arrays.copyOf(counters, Math.max(length, counters.length * 2));
+            }
+        }
+    }
+
+    /**
+     * Dated range and doctors not yet registered, for a slice of the list.
+     */
+    private static final class Span {
+        long firstDay = Long.MAX_VALUE;
+        long lastDay = Long.MIN_VALUE;
+        final IntHashMap<Doctor> newDoctors = new IntHashMap<>();
+
+        Span merge(Span other) {
+            firstDay = Math.min(firstDay, other.firstDay);
+            lastDay = Math.max(lastDay, other.lastDay);
+            other.newDoctors.forEach((id, doctor) -> {
+                if (!newDoctors.containsKey(id)) {
+                    newDoctors.put(id, doctor);
+                }
+            });
+            return this;
+        }
+    }
+
+    private final class SpanTask extends RecursiveTask<Span> {
+        private final List<Appointment> appointments;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        SpanTask(List<Appointment> appointments, int from, int to, int leafSize) {
+            this.appointments = appointments;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected Span compute() {
+            if (to - from <= leafSize) {
+                Span span = new Span();
+                IntIntHashMap known = doctors.slotOf;
+                for (int i = from; i < to; i++) {
+                    Appointment appointment = appointments.get(i);
+                    Doctor doctor = appointment.getDoctor();
+                    LocalDate date = appointment.getAppointmentDate();
+                    if (doctor == null || date == null) {
+                        continue;
+                    }
+                    long day = date.toEpochDay();
+                    span.firstDay = Math.min(span.firstDay, day);
+                    span.lastDay = Math.max(span.lastDay, day);
+                    int id = doctor.getId();
+                    if (!known.containsKey(id) && !span.newDoctors.containsKey(id)) {
+                        span.newDoctors.put(id, doctor);
+                    }
+                }
+                return span;
+            }
+            int mid = (from + to) >>> 1;
+            SpanTask left = new SpanTask(appointments, from, mid, leafSize);
+            left.fork();
+            Span right = new SpanTask(appointments, mid, to, leafSize).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    private static final class AccumulateTask extends RecursiveTask<long[]> {
+        private final List<Appointment> appointments;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+        private final Doctors doctors;
+        private final long firstDay;
+        private final int days;
+
+        AccumulateTask(List<Appointment> appointments, int from, int to, int leafSize, Doctors doctors,
+                       long firstDay, int days) {
+            this.appointments = appointments;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.doctors = doctors;
+            this.firstDay = firstDay;
+            this.days = days;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= leafSize) {
+                long[] totals = new long[doctors.size * days * FIELDS];
+                IntIntHashMap slotOf = doctors.slotOf;
+                for (int i = from; i < to; i++) {
+                    Appointment appointment = appointments.get(i);
+                    Doctor doctor = appointment.getDoctor();
+                    LocalDate date = appointment.getAppointmentDate();
+                    if (doctor == null || date == null) {
+                        continue;
+                    }
+                    long day = date.toEpochDay() - firstDay;
+                    if (day < 0 || day >= days) {
+                        continue; // another window
+                    }
+                    int slot = slotOf.get(doctor.getId());
+                    int base = (int) ((slot * (long) days + day) * FIELDS);
+                    if (appointment.getStatus() == AppointmentStatus.CANCELLED) {
+                        totals[base + CANCELLED]++;
+                    } else {
+                        totals[base + ACTIVE]++;
+                        totals[base + FEE] += doctors.feeCents[slot];
+                        totals[base + TAX] += doctors.taxCents[slot];
+                    }
+                }
+                return totals;
+            }
+            int mid = (from + to) >>> 1;
+            AccumulateTask left = new AccumulateTask(appointments, from, mid, leafSize, doctors, firstDay, days);
+            left.fork();
+            long[] right = new AccumulateTask(appointments, mid, to, leafSize, doctors, firstDay, days).compute();
+            long[] totals = left.join();
+            for (int i = 0; i < totals.length; i++) {
+                totals[i] += right[i];
+            }
+            return totals;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.airtribe.meditrack.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonicalizing pool for low-cardinality string fields such as a
+ * patient's disease.
+ * <p>
+ * Every record loaded from a file or database gets its own copy of values
+ * like "Flu", so millions of records keep millions of equal strings alive.
+ * {@link #canonicalize(String)} returns one shared instance per distinct
+ * value instead and lets the copy be collected. Unlike {@link String#intern()}
+ * the pool is per field and bounded: once it holds {@code maximumSize}
+ * values, new values are returned unchanged rather than added, so free text
+ * cannot grow it without limit.
+ */
+public final class StringPool {
+
+    /** Pool for {@link com.airtribe.meditrack.entity.Patient#getDisease()}. */
+    public static final StringPool DISEASES = new StringPool(10_000);
+
+    private final ConcurrentHashMap<String, String> values = new ConcurrentHashMap<>();
+    private final int maximumSize;
+
+    /**
+     * @param maximumSize maximum number of distinct values kept
+     */
+    public StringPool(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be positive");
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns the pooled instance equal to {@code value}, adding
+     * {@code value} if the pool has room.
+     *
+     * @param value the string to canonicalize, may be null
+     * @return an equal string, or {@code null} if {@code value} is null
+     */
+    public String canonicalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = values.get(value);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (values.size() >= maximumSize) {
+            return value;
+        }
+        pooled = values.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+
+    /**
+     * @return number of distinct values in the pool
+     */
+    public int size() {
+        return values.size();
+    }
+
+    /**
+     * @param value a string
+     * @return whether {@code value} is the pooled instance itself
+     */
+    public boolean isCanonical(String value) {
+        return value != null && values.get(value) == value;
+    }
+
+    @Override
+    public String toString() {
+        return "StringPool{size=" + values.size() + ", maximumSize=" + maximumSize + "}";
+    }
+}
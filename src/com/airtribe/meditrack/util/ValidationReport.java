@@ -0,0 +1,213 @@
+package com.airtribe.meditrack.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects the violations found while validating a batch of records.
+ * <p>
+ * Each violation is a row number, a field name and a reason; reasons are the
+ * shared message constants of {@link Validator}, so a violation costs one
+ * small object and no stack trace.
+ * <p>
+ * A patient import with duplicate detection also lists the valid rows that
+ * were merged into an existing patient instead of being stored.
+ */
+public final class ValidationReport {
+
+    private final int totalRows;
+    private final int acceptedRows;
+    private final List<Violation> violations;
+    private final List<Merge> merges;
+
+    ValidationReport(int totalRows, int acceptedRows, List<Violation> violations) {
+        this(totalRows, acceptedRows, violations, List.of());
+    }
+
+    private ValidationReport(int totalRows, int acceptedRows, List<Violation> violations, List<Merge> merges) {
+        this.totalRows = totalRows;
+        this.acceptedRows = acceptedRows;
+        this.violations = Collections.unmodifiableList(new ArrayList<>(violations));
+        this.merges = Collections.unmodifiableList(new ArrayList<>(merges));
+    }
+
+    /**
+     * Returns this report with {@code merges} moved from the accepted rows
+     * to the merged rows.
+     *
+     * @param merges accepted rows that turned out to be duplicates, ordered by row number
+     * @return the updated report
+     */
+    public ValidationReport withMerges(List<Merge> merges) {
+        List<Merge> all = new ArrayList<>(this.merges);
+        all.addAll(merges);
+        return new ValidationReport(totalRows, acceptedRows - merges.size(), violations, all);
+    }
+
+    /**
+     * @return number of rows examined
+     */
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    /**
+     * @return number of rows that passed validation and were stored
+     */
+    public int getAcceptedRows() {
+        return acceptedRows;
+    }
+
+    /**
+     * @return number of rows rejected because of at least one violation
+     */
+    public int getRejectedRows() {
+        return totalRows - acceptedRows - merges.size();
+    }
+
+    /**
+     * @return number of valid rows merged into an existing record
+     */
+    public int getMergedRows() {
+        return merges.size();
+    }
+
+    /**
+     * @return violations ordered by row number
+     */
+    public List<Violation> getViolations() {
+        return violations;
+    }
+
+    /**
+     * @return merged rows ordered by row number
+     */
+    public List<Merge> getMerges() {
+        return merges;
+    }
+
+    public boolean hasViolations() {
+        return !violations.isEmpty();
+    }
+
+    /**
+     * @return {@code true} if any row was rejected or merged
+     */
+    public boolean hasFindings() {
+        return !violations.isEmpty() || !merges.isEmpty();
+    }
+
+    /**
+     * Renders a one-line summary followed by at most {@code limit} violations
+     * and at most {@code limit} merges.
+     *
+     * @param limit maximum number of violations and of merges to list
+     * @return the rendered report
+     */
+    public String format(int limit) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(acceptedRows).append(" of ").append(totalRows).append(" rows accepted, ")
+                .append(getRejectedRows()).append(" rejected");
+        if (!merges.isEmpty()) {
+            sb.append(", ").append(merges.size()).append(" merged into existing records");
+        }
+        appendLimited(sb, violations, limit, "violations");
+        appendLimited(sb, merges, limit, "merges");
+        return sb.toString();
+    }
+
+    private static void appendLimited(StringBuilder sb, List<?> entries, int limit, String noun) {
+        int shown = Math.min(limit, entries.size());
+        for (int i = 0; i < shown; i++) {
+            sb.append(System.lineSeparator()).append("  ").append(entries.get(i));
+        }
+        if (entries.size() > shown) {
+            sb.append(System.lineSeparator()).append("  ... ")
+                    .append(entries.size() - shown).append(" more ").append(noun);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return format(0);
+    }
+
+    /**
+     * A single failed check.
+     */
+    public static final class Violation {
+
+        private final int row;
+        private final String field;
+        private final String reason;
+
+        public Violation(int row, String field, String reason) {
+            this.row = row;
+            this.field = field;
+            this.reason = reason;
+        }
+
+        /**
+         * @return 1-based row number within the validated batch
+         */
+        public int getRow() {
+            return row;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "row " + row + ", " + field + ": " + reason;
+        }
+    }
+
+    /**
+     * A valid row that duplicates an existing record and was not stored.
+     */
+    public static final class Merge {
+
+        private final int row;
+        private final int id;
+        private final int existingId;
+
+        public Merge(int row, int id, int existingId) {
+            this.row = row;
+            this.id = id;
+            this.existingId = existingId;
+        }
+
+        /**
+         * @return 1-based row number within the imported batch
+         */
+        public int getRow() {
+            return row;
+        }
+
+        /**
+         * @return id the row carried
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * @return id of the record the row was merged into
+         */
+        public int getExistingId() {
+            return existingId;
+        }
+
+        @Override
+        public String toString() {
+            return "row " + row + ", id " + id + ": duplicate of " + existingId;
+        }
+    }
+}
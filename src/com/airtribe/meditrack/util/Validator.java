@@ -5,34 +5,74 @@ import com.airtribe.meditrack.exception.InvalidDataException;
 
 public final class Validator {
 
+    public static final String NAME_REQUIRED = "Name must not be null or empty";
+    public static final String AGE_NOT_POSITIVE = "Age must be greater than 0";
+    public static final String FEE_NOT_POSITIVE = "Consultation fee must be positive";
+    public static final String DISEASE_REQUIRED = "Disease must not be null or empty";
+
     private Validator() {
         throw new AssertionError("Validator is a utility class and cannot be instantiated");
     }
-    
+
     public static void validateName(String name) {
-        if (name == null || name.trim().isEmpty()) {
-            throw new InvalidDataException("Name must not be null or empty");
-        }
+        throwIfInvalid(checkName(name));
     }
 
-    
+
     public static void validateAge(int age) {
-        if (age <= 0) {
-            throw new InvalidDataException("Age must be greater than 0");
-        }
+        throwIfInvalid(checkAge(age));
     }
 
-    
+
     public static void validateConsultationFee(double fee) {
-        if (Double.isNaN(fee) || fee <= 0d) {
-            throw new InvalidDataException("Consultation fee must be positive");
-        }
+        throwIfInvalid(checkConsultationFee(fee));
     }
 
-    
+
     public static void validateDisease(String disease) {
-        if (disease == null || disease.trim().isEmpty()) {
-            throw new InvalidDataException("Disease must not be null or empty");
+        throwIfInvalid(checkDisease(disease));
+    }
+
+    /**
+     * Non-throwing variant of {@link #validateName(String)}.
+     *
+     * @return the violation message, or {@code null} if the name is valid
+     */
+    public static String checkName(String name) {
+        return name == null || name.trim().isEmpty() ? NAME_REQUIRED : null;
+    }
+
+    /**
+     * Non-throwing variant of {@link #validateAge(int)}.
+     *
+     * @return the violation message, or {@code null} if the age is valid
+     */
+    public static String checkAge(int age) {
+        return age <= 0 ? AGE_NOT_POSITIVE : null;
+    }
+
+    /**
+     * Non-throwing variant of {@link #validateConsultationFee(double)}.
+     *
+     * @return the violation message, or {@code null} if the fee is valid
+     */
+    public static String checkConsultationFee(double fee) {
+        return Double.isNaN(fee) || fee <= 0d ? FEE_NOT_POSITIVE : null;
+    }
+
+    /**
+     * Non-throwing variant of {@link #validateDisease(String)}.
+     *
+     * @return the violation message, or {@code null} if the disease is valid
+     */
+    public static String checkDisease(String disease) {
+        return disease == null || disease.trim().isEmpty() ? DISEASE_REQUIRED : null;
+    }
+
+    private static void throwIfInvalid(String violation) {
+        if (violation != null) {
+            // Validation failures are expected; skip the stack trace.
+            throw new InvalidDataException(violation, false);
         }
     }
 }
@@ -0,0 +1,103 @@
+package com.airtribe.meditrack.util;
+
+import com.airtribe.meditrack.entity.EntityType;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Version numbers for optimistic transactions over doctors, patients and
+ * appointments.
+ * <p>
+ * Entities are hashed onto a fixed number of stripes. Each stripe is one
+ * {@code long}: an even value is the stripe's version, an odd value means a
+ * committing transaction holds the stripe while it applies its writes.
+ * Committing bumps the version by two, so a reader that saw the same even
+ * value before and after reading an entity knows nobody wrote it meanwhile.
+ * Two entities sharing a stripe can cause a needless retry, never a missed
+ * conflict. The table needs no memory per entity.
+ */
+public final class VersionTable {
+
+    /** Stripes unless configured otherwise. */
+    public static final int DEFAULT_STRIPES = 1 << 14;
+
+    private static final int SPINS_BEFORE_YIELD = 64;
+
+    private final AtomicLongArray stripes;
+    private final int mask;
+
+    public VersionTable() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param stripeCount number of stripes, rounded up to a power of two
+     */
+    public VersionTable(int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("stripeCount must be positive: " + stripeCount);
+        }
+        int size = Integer.highestOneBit(Math.min(stripeCount, 1 << 30));
+        size = size < stripeCount ? size << 1 : size;
+        this.stripes = new AtomicLongArray(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * @return the stripe guarding the entity of the given type and id
+     */
+    public int stripeOf(EntityType type, int id) {
+        int h = id * 0x9E3779B9 + type.ordinal() * 0x85EBCA6B;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * @return the current value of the stripe, odd while it is locked
+     */
+    public long current(int stripe) {
+        return stripes.get(stripe);
+    }
+
+    /**
+     * Waits until no commit holds the stripe.
+     *
+     * @return the stripe's version
+     */
+    public long awaitUnlocked(int stripe) {
+        long value;
+        int spins = 0;
+        while (((value = stripes.get(stripe)) & 1L) != 0) {
+            if (++spins < SPINS_BEFORE_YIELD) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Locks the stripe if it is unlocked, spinning briefly if it is not.
+     *
+     * @return the version the stripe had, or {@code -1} if it stayed locked
+     */
+    public long tryLock(int stripe) {
+        for (int spins = 0; spins < SPINS_BEFORE_YIELD; spins++) {
+            long value = stripes.get(stripe);
+            if ((value & 1L) == 0 && stripes.compareAndSet(stripe, value, value + 1)) {
+                return value;
+            }
+            Thread.onSpinWait();
+        }
+        return -1;
+    }
+
+    /**
+     * Unlocks a stripe locked with {@link #tryLock}.
+     *
+     * @param version the value {@link #tryLock} returned
+     * @param written whether writes were applied, which gives the stripe a new version
+     */
+    public void unlock(int stripe, long version, boolean written) {
+        stripes.set(stripe, written ? version + 2 : version);
+    }
+}
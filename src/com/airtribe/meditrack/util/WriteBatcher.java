@@ -0,0 +1,176 @@
+package com.airtribe.meditrack.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Coalesces concurrently submitted writes into batches (group commit).
+ * <p>
+ * {@link #submit(Object)} queues an item and returns at once. At most one
+ * drain task per batcher runs on the executor; it takes up to
+ * {@code maxBatch} queued items, hands them to the {@link BatchWriter} in
+ * submission order and completes their futures. Items submitted while a
+ * batch is being written wait for the next one, so under load each store
+ * round trip carries many writes, and with a single caller a write is
+ * still sent immediately.
+ *
+ * @param <T> item type
+ */
+public final class WriteBatcher<T> implements AutoCloseable {
+
+    /**
+     * Writes one batch. Items it rejects individually are reported through
+     * {@code failures}; throwing fails the whole batch.
+     */
+    @FunctionalInterface
+    public interface BatchWriter<T> {
+        void write(List<T> batch, Throwable[] failures) throws Exception;
+    }
+
+    private final BatchWriter<T> writer;
+    private final Executor executor;
+    private final int maxBatch;
+    private final ConcurrentLinkedQueue<Pending<T>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean closed;
+
+    private long batches;
+    private long items;
+
+    /**
+     * @param writer   writes a batch to the store
+     * @param executor runs the drain task
+     * @param maxBatch largest batch handed to {@code writer}
+     */
+    public WriteBatcher(BatchWriter<T> writer, Executor executor, int maxBatch) {
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("maxBatch must be positive");
+        }
+        this.writer = Objects.requireNonNull(writer, "writer must not be null");
+        this.executor = Objects.requireNonNull(executor, "executor must not be null");
+        this.maxBatch = maxBatch;
+    }
+
+    /**
+     * Queues an item for the next batch.
+     *
+     * @param item the item to write
+     * @return completes when the batch holding {@code item} was written,
+     *         or exceptionally if it or its batch failed
+     */
+    public CompletableFuture<Void> submit(T item) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new IllegalStateException("WriteBatcher is closed"));
+            return future;
+        }
+        queue.add(new Pending<>(item, future));
+        scheduleDrain();
+        return future;
+    }
+
+    private void scheduleDrain() {
+        if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                drain(); // the executor is shutting down; write on the caller's thread
+            }
+        }
+    }
+
+    // Runs with the draining flag set.
+    private void drain() {
+        try {
+            List<Pending<T>> pending = new ArrayList<>(maxBatch);
+            List<T> batch = new ArrayList<>(maxBatch);
+            while (true) {
+                pending.clear();
+                batch.clear();
+                Pending<T> next;
+                while (pending.size() < maxBatch && (next = queue.poll()) != null) {
+                    pending.add(next);
+                    batch.add(next.item);
+                }
+                if (pending.isEmpty()) {
+                    break;
+                }
+                write(pending, batch);
+            }
+        } finally {
+            draining.set(false);
+        }
+        // An item queued after the last poll but before the flag was cleared needs a new drain.
+        scheduleDrain();
+    }
+
+    private void write(List<Pending<T>> pending, List<T> batch) {
+        Throwable[] failures = new Throwable[batch.size()];
+        Throwable batchFailure = null;
+        try {
+            writer.write(batch, failures);
+        } catch (Throwable e) {
+            batchFailure = e; // an Error too, or the futures of the batch would never complete
+        }
+        synchronized (this) {
+            batches++;
+            items += batch.size();
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            Throwable failure = batchFailure != null ? batchFailure : failures[i];
+            if (failure == null) {
+                pending.get(i).future.complete(null);
+            } else {
+                pending.get(i).future.completeExceptionally(failure);
+            }
+        }
+    }
+
+    /**
+     * @return number of batches written so far
+     */
+    public synchronized long getBatchCount() {
+        return batches;
+    }
+
+    /**
+     * @return average number of items per written batch
+     */
+    public synchronized double getAverageBatchSize() {
+        return batches == 0 ? 0 : (double) items / batches;
+    }
+
+    /**
+     * Rejects further submissions and writes everything already queued on
+     * the calling thread. Returns once no drain task is still writing, so
+     * every item submitted before the call has been written.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        // A running drain may already have taken the last items off the queue; wait for it as well.
+        while (!queue.isEmpty() || draining.get()) {
+            if (draining.compareAndSet(false, true)) {
+                drain();
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private static final class Pending<T> {
+        final T item;
+        final CompletableFuture<Void> future;
+
+        Pending(T item, CompletableFuture<Void> future) {
+            this.item = item;
+            this.future = future;
+        }
+    }
+}